@@ -0,0 +1,42 @@
+package pl.empik.complaintservice.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures extracting the client IP from the remote address or the {@code X-Forwarded-For} header.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClientIpBenchmark {
+
+    @Param({"", "203.0.113.7", "203.0.113.7, 198.51.100.2, 192.0.2.10"})
+    private String forwardedFor;
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() {
+        request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        if (!forwardedFor.isEmpty()) {
+            request.addHeader(ComplaintConstants.HEADER_X_FORWARDED_FOR, forwardedFor);
+        }
+    }
+
+    @Benchmark
+    public String extractClientIp() {
+        return ComplaintController.extractClientIp(request);
+    }
+}
@@ -0,0 +1,105 @@
+package pl.empik.complaintservice.controller;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures encoding a listing of complaints as JSON with the reflective bean serializer used before, as JSON
+ * and as Smile with the complaint serializer, each optionally gzip-compressed as by the server. The size of
+ * each encoding is printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComplaintEncodingBenchmark {
+
+    @Param({"JSON_REFLECTIVE", "JSON", "SMILE"})
+    private Encoding encoding;
+
+    @Param({"false", "true"})
+    private boolean gzip;
+
+    @Param({"1000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<ComplaintResponse> complaints;
+    private ByteArrayOutputStream buffer;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        ObjectMapper encodingMapper = switch (encoding) {
+            case JSON_REFLECTIVE -> objectMapper.addMixIn(ComplaintResponse.class, ReflectiveComplaintResponse.class);
+            case JSON -> objectMapper;
+            // As configured by SmileConfig
+            case SMILE -> objectMapper.copyWith(new SmileFactory())
+                    .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        };
+        writer = encodingMapper.writerFor(
+                TypeFactory.defaultInstance().constructCollectionType(List.class, ComplaintResponse.class));
+        complaints = new ArrayList<>(size);
+        LocalDateTime createdAt = LocalDateTime.now();
+        String[] countries = {"Poland", "Germany", "Czechia", "Unknown"};
+        for (long i = 0; i < size; i++) {
+            complaints.add(new ComplaintResponse(i, "product" + i % 100,
+                    "The product arrived damaged and does not work as described, complaint " + i,
+                    createdAt.minusSeconds(i * 37), "user" + i, countries[(int) (i % countries.length)],
+                    (int) (i % 5) + 1, i % 3));
+        }
+        buffer = new ByteArrayOutputStream(256 * size);
+        System.out.printf("%n%s%s, %d complaints: %d bytes%n", encoding, gzip ? " + gzip" : "", size, encode());
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        buffer.reset();
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(buffer, 8192)) {
+                writer.writeValue(out, complaints);
+            }
+        } else {
+            writer.writeValue(buffer, complaints);
+        }
+        return buffer.size();
+    }
+
+    public enum Encoding {
+        JSON_REFLECTIVE, JSON, SMILE
+    }
+
+    /**
+     * Restores the reflective bean serializer of {@link ComplaintResponse}.
+     */
+    @JsonSerialize(using = JsonSerializer.None.class)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private abstract static class ReflectiveComplaintResponse {
+    }
+}
@@ -0,0 +1,53 @@
+package pl.empik.complaintservice.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serializing a list of complaints with the object mapper configuration used by the controller.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComplaintJsonBenchmark {
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private ObjectWriter writer;
+    private List<ComplaintResponse> complaints;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = objectMapper.writerFor(
+                TypeFactory.defaultInstance().constructCollectionType(List.class, ComplaintResponse.class));
+        complaints = new ArrayList<>(size);
+        LocalDateTime createdAt = LocalDateTime.now();
+        for (long i = 0; i < size; i++) {
+            complaints.add(new ComplaintResponse(i, "product" + i, "Defective product " + i, createdAt,
+                    "user" + i, "Poland", 1, 0L));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return writer.writeValueAsBytes(complaints);
+    }
+}
@@ -0,0 +1,41 @@
+package pl.empik.complaintservice.model;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures mapping a complaint entity to its response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ComplaintResponseBenchmark {
+
+    private Complaint complaint;
+
+    @Setup
+    public void setUp() {
+        complaint = Complaint.builder()
+                .id(1L)
+                .productId("product1")
+                .content("Defective product")
+                .createdAt(LocalDateTime.now())
+                .reportedBy("user1")
+                .country("Poland")
+                .counter(3)
+                .build();
+    }
+
+    @Benchmark
+    public ComplaintResponse fromEntity() {
+        return ComplaintResponse.fromEntity(complaint);
+    }
+}
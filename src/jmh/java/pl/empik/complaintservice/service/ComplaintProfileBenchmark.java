@@ -0,0 +1,105 @@
+package pl.empik.complaintservice.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+import pl.empik.complaintservice.ComplaintServiceApplication;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpdateRequest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares the throughput of complaint writes with the development defaults, which log every statement,
+ * and with the production profile, which persists to files with logging off and batching on.
+ * Run with {@code -Djmh.args="ComplaintProfileBenchmark -f 1 -wi 3 -i 5"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class ComplaintProfileBenchmark {
+
+    private static final String IP_ADDRESS = "203.0.113.7";
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private GeolocationApiStub stub;
+    private Path dataDirectory;
+    private ConfigurableApplicationContext context;
+    private ComplaintService complaintService;
+    private ComplaintRequest duplicate;
+
+    /**
+     * A complaint updated by one benchmark thread only, so that updates never conflict.
+     */
+    @State(Scope.Thread)
+    public static class UpdatedComplaint {
+
+        private Long id;
+
+        @Setup
+        public void setUp(ComplaintProfileBenchmark benchmark) {
+            ComplaintRequest request = new ComplaintRequest(
+                    "product-updated" + benchmark.sequence.incrementAndGet(), "Defective product", "user1");
+            id = benchmark.complaintService.createComplaint(request, IP_ADDRESS).id();
+        }
+    }
+
+    @Setup
+    public void setUp() throws Exception {
+        stub = new GeolocationApiStub();
+        dataDirectory = Files.createTempDirectory("complaints-benchmark");
+        context = new SpringApplicationBuilder(ComplaintServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles(profile)
+                .run("--complaints.data-directory=" + dataDirectory,
+                        "--geolocation.api.url=" + stub.url());
+        complaintService = context.getBean(ComplaintService.class);
+        duplicate = new ComplaintRequest("product-duplicate", "Defective product", "user1");
+        complaintService.createComplaint(duplicate, IP_ADDRESS);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+        stub.close();
+        FileSystemUtils.deleteRecursively(dataDirectory);
+    }
+
+    @Benchmark
+    public ComplaintResponse createNew() {
+        ComplaintRequest request = new ComplaintRequest(
+                "product" + sequence.incrementAndGet(), "Defective product", "user1");
+        return complaintService.createComplaint(request, IP_ADDRESS);
+    }
+
+    @Benchmark
+    public ComplaintResponse createDuplicate() {
+        return complaintService.createComplaint(duplicate, IP_ADDRESS);
+    }
+
+    @Benchmark
+    public ComplaintResponse update(UpdatedComplaint complaint) {
+        return complaintService.updateComplaint(complaint.id,
+                new ComplaintUpdateRequest("Defective product " + sequence.incrementAndGet()));
+    }
+}
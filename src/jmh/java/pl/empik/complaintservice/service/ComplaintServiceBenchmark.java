@@ -0,0 +1,75 @@
+package pl.empik.complaintservice.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.empik.complaintservice.ComplaintServiceApplication;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures creating new complaints and counting duplicates with each complaint store: the embedded
+ * H2 database and the in-memory store without a log.
+ * The geolocation API is stubbed locally and the lookup is cached, so both paths measure persistence.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ComplaintServiceBenchmark {
+
+    private static final String IP_ADDRESS = "203.0.113.7";
+
+    @Param({"jpa", "memory"})
+    public String store;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private GeolocationApiStub stub;
+    private ConfigurableApplicationContext context;
+    private ComplaintService complaintService;
+    private ComplaintRequest duplicate;
+
+    @Setup
+    public void setUp() throws Exception {
+        stub = new GeolocationApiStub();
+        context = new SpringApplicationBuilder(ComplaintServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--complaints.store.type=" + store,
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.root=WARN",
+                        "--geolocation.api.url=" + stub.url());
+        complaintService = context.getBean(ComplaintService.class);
+        duplicate = new ComplaintRequest("product-duplicate", "Defective product", "user1");
+        complaintService.createComplaint(duplicate, IP_ADDRESS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        stub.close();
+    }
+
+    @Benchmark
+    public ComplaintResponse createNew() {
+        ComplaintRequest request = new ComplaintRequest(
+                "product" + sequence.incrementAndGet(), "Defective product", "user1");
+        return complaintService.createComplaint(request, IP_ADDRESS);
+    }
+
+    @Benchmark
+    public ComplaintResponse createDuplicate() {
+        return complaintService.createComplaint(duplicate, IP_ADDRESS);
+    }
+}
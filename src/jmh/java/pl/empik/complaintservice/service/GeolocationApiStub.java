@@ -0,0 +1,48 @@
+package pl.empik.complaintservice.service;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Local HTTP server answering geolocation API requests with a fixed country.
+ */
+final class GeolocationApiStub implements AutoCloseable {
+
+    private static final byte[] RESPONSE =
+            "{\"status\":\"success\",\"country\":\"Poland\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer server;
+
+    GeolocationApiStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/json/", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(RESPONSE);
+            }
+        });
+        server.start();
+    }
+
+    /**
+     * Returns the URL to configure as {@code geolocation.api.url}.
+     *
+     * @return the base URL of the stub
+     */
+    String url() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/json/";
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
@@ -0,0 +1,62 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures geolocation lookups served by the cache and by a round trip to a local API stub.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GeolocationServiceBenchmark {
+
+    private static final String IP_ADDRESS = "203.0.113.7";
+
+    private GeolocationApiStub stub;
+    private GeolocationService cachedService;
+    private GeolocationService uncachedService;
+
+    @Setup
+    public void setUp() throws Exception {
+        stub = new GeolocationApiStub();
+        cachedService = createService(new GeolocationCache(10_000, Duration.ofHours(6), Duration.ofMinutes(1)));
+        uncachedService = createService(new GeolocationCache(0, Duration.ofHours(6), Duration.ofMinutes(1)));
+        cachedService.getCountryFromIp(IP_ADDRESS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        stub.close();
+    }
+
+    @Benchmark
+    public String cacheHit() {
+        return cachedService.getCountryFromIp(IP_ADDRESS);
+    }
+
+    @Benchmark
+    public String apiLookup() {
+        return uncachedService.getCountryFromIp(IP_ADDRESS);
+    }
+
+    private GeolocationService createService(GeolocationCache cache) {
+        GeolocationService service = new GeolocationService(new RestTemplate(), cache, new SimpleMeterRegistry(),
+                new TokenBucketRateLimiter("geolocation", Integer.MAX_VALUE, Duration.ofSeconds(1)),
+                new CircuitBreaker("geolocation", 5, Duration.ofSeconds(30)));
+        ReflectionTestUtils.setField(service, "geolocationApiUrl", stub.url());
+        return service;
+    }
+}
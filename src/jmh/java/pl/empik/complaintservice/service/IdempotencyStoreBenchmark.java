@@ -0,0 +1,54 @@
+package pl.empik.complaintservice.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures replaying a stored response to a complaint creation retried with the same {@code Idempotency-Key},
+ * the whole cost of a retry besides HTTP and JSON handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IdempotencyStoreBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    private IdempotencyStore idempotencyStore;
+    private String[] keys;
+    private ComplaintRequest request;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        idempotencyStore = new IdempotencyStore(KEYS, Duration.ofHours(1));
+        request = new ComplaintRequest("product1", "The cover of the book was torn on delivery", "user1");
+        ComplaintResponse response = new ComplaintResponse(1L, request.productId(), request.content(),
+                LocalDateTime.now(), request.reportedBy(), "Poland", 1, 0L);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            idempotencyStore.execute(keys[i], request, () -> response);
+        }
+    }
+
+    @Benchmark
+    public ComplaintResponse replay() {
+        next = (next + 1) % KEYS;
+        return idempotencyStore.execute(keys[next], request, () -> {
+            throw new IllegalStateException("Complaint created again");
+        });
+    }
+}
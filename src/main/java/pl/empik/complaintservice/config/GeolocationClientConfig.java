@@ -0,0 +1,92 @@
+package pl.empik.complaintservice.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+import pl.empik.complaintservice.service.CircuitBreaker;
+import pl.empik.complaintservice.service.TokenBucketRateLimiter;
+
+import java.time.Duration;
+
+/**
+ * HTTP client used for geolocation API calls, with the rate limiter and circuit breaker guarding them.
+ * <p>
+ * Connections are pooled and kept alive, and every phase of a call is bounded: leasing a pooled
+ * connection, connecting and waiting for the response. Failed calls are not retried; the circuit
+ * breaker fails fast instead while the provider is down.
+ */
+@Configuration
+public class GeolocationClientConfig {
+
+    private static final String CLIENT_NAME = "geolocation";
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager geolocationConnectionManager(
+            @Value("${geolocation.client.max-connections:50}") int maxConnections,
+            @Value("${geolocation.client.connect-timeout:PT1S}") Duration connectTimeout,
+            @Value("${geolocation.client.read-timeout:PT2S}") Duration readTimeout,
+            @Value("${geolocation.client.connection-ttl:PT5M}") Duration connectionTtl) {
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxConnections)
+                .setMaxConnPerRoute(maxConnections)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(connectTimeout))
+                        .setSocketTimeout(Timeout.of(readTimeout))
+                        .setTimeToLive(TimeValue.of(connectionTtl))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient geolocationHttpClient(
+            PoolingHttpClientConnectionManager geolocationConnectionManager,
+            @Value("${geolocation.client.connection-request-timeout:PT0.5S}") Duration connectionRequestTimeout,
+            @Value("${geolocation.client.read-timeout:PT2S}") Duration readTimeout,
+            @Value("${geolocation.client.idle-timeout:PT30S}") Duration idleTimeout) {
+        return HttpClients.custom()
+                .setConnectionManager(geolocationConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(connectionRequestTimeout))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build())
+                .evictIdleConnections(TimeValue.of(idleTimeout))
+                .disableAutomaticRetries()
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient geolocationHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(geolocationHttpClient));
+    }
+
+    @Bean
+    public MeterBinder geolocationConnectionPoolMetrics(PoolingHttpClientConnectionManager geolocationConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(geolocationConnectionManager, CLIENT_NAME);
+    }
+
+    @Bean
+    public TokenBucketRateLimiter geolocationRateLimiter(
+            @Value("${geolocation.rate-limit.permits:45}") int permits,
+            @Value("${geolocation.rate-limit.period:PT1M}") Duration period) {
+        return new TokenBucketRateLimiter(CLIENT_NAME, permits, period);
+    }
+
+    @Bean
+    public CircuitBreaker geolocationCircuitBreaker(
+            @Value("${geolocation.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${geolocation.circuit-breaker.open-duration:PT30S}") Duration openDuration) {
+        return new CircuitBreaker(CLIENT_NAME, failureThreshold, openDuration);
+    }
+}
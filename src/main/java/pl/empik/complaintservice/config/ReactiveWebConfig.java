@@ -0,0 +1,69 @@
+package pl.empik.complaintservice.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * Web server and geolocation client of the reactive API, active when the application runs as a
+ * reactive web application ({@code spring.main.web-application-type=reactive}, set by the
+ * {@code reactive} profile).
+ * <p>
+ * The geolocation client is bounded like the blocking one in {@link GeolocationClientConfig}, by the
+ * same {@code geolocation.client.*} properties; requests waiting for a pooled connection are queued
+ * without a thread until the connection request timeout.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig {
+
+    private static final String CLIENT_NAME = "geolocation";
+
+    /**
+     * Serves the reactive API with Netty. Spring Boot would otherwise prefer Tomcat, which is on the
+     * classpath for the servlet API.
+     *
+     * @return the web server factory
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider geolocationConnectionProvider(
+            @Value("${geolocation.client.max-connections:50}") int maxConnections,
+            @Value("${geolocation.client.connection-request-timeout:PT0.5S}") Duration connectionRequestTimeout,
+            @Value("${geolocation.client.idle-timeout:PT30S}") Duration idleTimeout,
+            @Value("${geolocation.client.connection-ttl:PT5M}") Duration connectionTtl) {
+        return ConnectionProvider.builder(CLIENT_NAME)
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(-1)
+                .pendingAcquireTimeout(connectionRequestTimeout)
+                .maxIdleTime(idleTimeout)
+                .maxLifeTime(connectionTtl)
+                .metrics(true)
+                .build();
+    }
+
+    @Bean
+    public WebClient geolocationWebClient(
+            WebClient.Builder webClientBuilder,
+            ConnectionProvider geolocationConnectionProvider,
+            @Value("${geolocation.client.connect-timeout:PT1S}") Duration connectTimeout,
+            @Value("${geolocation.client.read-timeout:PT2S}") Duration readTimeout) {
+        HttpClient httpClient = HttpClient.create(geolocationConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .responseTimeout(readTimeout);
+        return webClientBuilder.clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
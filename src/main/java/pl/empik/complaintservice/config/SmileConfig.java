@@ -0,0 +1,57 @@
+package pl.empik.complaintservice.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.json.Jackson2SmileDecoder;
+import org.springframework.http.codec.json.Jackson2SmileEncoder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Binary Smile encoding ({@code application/x-jackson-smile}) of the API, negotiated with the Accept and
+ * Content-Type headers next to JSON, which remains the default.
+ * <p>
+ * The Smile mapper is a copy of the application's JSON mapper, with its modules and settings, writing dates
+ * as arrays of numbers instead of ISO strings. Smile refers back to field names and short string values
+ * already written instead of repeating them, which makes large complaint listings much smaller than JSON.
+ */
+@Configuration
+public class SmileConfig {
+
+    /**
+     * Replaces the Smile converter Spring MVC registers by default with one using the application's settings.
+     *
+     * @param objectMapper the application's JSON mapper
+     * @return the Smile message converter
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(smileObjectMapper(objectMapper));
+    }
+
+    /**
+     * Replaces the Smile codecs of the reactive application likewise.
+     *
+     * @param objectMapper the application's JSON mapper
+     * @return the codec customizer
+     */
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public CodecCustomizer smileCodecCustomizer(ObjectMapper objectMapper) {
+        ObjectMapper smileObjectMapper = smileObjectMapper(objectMapper);
+        return configurer -> {
+            configurer.defaultCodecs().jackson2SmileEncoder(new Jackson2SmileEncoder(smileObjectMapper));
+            configurer.defaultCodecs().jackson2SmileDecoder(new Jackson2SmileDecoder(smileObjectMapper));
+        };
+    }
+
+    private static ObjectMapper smileObjectMapper(ObjectMapper objectMapper) {
+        return objectMapper.copyWith(new SmileFactory())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
@@ -2,9 +2,29 @@ package pl.empik.complaintservice.constants;
 
 public final class ComplaintConstants {
     public static final String API_COMPLAINTS_BASE = "/api/complaints";
+    public static final String API_COMPLAINTS_STREAM = "/stream";
+    public static final String API_COMPLAINTS_BULK = "/bulk";
+    public static final String API_COMPLAINTS_SEARCH = "/search";
+    public static final String API_COMPLAINTS_STATS = "/stats";
+    public static final String API_COMPLAINTS_EVENTS = "/events";
+    public static final String API_STATS_PRODUCTS = "/products";
+    public static final String API_STATS_COUNTRIES = "/countries";
+    public static final String API_STATS_TIMELINE = "/timeline";
     public static final String COMPLAINT_NOT_FOUND_MESSAGE = "Complaint not found with id: ";
+    public static final String COMPLAINT_MODIFIED_MESSAGE = "Complaint has been modified since version ";
+    public static final String EMPTY_SEARCH_QUERY_MESSAGE = "Search query cannot be empty";
+    public static final String IDEMPOTENCY_KEY_REUSED_MESSAGE = "Idempotency key was already used for a different complaint";
     public static final String UNKNOWN_COUNTRY = "Unknown";
+    public static final String PENDING_COUNTRY = "Pending";
     public static final String HEADER_X_FORWARDED_FOR = "X-Forwarded-For";
+    public static final String HEADER_IDEMPOTENCY_KEY = "Idempotency-Key";
+    public static final String HEADER_LAST_EVENT_ID = "Last-Event-ID";
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final int MAX_PAGE_LIMIT = 1000;
+    public static final int MAX_TOP_PRODUCTS_LIMIT = 100;
+    public static final int MAX_SEARCH_LIMIT = 100;
+    public static final int MAX_EVENTS_LIMIT = 1000;
+    public static final String COMPLAINTS_CACHE = "complaints";
 
     // JSON keys for Geolocation API response
     public static final String JSON_STATUS = "status";
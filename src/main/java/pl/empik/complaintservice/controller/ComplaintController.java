@@ -1,83 +1,327 @@
 package pl.empik.complaintservice.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.InvalidBulkRequestException;
+import pl.empik.complaintservice.model.BulkComplaintResult;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintPage;
 import pl.empik.complaintservice.model.ComplaintRequest;
 import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintSearchResult;
 import pl.empik.complaintservice.model.ComplaintUpdateRequest;
+import pl.empik.complaintservice.model.ComplaintVersion;
+import pl.empik.complaintservice.service.ComplaintBulkService;
+import pl.empik.complaintservice.service.ComplaintFeed;
 import pl.empik.complaintservice.service.ComplaintService;
+import pl.empik.complaintservice.service.IdempotencyStore;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
 
 @RestController
 @RequestMapping(ComplaintConstants.API_COMPLAINTS_BASE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class ComplaintController {
 
     private final ComplaintService complaintService;
+    private final ComplaintBulkService complaintBulkService;
+    private final ComplaintFeed complaintFeed;
+    private final IdempotencyStore idempotencyStore;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
+    @Value("${complaints.bulk.max-items:10000}")
+    private int maxBulkItems;
 
     /**
-     * Retrieves all complaints.
+     * Retrieves the complaints matching the filter.
      *
-     * @return list of all complaints
+     * @param filter the criteria, from the productId, reportedBy, country, createdFrom, createdTo and minCounter parameters
+     * @param fields the names of the fields to return, all by default; id, counter and version are always returned
+     * @param webRequest the request, checked against its If-None-Match header
+     * @return list of the complaints, or 304 if they match the ETag the client has
      */
     @GetMapping
-    public ResponseEntity<List<ComplaintResponse>> getAllComplaints() {
-        return ResponseEntity.ok(complaintService.getAllComplaints());
+    public ResponseEntity<List<ComplaintResponse>> getAllComplaints(
+            @ModelAttribute ComplaintFilter filter,
+            @RequestParam(required = false) List<String> fields,
+            WebRequest webRequest) {
+        List<ComplaintResponse> complaints = complaintService.getComplaints(filter, ComplaintField.parse(fields));
+        String eTag = ComplaintETags.of(complaints);
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(complaints);
+    }
+
+    /**
+     * Retrieves a page of the complaints matching the filter using keyset pagination.
+     *
+     * @param filter the criteria, from the productId, reportedBy, country, createdFrom, createdTo and minCounter parameters
+     * @param fields the names of the fields to return, all by default; id, counter and version are always returned
+     * @param afterId the cursor returned with the previous page, absent for the first page
+     * @param limit the maximum number of complaints in the page
+     * @param webRequest the request, checked against its If-None-Match header
+     * @return the page of complaints with the cursor of the next page, or 304 if it matches the ETag the client has
+     */
+    @GetMapping(params = "limit")
+    public ResponseEntity<ComplaintPage> getComplaintsPage(
+            @ModelAttribute ComplaintFilter filter,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam int limit,
+            WebRequest webRequest) {
+        ComplaintPage page = complaintService.getComplaintsPage(filter, ComplaintField.parse(fields), afterId, limit);
+        String eTag = ComplaintETags.of(page.items());
+        if (webRequest.checkNotModified(eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).varyBy(HttpHeaders.ACCEPT).body(page);
+    }
+
+    /**
+     * Streams the complaints created or updated from now on as server-sent events, each with the complaint
+     * after the change. A client falling behind gets the latest state of each complaint, and the oldest
+     * changes are dropped when its buffer is full.
+     *
+     * @param productId only complaints about this product are sent, all by default
+     * @param country only complaints from this country are sent, all by default
+     * @param lastEventId the ID of the last event received before reconnecting, to resume after it
+     * @return the event stream
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamComplaintChanges(
+            @RequestParam(required = false) String productId,
+            @RequestParam(required = false) String country,
+            @RequestHeader(name = ComplaintConstants.HEADER_LAST_EVENT_ID, required = false) Long lastEventId) {
+        return complaintFeed.subscribe(productId, country, lastEventId, ComplaintEvent::complaint);
+    }
+
+    /**
+     * Streams all complaints as newline-delimited JSON.
+     *
+     * @return the streamed complaints
+     */
+    @GetMapping(value = ComplaintConstants.API_COMPLAINTS_STREAM, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamComplaintsAsNdjson() {
+        ObjectWriter writer = complaintWriter(objectMapper).withRootValueSeparator("\n");
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(outputStream -> {
+                    try (SequenceWriter sequenceWriter = writer.writeValues(outputStream)) {
+                        streamTo(sequenceWriter);
+                    }
+                });
+    }
+
+    /**
+     * Streams all complaints as a JSON array.
+     *
+     * @return the streamed complaints
+     */
+    @GetMapping(value = ComplaintConstants.API_COMPLAINTS_STREAM, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamComplaintsAsJson() {
+        return streamAsArray(complaintWriter(objectMapper), MediaType.APPLICATION_JSON);
+    }
+
+    /**
+     * Streams all complaints as a Smile array, the compact binary encoding of the same data.
+     *
+     * @return the streamed complaints
+     */
+    @GetMapping(value = ComplaintConstants.API_COMPLAINTS_STREAM, produces = ComplaintConstants.APPLICATION_SMILE_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamComplaintsAsSmile() {
+        return streamAsArray(complaintWriter(smileHttpMessageConverter.getObjectMapper()),
+                MediaType.parseMediaType(ComplaintConstants.APPLICATION_SMILE_VALUE));
+    }
+
+    /**
+     * Finds complaints by words of their content.
+     *
+     * @param query the words to search for; all of them must occur in the content
+     * @param limit the maximum number of complaints
+     * @return the matching complaints with their scores, best matches first
+     */
+    @GetMapping(ComplaintConstants.API_COMPLAINTS_SEARCH)
+    public ResponseEntity<List<ComplaintSearchResult>> searchComplaints(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(complaintService.searchComplaints(query, limit));
     }
 
     /**
      * Retrieves a complaint by its ID.
+     * A request whose If-None-Match header matches the current version gets 304 without the complaint
+     * being read or serialized.
      *
      * @param id the complaint ID
-     * @return the complaint
+     * @param webRequest the request, checked against its If-None-Match header
+     * @return the complaint with its ETag, or 304 if it has not been modified
      */
     @GetMapping("/{id}")
-    public ResponseEntity<ComplaintResponse> getComplaintById(@PathVariable Long id) {
-        return ResponseEntity.ok(complaintService.getComplaintById(id));
+    public ResponseEntity<ComplaintResponse> getComplaintById(@PathVariable Long id, WebRequest webRequest) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                && webRequest.checkNotModified(ComplaintETags.of(complaintService.getComplaintVersion(id)))) {
+            return null;
+        }
+        ComplaintResponse complaint = complaintService.getComplaintById(id);
+        return ResponseEntity.ok()
+                .eTag(ComplaintETags.of(ComplaintVersion.of(complaint)))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(complaint);
     }
 
     /**
      * Creates a new complaint.
+     * A request with an Idempotency-Key header is applied once: retries with the same key get the original
+     * response without creating the complaint again, and reusing the key for a different complaint gets 422.
      *
      * @param complaintRequest the complaint data
+     * @param idempotencyKey the key identifying retries of the same request, or null
      * @param request the HTTP request with client IP
      * @return the created complaint
      */
     @PostMapping
     public ResponseEntity<ComplaintResponse> createComplaint(
             @Valid @RequestBody ComplaintRequest complaintRequest,
+            @RequestHeader(name = ComplaintConstants.HEADER_IDEMPOTENCY_KEY, required = false) String idempotencyKey,
             HttpServletRequest request) {
 
         String clientIp = extractClientIp(request);
-        ComplaintResponse createdComplaint = complaintService.createComplaint(complaintRequest, clientIp);
+        ComplaintResponse createdComplaint = idempotencyKey == null
+                ? complaintService.createComplaint(complaintRequest, clientIp)
+                : idempotencyStore.execute(idempotencyKey, complaintRequest,
+                        () -> complaintService.createComplaint(complaintRequest, clientIp));
         return ResponseEntity.status(HttpStatus.CREATED).body(createdComplaint);
     }
 
+    /**
+     * Creates complaints in bulk from a JSON array or newline-delimited JSON.
+     * Each item is handled like a single creation; invalid items are reported without rejecting the batch.
+     *
+     * @param request the HTTP request with the complaints and client IP
+     * @return the result of each item, in request order
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = ComplaintConstants.API_COMPLAINTS_BULK,
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkComplaintResult> createComplaints(HttpServletRequest request) throws IOException {
+        List<ComplaintRequest> complaintRequests = readComplaintRequests(request.getInputStream());
+        String clientIp = extractClientIp(request);
+        return ResponseEntity.ok(complaintBulkService.createComplaints(complaintRequests, clientIp));
+    }
+
     /**
      * Updates a complaint's content.
+     * With an If-Match header the update is applied only if the complaint still has that ETag,
+     * otherwise 412 is returned.
      *
      * @param id the complaint ID
      * @param updateRequest the updated content
-     * @return the updated complaint
+     * @param webRequest the request, checked against its If-Match header
+     * @return the updated complaint with its new ETag
      */
     @PutMapping("/{id}")
     public ResponseEntity<ComplaintResponse> updateComplaint(
             @PathVariable Long id,
-            @Valid @RequestBody ComplaintUpdateRequest updateRequest) {
+            @Valid @RequestBody ComplaintUpdateRequest updateRequest,
+            WebRequest webRequest) {
+
+        ComplaintResponse updatedComplaint;
+        if (webRequest.getHeader(HttpHeaders.IF_MATCH) != null) {
+            ComplaintVersion current = complaintService.getComplaintVersion(id);
+            if (webRequest.checkNotModified(ComplaintETags.of(current))) {
+                return null;
+            }
+            updatedComplaint = complaintService.updateComplaint(id, updateRequest, current.version());
+        } else {
+            updatedComplaint = complaintService.updateComplaint(id, updateRequest);
+        }
+        return ResponseEntity.ok().eTag(ComplaintETags.of(ComplaintVersion.of(updatedComplaint))).body(updatedComplaint);
+    }
+
+    /**
+     * Reads complaints from a JSON array or a sequence of root-level JSON values.
+     *
+     * @param inputStream the request body
+     * @return the complaints, null for JSON null items
+     * @throws IOException if the request body cannot be read
+     */
+    private List<ComplaintRequest> readComplaintRequests(InputStream inputStream) throws IOException {
+        List<ComplaintRequest> complaintRequests = new ArrayList<>();
+        try (MappingIterator<ComplaintRequest> iterator =
+                     objectMapper.readerFor(ComplaintRequest.class).readValues(inputStream)) {
+            while (iterator.hasNextValue()) {
+                if (complaintRequests.size() == maxBulkItems) {
+                    throw new InvalidBulkRequestException("Bulk request exceeds " + maxBulkItems + " complaints");
+                }
+                complaintRequests.add(iterator.nextValue());
+            }
+        } catch (JsonProcessingException e) {
+            throw new InvalidBulkRequestException("Malformed complaint at item " + complaintRequests.size()
+                    + ": " + e.getOriginalMessage());
+        }
+        return complaintRequests;
+    }
+
+    private static ObjectWriter complaintWriter(ObjectMapper mapper) {
+        return mapper.writerFor(ComplaintResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamAsArray(ObjectWriter writer, MediaType contentType) {
+        return ResponseEntity.ok()
+                .contentType(contentType)
+                .body(outputStream -> {
+                    try (SequenceWriter sequenceWriter = writer.writeValuesAsArray(outputStream)) {
+                        streamTo(sequenceWriter);
+                    }
+                });
+    }
 
-        return ResponseEntity.ok(complaintService.updateComplaint(id, updateRequest));
+    private void streamTo(SequenceWriter sequenceWriter) {
+        complaintService.streamComplaints(complaint -> {
+            try {
+                sequenceWriter.write(complaint);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
 
     /**
@@ -86,7 +330,7 @@ public class ComplaintController {
      * @param request the HTTP request
      * @return the client's IP address
      */
-    private String extractClientIp(HttpServletRequest request) {
+    static String extractClientIp(HttpServletRequest request) {
         String xForwardedFor = request.getHeader(ComplaintConstants.HEADER_X_FORWARDED_FOR
         );
         if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
@@ -0,0 +1,45 @@
+package pl.empik.complaintservice.controller;
+
+import org.springframework.util.DigestUtils;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintVersion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * ETags of complaints, shared by the servlet and reactive controllers.
+ */
+final class ComplaintETags {
+
+    private ComplaintETags() {
+    }
+
+    /**
+     * Builds the strong ETag of a complaint. The row version changes with every persisted change, and the
+     * counter is included because buffered increments change it without a new version.
+     *
+     * @param version the version and counter of the complaint
+     * @return the quoted ETag
+     */
+    static String of(ComplaintVersion version) {
+        return "\"" + version.version() + "." + version.counter() + "\"";
+    }
+
+    /**
+     * Builds the weak ETag of a list of complaints from the IDs, versions and counters of its items. Lists
+     * are compared with If-None-Match only, and a weak ETag stays valid for their JSON and Smile encodings and
+     * lets the server compress them.
+     *
+     * @param complaints the complaints, in response order
+     * @return the weak quoted ETag
+     */
+    static String of(List<ComplaintResponse> complaints) {
+        StringBuilder versions = new StringBuilder(complaints.size() * 16);
+        for (ComplaintResponse complaint : complaints) {
+            versions.append(complaint.id()).append(':').append(complaint.version())
+                    .append('.').append(complaint.counter()).append(',');
+        }
+        return "W/\"" + DigestUtils.md5DigestAsHex(versions.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+}
@@ -0,0 +1,63 @@
+package pl.empik.complaintservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventPage;
+import pl.empik.complaintservice.service.ComplaintEventRelay;
+import pl.empik.complaintservice.service.ComplaintFeed;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Change events of complaints, read incrementally from the outbox or tailed live as server-sent events.
+ */
+@RestController
+@RequestMapping(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_EVENTS)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+public class ComplaintEventController {
+
+    private final ComplaintEventRelay complaintEventRelay;
+    private final ComplaintFeed complaintFeed;
+
+    /**
+     * Retrieves the published change events after the cursor, oldest first.
+     *
+     * @param afterId the cursor returned with the previous page, 0 for the oldest retained events
+     * @param limit the maximum number of events, capped at {@link ComplaintConstants#MAX_EVENTS_LIMIT}
+     * @return the events with the cursor to poll next, which is the given one if there are no new events
+     */
+    @GetMapping
+    public ResponseEntity<ComplaintEventPage> getEvents(@RequestParam(defaultValue = "0") long afterId,
+                                                        @RequestParam(defaultValue = "100") int limit) {
+        int size = Math.min(Math.max(limit, 1), ComplaintConstants.MAX_EVENTS_LIMIT);
+        List<ComplaintEvent> events = complaintEventRelay.getPublishedEvents(afterId, size);
+        long nextCursor = events.isEmpty() ? afterId : events.get(events.size() - 1).id();
+        return ResponseEntity.ok(new ComplaintEventPage(events, nextCursor));
+    }
+
+    /**
+     * Streams the change events published from now on as server-sent events with the event ID as their ID.
+     * The events of a complaint still waiting to be sent to a client falling behind are coalesced into the
+     * latest one.
+     *
+     * @param lastEventId the ID of the last event received before reconnecting, to resume after it
+     * @return the event stream
+     */
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(
+            @RequestHeader(name = ComplaintConstants.HEADER_LAST_EVENT_ID, required = false) Long lastEventId) {
+        return complaintFeed.subscribe(null, null, lastEventId, Function.identity());
+    }
+}
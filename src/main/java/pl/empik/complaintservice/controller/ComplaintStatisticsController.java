@@ -0,0 +1,63 @@
+package pl.empik.complaintservice.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintCountBucket;
+import pl.empik.complaintservice.model.CountryComplaintCount;
+import pl.empik.complaintservice.model.ProductComplaintCount;
+import pl.empik.complaintservice.service.ComplaintStatistics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_STATS)
+@RequiredArgsConstructor
+public class ComplaintStatisticsController {
+
+    private final ComplaintStatistics complaintStatistics;
+
+    /**
+     * Retrieves the products with the most complaints.
+     *
+     * @param limit the maximum number of products, capped at {@link ComplaintConstants#MAX_TOP_PRODUCTS_LIMIT}
+     * @return the products by descending number of complaints
+     */
+    @GetMapping(ComplaintConstants.API_STATS_PRODUCTS)
+    public ResponseEntity<List<ProductComplaintCount>> getTopProducts(@RequestParam(defaultValue = "10") int limit) {
+        int size = Math.min(Math.max(limit, 1), ComplaintConstants.MAX_TOP_PRODUCTS_LIMIT);
+        return ResponseEntity.ok(complaintStatistics.getTopProducts(size));
+    }
+
+    /**
+     * Retrieves the number of complaints from each country.
+     *
+     * @return the countries by descending number of complaints
+     */
+    @GetMapping(ComplaintConstants.API_STATS_COUNTRIES)
+    public ResponseEntity<List<CountryComplaintCount>> getCountries() {
+        return ResponseEntity.ok(complaintStatistics.getCountries());
+    }
+
+    /**
+     * Retrieves the number of complaints reported in each time bucket of a period.
+     *
+     * @param from the start of the period, the last 24 hours by default
+     * @param to the end of the period, now by default
+     * @return the buckets in chronological order
+     */
+    @GetMapping(ComplaintConstants.API_STATS_TIMELINE)
+    public ResponseEntity<List<ComplaintCountBucket>> getTimeline(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(1);
+        return ResponseEntity.ok(complaintStatistics.getTimeline(start, end));
+    }
+}
@@ -0,0 +1,191 @@
+package pl.empik.complaintservice.controller;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintPage;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpdateRequest;
+import pl.empik.complaintservice.model.ComplaintVersion;
+import pl.empik.complaintservice.service.IdempotencyStore;
+import pl.empik.complaintservice.service.ReactiveComplaintService;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+
+/**
+ * Non-blocking variant of the complaint API served when the application runs as a reactive web
+ * application (the {@code reactive} profile). It maps the listing, retrieval, creation and update
+ * endpoints of {@link ComplaintController} with the same paths, parameters, ETags and responses.
+ */
+@RestController
+@RequestMapping(ComplaintConstants.API_COMPLAINTS_BASE)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveComplaintController {
+
+    private final ReactiveComplaintService reactiveComplaintService;
+    private final IdempotencyStore idempotencyStore;
+
+    /**
+     * Retrieves the complaints matching the filter.
+     *
+     * @param filter the criteria, from the productId, reportedBy, country, createdFrom, createdTo and minCounter parameters
+     * @param fields the names of the fields to return, all by default; id, counter and version are always returned
+     * @param exchange the exchange, checked against its If-None-Match header
+     * @return list of the complaints, or 304 if they match the ETag the client has
+     */
+    @GetMapping
+    public Mono<ResponseEntity<List<ComplaintResponse>>> getAllComplaints(
+            @ModelAttribute ComplaintFilter filter,
+            @RequestParam(required = false) List<String> fields,
+            ServerWebExchange exchange) {
+        return reactiveComplaintService.getComplaints(filter, ComplaintField.parse(fields))
+                .collectList()
+                .flatMap(complaints -> {
+                    String eTag = ComplaintETags.of(complaints);
+                    if (exchange.checkNotModified(eTag)) {
+                        return Mono.empty();
+                    }
+                    return Mono.just(ResponseEntity.ok().eTag(eTag).body(complaints));
+                });
+    }
+
+    /**
+     * Retrieves a page of the complaints matching the filter using keyset pagination.
+     *
+     * @param filter the criteria, from the productId, reportedBy, country, createdFrom, createdTo and minCounter parameters
+     * @param fields the names of the fields to return, all by default; id, counter and version are always returned
+     * @param afterId the cursor returned with the previous page, absent for the first page
+     * @param limit the maximum number of complaints in the page
+     * @param exchange the exchange, checked against its If-None-Match header
+     * @return the page of complaints with the cursor of the next page, or 304 if it matches the ETag the client has
+     */
+    @GetMapping(params = "limit")
+    public Mono<ResponseEntity<ComplaintPage>> getComplaintsPage(
+            @ModelAttribute ComplaintFilter filter,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam int limit,
+            ServerWebExchange exchange) {
+        return reactiveComplaintService.getComplaintsPage(filter, ComplaintField.parse(fields), afterId, limit)
+                .flatMap(page -> {
+                    String eTag = ComplaintETags.of(page.items());
+                    if (exchange.checkNotModified(eTag)) {
+                        return Mono.empty();
+                    }
+                    return Mono.just(ResponseEntity.ok().eTag(eTag).body(page));
+                });
+    }
+
+    /**
+     * Retrieves a complaint by its ID.
+     *
+     * @param id the complaint ID
+     * @param exchange the exchange, checked against its If-None-Match header
+     * @return the complaint with its ETag, or 304 if it has not been modified
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<ComplaintResponse>> getComplaintById(@PathVariable Long id, ServerWebExchange exchange) {
+        return reactiveComplaintService.getComplaintById(id)
+                .flatMap(complaint -> {
+                    String eTag = ComplaintETags.of(ComplaintVersion.of(complaint));
+                    if (exchange.checkNotModified(eTag)) {
+                        return Mono.empty();
+                    }
+                    return Mono.just(ResponseEntity.ok().eTag(eTag).body(complaint));
+                });
+    }
+
+    /**
+     * Creates a new complaint.
+     * A request with an Idempotency-Key header is applied once: retries with the same key get the original
+     * response without creating the complaint again, and reusing the key for a different complaint gets 422.
+     *
+     * @param complaintRequest the complaint data
+     * @param idempotencyKey the key identifying retries of the same request, or null
+     * @param request the HTTP request with client IP
+     * @return the created complaint
+     */
+    @PostMapping
+    public Mono<ResponseEntity<ComplaintResponse>> createComplaint(
+            @Valid @RequestBody ComplaintRequest complaintRequest,
+            @RequestHeader(name = ComplaintConstants.HEADER_IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            ServerHttpRequest request) {
+        String clientIp = extractClientIp(request);
+        Mono<ComplaintResponse> createdComplaint = idempotencyKey == null
+                ? reactiveComplaintService.createComplaint(complaintRequest, clientIp)
+                : Mono.fromFuture(() -> idempotencyStore.executeAsync(idempotencyKey, complaintRequest,
+                        () -> reactiveComplaintService.createComplaint(complaintRequest, clientIp).toFuture()), true);
+        return createdComplaint.map(complaint -> ResponseEntity.status(HttpStatus.CREATED).body(complaint));
+    }
+
+    /**
+     * Updates a complaint's content.
+     * With an If-Match header the update is applied only if the complaint still has that ETag,
+     * otherwise 412 is returned.
+     *
+     * @param id the complaint ID
+     * @param updateRequest the updated content
+     * @param exchange the exchange, checked against its If-Match header
+     * @return the updated complaint with its new ETag
+     */
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<ComplaintResponse>> updateComplaint(
+            @PathVariable Long id,
+            @Valid @RequestBody ComplaintUpdateRequest updateRequest,
+            ServerWebExchange exchange) {
+        Mono<ComplaintResponse> updated;
+        if (exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_MATCH) != null) {
+            updated = reactiveComplaintService.getComplaintById(id).flatMap(current -> {
+                if (exchange.checkNotModified(ComplaintETags.of(ComplaintVersion.of(current)))) {
+                    return Mono.empty();
+                }
+                return reactiveComplaintService.updateComplaint(id, updateRequest, current.version());
+            });
+        } else {
+            updated = reactiveComplaintService.updateComplaint(id, updateRequest, null);
+        }
+        return updated.map(complaint -> ResponseEntity.ok()
+                .eTag(ComplaintETags.of(ComplaintVersion.of(complaint)))
+                .body(complaint));
+    }
+
+    /**
+     * Extracts the client's IP address from the request.
+     *
+     * @param request the HTTP request
+     * @return the client's IP address
+     */
+    static String extractClientIp(ServerHttpRequest request) {
+        String xForwardedFor = request.getHeaders().getFirst(ComplaintConstants.HEADER_X_FORWARDED_FOR);
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            // Get first IP if multiple are present (client IP is the first one)
+            return xForwardedFor.split(",")[0].trim();
+        }
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : null;
+    }
+}
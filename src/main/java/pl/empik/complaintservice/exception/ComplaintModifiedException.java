@@ -0,0 +1,7 @@
+package pl.empik.complaintservice.exception;
+
+public class ComplaintModifiedException extends RuntimeException {
+    public ComplaintModifiedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package pl.empik.complaintservice.exception;
+
+public class GeolocationUnavailableException extends RuntimeException {
+    public GeolocationUnavailableException(String message) {
+        super(message);
+    }
+}
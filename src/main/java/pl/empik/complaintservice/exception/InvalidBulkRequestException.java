@@ -0,0 +1,7 @@
+package pl.empik.complaintservice.exception;
+
+public class InvalidBulkRequestException extends RuntimeException {
+    public InvalidBulkRequestException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package pl.empik.complaintservice.exception;
+
+public class InvalidComplaintQueryException extends RuntimeException {
+    public InvalidComplaintQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package pl.empik.complaintservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.Map;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkComplaintItemResult(
+        int index,
+        BulkComplaintStatus status,
+        Long id,
+        Map<String, String> errors
+) {}
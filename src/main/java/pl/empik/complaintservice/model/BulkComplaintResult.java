@@ -0,0 +1,10 @@
+package pl.empik.complaintservice.model;
+
+import java.util.List;
+
+public record BulkComplaintResult(
+        int created,
+        int incremented,
+        int rejected,
+        List<BulkComplaintItemResult> items
+) {}
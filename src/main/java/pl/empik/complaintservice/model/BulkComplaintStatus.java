@@ -0,0 +1,7 @@
+package pl.empik.complaintservice.model;
+
+public enum BulkComplaintStatus {
+    CREATED,
+    INCREMENTED,
+    INVALID
+}
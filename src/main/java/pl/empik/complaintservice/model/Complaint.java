@@ -7,6 +7,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -54,4 +55,12 @@ public class Complaint {
     @Builder.Default
     private Integer counter = 1;
 
+    /**
+     * Row version, incremented by every change of the complaint, including counter increments and
+     * country updates made outside of JPA.
+     */
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
 }
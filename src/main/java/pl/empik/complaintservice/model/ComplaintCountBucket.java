@@ -0,0 +1,8 @@
+package pl.empik.complaintservice.model;
+
+import java.time.LocalDateTime;
+
+public record ComplaintCountBucket(
+        LocalDateTime start,
+        long total
+) {}
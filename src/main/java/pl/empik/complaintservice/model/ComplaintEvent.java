@@ -0,0 +1,25 @@
+package pl.empik.complaintservice.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Change of a complaint recorded in the outbox, with the state of the complaint after the change.
+ * Events are numbered in the order they are written; the events of one complaint have increasing versions.
+ */
+public record ComplaintEvent(
+        Long id,
+        ComplaintEventType type,
+        LocalDateTime occurredAt,
+        ComplaintResponse complaint
+) {
+    /**
+     * Returns the type of the event recording an upsert of the complaint. An upsert inserts a complaint with
+     * version 0 and increments the version of an existing one.
+     *
+     * @param complaint the inserted or incremented complaint
+     * @return {@link ComplaintEventType#CREATED} for a new complaint, {@link ComplaintEventType#INCREMENTED} otherwise
+     */
+    public static ComplaintEventType upsertType(ComplaintResponse complaint) {
+        return complaint.version() == 0 ? ComplaintEventType.CREATED : ComplaintEventType.INCREMENTED;
+    }
+}
@@ -0,0 +1,8 @@
+package pl.empik.complaintservice.model;
+
+import java.util.List;
+
+public record ComplaintEventPage(
+        List<ComplaintEvent> items,
+        Long nextCursor
+) {}
@@ -0,0 +1,7 @@
+package pl.empik.complaintservice.model;
+
+public enum ComplaintEventType {
+    CREATED,
+    INCREMENTED,
+    UPDATED
+}
@@ -0,0 +1,60 @@
+package pl.empik.complaintservice.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import pl.empik.complaintservice.exception.InvalidComplaintQueryException;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fields of {@link ComplaintResponse} that can be selected in complaint listings, with their columns.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ComplaintField {
+    ID("id", "id"),
+    PRODUCT_ID("productId", "product_id"),
+    CONTENT("content", "content"),
+    CREATED_AT("createdAt", "created_at"),
+    REPORTED_BY("reportedBy", "reported_by"),
+    COUNTRY("country", "country"),
+    COUNTER("counter", "counter"),
+    VERSION("version", "version");
+
+    public static final Set<ComplaintField> ALL = EnumSet.allOf(ComplaintField.class);
+
+    // Needed for the cursor and the ETag of every listing
+    private static final Set<ComplaintField> REQUIRED = EnumSet.of(ID, COUNTER, VERSION);
+
+    private final String fieldName;
+    private final String column;
+
+    /**
+     * Resolves the fields selected by their names. The ID, counter and version are always selected.
+     *
+     * @param fieldNames the names of the fields, or null or empty for all fields
+     * @return the selected fields
+     * @throws InvalidComplaintQueryException if a name is not a field of a complaint
+     */
+    public static Set<ComplaintField> parse(Collection<String> fieldNames) {
+        if (fieldNames == null || fieldNames.isEmpty()) {
+            return ALL;
+        }
+        Set<ComplaintField> fields = EnumSet.copyOf(REQUIRED);
+        for (String fieldName : fieldNames) {
+            fields.add(ofFieldName(fieldName.trim()));
+        }
+        return fields;
+    }
+
+    private static ComplaintField ofFieldName(String fieldName) {
+        for (ComplaintField field : values()) {
+            if (field.fieldName.equals(fieldName)) {
+                return field;
+            }
+        }
+        throw new InvalidComplaintQueryException("Unknown complaint field: " + fieldName);
+    }
+}
@@ -0,0 +1,26 @@
+package pl.empik.complaintservice.model;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criteria of a complaint listing; null criteria are not applied.
+ *
+ * @param productId the product ID
+ * @param reportedBy the reporter
+ * @param country the country
+ * @param createdFrom the earliest creation time, inclusive
+ * @param createdTo the latest creation time, exclusive
+ * @param minCounter the minimum number of reports
+ */
+public record ComplaintFilter(
+        String productId,
+        String reportedBy,
+        String country,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdFrom,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime createdTo,
+        Integer minCounter
+) {
+    public static final ComplaintFilter NONE = new ComplaintFilter(null, null, null, null, null, null);
+}
@@ -1,7 +1,14 @@
 package pl.empik.complaintservice.model;
 
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.io.Serializable;
 import java.time.LocalDateTime;
 
+/**
+ * A complaint as returned by the API. Fields not selected in a listing are null and omitted from JSON.
+ */
+@JsonSerialize(using = ComplaintResponseSerializer.class)
 public record ComplaintResponse(
         Long id,
         String productId,
@@ -9,8 +16,9 @@ public record ComplaintResponse(
         LocalDateTime createdAt,
         String reportedBy,
         String country,
-        Integer counter
-) {
+        Integer counter,
+        Long version
+) implements Serializable {
     public static ComplaintResponse fromEntity(Complaint complaint) {
         return new ComplaintResponse(
                 complaint.getId(),
@@ -19,7 +27,8 @@ public record ComplaintResponse(
                 complaint.getCreatedAt(),
                 complaint.getReportedBy(),
                 complaint.getCountry(),
-                complaint.getCounter()
+                complaint.getCounter(),
+                complaint.getVersion()
         );
     }
 }
\ No newline at end of file
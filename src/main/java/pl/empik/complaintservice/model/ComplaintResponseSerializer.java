@@ -0,0 +1,152 @@
+package pl.empik.complaintservice.model;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes a {@link ComplaintResponse} field by field, omitting null fields, without the reflective property
+ * access of a bean serializer. Field names are encoded once.
+ * <p>
+ * {@code createdAt} is written as the ISO-8601 string the default Jackson serializer writes, formatted into
+ * a small char array instead of through a {@link DateTimeFormatter}, which takes most of the time of
+ * serializing a complaint as JSON. With {@link SerializationFeature#WRITE_DATES_AS_TIMESTAMPS}, as in Smile,
+ * it is written as the array of numbers that serializer writes.
+ */
+final class ComplaintResponseSerializer extends StdSerializer<ComplaintResponse> {
+
+    private static final SerializableString ID = new SerializedString(ComplaintField.ID.getFieldName());
+    private static final SerializableString PRODUCT_ID = new SerializedString(ComplaintField.PRODUCT_ID.getFieldName());
+    private static final SerializableString CONTENT = new SerializedString(ComplaintField.CONTENT.getFieldName());
+    private static final SerializableString CREATED_AT = new SerializedString(ComplaintField.CREATED_AT.getFieldName());
+    private static final SerializableString REPORTED_BY = new SerializedString(ComplaintField.REPORTED_BY.getFieldName());
+    private static final SerializableString COUNTRY = new SerializedString(ComplaintField.COUNTRY.getFieldName());
+    private static final SerializableString COUNTER = new SerializedString(ComplaintField.COUNTER.getFieldName());
+    private static final SerializableString VERSION = new SerializedString(ComplaintField.VERSION.getFieldName());
+
+    // "yyyy-MM-ddTHH:mm:ss.nnnnnnnnn"
+    private static final int MAX_DATE_TIME_LENGTH = 29;
+
+    ComplaintResponseSerializer() {
+        super(ComplaintResponse.class);
+    }
+
+    @Override
+    public void serialize(ComplaintResponse complaint, JsonGenerator generator, SerializerProvider provider)
+            throws IOException {
+        generator.writeStartObject(complaint);
+        if (complaint.id() != null) {
+            generator.writeFieldName(ID);
+            generator.writeNumber(complaint.id());
+        }
+        writeString(generator, PRODUCT_ID, complaint.productId());
+        writeString(generator, CONTENT, complaint.content());
+        if (complaint.createdAt() != null) {
+            generator.writeFieldName(CREATED_AT);
+            writeDateTime(generator, provider, complaint.createdAt());
+        }
+        writeString(generator, REPORTED_BY, complaint.reportedBy());
+        writeString(generator, COUNTRY, complaint.country());
+        if (complaint.counter() != null) {
+            generator.writeFieldName(COUNTER);
+            generator.writeNumber(complaint.counter());
+        }
+        if (complaint.version() != null) {
+            generator.writeFieldName(VERSION);
+            generator.writeNumber(complaint.version());
+        }
+        generator.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator generator, SerializableString name, String value)
+            throws IOException {
+        if (value != null) {
+            generator.writeFieldName(name);
+            generator.writeString(value);
+        }
+    }
+
+    private static void writeDateTime(JsonGenerator generator, SerializerProvider provider, LocalDateTime dateTime)
+            throws IOException {
+        if (provider.isEnabled(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)) {
+            writeTimestamp(generator, provider, dateTime);
+        } else if (dateTime.getYear() < 0 || dateTime.getYear() > 9999) {
+            // Signed years are rare enough for the formatter
+            generator.writeString(dateTime.format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+        } else {
+            char[] chars = new char[MAX_DATE_TIME_LENGTH];
+            generator.writeString(chars, 0, formatIso(dateTime, chars));
+        }
+    }
+
+    /**
+     * Writes the date as the default Jackson serializer does: [year, month, day, hour, minute], followed by
+     * the second if the second or the nanosecond is not zero, and by the nanosecond, or millisecond, if it is
+     * not zero.
+     */
+    private static void writeTimestamp(JsonGenerator generator, SerializerProvider provider, LocalDateTime dateTime)
+            throws IOException {
+        generator.writeStartArray();
+        generator.writeNumber(dateTime.getYear());
+        generator.writeNumber(dateTime.getMonthValue());
+        generator.writeNumber(dateTime.getDayOfMonth());
+        generator.writeNumber(dateTime.getHour());
+        generator.writeNumber(dateTime.getMinute());
+        int second = dateTime.getSecond();
+        int nano = dateTime.getNano();
+        if (second > 0 || nano > 0) {
+            generator.writeNumber(second);
+            if (nano > 0) {
+                generator.writeNumber(provider.isEnabled(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                        ? nano : nano / 1_000_000);
+            }
+        }
+        generator.writeEndArray();
+    }
+
+    /**
+     * Formats the date as {@link DateTimeFormatter#ISO_LOCAL_DATE_TIME} does for years 0 to 9999: seconds are
+     * always written, and the fraction of the second only if it is not zero, without trailing zeros.
+     *
+     * @return the number of chars written
+     */
+    private static int formatIso(LocalDateTime dateTime, char[] chars) {
+        int position = writeDigits(chars, 0, dateTime.getYear(), 4);
+        chars[position++] = '-';
+        position = writeDigits(chars, position, dateTime.getMonthValue(), 2);
+        chars[position++] = '-';
+        position = writeDigits(chars, position, dateTime.getDayOfMonth(), 2);
+        chars[position++] = 'T';
+        position = writeDigits(chars, position, dateTime.getHour(), 2);
+        chars[position++] = ':';
+        position = writeDigits(chars, position, dateTime.getMinute(), 2);
+        chars[position++] = ':';
+        position = writeDigits(chars, position, dateTime.getSecond(), 2);
+        int nano = dateTime.getNano();
+        if (nano > 0) {
+            chars[position++] = '.';
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            position = writeDigits(chars, position, nano, digits);
+        }
+        return position;
+    }
+
+    private static int writeDigits(char[] chars, int position, int value, int digits) {
+        for (int i = position + digits - 1; i >= position; i--) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + digits;
+    }
+}
@@ -0,0 +1,9 @@
+package pl.empik.complaintservice.model;
+
+/**
+ * A complaint matching a full-text search, with its relevance score.
+ */
+public record ComplaintSearchHit(
+        Long id,
+        float score
+) {}
@@ -0,0 +1,6 @@
+package pl.empik.complaintservice.model;
+
+public record ComplaintSearchResult(
+        ComplaintResponse complaint,
+        float score
+) {}
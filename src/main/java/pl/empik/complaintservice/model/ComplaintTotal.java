@@ -0,0 +1,10 @@
+package pl.empik.complaintservice.model;
+
+/**
+ * Sum of the counters of the complaints about a product from a country.
+ */
+public record ComplaintTotal(
+        String productId,
+        String country,
+        long total
+) {}
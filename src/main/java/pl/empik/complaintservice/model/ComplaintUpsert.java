@@ -0,0 +1,9 @@
+package pl.empik.complaintservice.model;
+
+public record ComplaintUpsert(
+        String productId,
+        String content,
+        String reportedBy,
+        String country,
+        int delta
+) {}
@@ -0,0 +1,14 @@
+package pl.empik.complaintservice.model;
+
+/**
+ * Version and counter of a complaint, identifying its current representation without loading it.
+ */
+public record ComplaintVersion(
+        Long id,
+        Long version,
+        Integer counter
+) {
+    public static ComplaintVersion of(ComplaintResponse complaint) {
+        return new ComplaintVersion(complaint.id(), complaint.version(), complaint.counter());
+    }
+}
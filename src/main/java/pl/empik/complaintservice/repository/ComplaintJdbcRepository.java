@@ -0,0 +1,97 @@
+package pl.empik.complaintservice.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Complaint queries executed directly over JDBC, bypassing entity hydration.
+ */
+public interface ComplaintJdbcRepository {
+
+    /**
+     * Finds the complaints matching the filter, ordered by ID, reading only the selected columns.
+     * Rows are mapped directly to responses, without entity hydration or dirty checking.
+     *
+     * @param filter the criteria, combined with AND
+     * @param fields the fields to read; the others are null in the responses
+     * @param afterId only complaints with a greater ID are returned, or null for all
+     * @param limit the maximum number of complaints
+     * @return the complaints
+     */
+    List<ComplaintResponse> findProjected(ComplaintFilter filter, Set<ComplaintField> fields, Long afterId, Limit limit);
+
+    /**
+     * Streams all complaints ordered by ID from a forward-only cursor.
+     * Rows are mapped one at a time, so memory use does not depend on the table size.
+     *
+     * @param consumer receives each complaint as it is read
+     */
+    void streamAll(Consumer<ComplaintResponse> consumer);
+
+    /**
+     * Atomically inserts a complaint or, if one with the same product and reporter exists,
+     * increments its counter, returning the resulting row in a single round trip.
+     * The counter of a newly inserted complaint is 1.
+     *
+     * @param productId the product ID
+     * @param content the content, used only when inserting
+     * @param reportedBy the reporter
+     * @param country the country, used only when inserting
+     * @param createdAt the creation time, used only when inserting
+     * @return the inserted or updated complaint
+     */
+    ComplaintResponse upsertIncrement(String productId, String content, String reportedBy,
+                                      String country, LocalDateTime createdAt);
+
+    /**
+     * Inserts the complaints or adds their deltas to the counters of existing complaints with the same
+     * product and reporter, using JDBC batches of {@code complaints.bulk.batch-size} statements.
+     * The counter of a newly inserted complaint is its delta. Keys must be distinct.
+     * A batch failing because a key was inserted concurrently is rolled back to a savepoint and retried.
+     *
+     * @param upserts the complaints to insert or increment
+     * @param createdAt the creation time, used only when inserting
+     * @return the resulting complaints, in no particular order
+     */
+    @Transactional
+    List<ComplaintResponse> upsertAll(List<ComplaintUpsert> upserts, LocalDateTime createdAt);
+
+    /**
+     * Adds the deltas to the counters of the complaints in one JDBC batch.
+     *
+     * @param deltas counter increments keyed by complaint ID
+     * @return the updated complaints, in no particular order
+     */
+    @Transactional
+    List<ComplaintResponse> incrementCounters(Map<Long, Integer> deltas);
+
+    /**
+     * Sets the country of the complaints in one statement returning the updated rows.
+     * The updated rows stay locked until the statement completes, so their counters include every
+     * increment made before the change and no increment made after it.
+     *
+     * @param ids the complaint IDs
+     * @param country the country
+     * @return the updated complaints, in no particular order
+     */
+    List<ComplaintResponse> updateCountry(Collection<Long> ids, String country);
+
+    /**
+     * Sums the counters of all complaints by product and country.
+     *
+     * @return the totals, in no particular order
+     */
+    List<ComplaintTotal> sumCountersByProductAndCountry();
+}
@@ -0,0 +1,218 @@
+package pl.empik.complaintservice.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+class ComplaintJdbcRepositoryImpl implements ComplaintJdbcRepository {
+
+    private static final String SELECT_ALL_ORDERED =
+            "select " + ComplaintQueries.COLUMNS + " from complaints order by id";
+
+    private static final String UPSERT_DELTA = """
+            merge into complaints t
+            using (values (cast(? as varchar(255)), cast(? as varchar(1000)), cast(? as timestamp(6)),
+                           cast(? as varchar(255)), cast(? as varchar(255)), cast(? as integer)))
+                s(product_id, content, created_at, reported_by, country, delta)
+            on t.product_id = s.product_id and t.reported_by = s.reported_by
+            when matched then update set counter = t.counter + s.delta, version = t.version + 1
+            when not matched then insert (product_id, content, created_at, reported_by, country, counter, version)
+                values (s.product_id, s.content, s.created_at, s.reported_by, s.country, s.delta, 0)
+            """;
+
+    private static final String SELECT_BY_KEYS =
+            "select " + ComplaintQueries.COLUMNS + " from complaints"
+                    + " where (product_id, reported_by) in (%s)";
+
+    private static final String SELECT_BY_IDS =
+            "select " + ComplaintQueries.COLUMNS + " from complaints where id in (%s)";
+
+    private static final String INCREMENT_COUNTER =
+            "update complaints set counter = counter + ?, version = version + 1 where id = ?";
+
+    private static final String UPDATE_COUNTRY =
+            "select " + ComplaintQueries.COLUMNS + " from final table ("
+                    + "update complaints set country = ?, version = version + 1 where id in (%s))";
+
+    private static final String SUM_COUNTERS_BY_PRODUCT_AND_COUNTRY =
+            "select product_id, country, sum(counter) as total from complaints group by product_id, country";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+    private final int batchSize;
+
+    ComplaintJdbcRepositoryImpl(JdbcTemplate jdbcTemplate,
+                                @Value("${complaints.stream.fetch-size:500}") int fetchSize,
+                                @Value("${complaints.bulk.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = fetchSize;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public List<ComplaintResponse> findProjected(ComplaintFilter filter, Set<ComplaintField> fields,
+                                                 Long afterId, Limit limit) {
+        ComplaintQueries.Query query = ComplaintQueries.projected(filter, fields, afterId, limit);
+        return jdbcTemplate.query(query.sql(), (resultSet, rowNum) -> mapRow(resultSet, fields),
+                query.arguments().toArray());
+    }
+
+    @Override
+    public void streamAll(Consumer<ComplaintResponse> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_ALL_ORDERED, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> consumer.accept(mapRow(resultSet)));
+    }
+
+    @Override
+    public ComplaintResponse upsertIncrement(String productId, String content, String reportedBy,
+                                             String country, LocalDateTime createdAt) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return jdbcTemplate.queryForObject(ComplaintQueries.UPSERT_INCREMENT, (resultSet, rowNum) -> mapRow(resultSet),
+                        productId, content, createdAt, reportedBy, country);
+            } catch (DuplicateKeyException e) {
+                if (attempt == ComplaintQueries.UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<ComplaintResponse> upsertAll(List<ComplaintUpsert> upserts, LocalDateTime createdAt) {
+        List<ComplaintResponse> complaints = new ArrayList<>(upserts.size());
+        for (int from = 0; from < upserts.size(); from += batchSize) {
+            List<ComplaintUpsert> chunk = upserts.subList(from, Math.min(from + batchSize, upserts.size()));
+            upsertChunk(chunk, createdAt);
+            Object[] keys = new Object[chunk.size() * 2];
+            for (int i = 0; i < chunk.size(); i++) {
+                keys[2 * i] = chunk.get(i).productId();
+                keys[2 * i + 1] = chunk.get(i).reportedBy();
+            }
+            String sql = SELECT_BY_KEYS.formatted(String.join(", ", Collections.nCopies(chunk.size(), "(?, ?)")));
+            complaints.addAll(jdbcTemplate.query(sql, (resultSet, rowNum) -> mapRow(resultSet), keys));
+        }
+        return complaints;
+    }
+
+    /**
+     * Executes one batch of upserts. A key inserted by a concurrent transaction after the merge found no match
+     * fails the batch with a duplicate key; the statements of the batch that did apply are rolled back to a
+     * savepoint, so that the retry, which now matches the committed key, adds each delta once.
+     */
+    private void upsertChunk(List<ComplaintUpsert> chunk, LocalDateTime createdAt) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                jdbcTemplate.execute((ConnectionCallback<int[]>) connection -> {
+                    Savepoint savepoint = connection.setSavepoint();
+                    try (PreparedStatement statement = connection.prepareStatement(UPSERT_DELTA)) {
+                        for (ComplaintUpsert upsert : chunk) {
+                            statement.setString(1, upsert.productId());
+                            statement.setString(2, upsert.content());
+                            statement.setObject(3, createdAt);
+                            statement.setString(4, upsert.reportedBy());
+                            statement.setString(5, upsert.country());
+                            statement.setInt(6, upsert.delta());
+                            statement.addBatch();
+                        }
+                        int[] counts = statement.executeBatch();
+                        connection.releaseSavepoint(savepoint);
+                        return counts;
+                    } catch (SQLException e) {
+                        connection.rollback(savepoint);
+                        throw e;
+                    }
+                });
+                return;
+            } catch (DuplicateKeyException e) {
+                if (attempt == ComplaintQueries.UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public List<ComplaintResponse> incrementCounters(Map<Long, Integer> deltas) {
+        List<Object[]> arguments = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> arguments.add(new Object[]{delta, id}));
+        jdbcTemplate.batchUpdate(INCREMENT_COUNTER, arguments);
+        // The updated rows stay locked by the transaction, so they are read back as incremented
+        List<Long> ids = List.copyOf(deltas.keySet());
+        List<ComplaintResponse> complaints = new ArrayList<>(ids.size());
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + batchSize, ids.size()));
+            String sql = SELECT_BY_IDS.formatted(String.join(", ", Collections.nCopies(chunk.size(), "?")));
+            complaints.addAll(jdbcTemplate.query(sql, (resultSet, rowNum) -> mapRow(resultSet), chunk.toArray()));
+        }
+        return complaints;
+    }
+
+    @Override
+    public List<ComplaintResponse> updateCountry(Collection<Long> ids, String country) {
+        Object[] arguments = new Object[ids.size() + 1];
+        arguments[0] = country;
+        System.arraycopy(ids.toArray(), 0, arguments, 1, ids.size());
+        String sql = UPDATE_COUNTRY.formatted(String.join(", ", Collections.nCopies(ids.size(), "?")));
+        return jdbcTemplate.query(sql, (resultSet, rowNum) -> mapRow(resultSet), arguments);
+    }
+
+    @Override
+    public List<ComplaintTotal> sumCountersByProductAndCountry() {
+        return jdbcTemplate.query(SUM_COUNTERS_BY_PRODUCT_AND_COUNTRY, (resultSet, rowNum) -> new ComplaintTotal(
+                resultSet.getString("product_id"),
+                resultSet.getString("country"),
+                resultSet.getLong("total")));
+    }
+
+    private static ComplaintResponse mapRow(ResultSet resultSet, Set<ComplaintField> fields) throws SQLException {
+        return new ComplaintResponse(
+                resultSet.getLong("id"),
+                fields.contains(ComplaintField.PRODUCT_ID) ? resultSet.getString("product_id") : null,
+                fields.contains(ComplaintField.CONTENT) ? resultSet.getString("content") : null,
+                fields.contains(ComplaintField.CREATED_AT) ? resultSet.getObject("created_at", LocalDateTime.class) : null,
+                fields.contains(ComplaintField.REPORTED_BY) ? resultSet.getString("reported_by") : null,
+                fields.contains(ComplaintField.COUNTRY) ? resultSet.getString("country") : null,
+                fields.contains(ComplaintField.COUNTER) ? resultSet.getInt("counter") : null,
+                fields.contains(ComplaintField.VERSION) ? resultSet.getLong("version") : null
+        );
+    }
+
+    private static ComplaintResponse mapRow(ResultSet resultSet) throws SQLException {
+        return new ComplaintResponse(
+                resultSet.getLong("id"),
+                resultSet.getString("product_id"),
+                resultSet.getString("content"),
+                resultSet.getObject("created_at", LocalDateTime.class),
+                resultSet.getString("reported_by"),
+                resultSet.getString("country"),
+                resultSet.getInt("counter"),
+                resultSet.getLong("version")
+        );
+    }
+}
@@ -0,0 +1,181 @@
+package pl.empik.complaintservice.repository;
+
+import lombok.extern.slf4j.Slf4j;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only file of complaint states, from which {@link InMemoryComplaintStore} recovers after a restart
+ * or a crash.
+ * <p>
+ * Every change appends the complete new state of the complaint, as a length-prefixed record with a CRC32
+ * checksum. Records are written to the operating system immediately, so they survive a crash of the
+ * process, and forced to the disk by {@link #sync()}. Replaying the file yields every state ever appended;
+ * the last state of a complaint is the one with the highest version. A record torn by a crash is detected
+ * by its checksum and discarded with everything after it.
+ * <p>
+ * The file is compacted at startup: the last states are written to a new file that atomically replaces it,
+ * so the file is a snapshot followed by the changes made since.
+ */
+@Slf4j
+class ComplaintLog implements AutoCloseable {
+
+    private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+    // Far above the size of any complaint, so that a corrupt length is never allocated
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private final Path file;
+    private FileChannel channel;
+
+    ComplaintLog(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads all records of the file, stopping at the first incomplete or corrupt record.
+     *
+     * @param consumer receives each state in the order appended
+     * @throws IOException if the file cannot be read
+     */
+    void replay(Consumer<ComplaintResponse> consumer) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+            CRC32 crc = new CRC32();
+            while (true) {
+                int length;
+                long checksum;
+                byte[] record;
+                try {
+                    length = in.readInt();
+                    checksum = in.readLong();
+                    record = length >= 0 && length <= MAX_RECORD_BYTES ? in.readNBytes(length) : new byte[0];
+                } catch (EOFException e) {
+                    return;
+                }
+                crc.reset();
+                crc.update(record);
+                if (record.length != length || crc.getValue() != checksum) {
+                    log.warn("Discarding the incomplete tail of complaint log {}", file);
+                    return;
+                }
+                consumer.accept(decode(record));
+            }
+        }
+    }
+
+    /**
+     * Replaces the file with one holding the given states only, and opens it for appending.
+     *
+     * @param complaints the last state of every complaint
+     * @throws IOException if the file cannot be written
+     */
+    void compact(Collection<ComplaintResponse> complaints) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path snapshot = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try (FileChannel out = FileChannel.open(snapshot, StandardOpenOption.WRITE)) {
+            for (ComplaintResponse complaint : complaints) {
+                write(out, complaint);
+            }
+            out.force(true);
+        }
+        Files.move(snapshot, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Appends the new state of a complaint.
+     *
+     * @param complaint the complaint
+     * @throws IllegalArgumentException if a text field exceeds the 65535 bytes of modified UTF-8 a record holds
+     */
+    synchronized void append(ComplaintResponse complaint) {
+        try {
+            write(channel, complaint);
+        } catch (UTFDataFormatException e) {
+            throw new IllegalArgumentException("Complaint " + complaint.id() + " is too large for the complaint log", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Forces the appended records to the disk.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    private static void write(FileChannel out, ComplaintResponse complaint) throws IOException {
+        byte[] record = encode(complaint);
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + record.length)
+                .putInt(record.length)
+                .putLong(crc.getValue())
+                .put(record)
+                .flip();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    private static byte[] encode(ComplaintResponse complaint) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128 + complaint.content().length() * 3);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(complaint.id());
+        out.writeUTF(complaint.productId());
+        out.writeUTF(complaint.content());
+        out.writeLong(complaint.createdAt().toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(complaint.createdAt().getNano());
+        out.writeUTF(complaint.reportedBy());
+        out.writeUTF(complaint.country());
+        out.writeInt(complaint.counter());
+        out.writeLong(complaint.version());
+        return bytes.toByteArray();
+    }
+
+    private static ComplaintResponse decode(byte[] record) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        Long id = in.readLong();
+        String productId = in.readUTF();
+        String content = in.readUTF();
+        LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+        String reportedBy = in.readUTF();
+        String country = in.readUTF();
+        int counter = in.readInt();
+        long version = in.readLong();
+        return new ComplaintResponse(id, productId, content, createdAt, reportedBy, country, counter, version);
+    }
+}
@@ -0,0 +1,72 @@
+package pl.empik.complaintservice.repository;
+
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Outbox of complaint change events, written by the {@link ComplaintStore} together with the change and read
+ * by the relay that publishes them. The implementation follows {@code complaints.store.type}: the
+ * {@code complaint_events} table for {@code jpa} ({@link JdbcComplaintOutbox}) or an in-process log for
+ * {@code memory} ({@link InMemoryComplaintOutbox}).
+ * <p>
+ * Event IDs increase in the order the events are written, but a transaction may commit after another
+ * one that wrote a greater ID, so readers must not assume that a gap in the IDs is never filled.
+ */
+public interface ComplaintOutbox {
+
+    /**
+     * Appends an event with the current state of a complaint. Joins the transaction of the caller, if any.
+     *
+     * @param type the type of the change
+     * @param complaint the complaint after the change
+     */
+    void append(ComplaintEventType type, ComplaintResponse complaint);
+
+    /**
+     * Appends an event of the same type for each complaint, in one batch. Joins the transaction of the caller,
+     * if any.
+     *
+     * @param type the type of the changes
+     * @param complaints the complaints after the change
+     */
+    void appendAll(ComplaintEventType type, List<ComplaintResponse> complaints);
+
+    /**
+     * Finds the events in an ID range, ordered by ID.
+     *
+     * @param afterId only events with a greater ID are returned
+     * @param upToId only events with this or a lower ID are returned
+     * @param limit the maximum number of events
+     * @return the events
+     */
+    List<ComplaintEvent> findAfter(long afterId, long upToId, int limit);
+
+    /**
+     * Finds the ID of the last event published by a consumer.
+     *
+     * @param consumer the consumer name
+     * @return the event ID, or 0 if the consumer has not published any event
+     */
+    long findPosition(String consumer);
+
+    /**
+     * Stores the ID of the last event published by a consumer.
+     *
+     * @param consumer the consumer name
+     * @param eventId the event ID
+     */
+    void savePosition(String consumer, long eventId);
+
+    /**
+     * Deletes the events up to an ID that occurred before the given time.
+     *
+     * @param eventId the greatest ID to delete
+     * @param occurredBefore only events that occurred before this time are deleted
+     * @return the number of deleted events
+     */
+    int deleteUpTo(long eventId, LocalDateTime occurredBefore);
+}
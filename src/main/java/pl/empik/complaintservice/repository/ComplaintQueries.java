@@ -0,0 +1,107 @@
+package pl.empik.complaintservice.repository;
+
+import org.springframework.data.domain.Limit;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * SQL shared by the blocking {@link ComplaintJdbcRepositoryImpl} and the non-blocking
+ * {@link ReactiveComplaintRepository}, so that both access the table the same way.
+ * Parameters are positional {@code ?} markers.
+ */
+final class ComplaintQueries {
+
+    static final String COLUMNS = "id, product_id, content, created_at, reported_by, country, counter, version";
+
+    // Standard SQL MERGE wrapped in an H2 data change delta table, so the resulting row is returned
+    // by the same statement. On PostgreSQL this would be INSERT ... ON CONFLICT DO UPDATE ... RETURNING.
+    static final String UPSERT_INCREMENT = """
+            select id, product_id, content, created_at, reported_by, country, counter, version from final table (
+                merge into complaints t
+                using (values (cast(? as varchar(255)), cast(? as varchar(1000)), cast(? as timestamp(6)),
+                               cast(? as varchar(255)), cast(? as varchar(255))))
+                    s(product_id, content, created_at, reported_by, country)
+                on t.product_id = s.product_id and t.reported_by = s.reported_by
+                when matched then update set counter = t.counter + 1, version = t.version + 1
+                when not matched then insert (product_id, content, created_at, reported_by, country, counter, version)
+                    values (s.product_id, s.content, s.created_at, s.reported_by, s.country, 1, 0))
+            """;
+
+    // Two transactions inserting the same new key both take the "not matched" branch and one of them
+    // fails on the unique constraint; retrying it takes the "matched" branch.
+    static final int UPSERT_ATTEMPTS = 3;
+
+    static final String INSERT_EVENT = """
+            insert into complaint_events (type, occurred_at, complaint_id, product_id, content, created_at,
+                                          reported_by, country, counter, version)
+            values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private ComplaintQueries() {
+    }
+
+    /**
+     * Returns the arguments of {@link #INSERT_EVENT}.
+     *
+     * @param type the type of the change
+     * @param complaint the complaint after the change
+     * @param occurredAt the time of the change
+     * @return the arguments in the order of the parameters
+     */
+    static List<Object> eventArguments(ComplaintEventType type, ComplaintResponse complaint, LocalDateTime occurredAt) {
+        return List.of(type.name(), occurredAt, complaint.id(), complaint.productId(), complaint.content(),
+                complaint.createdAt(), complaint.reportedBy(), complaint.country(), complaint.counter(),
+                complaint.version());
+    }
+
+    /**
+     * Builds the query of {@link ComplaintStore#findProjected}.
+     *
+     * @param filter the criteria, combined with AND
+     * @param fields the fields to read
+     * @param afterId only complaints with a greater ID are returned, or null for all
+     * @param limit the maximum number of complaints
+     * @return the SQL with its arguments
+     */
+    static Query projected(ComplaintFilter filter, Set<ComplaintField> fields, Long afterId, Limit limit) {
+        StringJoiner columns = new StringJoiner(", ");
+        fields.forEach(field -> columns.add(field.getColumn()));
+        StringJoiner conditions = new StringJoiner(" and ", " where ", "").setEmptyValue("");
+        List<Object> arguments = new ArrayList<>();
+        addCondition(conditions, arguments, "product_id = ?", filter.productId());
+        addCondition(conditions, arguments, "reported_by = ?", filter.reportedBy());
+        addCondition(conditions, arguments, "country = ?", filter.country());
+        addCondition(conditions, arguments, "created_at >= ?", filter.createdFrom());
+        addCondition(conditions, arguments, "created_at < ?", filter.createdTo());
+        addCondition(conditions, arguments, "counter >= ?", filter.minCounter());
+        addCondition(conditions, arguments, "id > ?", afterId);
+
+        StringBuilder sql = new StringBuilder("select ").append(columns).append(" from complaints")
+                .append(conditions).append(" order by id");
+        if (limit.isLimited()) {
+            sql.append(" fetch first ? rows only");
+            arguments.add(limit.max());
+        }
+        return new Query(sql.toString(), arguments);
+    }
+
+    private static void addCondition(StringJoiner conditions, List<Object> arguments, String condition, Object value) {
+        if (value != null) {
+            conditions.add(condition);
+            arguments.add(value);
+        }
+    }
+
+    /**
+     * SQL statement with the values of its parameters, in order.
+     */
+    record Query(String sql, List<Object> arguments) {}
+}
@@ -1,12 +1,17 @@
 package pl.empik.complaintservice.repository;
 
 import pl.empik.complaintservice.model.Complaint;
+import pl.empik.complaintservice.model.ComplaintVersion;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
-public interface ComplaintRepository extends JpaRepository<Complaint, Long> {
+public interface ComplaintRepository extends JpaRepository<Complaint, Long>, ComplaintJdbcRepository {
     Optional<Complaint> findByProductIdAndReportedBy(String productId, String reportedBy);
+
+    @Query("select new pl.empik.complaintservice.model.ComplaintVersion(c.id, c.version, c.counter)"
+            + " from Complaint c where c.id = :id")
+    Optional<ComplaintVersion> findVersionById(@Param("id") Long id);
 }
@@ -0,0 +1,135 @@
+package pl.empik.complaintservice.repository;
+
+import org.springframework.data.domain.Limit;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+import pl.empik.complaintservice.model.ComplaintVersion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Storage of complaints used by the services, selected with {@code complaints.store.type}:
+ * {@code jpa} for the database ({@link JpaComplaintStore}) or {@code memory} for an in-process store
+ * ({@link InMemoryComplaintStore}).
+ * <p>
+ * Every change of a complaint, including counter increments, increments its version.
+ * Every change also appends a change event with the resulting complaint to the {@link ComplaintOutbox} of the
+ * store with the change.
+ */
+public interface ComplaintStore {
+
+    /**
+     * Finds a complaint by its ID.
+     *
+     * @param id the complaint ID
+     * @return the complaint, or empty if not found
+     */
+    Optional<ComplaintResponse> findById(Long id);
+
+    /**
+     * Finds the complaints with the given IDs. Unknown IDs are skipped.
+     *
+     * @param ids the complaint IDs
+     * @return the complaints, in no particular order
+     */
+    List<ComplaintResponse> findAllById(Collection<Long> ids);
+
+    /**
+     * Finds the version and counter of a complaint.
+     *
+     * @param id the complaint ID
+     * @return the version, or empty if not found
+     */
+    Optional<ComplaintVersion> findVersionById(Long id);
+
+    /**
+     * Finds the complaints matching the filter, ordered by ID.
+     *
+     * @param filter the criteria, combined with AND
+     * @param fields the fields to read; the others are null in the responses
+     * @param afterId only complaints with a greater ID are returned, or null for all
+     * @param limit the maximum number of complaints
+     * @return the complaints
+     */
+    List<ComplaintResponse> findProjected(ComplaintFilter filter, Set<ComplaintField> fields, Long afterId, Limit limit);
+
+    /**
+     * Streams all complaints ordered by ID, one at a time.
+     *
+     * @param consumer receives each complaint
+     */
+    void streamAll(Consumer<ComplaintResponse> consumer);
+
+    /**
+     * Atomically inserts a complaint or, if one with the same product and reporter exists,
+     * increments its counter. The counter of a newly inserted complaint is 1.
+     * The change is recorded as a {@code CREATED} or {@code INCREMENTED} event in the outbox.
+     *
+     * @param productId the product ID
+     * @param content the content, used only when inserting
+     * @param reportedBy the reporter
+     * @param country the country, used only when inserting
+     * @param createdAt the creation time, used only when inserting
+     * @return the inserted or updated complaint
+     */
+    ComplaintResponse upsertIncrement(String productId, String content, String reportedBy,
+                                      String country, LocalDateTime createdAt);
+
+    /**
+     * Inserts the complaints or adds their deltas to the counters of existing complaints with the same
+     * product and reporter. The counter of a newly inserted complaint is its delta. Keys must be distinct.
+     * Each change is recorded as a {@code CREATED} or {@code INCREMENTED} event in the outbox.
+     *
+     * @param upserts the complaints to insert or increment
+     * @param createdAt the creation time, used only when inserting
+     * @return the resulting complaints, in no particular order
+     */
+    List<ComplaintResponse> upsertAll(List<ComplaintUpsert> upserts, LocalDateTime createdAt);
+
+    /**
+     * Adds the deltas to the counters of the complaints.
+     * Each change is recorded as an {@code INCREMENTED} event in the outbox.
+     *
+     * @param deltas counter increments keyed by complaint ID
+     */
+    void incrementCounters(Map<Long, Integer> deltas);
+
+    /**
+     * Sets the country of the complaints. The returned total includes every increment made before the
+     * change and no increment made after it. Each change is recorded as an {@code UPDATED} event in the outbox.
+     *
+     * @param ids the complaint IDs
+     * @param country the country
+     * @return the sum of the counters of the updated complaints
+     */
+    long updateCountry(Collection<Long> ids, String country);
+
+    /**
+     * Sets the content of a complaint if it still has the expected version.
+     * The change is recorded as an {@code UPDATED} event in the outbox.
+     *
+     * @param id the complaint ID
+     * @param content the new content
+     * @param expectedVersion the version the caller has seen, or null to update any version
+     * @return the updated complaint, or empty if not found
+     * @throws ComplaintModifiedException if the complaint no longer has the expected version
+     */
+    Optional<ComplaintResponse> updateContent(Long id, String content, Long expectedVersion);
+
+    /**
+     * Sums the counters of all complaints by product and country.
+     *
+     * @return the totals, in no particular order
+     */
+    List<ComplaintTotal> sumCountersByProductAndCountry();
+}
@@ -0,0 +1,73 @@
+package pl.empik.complaintservice.repository;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Outbox held in memory, active with the {@link InMemoryComplaintStore}. Events are appended right after the
+ * change they record and, like the positions, are lost on restart, when the event IDs start again from 1.
+ */
+@Component
+@ConditionalOnProperty(name = "complaints.store.type", havingValue = "memory")
+public class InMemoryComplaintOutbox implements ComplaintOutbox {
+
+    private final ConcurrentSkipListMap<Long, ComplaintEvent> events = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Long> positions = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public void append(ComplaintEventType type, ComplaintResponse complaint) {
+        long id = sequence.incrementAndGet();
+        events.put(id, new ComplaintEvent(id, type, LocalDateTime.now(), complaint));
+    }
+
+    @Override
+    public void appendAll(ComplaintEventType type, List<ComplaintResponse> complaints) {
+        complaints.forEach(complaint -> append(type, complaint));
+    }
+
+    @Override
+    public List<ComplaintEvent> findAfter(long afterId, long upToId, int limit) {
+        if (afterId >= upToId) {
+            return List.of();
+        }
+        List<ComplaintEvent> found = new ArrayList<>(Math.min(limit, 64));
+        Iterator<ComplaintEvent> iterator = events.subMap(afterId, false, upToId, true).values().iterator();
+        while (found.size() < limit && iterator.hasNext()) {
+            found.add(iterator.next());
+        }
+        return found;
+    }
+
+    @Override
+    public long findPosition(String consumer) {
+        return positions.getOrDefault(consumer, 0L);
+    }
+
+    @Override
+    public void savePosition(String consumer, long eventId) {
+        positions.put(consumer, eventId);
+    }
+
+    @Override
+    public int deleteUpTo(long eventId, LocalDateTime occurredBefore) {
+        int deleted = 0;
+        for (ComplaintEvent event : events.headMap(eventId, true).values()) {
+            if (event.occurredAt().isBefore(occurredBefore) && events.remove(event.id(), event)) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
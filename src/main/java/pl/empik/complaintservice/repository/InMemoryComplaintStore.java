@@ -0,0 +1,324 @@
+package pl.empik.complaintservice.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+import pl.empik.complaintservice.model.ComplaintVersion;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Complaint store held in memory, for stateless single-node deployments. Active when
+ * {@code complaints.store.type=memory}.
+ * <p>
+ * Complaints are indexed by ID in a concurrent skip list, which keeps them ordered for listings, and by
+ * product and reporter in a concurrent hash map, so that a duplicate is found in constant time. Each
+ * complaint is an immutable state replaced by compare-and-set, so counter increments and other changes
+ * are atomic without locks, and every change increments the version.
+ * <p>
+ * When {@code complaints.store.memory.file} is set, every change is appended to a {@link ComplaintLog}
+ * that is forced to the disk every {@code complaints.store.memory.sync-interval} and replayed at startup.
+ * A change is appended before it becomes visible, holding a lock on the complaint, so the log has the states
+ * of a complaint in version order and a change that cannot be appended is not made. Without the log,
+ * complaints are lost on restart. Filtered listings scan the complaints.
+ * <p>
+ * Change events are appended to the {@link InMemoryComplaintOutbox} right after the change. Under contention,
+ * the events of concurrent changes of one complaint may be appended out of version order.
+ */
+@Component
+@ConditionalOnProperty(name = "complaints.store.type", havingValue = "memory")
+@Slf4j
+public class InMemoryComplaintStore implements ComplaintStore {
+
+    private final ConcurrentSkipListMap<Long, AtomicReference<ComplaintResponse>> complaints =
+            new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Key, Long> idsByKey = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final ComplaintLog complaintLog;
+    private final Duration syncInterval;
+    private final ComplaintOutbox complaintOutbox;
+
+    private ScheduledExecutorService syncer;
+
+    public InMemoryComplaintStore(@Value("${complaints.store.memory.file:}") String file,
+                                  @Value("${complaints.store.memory.sync-interval:PT0.1S}") Duration syncInterval,
+                                  ComplaintOutbox complaintOutbox) {
+        this.complaintLog = file.isEmpty() ? null : new ComplaintLog(Path.of(file));
+        this.syncInterval = syncInterval;
+        this.complaintOutbox = complaintOutbox;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (complaintLog == null) {
+            return;
+        }
+        complaintLog.replay(this::restore);
+        complaintLog.compact(complaints.values().stream().map(AtomicReference::get).toList());
+        log.info("Recovered {} complaints from the complaint log", complaints.size());
+
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "complaint-log-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = syncInterval.toMillis();
+        syncer.scheduleWithFixedDelay(this::syncQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (syncer != null) {
+            syncer.shutdown();
+            syncer.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        if (complaintLog != null) {
+            complaintLog.close();
+        }
+    }
+
+    @Override
+    public Optional<ComplaintResponse> findById(Long id) {
+        AtomicReference<ComplaintResponse> complaint = complaints.get(id);
+        return complaint != null ? Optional.of(complaint.get()) : Optional.empty();
+    }
+
+    @Override
+    public List<ComplaintResponse> findAllById(Collection<Long> ids) {
+        List<ComplaintResponse> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            findById(id).ifPresent(found::add);
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<ComplaintVersion> findVersionById(Long id) {
+        return findById(id).map(ComplaintVersion::of);
+    }
+
+    @Override
+    public List<ComplaintResponse> findProjected(ComplaintFilter filter, Set<ComplaintField> fields, Long afterId,
+                                                 Limit limit) {
+        ConcurrentNavigableMap<Long, AtomicReference<ComplaintResponse>> range =
+                afterId != null ? complaints.tailMap(afterId, false) : complaints;
+        int max = limit.isLimited() ? limit.max() : Integer.MAX_VALUE;
+        List<ComplaintResponse> found = new ArrayList<>(Math.min(max, 64));
+        for (AtomicReference<ComplaintResponse> reference : range.values()) {
+            if (found.size() == max) {
+                break;
+            }
+            ComplaintResponse complaint = reference.get();
+            if (matches(complaint, filter)) {
+                found.add(project(complaint, fields));
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void streamAll(Consumer<ComplaintResponse> consumer) {
+        complaints.values().forEach(complaint -> consumer.accept(complaint.get()));
+    }
+
+    @Override
+    public ComplaintResponse upsertIncrement(String productId, String content, String reportedBy,
+                                             String country, LocalDateTime createdAt) {
+        ComplaintResponse complaint = upsert(productId, content, reportedBy, country, 1, createdAt);
+        complaintOutbox.append(ComplaintEvent.upsertType(complaint), complaint);
+        return complaint;
+    }
+
+    @Override
+    public List<ComplaintResponse> upsertAll(List<ComplaintUpsert> upserts, LocalDateTime createdAt) {
+        List<ComplaintResponse> results = new ArrayList<>(upserts.size());
+        for (ComplaintUpsert upsert : upserts) {
+            ComplaintResponse complaint = upsert(upsert.productId(), upsert.content(), upsert.reportedBy(),
+                    upsert.country(), upsert.delta(), createdAt);
+            complaintOutbox.append(ComplaintEvent.upsertType(complaint), complaint);
+            results.add(complaint);
+        }
+        return results;
+    }
+
+    @Override
+    public void incrementCounters(Map<Long, Integer> deltas) {
+        deltas.forEach((id, delta) -> {
+            ComplaintResponse updated = update(id, complaint -> withCounter(complaint, complaint.counter() + delta));
+            if (updated != null) {
+                complaintOutbox.append(ComplaintEventType.INCREMENTED, updated);
+            }
+        });
+    }
+
+    @Override
+    public long updateCountry(Collection<Long> ids, String country) {
+        long total = 0;
+        for (Long id : ids) {
+            ComplaintResponse updated = update(id, complaint -> new ComplaintResponse(complaint.id(),
+                    complaint.productId(), complaint.content(), complaint.createdAt(), complaint.reportedBy(),
+                    country, complaint.counter(), complaint.version() + 1));
+            if (updated != null) {
+                complaintOutbox.append(ComplaintEventType.UPDATED, updated);
+                total += updated.counter();
+            }
+        }
+        return total;
+    }
+
+    @Override
+    public Optional<ComplaintResponse> updateContent(Long id, String content, Long expectedVersion) {
+        ComplaintResponse updated = update(id, complaint -> {
+            if (expectedVersion != null && !expectedVersion.equals(complaint.version())) {
+                throw new ComplaintModifiedException(ComplaintConstants.COMPLAINT_MODIFIED_MESSAGE + expectedVersion);
+            }
+            return new ComplaintResponse(complaint.id(), complaint.productId(), content, complaint.createdAt(),
+                    complaint.reportedBy(), complaint.country(), complaint.counter(), complaint.version() + 1);
+        });
+        if (updated == null) {
+            return Optional.empty();
+        }
+        complaintOutbox.append(ComplaintEventType.UPDATED, updated);
+        return Optional.of(updated);
+    }
+
+    @Override
+    public List<ComplaintTotal> sumCountersByProductAndCountry() {
+        Map<ProductCountry, Long> totals = new HashMap<>();
+        for (AtomicReference<ComplaintResponse> reference : complaints.values()) {
+            ComplaintResponse complaint = reference.get();
+            totals.merge(new ProductCountry(complaint.productId(), complaint.country()),
+                    (long) complaint.counter(), Long::sum);
+        }
+        List<ComplaintTotal> result = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> result.add(new ComplaintTotal(key.productId(), key.country(), total)));
+        return result;
+    }
+
+    private ComplaintResponse upsert(String productId, String content, String reportedBy, String country,
+                                     int delta, LocalDateTime createdAt) {
+        Key key = new Key(productId, reportedBy);
+        Long existing = idsByKey.get(key);
+        if (existing == null) {
+            ComplaintResponse[] created = new ComplaintResponse[1];
+            // The complaint is logged and indexed by ID before its key becomes visible to concurrent duplicates
+            existing = idsByKey.computeIfAbsent(key, k -> {
+                long id = sequence.incrementAndGet();
+                created[0] = new ComplaintResponse(id, productId, content, createdAt, reportedBy, country, delta, 0L);
+                append(created[0]);
+                complaints.put(id, new AtomicReference<>(created[0]));
+                return id;
+            });
+            if (created[0] != null) {
+                return created[0];
+            }
+        }
+        return update(existing, complaint -> withCounter(complaint, complaint.counter() + delta));
+    }
+
+    private ComplaintResponse update(Long id, UnaryOperator<ComplaintResponse> change) {
+        AtomicReference<ComplaintResponse> reference = complaints.get(id);
+        if (reference == null) {
+            return null;
+        }
+        if (complaintLog == null) {
+            return reference.updateAndGet(change);
+        }
+        synchronized (reference) {
+            ComplaintResponse updated = change.apply(reference.get());
+            complaintLog.append(updated);
+            reference.set(updated);
+            return updated;
+        }
+    }
+
+    private void restore(ComplaintResponse complaint) {
+        AtomicReference<ComplaintResponse> reference = complaints.computeIfAbsent(complaint.id(),
+                id -> new AtomicReference<>(complaint));
+        if (reference.get().version() < complaint.version()) {
+            reference.set(complaint);
+        }
+        idsByKey.put(new Key(complaint.productId(), complaint.reportedBy()), complaint.id());
+        sequence.accumulateAndGet(complaint.id(), Math::max);
+    }
+
+    private void append(ComplaintResponse complaint) {
+        if (complaintLog != null) {
+            complaintLog.append(complaint);
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            complaintLog.sync();
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while syncing complaint log", e);
+        }
+    }
+
+    private static ComplaintResponse withCounter(ComplaintResponse complaint, int counter) {
+        return new ComplaintResponse(complaint.id(), complaint.productId(), complaint.content(), complaint.createdAt(),
+                complaint.reportedBy(), complaint.country(), counter, complaint.version() + 1);
+    }
+
+    private static boolean matches(ComplaintResponse complaint, ComplaintFilter filter) {
+        return (filter.productId() == null || filter.productId().equals(complaint.productId()))
+                && (filter.reportedBy() == null || filter.reportedBy().equals(complaint.reportedBy()))
+                && (filter.country() == null || filter.country().equals(complaint.country()))
+                && (filter.createdFrom() == null || !complaint.createdAt().isBefore(filter.createdFrom()))
+                && (filter.createdTo() == null || complaint.createdAt().isBefore(filter.createdTo()))
+                && (filter.minCounter() == null || complaint.counter() >= filter.minCounter());
+    }
+
+    private static ComplaintResponse project(ComplaintResponse complaint, Set<ComplaintField> fields) {
+        if (fields.size() == ComplaintField.ALL.size()) {
+            return complaint;
+        }
+        return new ComplaintResponse(
+                complaint.id(),
+                fields.contains(ComplaintField.PRODUCT_ID) ? complaint.productId() : null,
+                fields.contains(ComplaintField.CONTENT) ? complaint.content() : null,
+                fields.contains(ComplaintField.CREATED_AT) ? complaint.createdAt() : null,
+                fields.contains(ComplaintField.REPORTED_BY) ? complaint.reportedBy() : null,
+                fields.contains(ComplaintField.COUNTRY) ? complaint.country() : null,
+                complaint.counter(),
+                complaint.version());
+    }
+
+    private record Key(String productId, String reportedBy) {}
+
+    private record ProductCountry(String productId, String country) {}
+}
@@ -0,0 +1,92 @@
+package pl.empik.complaintservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outbox in the {@code complaint_events} table, written on the connection of the transaction of the change.
+ * Active with the {@link JpaComplaintStore}.
+ */
+@Component
+@ConditionalOnProperty(name = "complaints.store.type", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JdbcComplaintOutbox implements ComplaintOutbox {
+
+    private static final String SELECT_AFTER = """
+            select id, type, occurred_at, complaint_id, product_id, content, created_at, reported_by, country,
+                   counter, version
+            from complaint_events where id > ? and id <= ? order by id fetch first ? rows only
+            """;
+
+    private static final String SELECT_POSITION = "select event_id from complaint_event_positions where consumer = ?";
+
+    private static final String MERGE_POSITION = "merge into complaint_event_positions key (consumer) values (?, ?)";
+
+    private static final String DELETE_UP_TO = "delete from complaint_events where id <= ? and occurred_at < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void append(ComplaintEventType type, ComplaintResponse complaint) {
+        jdbcTemplate.update(ComplaintQueries.INSERT_EVENT,
+                ComplaintQueries.eventArguments(type, complaint, LocalDateTime.now()).toArray());
+    }
+
+    @Override
+    public void appendAll(ComplaintEventType type, List<ComplaintResponse> complaints) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Object[]> arguments = new ArrayList<>(complaints.size());
+        for (ComplaintResponse complaint : complaints) {
+            arguments.add(ComplaintQueries.eventArguments(type, complaint, now).toArray());
+        }
+        jdbcTemplate.batchUpdate(ComplaintQueries.INSERT_EVENT, arguments);
+    }
+
+    @Override
+    public List<ComplaintEvent> findAfter(long afterId, long upToId, int limit) {
+        return jdbcTemplate.query(SELECT_AFTER, (resultSet, rowNum) -> mapRow(resultSet), afterId, upToId, limit);
+    }
+
+    @Override
+    public long findPosition(String consumer) {
+        List<Long> positions = jdbcTemplate.queryForList(SELECT_POSITION, Long.class, consumer);
+        return positions.isEmpty() ? 0 : positions.get(0);
+    }
+
+    @Override
+    public void savePosition(String consumer, long eventId) {
+        jdbcTemplate.update(MERGE_POSITION, consumer, eventId);
+    }
+
+    @Override
+    public int deleteUpTo(long eventId, LocalDateTime occurredBefore) {
+        return jdbcTemplate.update(DELETE_UP_TO, eventId, occurredBefore);
+    }
+
+    private static ComplaintEvent mapRow(ResultSet resultSet) throws SQLException {
+        return new ComplaintEvent(
+                resultSet.getLong("id"),
+                ComplaintEventType.valueOf(resultSet.getString("type")),
+                resultSet.getObject("occurred_at", LocalDateTime.class),
+                new ComplaintResponse(
+                        resultSet.getLong("complaint_id"),
+                        resultSet.getString("product_id"),
+                        resultSet.getString("content"),
+                        resultSet.getObject("created_at", LocalDateTime.class),
+                        resultSet.getString("reported_by"),
+                        resultSet.getString("country"),
+                        resultSet.getInt("counter"),
+                        resultSet.getLong("version")));
+    }
+}
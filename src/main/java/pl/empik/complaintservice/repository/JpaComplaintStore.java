@@ -0,0 +1,129 @@
+package pl.empik.complaintservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
+import pl.empik.complaintservice.model.Complaint;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+import pl.empik.complaintservice.model.ComplaintVersion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Complaint store backed by the database through {@link ComplaintRepository}. Active by default.
+ * Change events are inserted into the {@link JdbcComplaintOutbox} in the transaction of the change, so an
+ * event is published if and only if its change is committed.
+ */
+@Component
+@ConditionalOnProperty(name = "complaints.store.type", havingValue = "jpa", matchIfMissing = true)
+@RequiredArgsConstructor
+public class JpaComplaintStore implements ComplaintStore {
+
+    private final ComplaintRepository complaintRepository;
+    private final ComplaintOutbox complaintOutbox;
+
+    @Override
+    public Optional<ComplaintResponse> findById(Long id) {
+        return complaintRepository.findById(id).map(ComplaintResponse::fromEntity);
+    }
+
+    @Override
+    public List<ComplaintResponse> findAllById(Collection<Long> ids) {
+        return complaintRepository.findAllById(ids).stream().map(ComplaintResponse::fromEntity).toList();
+    }
+
+    @Override
+    public Optional<ComplaintVersion> findVersionById(Long id) {
+        return complaintRepository.findVersionById(id);
+    }
+
+    @Override
+    public List<ComplaintResponse> findProjected(ComplaintFilter filter, Set<ComplaintField> fields, Long afterId,
+                                                 Limit limit) {
+        return complaintRepository.findProjected(filter, fields, afterId, limit);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<ComplaintResponse> consumer) {
+        complaintRepository.streamAll(consumer);
+    }
+
+    @Override
+    @Transactional
+    public ComplaintResponse upsertIncrement(String productId, String content, String reportedBy,
+                                             String country, LocalDateTime createdAt) {
+        ComplaintResponse complaint = complaintRepository.upsertIncrement(productId, content, reportedBy, country,
+                createdAt);
+        complaintOutbox.append(ComplaintEvent.upsertType(complaint), complaint);
+        return complaint;
+    }
+
+    @Override
+    @Transactional
+    public List<ComplaintResponse> upsertAll(List<ComplaintUpsert> upserts, LocalDateTime createdAt) {
+        List<ComplaintResponse> complaints = complaintRepository.upsertAll(upserts, createdAt);
+        complaints.stream()
+                .collect(Collectors.groupingBy(ComplaintEvent::upsertType))
+                .forEach(complaintOutbox::appendAll);
+        return complaints;
+    }
+
+    @Override
+    @Transactional
+    public void incrementCounters(Map<Long, Integer> deltas) {
+        complaintOutbox.appendAll(ComplaintEventType.INCREMENTED, complaintRepository.incrementCounters(deltas));
+    }
+
+    @Override
+    @Transactional
+    public long updateCountry(Collection<Long> ids, String country) {
+        List<ComplaintResponse> complaints = complaintRepository.updateCountry(ids, country);
+        complaintOutbox.appendAll(ComplaintEventType.UPDATED, complaints);
+        return complaints.stream().mapToLong(ComplaintResponse::counter).sum();
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A concurrent change committed between reading and writing the complaint is detected by the version column.
+     */
+    @Override
+    @Transactional
+    public Optional<ComplaintResponse> updateContent(Long id, String content, Long expectedVersion) {
+        Optional<Complaint> found = complaintRepository.findById(id);
+        if (found.isEmpty()) {
+            return Optional.empty();
+        }
+        Complaint complaint = found.get();
+        if (expectedVersion != null && !expectedVersion.equals(complaint.getVersion())) {
+            throw new ComplaintModifiedException(ComplaintConstants.COMPLAINT_MODIFIED_MESSAGE + expectedVersion);
+        }
+        complaint.setContent(content);
+        ComplaintResponse updated = ComplaintResponse.fromEntity(complaintRepository.saveAndFlush(complaint));
+        complaintOutbox.append(ComplaintEventType.UPDATED, updated);
+        return Optional.of(updated);
+    }
+
+    @Override
+    public List<ComplaintTotal> sumCountersByProductAndCountry() {
+        return complaintRepository.sumCountersByProductAndCountry();
+    }
+}
@@ -0,0 +1,191 @@
+package pl.empik.complaintservice.repository;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking access to the complaints table through R2DBC, used by the reactive API.
+ * <p>
+ * The repository owns its connection pool rather than exposing a connection factory bean, so the JDBC
+ * data source, Flyway and the blocking components keep working on the same database alongside it.
+ * It runs the same statements as {@link ComplaintJdbcRepositoryImpl} and therefore bypasses the
+ * {@link ComplaintStore} selected by {@code complaints.store.type}, which must be {@code jpa}.
+ * Like the {@link JpaComplaintStore}, it inserts the change events of upserts and content updates into the
+ * {@code complaint_events} outbox in the transaction of the change.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveComplaintRepository {
+
+    private static final String SELECT_BY_ID = "select " + ComplaintQueries.COLUMNS + " from complaints where id = ?";
+
+    private static final String SELECT_VERSION_BY_ID = "select version from complaints where id = ?";
+
+    private static final String UPDATE_CONTENT = """
+            select id, product_id, content, created_at, reported_by, country, counter, version from final table (
+                update complaints set content = ?, version = version + 1 where id = ?%s)
+            """;
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveComplaintRepository(@Value("${complaints.reactive.r2dbc.url}") String url,
+                                       @Value("${spring.datasource.username:}") String username,
+                                       @Value("${spring.datasource.password:}") String password,
+                                       @Value("${complaints.reactive.r2dbc.pool.max-size:10}") int maxSize,
+                                       @Value("${complaints.reactive.r2dbc.pool.max-acquire-time:PT2S}")
+                                       Duration maxAcquireTime) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .maxAcquireTime(maxAcquireTime)
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        this.transactionalOperator = TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+    }
+
+    @PreDestroy
+    void close() {
+        connectionPool.dispose();
+    }
+
+    /**
+     * Finds a complaint by its ID.
+     *
+     * @param id the complaint ID
+     * @return the complaint, or empty if not found
+     */
+    public Mono<ComplaintResponse> findById(Long id) {
+        return databaseClient.sql(SELECT_BY_ID)
+                .bind(0, id)
+                .map(row -> mapRow(row, ComplaintField.ALL))
+                .one();
+    }
+
+    /**
+     * Finds the complaints matching the filter, ordered by ID.
+     *
+     * @param filter the criteria, combined with AND
+     * @param fields the fields to read; the others are null in the responses
+     * @param afterId only complaints with a greater ID are returned, or null for all
+     * @param limit the maximum number of complaints
+     * @return the complaints
+     */
+    public Flux<ComplaintResponse> findProjected(ComplaintFilter filter, Set<ComplaintField> fields, Long afterId,
+                                                 Limit limit) {
+        ComplaintQueries.Query query = ComplaintQueries.projected(filter, fields, afterId, limit);
+        return bind(databaseClient.sql(query.sql()), query.arguments())
+                .map(row -> mapRow(row, fields))
+                .all();
+    }
+
+    /**
+     * Atomically inserts a complaint or, if one with the same product and reporter exists,
+     * increments its counter, like {@link ComplaintStore#upsertIncrement}.
+     *
+     * @param productId the product ID
+     * @param content the content, used only when inserting
+     * @param reportedBy the reporter
+     * @param country the country, used only when inserting
+     * @param createdAt the creation time, used only when inserting
+     * @return the inserted or updated complaint
+     */
+    public Mono<ComplaintResponse> upsertIncrement(String productId, String content, String reportedBy,
+                                                   String country, LocalDateTime createdAt) {
+        return bind(databaseClient.sql(ComplaintQueries.UPSERT_INCREMENT),
+                List.of(productId, content, createdAt, reportedBy, country))
+                .map(row -> mapRow(row, ComplaintField.ALL))
+                .one()
+                .retryWhen(Retry.max(ComplaintQueries.UPSERT_ATTEMPTS - 1)
+                        .filter(DuplicateKeyException.class::isInstance)
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .flatMap(complaint -> appendEvent(ComplaintEvent.upsertType(complaint), complaint))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * Sets the content of a complaint if it still has the expected version, in a single statement.
+     *
+     * @param id the complaint ID
+     * @param content the new content
+     * @param expectedVersion the version the caller has seen, or null to update any version
+     * @return the updated complaint, or empty if not found; fails with {@link ComplaintModifiedException}
+     *         if the complaint no longer has the expected version
+     */
+    public Mono<ComplaintResponse> updateContent(Long id, String content, Long expectedVersion) {
+        DatabaseClient.GenericExecuteSpec update = expectedVersion == null
+                ? bind(databaseClient.sql(UPDATE_CONTENT.formatted("")), List.of(content, id))
+                : bind(databaseClient.sql(UPDATE_CONTENT.formatted(" and version = ?")),
+                        List.of(content, id, expectedVersion));
+        return update.map(row -> mapRow(row, ComplaintField.ALL))
+                .one()
+                .flatMap(complaint -> appendEvent(ComplaintEventType.UPDATED, complaint))
+                .switchIfEmpty(Mono.defer(() -> expectedVersion == null
+                        ? Mono.empty()
+                        : databaseClient.sql(SELECT_VERSION_BY_ID).bind(0, id)
+                                .map(row -> row.get("version", Long.class))
+                                .one()
+                                .flatMap(version -> Mono.error(new ComplaintModifiedException(
+                                        ComplaintConstants.COMPLAINT_MODIFIED_MESSAGE + expectedVersion)))))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<ComplaintResponse> appendEvent(ComplaintEventType type, ComplaintResponse complaint) {
+        return bind(databaseClient.sql(ComplaintQueries.INSERT_EVENT),
+                ComplaintQueries.eventArguments(type, complaint, LocalDateTime.now()))
+                .then()
+                .thenReturn(complaint);
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec,
+                                                          List<Object> arguments) {
+        for (int i = 0; i < arguments.size(); i++) {
+            spec = spec.bind(i, arguments.get(i));
+        }
+        return spec;
+    }
+
+    private static ComplaintResponse mapRow(Readable row, Set<ComplaintField> fields) {
+        return new ComplaintResponse(
+                row.get("id", Long.class),
+                fields.contains(ComplaintField.PRODUCT_ID) ? row.get("product_id", String.class) : null,
+                fields.contains(ComplaintField.CONTENT) ? row.get("content", String.class) : null,
+                fields.contains(ComplaintField.CREATED_AT) ? row.get("created_at", LocalDateTime.class) : null,
+                fields.contains(ComplaintField.REPORTED_BY) ? row.get("reported_by", String.class) : null,
+                fields.contains(ComplaintField.COUNTRY) ? row.get("country", String.class) : null,
+                fields.contains(ComplaintField.COUNTER) ? row.get("counter", Integer.class) : null,
+                fields.contains(ComplaintField.VERSION) ? row.get("version", Long.class) : null
+        );
+    }
+}
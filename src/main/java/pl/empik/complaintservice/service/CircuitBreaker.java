@@ -0,0 +1,110 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker guarding calls to a remote dependency.
+ * <p>
+ * The circuit opens after {@code failureThreshold} consecutive failures and rejects calls for
+ * {@code openDuration}. Afterwards a single trial call is let through: its success closes the
+ * circuit, its failure opens it again.
+ */
+public class CircuitBreaker implements MeterBinder {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private final LongSupplier nanoTime;
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private volatile long openedAtNanos;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this(name, failureThreshold, openDuration, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, int failureThreshold, Duration openDuration, LongSupplier nanoTime) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Checks whether a call may proceed. A permitted call must be followed by
+     * {@link #onSuccess()} or {@link #onFailure()}.
+     *
+     * @return true if the call may proceed, false if it must fail fast
+     */
+    public boolean tryAcquirePermission() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && nanoTime.getAsLong() - openedAtNanos >= openDurationNanos
+                && state.compareAndSet(State.OPEN, State.HALF_OPEN)) {
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Records a successful call, closing the circuit.
+     */
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        state.set(State.CLOSED);
+    }
+
+    /**
+     * Records a failed call, opening the circuit if the threshold is reached or the trial call failed.
+     */
+    public void onFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state.get() == State.HALF_OPEN || failures >= failureThreshold) {
+            openedAtNanos = nanoTime.getAsLong();
+            state.set(State.OPEN);
+        }
+    }
+
+    /**
+     * Returns the current state of the circuit.
+     *
+     * @return the state
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (State value : State.values()) {
+            Gauge.builder("circuitbreaker.state", state, s -> s.get() == value ? 1 : 0)
+                    .tag("name", name)
+                    .tag("state", value.name().toLowerCase())
+                    .description("1 for the current state of the circuit breaker, 0 otherwise")
+                    .register(registry);
+        }
+        FunctionCounter.builder("circuitbreaker.rejected", rejected, AtomicLong::get)
+                .tag("name", name)
+                .description("Calls rejected while the circuit was open")
+                .register(registry);
+    }
+}
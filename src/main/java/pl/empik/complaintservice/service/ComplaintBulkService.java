@@ -0,0 +1,127 @@
+package pl.empik.complaintservice.service;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import pl.empik.complaintservice.model.BulkComplaintItemResult;
+import pl.empik.complaintservice.model.BulkComplaintResult;
+import pl.empik.complaintservice.model.BulkComplaintStatus;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates complaints in bulk.
+ * <p>
+ * Items are validated individually, so invalid items are reported without rejecting the batch.
+ * Duplicates within the batch are merged into one upsert per product and reporter whose delta is the
+ * number of occurrences, the country is resolved once, and all upserts are written in JDBC batches.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ComplaintBulkService {
+
+    private static final Map<String, String> NULL_ITEM_ERRORS = Map.of("item", "Complaint cannot be empty");
+
+    private final ComplaintStore complaintStore;
+    private final GeolocationService geolocationService;
+    private final ComplaintCounterBuffer complaintCounterBuffer;
+    private final ComplaintCache complaintCache;
+    private final ComplaintStatistics complaintStatistics;
+    private final ComplaintSearchIndex complaintSearchIndex;
+    private final Validator validator;
+
+    /**
+     * Creates complaints or increments counters of existing ones, like repeated single creation would.
+     *
+     * @param complaintRequests the complaints, in request order
+     * @param ipAddress client IP address
+     * @return the result of each item, in request order
+     */
+    public BulkComplaintResult createComplaints(List<ComplaintRequest> complaintRequests, String ipAddress) {
+        BulkComplaintItemResult[] items = new BulkComplaintItemResult[complaintRequests.size()];
+        Map<ComplaintKey, List<Integer>> indexesByKey = new LinkedHashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            ComplaintRequest complaintRequest = complaintRequests.get(i);
+            Map<String, String> errors = validate(complaintRequest);
+            if (errors.isEmpty()) {
+                indexesByKey.computeIfAbsent(new ComplaintKey(complaintRequest.productId(), complaintRequest.reportedBy()),
+                        key -> new ArrayList<>()).add(i);
+            } else {
+                items[i] = new BulkComplaintItemResult(i, BulkComplaintStatus.INVALID, null, errors);
+            }
+        }
+
+        if (!indexesByKey.isEmpty()) {
+            String country = geolocationService.getCountryFromIp(ipAddress);
+            List<ComplaintUpsert> upserts = new ArrayList<>(indexesByKey.size());
+            indexesByKey.forEach((key, indexes) -> upserts.add(new ComplaintUpsert(key.productId(),
+                    complaintRequests.get(indexes.get(0)).content(), key.reportedBy(), country, indexes.size())));
+
+            LocalDateTime now = LocalDateTime.now();
+            Map<ComplaintKey, ComplaintResponse> complaints = new HashMap<>();
+            for (ComplaintResponse complaint : complaintStore.upsertAll(upserts, now)) {
+                complaints.put(new ComplaintKey(complaint.productId(), complaint.reportedBy()), complaint);
+                if (complaintCounterBuffer.isEnabled()) {
+                    complaintCounterBuffer.register(complaint);
+                }
+            }
+            List<Long> incrementedIds = new ArrayList<>();
+            indexesByKey.forEach((key, indexes) -> {
+                ComplaintResponse complaint = complaints.get(key);
+                complaintStatistics.record(key.productId(), complaint.country(), indexes.size(), now);
+                // A counter equal to the delta means the complaint did not exist before this batch
+                boolean created = complaint.counter() == indexes.size();
+                if (created) {
+                    complaintSearchIndex.index(complaint.id(), complaint.content());
+                } else {
+                    incrementedIds.add(complaint.id());
+                }
+                for (int i = 0; i < indexes.size(); i++) {
+                    BulkComplaintStatus status = created && i == 0
+                            ? BulkComplaintStatus.CREATED
+                            : BulkComplaintStatus.INCREMENTED;
+                    items[indexes.get(i)] = new BulkComplaintItemResult(indexes.get(i), status, complaint.id(), null);
+                }
+            });
+            complaintCache.evictAll(incrementedIds);
+        }
+
+        log.debug("Bulk request with {} complaints resolved to {} distinct complaints",
+                items.length, indexesByKey.size());
+        return summarize(Arrays.asList(items));
+    }
+
+    private Map<String, String> validate(ComplaintRequest complaintRequest) {
+        if (complaintRequest == null) {
+            return NULL_ITEM_ERRORS;
+        }
+        Set<ConstraintViolation<ComplaintRequest>> violations = validator.validate(complaintRequest);
+        Map<String, String> errors = new HashMap<>();
+        violations.forEach(violation -> errors.put(violation.getPropertyPath().toString(), violation.getMessage()));
+        return errors;
+    }
+
+    private static BulkComplaintResult summarize(List<BulkComplaintItemResult> items) {
+        int[] counts = new int[BulkComplaintStatus.values().length];
+        items.forEach(item -> counts[item.status().ordinal()]++);
+        return new BulkComplaintResult(
+                counts[BulkComplaintStatus.CREATED.ordinal()],
+                counts[BulkComplaintStatus.INCREMENTED.ordinal()],
+                counts[BulkComplaintStatus.INVALID.ordinal()],
+                items);
+    }
+}
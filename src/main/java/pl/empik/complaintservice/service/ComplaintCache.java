@@ -0,0 +1,111 @@
+package pl.empik.complaintservice.service;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of complaints by ID.
+ * <p>
+ * The backend is the one configured with {@code spring.cache.type}: in-process Caffeine, shared Redis,
+ * or none. Entries hold complaints as stored in the database; writers evict the complaints they change,
+ * after commit when called within a transaction. A load that overlaps an eviction of the same complaint
+ * does not leave its result cached, so a read racing with a write in this process never caches the state
+ * before the write; the TTL only bounds staleness left by writes of other instances sharing Redis.
+ */
+@Component
+public class ComplaintCache {
+
+    private static final int EVICTION_STRIPES = 64;
+
+    private final Cache cache;
+    /** Evictions per stripe of complaint IDs, compared before and after a load to detect overlapping writes. */
+    private final AtomicLongArray evictions = new AtomicLongArray(EVICTION_STRIPES);
+
+    public ComplaintCache(CacheManager cacheManager) {
+        this.cache = cacheManager.getCache(ComplaintConstants.COMPLAINTS_CACHE);
+    }
+
+    /**
+     * Returns the cached complaint, loading and caching it on a miss.
+     *
+     * @param id the complaint ID
+     * @param loader loads the complaint from the database; its exceptions are propagated and nothing is cached
+     * @return the complaint
+     */
+    public ComplaintResponse get(Long id, Supplier<ComplaintResponse> loader) {
+        ComplaintResponse cached = getIfPresent(id);
+        if (cached != null) {
+            return cached;
+        }
+        int stripe = stripe(id);
+        long evictionsBeforeLoad = evictions.get(stripe);
+        // Loaded outside of any cache lock, so a slow query never blocks lookups of other complaints
+        ComplaintResponse complaint = loader.get();
+        cache.putIfAbsent(id, complaint);
+        // A writer counts its eviction before evicting: either it removes the entry put above, or the
+        // changed count is seen here and the possibly stale entry is removed
+        if (evictions.get(stripe) != evictionsBeforeLoad) {
+            cache.evict(id);
+        }
+        return complaint;
+    }
+
+    /**
+     * Returns the cached complaint without loading it.
+     *
+     * @param id the complaint ID
+     * @return the complaint, or null if it is not cached
+     */
+    public ComplaintResponse getIfPresent(Long id) {
+        return cache.get(id, ComplaintResponse.class);
+    }
+
+    /**
+     * Evicts a changed complaint.
+     *
+     * @param id the complaint ID
+     */
+    public void evict(Long id) {
+        evictAll(List.of(id));
+    }
+
+    /**
+     * Evicts changed complaints.
+     *
+     * @param ids the complaint IDs
+     */
+    public void evictAll(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(ComplaintCache.this::evictNow);
+                }
+            });
+        } else {
+            ids.forEach(this::evictNow);
+        }
+    }
+
+    private void evictNow(Long id) {
+        evictions.incrementAndGet(stripe(id));
+        cache.evict(id);
+    }
+
+    private static int stripe(Long id) {
+        return Long.hashCode(id) & (EVICTION_STRIPES - 1);
+    }
+}
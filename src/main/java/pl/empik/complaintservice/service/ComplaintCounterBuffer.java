@@ -0,0 +1,314 @@
+package pl.empik.complaintservice.service;
+
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Write-behind buffer coalescing counter increments of duplicate complaints.
+ * <p>
+ * Once a complaint has been persisted it is registered here, and further duplicates of the
+ * same product and reporter only increment an in-memory counter. Pending increments are
+ * written as one batched delta per complaint every {@code complaints.write-behind.flush-interval},
+ * or earlier when {@code complaints.write-behind.flush-threshold} increments are pending.
+ * Pending increments are flushed on shutdown; a crash loses at most the increments of one interval.
+ * Flushed complaints are evicted from the {@link ComplaintCache}, as each flush bumps their version.
+ * <p>
+ * Counters read from the database lag behind by the pending increments; responses passed through
+ * {@link #overlay(ComplaintResponse)} or {@link #overlayCounter(ComplaintResponse)} include them. The buffer assumes a single application node.
+ */
+@Service
+@Slf4j
+public class ComplaintCounterBuffer implements MeterBinder {
+
+    private final ComplaintStore complaintStore;
+    private final ComplaintCache complaintCache;
+    private final boolean enabled;
+    private final Duration flushInterval;
+    private final int flushThreshold;
+    private final int maxKeys;
+    private final Map<ComplaintKey, BufferedCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, BufferedCounter> countersById = new ConcurrentHashMap<>();
+    private final LongAdder pendingIncrements = new LongAdder();
+    private final AtomicLong oldestPendingNanos = new AtomicLong();
+    private final AtomicLong flushedIncrements = new AtomicLong();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private ScheduledExecutorService flusher;
+
+    public ComplaintCounterBuffer(ComplaintStore complaintStore,
+                                  ComplaintCache complaintCache,
+                                  @Value("${complaints.write-behind.enabled:false}") boolean enabled,
+                                  @Value("${complaints.write-behind.flush-interval:PT1S}") Duration flushInterval,
+                                  @Value("${complaints.write-behind.flush-threshold:1000}") int flushThreshold,
+                                  @Value("${complaints.write-behind.max-keys:100000}") int maxKeys) {
+        this.complaintStore = complaintStore;
+        this.complaintCache = complaintCache;
+        this.enabled = enabled;
+        this.flushInterval = flushInterval;
+        this.flushThreshold = flushThreshold;
+        this.maxKeys = maxKeys;
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "complaint-counter-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flushQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("complaints.buffer.pending", this, ComplaintCounterBuffer::getPendingIncrements)
+                .description("Counter increments not yet written to the database")
+                .register(registry);
+        FunctionCounter.builder("complaints.buffer.flushed", flushedIncrements, AtomicLong::get)
+                .description("Counter increments written to the database")
+                .register(registry);
+        TimeGauge.builder("complaints.buffer.lag", this, TimeUnit.NANOSECONDS, buffer -> buffer.getFlushLag().toNanos())
+                .description("Age of the oldest pending counter increment")
+                .register(registry);
+        Gauge.builder("complaints.buffer.keys", counters, Map::size)
+                .description("Complaints registered in the buffer")
+                .register(registry);
+    }
+
+    /**
+     * Returns whether write-behind buffering is enabled.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Increments the buffered counter of a registered complaint.
+     *
+     * @param productId the product ID
+     * @param reportedBy the reporter
+     * @return the complaint with its incremented counter, or null if it is not buffered
+     */
+    public ComplaintResponse increment(String productId, String reportedBy) {
+        BufferedCounter counter = counters.get(new ComplaintKey(productId, reportedBy));
+        if (counter == null) {
+            return null;
+        }
+        int total = counter.increment();
+        oldestPendingNanos.compareAndSet(0, System.nanoTime());
+        pendingIncrements.increment();
+        if (flusher != null && pendingIncrements.sum() >= flushThreshold && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flushQuietly);
+        }
+        return counter.withCounter(total);
+    }
+
+    /**
+     * Registers a persisted complaint so that its further duplicates are buffered.
+     * Complaints are not registered once the buffer holds {@code complaints.write-behind.max-keys} keys,
+     * nor while their country is pending, so that buffered increments always carry the enriched country.
+     *
+     * @param complaint the complaint as stored in the database
+     */
+    public void register(ComplaintResponse complaint) {
+        if (ComplaintConstants.PENDING_COUNTRY.equals(complaint.country())) {
+            return;
+        }
+        ComplaintKey key = new ComplaintKey(complaint.productId(), complaint.reportedBy());
+        if (counters.size() >= maxKeys && !counters.containsKey(key)) {
+            return;
+        }
+        counters.compute(key, (k, existing) -> {
+            if (existing == null) {
+                BufferedCounter counter = new BufferedCounter(complaint);
+                countersById.put(counter.id, counter);
+                return counter;
+            }
+            existing.refresh(complaint);
+            return existing;
+        });
+    }
+
+    /**
+     * Adds the pending increments of a buffered complaint to a response read from the database
+     * and refreshes the buffered snapshot with it.
+     *
+     * @param complaint the complaint as stored in the database
+     * @return the complaint with its up-to-date counter
+     */
+    public ComplaintResponse overlay(ComplaintResponse complaint) {
+        BufferedCounter counter = counters.get(new ComplaintKey(complaint.productId(), complaint.reportedBy()));
+        if (counter == null) {
+            return complaint;
+        }
+        counter.refresh(complaint);
+        return counter.withCounter(counter.total.get());
+    }
+
+    /**
+     * Adds the pending increments of a buffered complaint to a listed complaint, which may hold only some
+     * of its fields. Unlike {@link #overlay(ComplaintResponse)}, the buffered snapshot is left as it is.
+     *
+     * @param complaint the complaint as read from the database, with at least its ID and counter
+     * @return the complaint with its up-to-date counter
+     */
+    public ComplaintResponse overlayCounter(ComplaintResponse complaint) {
+        BufferedCounter counter = countersById.get(complaint.id());
+        if (counter == null || complaint.counter() == null) {
+            return complaint;
+        }
+        int total = Math.max(counter.total.get(), complaint.counter() + counter.pending.get());
+        if (total == complaint.counter()) {
+            return complaint;
+        }
+        return new ComplaintResponse(complaint.id(), complaint.productId(), complaint.content(),
+                complaint.createdAt(), complaint.reportedBy(), complaint.country(), total, complaint.version());
+    }
+
+    /**
+     * Writes all pending increments to the database as one batch.
+     * If the write fails, the increments stay pending for the next flush.
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        long oldest = oldestPendingNanos.getAndSet(0);
+        Map<Long, Integer> deltas = new HashMap<>();
+        Map<Long, BufferedCounter> drained = new HashMap<>();
+        for (BufferedCounter counter : counters.values()) {
+            int delta = counter.pending.getAndSet(0);
+            if (delta > 0) {
+                deltas.put(counter.id, delta);
+                drained.put(counter.id, counter);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        int total = deltas.values().stream().mapToInt(Integer::intValue).sum();
+        try {
+            complaintStore.incrementCounters(deltas);
+            complaintCache.evictAll(deltas.keySet());
+            pendingIncrements.add(-total);
+            flushedIncrements.addAndGet(total);
+        } catch (RuntimeException e) {
+            drained.forEach((id, counter) -> counter.pending.addAndGet(deltas.get(id)));
+            oldestPendingNanos.compareAndSet(0, oldest);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of increments not yet written to the database.
+     *
+     * @return the pending increment count
+     */
+    public long getPendingIncrements() {
+        return pendingIncrements.sum();
+    }
+
+    /**
+     * Returns the number of increments written to the database since startup.
+     *
+     * @return the flushed increment count
+     */
+    public long getFlushedIncrements() {
+        return flushedIncrements.get();
+    }
+
+    /**
+     * Returns the age of the oldest increment not yet written to the database.
+     *
+     * @return the flush lag, zero if nothing is pending
+     */
+    public Duration getFlushLag() {
+        long oldest = oldestPendingNanos.get();
+        return oldest == 0 ? Duration.ZERO : Duration.ofNanos(System.nanoTime() - oldest);
+    }
+
+    /**
+     * Returns the number of complaints registered in the buffer.
+     *
+     * @return the buffered key count
+     */
+    public int getBufferedKeys() {
+        return counters.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Error while flushing {} buffered complaint counter increments", getPendingIncrements(), e);
+        }
+    }
+
+    private static final class BufferedCounter {
+
+        private final Long id;
+        private final AtomicInteger total;
+        private final AtomicInteger pending = new AtomicInteger();
+        private volatile ComplaintResponse snapshot;
+
+        private BufferedCounter(ComplaintResponse complaint) {
+            this.id = complaint.id();
+            this.total = new AtomicInteger(complaint.counter());
+            this.snapshot = complaint;
+        }
+
+        private int increment() {
+            pending.incrementAndGet();
+            return total.incrementAndGet();
+        }
+
+        private void refresh(ComplaintResponse complaint) {
+            snapshot = complaint;
+            // The database counter plus what is still pending is the most recent total we know of
+            total.accumulateAndGet(complaint.counter() + pending.get(), Math::max);
+        }
+
+        private ComplaintResponse withCounter(int counter) {
+            ComplaintResponse current = snapshot;
+            return new ComplaintResponse(current.id(), current.productId(), current.content(), current.createdAt(),
+                    current.reportedBy(), current.country(), counter, current.version());
+        }
+    }
+}
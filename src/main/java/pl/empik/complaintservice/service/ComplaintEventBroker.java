@@ -0,0 +1,58 @@
+package pl.empik.complaintservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.model.ComplaintEvent;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process broker standing in for a message broker: delivers the relayed event batches to the subscribers
+ * registered in this instance, such as the live tails of the events endpoint. Events published while there
+ * are no subscribers are not kept.
+ */
+@Component
+@Slf4j
+public class ComplaintEventBroker implements ComplaintEventSink {
+
+    private final CopyOnWriteArrayList<Consumer<List<ComplaintEvent>>> subscribers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Delivers the events to every subscriber on the calling thread. A failing subscriber is unsubscribed.
+     *
+     * @param events the events, ordered by ID
+     */
+    @Override
+    public void publish(List<ComplaintEvent> events) {
+        for (Consumer<List<ComplaintEvent>> subscriber : subscribers) {
+            try {
+                subscriber.accept(events);
+            } catch (RuntimeException e) {
+                log.warn("Unsubscribing failed complaint event subscriber: {}", e.getMessage());
+                subscribers.remove(subscriber);
+            }
+        }
+    }
+
+    /**
+     * Registers a subscriber receiving the batches published from now on.
+     *
+     * @param subscriber receives each batch
+     * @return unsubscribes the subscriber when run
+     */
+    public Runnable subscribe(Consumer<List<ComplaintEvent>> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    /**
+     * Returns the number of subscribers.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+}
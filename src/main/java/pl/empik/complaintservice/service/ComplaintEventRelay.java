@@ -0,0 +1,183 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.repository.ComplaintOutbox;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relays the change events written to the {@link ComplaintOutbox} to every {@link ComplaintEventSink}, in
+ * batches of up to {@code complaints.outbox.batch-size} events, every {@code complaints.outbox.relay-interval}.
+ * <p>
+ * The relay remembers the ID of the last published event in the outbox and reads only the events after it,
+ * so each run costs one index range scan however many events the outbox holds. Events are delivered at least
+ * once: a batch is published again if a sink fails or the instance stops before the position is saved.
+ * <p>
+ * A transaction may commit its event after a later one, so the relay stops at a gap in the IDs until the
+ * transaction that owns it commits. A gap older than {@code complaints.outbox.gap-timeout}, left by a rolled
+ * back transaction, is skipped; the timeout must exceed the longest transaction writing events.
+ * Published events are purged once older than {@code complaints.outbox.retention}.
+ * <p>
+ * The number of published events is counted as {@code complaints.outbox.published} and the position
+ * is published as the {@code complaints.outbox.position} gauge.
+ */
+@Component
+@Slf4j
+public class ComplaintEventRelay {
+
+    static final String CONSUMER = "relay";
+
+    private final ComplaintOutbox complaintOutbox;
+    private final List<ComplaintEventSink> sinks;
+    private final int batchSize;
+    private final Duration relayInterval;
+    private final Duration gapTimeout;
+    private final Duration retention;
+    private final Duration purgeInterval;
+    private final Counter published;
+
+    private volatile long position;
+    private ScheduledExecutorService relayer;
+
+    public ComplaintEventRelay(ComplaintOutbox complaintOutbox,
+                               List<ComplaintEventSink> sinks,
+                               MeterRegistry meterRegistry,
+                               @Value("${complaints.outbox.batch-size:500}") int batchSize,
+                               @Value("${complaints.outbox.relay-interval:PT0.1S}") Duration relayInterval,
+                               @Value("${complaints.outbox.gap-timeout:PT5S}") Duration gapTimeout,
+                               @Value("${complaints.outbox.retention:P1D}") Duration retention,
+                               @Value("${complaints.outbox.purge-interval:PT1M}") Duration purgeInterval) {
+        this.complaintOutbox = complaintOutbox;
+        this.sinks = sinks;
+        this.batchSize = batchSize;
+        this.relayInterval = relayInterval;
+        this.gapTimeout = gapTimeout;
+        this.retention = retention;
+        this.purgeInterval = purgeInterval;
+        this.published = meterRegistry.counter("complaints.outbox.published");
+        Gauge.builder("complaints.outbox.position", this, ComplaintEventRelay::getPosition).register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        position = complaintOutbox.findPosition(CONSUMER);
+        relayer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "complaint-event-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long relayMs = relayInterval.toMillis();
+        relayer.scheduleWithFixedDelay(this::relayQuietly, relayMs, relayMs, TimeUnit.MILLISECONDS);
+        long purgeMs = purgeInterval.toMillis();
+        relayer.scheduleWithFixedDelay(this::purgeQuietly, purgeMs, purgeMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (relayer != null) {
+            relayer.shutdown();
+            relayer.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Publishes the events written since the last run, batch by batch, and saves the position after each batch.
+     *
+     * @return the number of published events
+     */
+    public synchronized int relay() {
+        int total = 0;
+        while (true) {
+            List<ComplaintEvent> batch = settled(complaintOutbox.findAfter(position, Long.MAX_VALUE, batchSize));
+            if (batch.isEmpty()) {
+                return total;
+            }
+            for (ComplaintEventSink sink : sinks) {
+                sink.publish(batch);
+            }
+            long last = batch.get(batch.size() - 1).id();
+            complaintOutbox.savePosition(CONSUMER, last);
+            position = last;
+            published.increment(batch.size());
+            total += batch.size();
+            if (batch.size() < batchSize) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * Finds the events already published, for consumers reading the outbox incrementally. Events after the
+     * position are not returned, as an earlier event may still be committed before them.
+     *
+     * @param afterId only events with a greater ID are returned
+     * @param limit the maximum number of events
+     * @return the events, ordered by ID
+     */
+    public List<ComplaintEvent> getPublishedEvents(long afterId, int limit) {
+        return complaintOutbox.findAfter(afterId, position, limit);
+    }
+
+    /**
+     * Returns the ID of the last published event.
+     *
+     * @return the event ID, or 0 if no event has been published
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * Deletes the published events older than the retention.
+     *
+     * @return the number of deleted events
+     */
+    public int purge() {
+        return complaintOutbox.deleteUpTo(position, LocalDateTime.now().minus(retention));
+    }
+
+    private List<ComplaintEvent> settled(List<ComplaintEvent> events) {
+        LocalDateTime gapDeadline = LocalDateTime.now().minus(gapTimeout);
+        long expected = position + 1;
+        for (int i = 0; i < events.size(); i++) {
+            ComplaintEvent event = events.get(i);
+            if (event.id() != expected && event.occurredAt().isAfter(gapDeadline)) {
+                return events.subList(0, i);
+            }
+            expected = event.id() + 1;
+        }
+        return events;
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.error("Error while relaying complaint events", e);
+        }
+    }
+
+    private void purgeQuietly() {
+        try {
+            int deleted = purge();
+            if (deleted > 0) {
+                log.debug("Purged {} complaint events", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while purging complaint events", e);
+        }
+    }
+}
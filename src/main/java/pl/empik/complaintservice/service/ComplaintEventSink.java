@@ -0,0 +1,20 @@
+package pl.empik.complaintservice.service;
+
+import pl.empik.complaintservice.model.ComplaintEvent;
+
+import java.util.List;
+
+/**
+ * Destination of the complaint change events published by the {@link ComplaintEventRelay}.
+ * Every sink bean receives every batch.
+ */
+public interface ComplaintEventSink {
+
+    /**
+     * Publishes a batch of events. A failure is retried with the same batch on the next relay run, so a sink
+     * may receive an event more than once and should ignore IDs it has already published.
+     *
+     * @param events the events, ordered by ID
+     */
+    void publish(List<ComplaintEvent> events);
+}
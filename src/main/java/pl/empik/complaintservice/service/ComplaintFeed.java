@@ -0,0 +1,443 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.repository.ComplaintOutbox;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Live feeds of complaint changes sent to their subscribers as server-sent events, with the ID of the change
+ * event as the event ID. Changes are received from the {@link ComplaintEventBroker} in the batches published
+ * by the relay.
+ * <p>
+ * Each subscriber has a buffer of at most {@code complaints.feed.buffer-size} events. A change of a complaint
+ * that is still buffered replaces the buffered one, as the newer state includes it (coalescing), and when the
+ * buffer is full the oldest event is dropped, so a slow subscriber receives the latest state of the complaints
+ * instead of holding back the others. The buffers are drained by a pool of {@code complaints.feed.sender-threads}
+ * threads shared by all subscribers, which hold no thread while they wait for changes. A comment is sent to
+ * every subscriber each {@code complaints.feed.heartbeat-interval}, which keeps idle connections open through
+ * proxies and unsubscribes the clients that have gone away.
+ * <p>
+ * A write blocks its sender while the client does not read and the socket buffer is full. A subscriber whose
+ * write takes longer than {@code complaints.feed.send-timeout} is evicted, and a sender is added in place of
+ * the blocked one until its write returns or fails, so a client that stops reading never holds back the others.
+ * <p>
+ * A subscriber reconnecting with the ID of the last event it received first gets the changes after it from
+ * the outbox, through its buffer and from at most the last {@code complaints.feed.max-replay} events. The backlog
+ * is read without blocking the publication of new changes; only the changes published meanwhile are read while
+ * publication waits, before the subscriber is registered.
+ * Subscribers filtered by product or country are indexed by it, so a change is only matched against the
+ * subscribers it may concern.
+ * <p>
+ * The number of subscribers is published as the {@code complaints.feed.subscribers} gauge, and the coalesced
+ * and dropped events and the evicted subscribers are counted as {@code complaints.feed.coalesced},
+ * {@code complaints.feed.dropped} and {@code complaints.feed.evicted}.
+ */
+@Component
+@Slf4j
+public class ComplaintFeed implements MeterBinder {
+
+    private final ComplaintEventBroker complaintEventBroker;
+    private final ComplaintOutbox complaintOutbox;
+    private final int bufferSize;
+    private final int maxReplay;
+    private final int senderThreads;
+    private final long timeoutMs;
+    private final Duration heartbeatInterval;
+    private final long sendTimeoutNanos;
+
+    private final Set<Subscriber> unfiltered = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<String, Set<Subscriber>> byProduct = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Subscriber>> byCountry = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final Object publishLock = new Object();
+
+    // Written under publishLock
+    private volatile long lastPublishedId;
+    private ThreadPoolExecutor senders;
+    private ScheduledExecutorService heartbeats;
+    private Runnable unsubscribe;
+
+    public ComplaintFeed(ComplaintEventBroker complaintEventBroker,
+                         ComplaintOutbox complaintOutbox,
+                         @Value("${complaints.feed.buffer-size:256}") int bufferSize,
+                         @Value("${complaints.feed.max-replay:10000}") int maxReplay,
+                         @Value("${complaints.feed.sender-threads:2}") int senderThreads,
+                         @Value("${complaints.feed.timeout:PT30M}") Duration timeout,
+                         @Value("${complaints.feed.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+                         @Value("${complaints.feed.send-timeout:PT10S}") Duration sendTimeout) {
+        this.complaintEventBroker = complaintEventBroker;
+        this.complaintOutbox = complaintOutbox;
+        this.bufferSize = bufferSize;
+        this.maxReplay = maxReplay;
+        this.senderThreads = senderThreads;
+        this.timeoutMs = timeout.toMillis();
+        this.heartbeatInterval = heartbeatInterval;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+    }
+
+    @PostConstruct
+    void start() {
+        synchronized (publishLock) {
+            lastPublishedId = complaintOutbox.findPosition(ComplaintEventRelay.CONSUMER);
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        senders = new ThreadPoolExecutor(senderThreads, senderThreads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "complaint-feed-sender-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "complaint-feed-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long heartbeatMs = heartbeatInterval.toMillis();
+        heartbeats.scheduleWithFixedDelay(this::heartbeat, heartbeatMs, heartbeatMs, TimeUnit.MILLISECONDS);
+        long checkMs = Math.max(TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos) / 2, 1);
+        heartbeats.scheduleWithFixedDelay(this::evictStalled, checkMs, checkMs, TimeUnit.MILLISECONDS);
+        unsubscribe = complaintEventBroker.subscribe(this::publish);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (unsubscribe != null) {
+            unsubscribe.run();
+        }
+        if (heartbeats != null) {
+            heartbeats.shutdownNow();
+        }
+        if (senders != null) {
+            senders.shutdown();
+            senders.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Subscribes to the changes of the complaints matching the filter.
+     *
+     * @param productId only changes of complaints about this product are sent, or null for any product
+     * @param country only changes of complaints from this country are sent, or null for any country
+     * @param lastEventId the ID of the last event the subscriber received, to resume after it, or null to
+     *                    receive the changes from now on
+     * @param payload maps a change event to the data of the server-sent event
+     * @return the event stream, closed after {@code complaints.feed.timeout}
+     */
+    public SseEmitter subscribe(String productId, String country, Long lastEventId,
+                                Function<ComplaintEvent, ?> payload) {
+        return subscribe(productId, country, lastEventId, payload, new SseEmitter(timeoutMs));
+    }
+
+    SseEmitter subscribe(String productId, String country, Long lastEventId, Function<ComplaintEvent, ?> payload,
+                         SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(productId, country, emitter, payload);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        Long replayedId = lastEventId;
+        if (lastEventId != null) {
+            // The backlog up to a snapshot is read outside the lock, as it may span many events
+            replayedId = replay(subscriber, lastEventId, lastPublishedId);
+        }
+        synchronized (publishLock) {
+            // Under the lock no batch is published between reading the remainder and registering
+            if (replayedId != null) {
+                replay(subscriber, replayedId, lastPublishedId);
+            }
+            register(subscriber);
+        }
+        subscriber.schedule();
+        return emitter;
+    }
+
+    /**
+     * Returns the number of subscribers.
+     *
+     * @return the number of subscribers
+     */
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("complaints.feed.subscribers", subscribers, AtomicInteger::get).register(registry);
+        FunctionCounter.builder("complaints.feed.coalesced", coalesced, AtomicLong::get).register(registry);
+        FunctionCounter.builder("complaints.feed.dropped", dropped, AtomicLong::get).register(registry);
+        FunctionCounter.builder("complaints.feed.evicted", evicted, AtomicLong::get).register(registry);
+    }
+
+    /**
+     * Buffers the events matching the subscriber from after an event up to another one, at most the last
+     * {@code complaints.feed.max-replay} of them.
+     *
+     * @return the ID of the last event replayed, or the given one if there was nothing to replay
+     */
+    private long replay(Subscriber subscriber, long afterId, long upToId) {
+        if (afterId >= upToId) {
+            return afterId;
+        }
+        long fromId = Math.max(afterId, upToId - maxReplay);
+        for (ComplaintEvent event : complaintOutbox.findAfter(fromId, upToId, maxReplay)) {
+            if (subscriber.matches(event)) {
+                subscriber.buffer(event);
+            }
+        }
+        return upToId;
+    }
+
+    private void publish(List<ComplaintEvent> events) {
+        synchronized (publishLock) {
+            for (ComplaintEvent event : events) {
+                // Batches published again after a sink failure are skipped
+                if (event.id() <= lastPublishedId) {
+                    continue;
+                }
+                ComplaintResponse complaint = event.complaint();
+                offer(unfiltered, event);
+                offer(byProduct.get(complaint.productId()), event);
+                offer(byCountry.get(complaint.country()), event);
+                lastPublishedId = event.id();
+            }
+        }
+    }
+
+    private void heartbeat() {
+        forEachSubscriber(Subscriber::heartbeat);
+    }
+
+    private void evictStalled() {
+        long now = System.nanoTime();
+        forEachSubscriber(subscriber -> subscriber.evictIfStalled(now));
+    }
+
+    /**
+     * Adds senders to the pool, or removes them when negative; removed senders stop once idle.
+     */
+    private void resizeSenders(int delta) {
+        synchronized (senders) {
+            int size = senders.getCorePoolSize() + delta;
+            if (delta > 0) {
+                senders.setMaximumPoolSize(size);
+                senders.setCorePoolSize(size);
+            } else {
+                senders.setCorePoolSize(size);
+                senders.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        unfiltered.forEach(action);
+        byProduct.values().forEach(set -> set.forEach(action));
+        byCountry.values().forEach(set -> set.forEach(action));
+    }
+
+    private static void offer(Set<Subscriber> candidates, ComplaintEvent event) {
+        if (candidates == null) {
+            return;
+        }
+        for (Subscriber subscriber : candidates) {
+            if (subscriber.matches(event)) {
+                subscriber.buffer(event);
+                subscriber.schedule();
+            }
+        }
+    }
+
+    private void register(Subscriber subscriber) {
+        if (subscriber.productId != null) {
+            byProduct.compute(subscriber.productId, (key, set) -> added(set, subscriber));
+        } else if (subscriber.country != null) {
+            byCountry.compute(subscriber.country, (key, set) -> added(set, subscriber));
+        } else {
+            unfiltered.add(subscriber);
+        }
+        subscribers.incrementAndGet();
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (subscriber.productId != null) {
+            byProduct.computeIfPresent(subscriber.productId, (key, set) -> removed(set, subscriber));
+        } else if (subscriber.country != null) {
+            byCountry.computeIfPresent(subscriber.country, (key, set) -> removed(set, subscriber));
+        } else {
+            unfiltered.remove(subscriber);
+        }
+        subscribers.decrementAndGet();
+    }
+
+    private static Set<Subscriber> added(Set<Subscriber> set, Subscriber subscriber) {
+        Set<Subscriber> result = set != null ? set : ConcurrentHashMap.newKeySet();
+        result.add(subscriber);
+        return result;
+    }
+
+    private static Set<Subscriber> removed(Set<Subscriber> set, Subscriber subscriber) {
+        set.remove(subscriber);
+        return set.isEmpty() ? null : set;
+    }
+
+    /**
+     * Subscriber with its buffer of events keyed by complaint ID in the order they are to be sent.
+     * The buffer is drained by at most one sender at a time, which keeps the events in order.
+     */
+    private final class Subscriber {
+
+        private final String productId;
+        private final String country;
+        private final SseEmitter emitter;
+        private final Function<ComplaintEvent, ?> payload;
+        private final LinkedHashMap<Long, ComplaintEvent> buffer = new LinkedHashMap<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Start of the write in progress, or 0
+        private final AtomicLong writeStartedNanos = new AtomicLong();
+
+        private Subscriber(String productId, String country, SseEmitter emitter,
+                           Function<ComplaintEvent, ?> payload) {
+            this.productId = productId;
+            this.country = country;
+            this.emitter = emitter;
+            this.payload = payload;
+        }
+
+        private boolean matches(ComplaintEvent event) {
+            ComplaintResponse complaint = event.complaint();
+            return (productId == null || productId.equals(complaint.productId()))
+                    && (country == null || country.equals(complaint.country()));
+        }
+
+        private synchronized void buffer(ComplaintEvent event) {
+            // Removing the buffered change of the complaint moves the newer one to the end, keeping IDs in order
+            if (buffer.remove(event.complaint().id()) != null) {
+                coalesced.incrementAndGet();
+            } else if (buffer.size() == bufferSize) {
+                Iterator<ComplaintEvent> oldest = buffer.values().iterator();
+                oldest.next();
+                oldest.remove();
+                dropped.incrementAndGet();
+            }
+            buffer.put(event.complaint().id(), event);
+        }
+
+        private synchronized List<ComplaintEvent> drainBuffer() {
+            List<ComplaintEvent> events = new ArrayList<>(buffer.values());
+            buffer.clear();
+            return events;
+        }
+
+        private synchronized boolean isEmpty() {
+            return buffer.isEmpty();
+        }
+
+        private void heartbeat() {
+            heartbeatDue.set(true);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!closed.get() && scheduled.compareAndSet(false, true)) {
+                senders.execute(this::send);
+            }
+        }
+
+        private void send() {
+            try {
+                if (heartbeatDue.getAndSet(false)) {
+                    write(SseEmitter.event().comment(""));
+                }
+                for (List<ComplaintEvent> events = drainBuffer(); !events.isEmpty(); events = drainBuffer()) {
+                    for (ComplaintEvent event : events) {
+                        write(SseEmitter.event()
+                                .id(String.valueOf(event.id()))
+                                .data(payload.apply(event), MediaType.APPLICATION_JSON));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Closing complaint feed subscriber: {}", e.getMessage());
+                close();
+            } finally {
+                scheduled.set(false);
+            }
+            // An event buffered after the last drain and before the flag was cleared did not schedule a send
+            if (!isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            if (closed.get()) {
+                throw new IOException("Subscriber closed");
+            }
+            long started = System.nanoTime();
+            writeStartedNanos.set(started);
+            boolean written = false;
+            try {
+                emitter.send(event);
+                written = true;
+            } finally {
+                if (!writeStartedNanos.compareAndSet(started, 0)) {
+                    // Evicted while writing: remove the sender added in place of this one and end the response
+                    resizeSenders(-1);
+                    if (written) {
+                        emitter.complete();
+                    }
+                }
+            }
+        }
+
+        private void evictIfStalled(long now) {
+            long started = writeStartedNanos.get();
+            if (started != 0 && now - started > sendTimeoutNanos && writeStartedNanos.compareAndSet(started, 0)) {
+                resizeSenders(1);
+                evicted.incrementAndGet();
+                log.debug("Evicting complaint feed subscriber blocked on a write for {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(now - started));
+                close();
+            }
+        }
+
+        private void close() {
+            if (closed.compareAndSet(false, true)) {
+                unregister(this);
+                drainBuffer();
+            }
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package pl.empik.complaintservice.service;
+
+/**
+ * Business key of a complaint; complaints with the same key are duplicates.
+ */
+record ComplaintKey(String productId, String reportedBy) {}
@@ -0,0 +1,203 @@
+package pl.empik.complaintservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.empik.complaintservice.model.ComplaintSearchHit;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process full-text index of complaint content, ranked with BM25.
+ * <p>
+ * The index is rebuilt from the complaints table at startup, before requests are served, and then
+ * updated by every write that creates a complaint or changes its content. It is held in memory, or in
+ * {@code complaints.search.directory} when set, where it is memory-mapped instead of taking heap.
+ * Searches see changes within {@code complaints.search.refresh-interval}.
+ * <p>
+ * Like the counter buffer, the index assumes a single application node.
+ */
+@Component
+@Slf4j
+public class ComplaintSearchIndex {
+
+    private static final String ID = "id";
+    private static final String CONTENT = "content";
+
+    private final ComplaintStore complaintStore;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final QueryBuilder queryBuilder = new QueryBuilder(analyzer);
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final Duration refreshInterval;
+
+    private ScheduledExecutorService refresher;
+
+    public ComplaintSearchIndex(ComplaintStore complaintStore,
+                                @Value("${complaints.search.directory:}") String directory,
+                                @Value("${complaints.search.refresh-interval:PT0.5S}") Duration refreshInterval)
+            throws IOException {
+        this.complaintStore = complaintStore;
+        this.directory = directory.isEmpty() ? new ByteBuffersDirectory() : FSDirectory.open(Path.of(directory));
+        // The index is derived from the table, so a previous index in the directory is discarded
+        this.writer = new IndexWriter(this.directory,
+                new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE));
+        this.searcherManager = new SearcherManager(writer, null);
+        this.refreshInterval = refreshInterval;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        rebuild();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "complaint-search-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMs = refreshInterval.toMillis();
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws IOException, InterruptedException {
+        if (refresher != null) {
+            // Lets a running refresh complete, interrupting it would fail it
+            refresher.shutdown();
+            refresher.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    /**
+     * Indexes all complaints of the table, replacing the current index.
+     *
+     * @throws IOException if the index cannot be written
+     */
+    void rebuild() throws IOException {
+        long start = System.nanoTime();
+        AtomicLong count = new AtomicLong();
+        writer.deleteAll();
+        complaintStore.streamAll(complaint -> {
+            write(complaint.id(), complaint.content());
+            count.incrementAndGet();
+        });
+        writer.commit();
+        searcherManager.maybeRefreshBlocking();
+        log.info("Indexed {} complaints for search in {} ms", count.get(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Indexes the content of a complaint, replacing its previous content. Within a transaction the
+     * complaint is indexed after commit, so that a rolled back change is never searchable.
+     *
+     * @param id the complaint ID
+     * @param content the complaint content
+     */
+    public void index(Long id, String content) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(id, content);
+                }
+            });
+        } else {
+            write(id, content);
+        }
+    }
+
+    /**
+     * Finds the complaints whose content contains all words of the query, best matches first.
+     *
+     * @param text the words to search for
+     * @param limit the maximum number of hits
+     * @return the hits by descending score, empty if the query has no searchable words
+     */
+    public List<ComplaintSearchHit> search(String text, int limit) {
+        Query query = queryBuilder.createBooleanQuery(CONTENT, text, BooleanClause.Occur.MUST);
+        if (query == null) {
+            return List.of();
+        }
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs topDocs = searcher.search(query, limit);
+                List<ComplaintSearchHit> hits = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    String id = searcher.storedFields().document(scoreDoc.doc).get(ID);
+                    hits.add(new ComplaintSearchHit(Long.valueOf(id), scoreDoc.score));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Makes all indexed changes searchable.
+     *
+     * @throws IOException if the index cannot be read
+     */
+    void refresh() throws IOException {
+        searcherManager.maybeRefreshBlocking();
+    }
+
+    private void refreshQuietly() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (IOException | RuntimeException e) {
+            log.error("Error while refreshing complaint search index", e);
+        }
+    }
+
+    private void write(Long id, String content) {
+        Document document = new Document();
+        document.add(new StringField(ID, id.toString(), Field.Store.YES));
+        document.add(new TextField(CONTENT, content, Field.Store.NO));
+        try {
+            writer.updateDocument(new Term(ID, id.toString()), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -1,19 +1,33 @@
 package pl.empik.complaintservice.service;
 
 import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
 import pl.empik.complaintservice.exception.ComplaintNotFoundException;
-import pl.empik.complaintservice.model.Complaint;
+import pl.empik.complaintservice.exception.InvalidComplaintQueryException;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintPage;
 import pl.empik.complaintservice.model.ComplaintRequest;
 import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintSearchHit;
+import pl.empik.complaintservice.model.ComplaintSearchResult;
 import pl.empik.complaintservice.model.ComplaintUpdateRequest;
-import pl.empik.complaintservice.repository.ComplaintRepository;
+import pl.empik.complaintservice.model.ComplaintVersion;
+import pl.empik.complaintservice.repository.ComplaintStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,66 +35,203 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ComplaintService {
 
-    private final ComplaintRepository complaintRepository;
+    private static final String CREATE_TIMER = "complaints.create";
+
+    private final ComplaintStore complaintStore;
     private final GeolocationService geolocationService;
+    private final GeolocationEnrichmentService geolocationEnrichmentService;
+    private final ComplaintCounterBuffer complaintCounterBuffer;
+    private final ComplaintCache complaintCache;
+    private final ComplaintStatistics complaintStatistics;
+    private final ComplaintSearchIndex complaintSearchIndex;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Retrieves the complaints matching the filter, ordered by ID.
+     *
+     * @param filter the criteria
+     * @param fields the fields to read; the others are null
+     * @return the complaints
+     */
+    public List<ComplaintResponse> getComplaints(ComplaintFilter filter, Set<ComplaintField> fields) {
+        return withBufferedCounters(complaintStore.findProjected(filter, fields, null, Limit.unlimited()));
+    }
 
     /**
-     * Retrieves all complaints from the database.
+     * Retrieves a page of the complaints matching the filter with IDs greater than the cursor, ordered by ID.
      *
-     * @return list of all complaints
+     * @param filter the criteria
+     * @param fields the fields to read; the others are null
+     * @param afterId the ID of the last complaint of the previous page, or null for the first page
+     * @param limit the maximum number of complaints, capped at {@link ComplaintConstants#MAX_PAGE_LIMIT}
+     * @return the page with the cursor of the next page, or a null cursor on the last page
      */
-    @Transactional(readOnly = true)
-    public List<ComplaintResponse> getAllComplaints() {
-        return complaintRepository.findAll().stream()
-                .map(ComplaintResponse::fromEntity)
-                .collect(Collectors.toList());
+    public ComplaintPage getComplaintsPage(ComplaintFilter filter, Set<ComplaintField> fields, Long afterId, int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), ComplaintConstants.MAX_PAGE_LIMIT);
+        List<ComplaintResponse> complaints = complaintStore.findProjected(filter, fields, afterId,
+                Limit.of(pageSize + 1));
+
+        boolean hasMore = complaints.size() > pageSize;
+        List<ComplaintResponse> items = withBufferedCounters(hasMore ? complaints.subList(0, pageSize) : complaints);
+        Long nextCursor = hasMore ? items.get(items.size() - 1).id() : null;
+        return new ComplaintPage(items, nextCursor);
     }
 
     /**
-     * Retrieves a complaint by its ID.
+     * Streams all complaints ordered by ID without loading them into memory.
+     *
+     * @param consumer receives each complaint as it is read
+     */
+    public void streamComplaints(Consumer<ComplaintResponse> consumer) {
+        if (complaintCounterBuffer.isEnabled()) {
+            complaintStore.streamAll(complaint -> consumer.accept(complaintCounterBuffer.overlayCounter(complaint)));
+        } else {
+            complaintStore.streamAll(consumer);
+        }
+    }
+
+    /**
+     * Finds the complaints whose content contains all words of the query, best matches first.
+     * Only the matching complaints are read from the complaint store.
+     *
+     * @param query the words to search for
+     * @param limit the maximum number of complaints, capped at {@link ComplaintConstants#MAX_SEARCH_LIMIT}
+     * @return the matching complaints with their scores
+     * @throws InvalidComplaintQueryException if the query is blank
+     */
+    public List<ComplaintSearchResult> searchComplaints(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidComplaintQueryException(ComplaintConstants.EMPTY_SEARCH_QUERY_MESSAGE);
+        }
+        List<ComplaintSearchHit> hits = complaintSearchIndex.search(query,
+                Math.min(Math.max(limit, 1), ComplaintConstants.MAX_SEARCH_LIMIT));
+        if (hits.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, ComplaintResponse> complaints = complaintStore.findAllById(
+                        hits.stream().map(ComplaintSearchHit::id).toList()).stream()
+                .collect(Collectors.toMap(ComplaintResponse::id, Function.identity()));
+
+        List<ComplaintSearchResult> results = new ArrayList<>(hits.size());
+        for (ComplaintSearchHit hit : hits) {
+            ComplaintResponse response = complaints.get(hit.id());
+            if (response != null) {
+                results.add(new ComplaintSearchResult(
+                        complaintCounterBuffer.isEnabled() ? complaintCounterBuffer.overlay(response) : response,
+                        hit.score()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Retrieves a complaint by its ID, reading through the complaint cache.
+     * Cache hits do not touch the database, so the method does not open a transaction itself.
      *
      * @param id the complaint ID
      * @return the complaint
      * @throws ComplaintNotFoundException if complaint not found
      */
-    @Transactional(readOnly = true)
     public ComplaintResponse getComplaintById(Long id) {
-        Complaint complaint = complaintRepository.findById(id)
+        ComplaintResponse response = complaintCache.get(id, () -> complaintStore.findById(id)
+                .orElseThrow(() -> new ComplaintNotFoundException(ComplaintConstants.COMPLAINT_NOT_FOUND_MESSAGE + id)));
+        return complaintCounterBuffer.isEnabled() ? complaintCounterBuffer.overlay(response) : response;
+    }
+
+    /**
+     * Retrieves the version of a complaint for conditional requests, without loading the complaint
+     * when it is not cached. With write-behind buffering the complaint is read, as its counter
+     * includes buffered increments.
+     *
+     * @param id the complaint ID
+     * @return the version and counter of the complaint
+     * @throws ComplaintNotFoundException if complaint not found
+     */
+    public ComplaintVersion getComplaintVersion(Long id) {
+        if (complaintCounterBuffer.isEnabled()) {
+            return ComplaintVersion.of(getComplaintById(id));
+        }
+        ComplaintResponse cached = complaintCache.getIfPresent(id);
+        if (cached != null) {
+            return ComplaintVersion.of(cached);
+        }
+        return complaintStore.findVersionById(id)
                 .orElseThrow(() -> new ComplaintNotFoundException(ComplaintConstants.COMPLAINT_NOT_FOUND_MESSAGE + id));
-        return ComplaintResponse.fromEntity(complaint);
     }
 
     /**
      * Creates a new complaint or increments counter for an existing one.
+     * Both cases are handled by a single atomic upsert, so concurrent duplicates never lose increments.
+     * <p>
+     * When asynchronous enrichment is enabled and has capacity, a new complaint is persisted
+     * with a pending country that is resolved in the background after commit.
+     * <p>
+     * When write-behind buffering is enabled, duplicates of an already persisted complaint only
+     * increment an in-memory counter that is flushed to the database in batches.
+     * Otherwise incrementing a duplicate evicts it from the complaint cache.
+     * <p>
+     * Every outcome is recorded in the complaint statistics, and new complaints are indexed for search.
+     * <p>
+     * The method is deliberately not transactional: the complaint store writes the upsert and its change event
+     * in one short transaction, and the geolocation lookup must not hold a database connection while it waits
+     * for the remote API. Buffered increments are recorded as one {@code INCREMENTED} change event per complaint when
+     * they are flushed.
+     * <p>
+     * The call is timed as {@code complaints.create} tagged with its outcome: created, duplicate, buffered or error.
      *
      * @param complaintRequest the complaint data
      * @param ipAddress client IP address
      * @return the created complaint
      */
-    @Transactional
     public ComplaintResponse createComplaint(ComplaintRequest complaintRequest, String ipAddress) {
-        String country = geolocationService.getCountryFromIp(ipAddress);
-
-        // Check if a complaint with the same productId and reportedBy already exists
-        return complaintRepository.findByProductIdAndReportedBy(
-                complaintRequest.productId(),
-                complaintRequest.reportedBy()
-        ).map(existingComplaint -> {
-            // Increment counter for duplicate complaint
-            existingComplaint.setCounter(existingComplaint.getCounter() + 1);
-            return ComplaintResponse.fromEntity(complaintRepository.save(existingComplaint));
-        }).orElseGet(() -> {
-            // Create new complaint
-            Complaint newComplaint = Complaint.builder()
-                    .productId(complaintRequest.productId())
-                    .content(complaintRequest.content())
-                    .reportedBy(complaintRequest.reportedBy())
-                    .country(country)
-                    .createdAt(LocalDateTime.now())
-                    .counter(1)
-                    .build();
-            return ComplaintResponse.fromEntity(complaintRepository.save(newComplaint));
-        });
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (complaintCounterBuffer.isEnabled()) {
+                ComplaintResponse buffered = complaintCounterBuffer.increment(
+                        complaintRequest.productId(), complaintRequest.reportedBy());
+                if (buffered != null) {
+                    complaintStatistics.record(buffered.productId(), buffered.country(), 1, LocalDateTime.now());
+                    sample.stop(meterRegistry.timer(CREATE_TIMER, "outcome", "buffered"));
+                    return buffered;
+                }
+            }
+
+            boolean deferred = geolocationEnrichmentService.tryReserve();
+            String country = deferred
+                    ? ComplaintConstants.PENDING_COUNTRY
+                    : geolocationService.getCountryFromIp(ipAddress);
+
+            // Insert the complaint or increment the counter of an existing one with the same productId and reportedBy
+            LocalDateTime now = LocalDateTime.now();
+            ComplaintResponse complaint = complaintStore.upsertIncrement(
+                    complaintRequest.productId(),
+                    complaintRequest.content(),
+                    complaintRequest.reportedBy(),
+                    country,
+                    now
+            );
+            complaintStatistics.record(complaint.productId(), complaint.country(), 1, now);
+            if (complaint.counter() > 1) {
+                complaintCache.evict(complaint.id());
+            } else {
+                complaintSearchIndex.index(complaint.id(), complaint.content());
+            }
+            if (deferred) {
+                if (complaint.counter() == 1) {
+                    geolocationEnrichmentService.submit(complaint.id(), ipAddress);
+                } else {
+                    geolocationEnrichmentService.release();
+                }
+            }
+            if (complaintCounterBuffer.isEnabled()) {
+                complaintCounterBuffer.register(complaint);
+            }
+            sample.stop(meterRegistry.timer(CREATE_TIMER, "outcome", complaint.counter() == 1 ? "created" : "duplicate"));
+            return complaint;
+        } catch (RuntimeException e) {
+            sample.stop(meterRegistry.timer(CREATE_TIMER, "outcome", "error"));
+            throw e;
+        }
     }
 
     /**
@@ -91,12 +242,33 @@ public class ComplaintService {
      * @return the updated complaint
      * @throws ComplaintNotFoundException if complaint not found
      */
-    @Transactional
     public ComplaintResponse updateComplaint(Long id, ComplaintUpdateRequest updateRequest) {
-        Complaint complaint = complaintRepository.findById(id)
+        return updateComplaint(id, updateRequest, null);
+    }
+
+    /**
+     * Updates the content of an existing complaint if it still has the expected version.
+     * The version is checked, the content changed and the change event written atomically by the complaint store.
+     *
+     * @param id the complaint ID
+     * @param updateRequest the updated content
+     * @param expectedVersion the version the client has seen, or null to update any version
+     * @return the updated complaint
+     * @throws ComplaintNotFoundException if complaint not found
+     * @throws ComplaintModifiedException if the complaint no longer has the expected version
+     */
+    public ComplaintResponse updateComplaint(Long id, ComplaintUpdateRequest updateRequest, Long expectedVersion) {
+        ComplaintResponse response = complaintStore.updateContent(id, updateRequest.content(), expectedVersion)
                 .orElseThrow(() -> new ComplaintNotFoundException(ComplaintConstants.COMPLAINT_NOT_FOUND_MESSAGE + id));
+        complaintCache.evict(id);
+        complaintSearchIndex.index(id, response.content());
+        return complaintCounterBuffer.isEnabled() ? complaintCounterBuffer.overlay(response) : response;
+    }
 
-        complaint.setContent(updateRequest.content());
-        return ComplaintResponse.fromEntity(complaintRepository.save(complaint));
+    private List<ComplaintResponse> withBufferedCounters(List<ComplaintResponse> complaints) {
+        if (!complaintCounterBuffer.isEnabled()) {
+            return complaints;
+        }
+        return complaints.stream().map(complaintCounterBuffer::overlayCounter).toList();
     }
 }
@@ -0,0 +1,195 @@
+package pl.empik.complaintservice.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.model.ComplaintCountBucket;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.CountryComplaintCount;
+import pl.empik.complaintservice.model.ProductComplaintCount;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Complaint totals per product, per country and per time bucket, maintained incrementally by the
+ * write paths, so that dashboard queries never scan the complaints.
+ * <p>
+ * Every reported complaint, including duplicates, counts once. Product and country totals are loaded
+ * from the database at startup; the timeline covers complaints reported since then, in buckets of
+ * {@code complaints.stats.bucket} kept for {@code complaints.stats.retention}. A bucket shorter than
+ * one second or a retention shorter than one bucket is rejected at startup. Complaints awaiting
+ * asynchronous geolocation count under the pending country until they are enriched.
+ * <p>
+ * Like the counter buffer, the statistics assume a single application node.
+ */
+@Component
+@Slf4j
+public class ComplaintStatistics {
+
+    private static final Comparator<ProductComplaintCount> RANKING = Comparator
+            .comparingLong(ProductComplaintCount::total).reversed()
+            .thenComparing(ProductComplaintCount::productId);
+
+    private final ComplaintStore complaintStore;
+    private final long bucketSeconds;
+    private final long retentionSeconds;
+
+    // Guarded by productRanking, which orders the same entries by total
+    private final Map<String, ProductComplaintCount> productTotals = new HashMap<>();
+    private final NavigableSet<ProductComplaintCount> productRanking = new TreeSet<>(RANKING);
+    private final Map<String, LongAdder> countryTotals = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, LongAdder> buckets = new ConcurrentSkipListMap<>();
+
+    public ComplaintStatistics(ComplaintStore complaintStore,
+                               @Value("${complaints.stats.bucket:PT1H}") Duration bucket,
+                               @Value("${complaints.stats.retention:P7D}") Duration retention) {
+        if (bucket.toSeconds() < 1) {
+            throw new IllegalArgumentException("complaints.stats.bucket must be at least one second, was " + bucket);
+        }
+        if (retention.compareTo(bucket) < 0) {
+            throw new IllegalArgumentException("complaints.stats.retention must be at least one bucket of "
+                    + bucket + ", was " + retention);
+        }
+        this.complaintStore = complaintStore;
+        this.bucketSeconds = bucket.toSeconds();
+        this.retentionSeconds = retention.toSeconds();
+    }
+
+    @PostConstruct
+    void load() {
+        List<ComplaintTotal> totals = complaintStore.sumCountersByProductAndCountry();
+        totals.forEach(total -> {
+            addToProduct(total.productId(), total.total());
+            addToCountry(total.country(), total.total());
+        });
+        log.info("Loaded complaint statistics of {} products", productTotals.size());
+    }
+
+    /**
+     * Records reported complaints.
+     *
+     * @param productId the product ID
+     * @param country the country of the complaint
+     * @param count the number of reports
+     * @param reportedAt the time of the reports
+     */
+    public void record(String productId, String country, long count, LocalDateTime reportedAt) {
+        addToProduct(productId, count);
+        addToCountry(country, count);
+
+        long bucket = Math.floorDiv(reportedAt.toEpochSecond(ZoneOffset.UTC), bucketSeconds) * bucketSeconds;
+        LongAdder adder = buckets.get(bucket);
+        if (adder == null) {
+            adder = buckets.computeIfAbsent(bucket, key -> new LongAdder());
+            buckets.headMap(bucket - retentionSeconds).clear();
+        }
+        adder.add(count);
+    }
+
+    /**
+     * Moves reports from one country to another, after complaints have been enriched with their country.
+     *
+     * @param from the previous country
+     * @param to the new country
+     * @param count the number of reports
+     */
+    public void moveCountry(String from, String to, long count) {
+        if (count == 0 || from.equals(to)) {
+            return;
+        }
+        addToCountry(from, -count);
+        addToCountry(to, count);
+    }
+
+    /**
+     * Returns the products with the most complaints. Takes time proportional to the limit only.
+     *
+     * @param limit the maximum number of products
+     * @return the products by descending total
+     */
+    public List<ProductComplaintCount> getTopProducts(int limit) {
+        List<ProductComplaintCount> top = new ArrayList<>(Math.min(limit, 64));
+        synchronized (productRanking) {
+            for (ProductComplaintCount product : productRanking) {
+                if (top.size() == limit) {
+                    break;
+                }
+                top.add(product);
+            }
+        }
+        return top;
+    }
+
+    /**
+     * Returns the complaint totals of all countries.
+     *
+     * @return the countries by descending total
+     */
+    public List<CountryComplaintCount> getCountries() {
+        List<CountryComplaintCount> countries = new ArrayList<>(countryTotals.size());
+        countryTotals.forEach((country, total) -> {
+            long sum = total.sum();
+            if (sum > 0) {
+                countries.add(new CountryComplaintCount(country, sum));
+            }
+        });
+        countries.sort(Comparator.comparingLong(CountryComplaintCount::total).reversed()
+                .thenComparing(CountryComplaintCount::country));
+        return countries;
+    }
+
+    /**
+     * Returns the number of complaints reported in each bucket overlapping the period,
+     * limited to the retention. Buckets without complaints are included with a zero total.
+     *
+     * @param from the start of the period, inclusive
+     * @param to the end of the period, exclusive
+     * @return the buckets in chronological order
+     */
+    public List<ComplaintCountBucket> getTimeline(LocalDateTime from, LocalDateTime to) {
+        long end = to.toEpochSecond(ZoneOffset.UTC);
+        long start = Math.floorDiv(Math.max(from.toEpochSecond(ZoneOffset.UTC), end - retentionSeconds),
+                bucketSeconds) * bucketSeconds;
+        NavigableMap<Long, LongAdder> counts = buckets.subMap(start, true, end, false);
+        List<ComplaintCountBucket> timeline = new ArrayList<>();
+        for (long bucket = start; bucket < end; bucket += bucketSeconds) {
+            LongAdder count = counts.get(bucket);
+            timeline.add(new ComplaintCountBucket(LocalDateTime.ofEpochSecond(bucket, 0, ZoneOffset.UTC),
+                    count != null ? count.sum() : 0));
+        }
+        return timeline;
+    }
+
+    private void addToProduct(String productId, long count) {
+        synchronized (productRanking) {
+            ProductComplaintCount previous = productTotals.get(productId);
+            long total = count;
+            if (previous != null) {
+                productRanking.remove(previous);
+                total += previous.total();
+            }
+            ProductComplaintCount updated = new ProductComplaintCount(productId, total);
+            productTotals.put(productId, updated);
+            productRanking.add(updated);
+        }
+    }
+
+    private void addToCountry(String country, long count) {
+        countryTotals.computeIfAbsent(country, key -> new LongAdder()).add(count);
+    }
+}
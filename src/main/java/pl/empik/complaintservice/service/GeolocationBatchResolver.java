@@ -0,0 +1,239 @@
+package pl.empik.complaintservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.GeolocationUnavailableException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micro-batching resolver using the batch endpoint of the geolocation API.
+ * <p>
+ * Active when {@code geolocation.batch.enabled=true}. Lookups arriving within
+ * {@code geolocation.batch.window} of the first one are collected, deduplicated by IP and resolved
+ * with a single call of up to {@code geolocation.batch.max-size} IPs; a full batch is sent immediately.
+ * <p>
+ * Batch calls have their own rate limit ({@code geolocation.batch.rate-limit.*}) and share the
+ * circuit breaker of single lookups. When a batch cannot be sent or fails, its callers get a
+ * {@link GeolocationUnavailableException} and fall back to single lookups.
+ */
+@Component
+@ConditionalOnProperty(name = "geolocation.batch.enabled", havingValue = "true")
+@Slf4j
+public class GeolocationBatchResolver implements MeterBinder {
+
+    private static final String BATCH_TIMER = "geolocation.batch";
+    private static final String BATCH_SIZE = "geolocation.batch.size";
+
+    private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker circuitBreaker;
+    private final TokenBucketRateLimiter rateLimiter;
+    private final String batchUrl;
+    private final long windowNanos;
+    private final int maxSize;
+    private final ScheduledExecutorService executor;
+
+    private Map<String, CompletableFuture<String>> pending = new LinkedHashMap<>();
+    private long windowId;
+
+    @Autowired
+    public GeolocationBatchResolver(RestTemplate restTemplate,
+                                    MeterRegistry meterRegistry,
+                                    CircuitBreaker geolocationCircuitBreaker,
+                                    @Value("${geolocation.batch.url:http://ip-api.com/batch?fields=status,country}") String batchUrl,
+                                    @Value("${geolocation.batch.window:PT0.005S}") Duration window,
+                                    @Value("${geolocation.batch.max-size:100}") int maxSize,
+                                    @Value("${geolocation.batch.max-concurrent-calls:4}") int maxConcurrentCalls,
+                                    @Value("${geolocation.batch.rate-limit.permits:15}") int permits,
+                                    @Value("${geolocation.batch.rate-limit.period:PT1M}") Duration period) {
+        this(restTemplate, meterRegistry, geolocationCircuitBreaker,
+                new TokenBucketRateLimiter("geolocation-batch", permits, period),
+                batchUrl, window, maxSize, maxConcurrentCalls);
+    }
+
+    GeolocationBatchResolver(RestTemplate restTemplate, MeterRegistry meterRegistry, CircuitBreaker circuitBreaker,
+                             TokenBucketRateLimiter rateLimiter, String batchUrl, Duration window, int maxSize,
+                             int maxConcurrentCalls) {
+        this.restTemplate = restTemplate;
+        this.meterRegistry = meterRegistry;
+        this.circuitBreaker = circuitBreaker;
+        this.rateLimiter = rateLimiter;
+        this.batchUrl = batchUrl;
+        this.windowNanos = window.toNanos();
+        this.maxSize = maxSize;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(maxConcurrentCalls, runnable -> {
+            Thread thread = new Thread(runnable, "geolocation-batch-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+        Map<String, CompletableFuture<String>> batch;
+        synchronized (this) {
+            batch = drain();
+        }
+        GeolocationUnavailableException exception =
+                new GeolocationUnavailableException("geolocation batch resolver is shutting down");
+        batch.values().forEach(future -> future.completeExceptionally(exception));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        rateLimiter.bindTo(registry);
+    }
+
+    /**
+     * Resolves the country of the IP address as part of the current batch, waiting for the batch call.
+     *
+     * @param ipAddress the IP address
+     * @return the country name or "Unknown" if the API could not determine it
+     * @throws GeolocationUnavailableException if the batch was rejected or failed
+     */
+    public String resolve(String ipAddress) {
+        CompletableFuture<String> future;
+        Map<String, CompletableFuture<String>> fullBatch = null;
+        synchronized (this) {
+            future = pending.get(ipAddress);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                pending.put(ipAddress, future);
+                if (pending.size() >= maxSize) {
+                    fullBatch = drain();
+                } else if (pending.size() == 1) {
+                    long window = windowId;
+                    executor.schedule(() -> flushWindow(window), windowNanos, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+        if (fullBatch != null) {
+            Map<String, CompletableFuture<String>> batch = fullBatch;
+            executor.execute(() -> call(batch));
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private void flushWindow(long window) {
+        Map<String, CompletableFuture<String>> batch;
+        synchronized (this) {
+            // The window may have been flushed already because its batch filled up
+            if (window != windowId) {
+                return;
+            }
+            batch = drain();
+        }
+        call(batch);
+    }
+
+    private Map<String, CompletableFuture<String>> drain() {
+        Map<String, CompletableFuture<String>> batch = pending;
+        pending = new LinkedHashMap<>();
+        windowId++;
+        return batch;
+    }
+
+    /**
+     * Resolves a batch with one API call and completes the futures of its callers.
+     * The call is timed as {@code geolocation.batch} tagged with its outcome: success, error,
+     * rate_limited or circuit_open, and its size is recorded as {@code geolocation.batch.size}.
+     *
+     * @param batch the futures of the batched lookups by IP address
+     */
+    private void call(Map<String, CompletableFuture<String>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<String> ipAddresses = new ArrayList<>(batch.keySet());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        JsonNode results = null;
+        try {
+            if (!rateLimiter.tryAcquire()) {
+                outcome = "rate_limited";
+            } else if (!circuitBreaker.tryAcquirePermission()) {
+                outcome = "circuit_open";
+            } else {
+                results = callApi(ipAddresses);
+                outcome = "success";
+            }
+        } catch (RuntimeException e) {
+            log.error("Error while calling geolocation batch API for {} IPs", ipAddresses.size(), e);
+        } finally {
+            meterRegistry.summary(BATCH_SIZE).record(ipAddresses.size());
+            sample.stop(meterRegistry.timer(BATCH_TIMER, "outcome", outcome));
+        }
+
+        if (results == null) {
+            GeolocationUnavailableException exception =
+                    new GeolocationUnavailableException("geolocation batch call was not made or failed: " + outcome);
+            batch.values().forEach(future -> future.completeExceptionally(exception));
+            return;
+        }
+        for (int i = 0; i < ipAddresses.size(); i++) {
+            batch.get(ipAddresses.get(i)).complete(country(results.get(i)));
+        }
+    }
+
+    /**
+     * Calls the batch endpoint and reports the result to the circuit breaker.
+     *
+     * @param ipAddresses the IP addresses to resolve
+     * @return the results, in the order of the IP addresses
+     */
+    private JsonNode callApi(List<String> ipAddresses) {
+        ResponseEntity<JsonNode> response;
+        try {
+            response = restTemplate.postForEntity(batchUrl, ipAddresses, JsonNode.class);
+        } catch (RuntimeException e) {
+            circuitBreaker.onFailure();
+            throw e;
+        }
+        if (!response.getStatusCode().is2xxSuccessful()) {
+            circuitBreaker.onFailure();
+            throw new IllegalStateException("Geolocation batch API responded with " + response.getStatusCode());
+        }
+        circuitBreaker.onSuccess();
+        JsonNode results = response.getBody();
+        if (results == null || !results.isArray() || results.size() != ipAddresses.size()) {
+            throw new IllegalStateException("Geolocation batch API returned an unexpected response");
+        }
+        return results;
+    }
+
+    private static String country(JsonNode result) {
+        if (result.has(ComplaintConstants.JSON_STATUS)
+                && ComplaintConstants.JSON_SUCCESS.equals(result.get(ComplaintConstants.JSON_STATUS).asText())) {
+            return result.get(ComplaintConstants.JSON_COUNTRY).asText();
+        }
+        return ComplaintConstants.UNKNOWN_COUNTRY;
+    }
+}
@@ -0,0 +1,149 @@
+package pl.empik.complaintservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of IP-to-country lookups.
+ * <p>
+ * Entries are evicted by size (W-TinyLFU) and expire after a positive TTL, or after
+ * a shorter negative TTL when the lookup resolved to {@link ComplaintConstants#UNKNOWN_COUNTRY}.
+ * Concurrent lookups of the same IP are coalesced into a single load.
+ * <p>
+ * The load runs on the calling thread outside of any lock held by the cache, so a blocking
+ * lookup never pins the carrier thread when requests are handled on virtual threads.
+ * <p>
+ * Hit, miss, load and eviction statistics are published as {@code cache.*} metrics tagged {@code cache=geolocation}.
+ */
+@Component
+public class GeolocationCache implements MeterBinder {
+
+    private final AsyncCache<String, String> cache;
+
+    @Autowired
+    public GeolocationCache(@Value("${geolocation.cache.max-size:10000}") long maxSize,
+                            @Value("${geolocation.cache.ttl:PT6H}") Duration ttl,
+                            @Value("${geolocation.cache.negative-ttl:PT1M}") Duration negativeTtl) {
+        this(maxSize, ttl, negativeTtl, Ticker.systemTicker());
+    }
+
+    GeolocationCache(long maxSize, Duration ttl, Duration negativeTtl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new LookupExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the cached country for the IP address, loading it on a miss.
+     *
+     * @param ipAddress the IP address
+     * @param loader function resolving the country on a cache miss
+     * @return the country name
+     */
+    public String get(String ipAddress, Function<String, String> loader) {
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletableFuture<String> future = cache.get(ipAddress, (ip, executor) -> pending);
+        if (future == pending) {
+            try {
+                pending.complete(loader.apply(ipAddress));
+            } catch (Throwable e) {
+                // Failed loads, errors included, are removed from the cache, so the next lookup retries
+                // instead of waiting forever for a load that will never complete
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Returns the cached country for the IP address, starting a non-blocking load on a miss.
+     * Concurrent lookups of the same IP share the pending load, and a failed load is not cached.
+     *
+     * @param ipAddress the IP address
+     * @param loader function starting the resolution of the country on a cache miss
+     * @return the future country name
+     */
+    public CompletableFuture<String> getAsync(String ipAddress, Function<String, CompletableFuture<String>> loader) {
+        return cache.get(ipAddress, (ip, executor) -> loader.apply(ip));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Same tag keys as the caches Spring Boot registers, as Prometheus requires them to match per meter name
+        CaffeineCacheMetrics.monitor(registry, cache, "geolocation",
+                "cache.manager", "geolocationCache", "name", "geolocation");
+    }
+
+    /**
+     * Returns hit, miss and eviction counters accumulated since startup.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    /**
+     * Returns the approximate number of cached entries.
+     *
+     * @return the estimated cache size
+     */
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    /**
+     * Expires resolved countries after the positive TTL and unknown ones after the negative TTL.
+     * Reads and updates keep the remaining lifetime of an entry.
+     */
+    private record LookupExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<String, String> {
+
+        @Override
+        public long expireAfterCreate(String ipAddress, String country, long currentTime) {
+            return ComplaintConstants.UNKNOWN_COUNTRY.equals(country) ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String ipAddress, String country, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(String ipAddress, String country, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Performs pending maintenance such as expiration and size-based eviction.
+     */
+    void cleanUp() {
+        cache.synchronous().cleanUp();
+    }
+}
@@ -0,0 +1,290 @@
+package pl.empik.complaintservice.service;
+
+import jakarta.annotation.PostConstruct;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the country of newly created complaints in the background.
+ * <p>
+ * Complaints are persisted with a pending country and queued here after the creating
+ * transaction commits. A single worker drains the queue in batches, resolves each distinct
+ * IP once per batch, updates the complaints with one statement per country, evicts them from
+ * the complaint cache and moves their reports in the complaint statistics from the pending country.
+ * <p>
+ * A complaint whose IP cannot be resolved because of an unexpected failure gets the unknown country
+ * rather than staying pending. A failed update is retried up to {@code geolocation.enrichment.max-attempts}
+ * times, with the backoff doubling from {@code geolocation.enrichment.retry-backoff}; complaints still not
+ * updated then are logged and counted as {@code geolocation.enrichment.failed}.
+ * <p>
+ * The queue is bounded: callers reserve a slot with {@link #tryReserve()} before persisting,
+ * and when no slot is free they resolve the country synchronously instead, which slows
+ * producers down to the rate the worker can sustain.
+ */
+@Service
+@Slf4j
+public class GeolocationEnrichmentService implements MeterBinder {
+
+    private static final long POLL_TIMEOUT_MS = 200;
+
+    private final GeolocationService geolocationService;
+    private final ComplaintStore complaintStore;
+    private final ComplaintCache complaintCache;
+    private final ComplaintStatistics complaintStatistics;
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long retryBackoffMs;
+    private final BlockingQueue<EnrichmentTask> queue;
+    private final Semaphore permits;
+    private final AtomicLong enrichedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public GeolocationEnrichmentService(GeolocationService geolocationService,
+                                        ComplaintStore complaintStore,
+                                        ComplaintCache complaintCache,
+                                        ComplaintStatistics complaintStatistics,
+                                        @Value("${geolocation.enrichment.async:false}") boolean enabled,
+                                        @Value("${geolocation.enrichment.queue-capacity:10000}") int queueCapacity,
+                                        @Value("${geolocation.enrichment.batch-size:100}") int batchSize,
+                                        @Value("${geolocation.enrichment.max-attempts:3}") int maxAttempts,
+                                        @Value("${geolocation.enrichment.retry-backoff:PT0.5S}") Duration retryBackoff) {
+        this.geolocationService = geolocationService;
+        this.complaintStore = complaintStore;
+        this.complaintCache = complaintCache;
+        this.complaintStatistics = complaintStatistics;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoffMs = retryBackoff.toMillis();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.permits = new Semaphore(queueCapacity);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        worker = new Thread(this::run, "geolocation-enrichment");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (worker != null) {
+            worker.join();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("geolocation.enrichment.queue.size", queue, BlockingQueue::size)
+                .description("Complaints waiting for country resolution")
+                .register(registry);
+        FunctionCounter.builder("geolocation.enrichment.enriched", enrichedCount, AtomicLong::get)
+                .description("Complaints enriched with their country")
+                .register(registry);
+        FunctionCounter.builder("geolocation.enrichment.rejected", rejectedCount, AtomicLong::get)
+                .description("Complaints resolved synchronously because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("geolocation.enrichment.failed", failedCount, AtomicLong::get)
+                .description("Complaints left pending because their country could not be updated")
+                .register(registry);
+    }
+
+    /**
+     * Reserves a queue slot for a complaint whose country will be resolved asynchronously.
+     * A successful reservation must be followed by {@link #submit} or {@link #release()}.
+     *
+     * @return true if the slot was reserved, false if async enrichment is disabled or the queue is full
+     */
+    public boolean tryReserve() {
+        if (!enabled) {
+            return false;
+        }
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Releases a slot reserved with {@link #tryReserve()} that will not be used.
+     */
+    public void release() {
+        permits.release();
+    }
+
+    /**
+     * Queues a complaint for country resolution once the current transaction commits.
+     * The caller must hold a slot reserved with {@link #tryReserve()}.
+     *
+     * @param complaintId the complaint ID
+     * @param ipAddress client IP address
+     */
+    public void submit(Long complaintId, String ipAddress) {
+        EnrichmentTask task = new EnrichmentTask(complaintId, ipAddress);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        queue.add(task);
+                    } else {
+                        release();
+                    }
+                }
+            });
+        } else {
+            queue.add(task);
+        }
+    }
+
+    /**
+     * Returns the number of complaints waiting for country resolution.
+     *
+     * @return the queue size
+     */
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the number of complaints enriched since startup.
+     *
+     * @return the enriched complaint count
+     */
+    public long getEnrichedCount() {
+        return enrichedCount.get();
+    }
+
+    /**
+     * Returns the number of reservations refused because the queue was full.
+     *
+     * @return the rejected reservation count
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * Returns the number of complaints left pending because their country could not be updated.
+     *
+     * @return the failed complaint count
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void run() {
+        List<EnrichmentTask> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                EnrichmentTask first = queue.poll(POLL_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                processBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error while enriching {} complaints with geolocation", batch.size(), e);
+            } finally {
+                permits.release(batch.size());
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Resolves each distinct IP of the batch once and updates the complaints grouped by country.
+     *
+     * @param batch the complaints to enrich
+     * @throws InterruptedException if interrupted while waiting to retry an update
+     */
+    void processBatch(List<EnrichmentTask> batch) throws InterruptedException {
+        Map<String, String> countriesByIp = new HashMap<>();
+        Map<String, List<Long>> idsByCountry = new HashMap<>();
+        for (EnrichmentTask task : batch) {
+            String country = countriesByIp.computeIfAbsent(task.ipAddress(), this::resolveCountry);
+            idsByCountry.computeIfAbsent(country, c -> new ArrayList<>()).add(task.complaintId());
+        }
+        for (Map.Entry<String, List<Long>> entry : idsByCountry.entrySet()) {
+            String country = entry.getKey();
+            List<Long> ids = entry.getValue();
+            Long reports = updateCountry(ids, country);
+            if (reports == null) {
+                failedCount.addAndGet(ids.size());
+                continue;
+            }
+            complaintCache.evictAll(ids);
+            complaintStatistics.moveCountry(ComplaintConstants.PENDING_COUNTRY, country, reports);
+            enrichedCount.addAndGet(ids.size());
+        }
+    }
+
+    private String resolveCountry(String ipAddress) {
+        try {
+            return geolocationService.getCountryFromIp(ipAddress);
+        } catch (RuntimeException e) {
+            log.error("Error while resolving the country of {}", ipAddress, e);
+            return ComplaintConstants.UNKNOWN_COUNTRY;
+        }
+    }
+
+    /**
+     * Updates the country of the complaints, retrying failed updates with an exponential backoff.
+     *
+     * @return the sum of the counters of the updated complaints, or null if every attempt failed
+     */
+    private Long updateCountry(List<Long> ids, String country) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return complaintStore.updateCountry(ids, country);
+            } catch (RuntimeException e) {
+                if (attempt >= maxAttempts) {
+                    log.error("Giving up updating the country of complaints {} to {} after {} attempts",
+                            ids, country, attempt, e);
+                    return null;
+                }
+                log.warn("Error while updating the country of {} complaints, retrying: {}", ids.size(), e.getMessage());
+                Thread.sleep(retryBackoffMs << (attempt - 1));
+            }
+        }
+    }
+
+    record EnrichmentTask(Long complaintId, String ipAddress) {}
+}
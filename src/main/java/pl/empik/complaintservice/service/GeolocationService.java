@@ -1,50 +1,147 @@
 package pl.empik.complaintservice.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.GeolocationUnavailableException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class GeolocationService {
 
+    private static final String LOOKUP_TIMER = "geolocation.lookup";
+
     private final RestTemplate restTemplate;
+    private final GeolocationCache geolocationCache;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucketRateLimiter geolocationRateLimiter;
+    private final CircuitBreaker geolocationCircuitBreaker;
     @Value("${geolocation.api.url}")
     private String geolocationApiUrl;
+    @Autowired(required = false)
+    private IpRangeGeolocationEngine offlineEngine;
+    @Autowired(required = false)
+    private GeolocationBatchResolver batchResolver;
 
     /**
      * Retrieves the country based on the provided IP address.
+     * Uses the local IP range database in offline mode, otherwise the cached geolocation API,
+     * batching concurrent cache misses when the batch resolver is enabled.
+     * When the API quota is exhausted or its circuit breaker is open, "Unknown" is returned
+     * immediately and not cached, so the next lookup of the IP tries again.
      *
      * @param ipAddress the IP address
      * @return the country name or "Unknown" if unable to determine
      */
     public String getCountryFromIp(String ipAddress) {
+        if (offlineEngine != null) {
+            return offlineEngine.getCountryFromIp(ipAddress);
+        }
+        try {
+            if (ipAddress == null) {
+                return lookupCountry(null);
+            }
+            return geolocationCache.get(ipAddress, this::resolveCountry);
+        } catch (GeolocationUnavailableException e) {
+            log.debug("Skipping geolocation of IP {}: {}", ipAddress, e.getMessage());
+            return ComplaintConstants.UNKNOWN_COUNTRY;
+        }
+    }
+
+    /**
+     * Resolves the country with a batched call if the batch resolver is enabled,
+     * falling back to a single lookup when the batch cannot be sent or fails.
+     *
+     * @param ipAddress the IP address
+     * @return the country name or "Unknown" if unable to determine
+     * @throws GeolocationUnavailableException if the single lookup was rejected by the rate limiter or circuit breaker
+     */
+    private String resolveCountry(String ipAddress) {
+        if (batchResolver != null) {
+            try {
+                return batchResolver.resolve(ipAddress);
+            } catch (GeolocationUnavailableException e) {
+                log.debug("Falling back to a single lookup of IP {}: {}", ipAddress, e.getMessage());
+            }
+        }
+        return lookupCountry(ipAddress);
+    }
+
+    /**
+     * Resolves the country by calling the geolocation API.
+     * The call is timed as {@code geolocation.lookup} tagged with its outcome: success, unknown, error,
+     * rate_limited or circuit_open. Errors and non-2xx responses count as circuit breaker failures.
+     *
+     * @param ipAddress the IP address
+     * @return the country name or "Unknown" if unable to determine
+     * @throws GeolocationUnavailableException if the call was rejected by the rate limiter or circuit breaker
+     */
+    private String lookupCountry(String ipAddress) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
         try {
+            if (!geolocationRateLimiter.tryAcquire()) {
+                outcome = "rate_limited";
+                throw new GeolocationUnavailableException("geolocation API quota exhausted");
+            }
+            if (!geolocationCircuitBreaker.tryAcquirePermission()) {
+                outcome = "circuit_open";
+                throw new GeolocationUnavailableException("geolocation API circuit breaker is open");
+            }
             String apiUrl = geolocationApiUrl + ipAddress;
-            ResponseEntity<JsonNode> response = restTemplate.getForEntity(apiUrl, JsonNode.class);
+            ResponseEntity<JsonNode> response = callApi(apiUrl);
 
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 JsonNode responseBody = response.getBody();
 
                 if (responseBody.has(ComplaintConstants.JSON_STATUS) && ComplaintConstants.JSON_SUCCESS.equals(responseBody.get(ComplaintConstants.JSON_STATUS).asText())) {
+                    outcome = "success";
                     return responseBody.get(ComplaintConstants.JSON_COUNTRY).asText();
                 }
 
             }
 
+            outcome = response.getStatusCode().is2xxSuccessful() ? "unknown" : "error";
             log.warn("Unable to determine country for IP: {}", ipAddress);
             return ComplaintConstants.UNKNOWN_COUNTRY;
         } catch (RestClientException e) {
             log.error("Error while calling geolocation API for IP: {}", ipAddress, e);
             return ComplaintConstants.UNKNOWN_COUNTRY;
+        } finally {
+            sample.stop(meterRegistry.timer(LOOKUP_TIMER, "outcome", outcome));
+        }
+    }
+
+    /**
+     * Calls the geolocation API and reports the result to the circuit breaker.
+     *
+     * @param apiUrl the request URL
+     * @return the API response
+     */
+    private ResponseEntity<JsonNode> callApi(String apiUrl) {
+        ResponseEntity<JsonNode> response;
+        try {
+            response = restTemplate.getForEntity(apiUrl, JsonNode.class);
+        } catch (RuntimeException e) {
+            geolocationCircuitBreaker.onFailure();
+            throw e;
+        }
+        if (response.getStatusCode().is2xxSuccessful()) {
+            geolocationCircuitBreaker.onSuccess();
+        } else {
+            geolocationCircuitBreaker.onFailure();
         }
+        return response;
     }
 
 }
@@ -0,0 +1,167 @@
+package pl.empik.complaintservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.IdempotencyKeyReusedException;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Bounded in-process store of the responses to complaint creations sent with an {@code Idempotency-Key}
+ * header, so that a client retrying a creation gets the original response instead of incrementing the
+ * counter again.
+ * <p>
+ * Keys are scoped by reporter and kept as 128-bit SHA-256 prefixes, so an entry takes the same few bytes
+ * whatever the length of the key, and the request is kept as a 64-bit fingerprint of its product and
+ * content only. Entries are evicted by size (W-TinyLFU) and expire a fixed time after the creation.
+ * A retry arriving while the original creation is in progress waits for its result. Failed creations are
+ * not stored, so they can be retried with the same key. Reusing a key for a different complaint fails with
+ * {@link IdempotencyKeyReusedException}.
+ * <p>
+ * The store is local to the instance; retries reaching another instance are not deduplicated.
+ * Hit and eviction statistics are published as {@code cache.*} metrics tagged {@code cache=idempotency}.
+ */
+@Component
+public class IdempotencyStore implements MeterBinder {
+
+    private final AsyncCache<KeyHash, Entry> cache;
+
+    @Autowired
+    public IdempotencyStore(@Value("${complaints.idempotency.max-size:100000}") long maxSize,
+                            @Value("${complaints.idempotency.ttl:PT24H}") Duration ttl) {
+        this(maxSize, ttl, Ticker.systemTicker());
+    }
+
+    IdempotencyStore(long maxSize, Duration ttl, Ticker ticker) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .ticker(ticker)
+                .recordStats()
+                .buildAsync();
+    }
+
+    /**
+     * Returns the response stored for the key, or creates the complaint and stores its response.
+     *
+     * @param idempotencyKey the key sent by the client
+     * @param request the complaint data
+     * @param creation creates the complaint, called only if the key is not stored
+     * @return the original response
+     * @throws IdempotencyKeyReusedException if the key was used for a different complaint
+     */
+    public ComplaintResponse execute(String idempotencyKey, ComplaintRequest request,
+                                     Supplier<ComplaintResponse> creation) {
+        long fingerprint = fingerprint(request);
+        CompletableFuture<Entry> pending = new CompletableFuture<>();
+        CompletableFuture<Entry> future = cache.get(keyHash(idempotencyKey, request), (key, executor) -> pending);
+        if (future == pending) {
+            try {
+                pending.complete(new Entry(creation.get(), fingerprint));
+            } catch (Throwable e) {
+                // Otherwise retries with the key would wait forever for the failed creation
+                pending.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return replay(future.join(), fingerprint);
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #execute}.
+     *
+     * @param idempotencyKey the key sent by the client
+     * @param request the complaint data
+     * @param creation starts creating the complaint, called only if the key is not stored
+     * @return the future original response, failed with {@link IdempotencyKeyReusedException} if the key was
+     *         used for a different complaint
+     */
+    public CompletableFuture<ComplaintResponse> executeAsync(String idempotencyKey, ComplaintRequest request,
+                                                             Supplier<CompletableFuture<ComplaintResponse>> creation) {
+        long fingerprint = fingerprint(request);
+        return cache.get(keyHash(idempotencyKey, request),
+                        (key, executor) -> creation.get().thenApply(response -> new Entry(response, fingerprint)))
+                .thenApply(entry -> replay(entry, fingerprint));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        // Same tag keys as the caches Spring Boot registers, as Prometheus requires them to match per meter name
+        CaffeineCacheMetrics.monitor(registry, cache, "idempotency",
+                "cache.manager", "idempotencyStore", "name", "idempotency");
+    }
+
+    /**
+     * Returns hit, miss and eviction counters accumulated since startup.
+     *
+     * @return the store statistics
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    private static ComplaintResponse replay(Entry entry, long fingerprint) {
+        if (entry.fingerprint() != fingerprint) {
+            throw new IdempotencyKeyReusedException(ComplaintConstants.IDEMPOTENCY_KEY_REUSED_MESSAGE);
+        }
+        return entry.response();
+    }
+
+    private static KeyHash keyHash(String idempotencyKey, ComplaintRequest request) {
+        ByteBuffer digest = sha256(request.reportedBy(), idempotencyKey);
+        return new KeyHash(digest.getLong(), digest.getLong());
+    }
+
+    private static long fingerprint(ComplaintRequest request) {
+        return sha256(request.productId(), request.content()).getLong();
+    }
+
+    private static ByteBuffer sha256(String first, String second) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        digest.update(first.getBytes(StandardCharsets.UTF_8));
+        // Separates the parts, so that moving characters from one to the other changes the digest
+        digest.update((byte) 0);
+        digest.update(second.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(digest.digest());
+    }
+
+    /**
+     * First 128 bits of the SHA-256 digest of the reporter and the idempotency key.
+     */
+    private record KeyHash(long high, long low) {}
+
+    /**
+     * Stored response with the fingerprint of the request that created it.
+     */
+    private record Entry(ComplaintResponse response, long fingerprint) {}
+}
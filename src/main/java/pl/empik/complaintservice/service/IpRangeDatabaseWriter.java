@@ -0,0 +1,165 @@
+package pl.empik.complaintservice.service;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles IP ranges into the binary database read by {@link IpRangeIndex}.
+ * <p>
+ * The source is a CSV file with {@code startIp,endIp,country} lines; empty lines and lines
+ * starting with {@code #} are ignored. The database is written to a temporary file and moved
+ * into place atomically, so a running {@link IpRangeGeolocationEngine} never maps a partial file.
+ * <p>
+ * Usage: {@code java -cp complaint-service.jar pl.empik.complaintservice.service.IpRangeDatabaseWriter ranges.csv ranges.db}
+ */
+public final class IpRangeDatabaseWriter {
+
+    private IpRangeDatabaseWriter() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: IpRangeDatabaseWriter <ranges.csv> <ranges.db>");
+            System.exit(1);
+        }
+        List<IpRange> ranges = readCsv(Path.of(args[0]));
+        write(Path.of(args[1]), ranges);
+        System.out.println("Wrote " + ranges.size() + " ranges to " + args[1]);
+    }
+
+    /**
+     * Reads ranges from a {@code startIp,endIp,country} CSV file.
+     *
+     * @param csv the CSV file
+     * @return the ranges in file order
+     * @throws IOException if the file cannot be read or contains an invalid line
+     */
+    public static List<IpRange> readCsv(Path csv) throws IOException {
+        List<IpRange> ranges = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] columns = line.split(",", 3);
+                if (columns.length != 3) {
+                    throw new IOException("Invalid IP range at line " + lineNumber + ": " + line);
+                }
+                ranges.add(new IpRange(columns[0].trim(), columns[1].trim(), columns[2].trim()));
+            }
+        }
+        return ranges;
+    }
+
+    /**
+     * Sorts the ranges and writes them as a database file.
+     *
+     * @param target the database file to create or replace
+     * @param ranges the ranges; IPv4 and IPv6 ranges may be mixed
+     * @throws IOException if the file cannot be written or a range is invalid
+     */
+    public static void write(Path target, List<IpRange> ranges) throws IOException {
+        Map<String, Integer> countries = new LinkedHashMap<>();
+        List<EncodedRange> ipv4 = new ArrayList<>();
+        List<EncodedRange> ipv6 = new ArrayList<>();
+        for (IpRange range : ranges) {
+            byte[] start = toBytes(range.startIp());
+            byte[] end = toBytes(range.endIp());
+            if (start.length != end.length) {
+                throw new IOException("Mixed address families in range " + range);
+            }
+            if (new BigInteger(1, start).compareTo(new BigInteger(1, end)) > 0) {
+                throw new IOException("Range start is after its end: " + range);
+            }
+            if (countries.size() > 0xFFFF) {
+                throw new IOException("Too many distinct countries");
+            }
+            int country = countries.computeIfAbsent(range.country(), c -> countries.size());
+            (start.length == 4 ? ipv4 : ipv6).add(new EncodedRange(new BigInteger(1, start), new BigInteger(1, end), country));
+        }
+        ipv4.sort(Comparator.comparing(EncodedRange::start));
+        ipv6.sort(Comparator.comparing(EncodedRange::start));
+        checkDisjoint(ipv4);
+        checkDisjoint(ipv6);
+
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try (OutputStream file = Files.newOutputStream(temp);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+            out.writeInt(IpRangeIndex.MAGIC);
+            out.writeInt(IpRangeIndex.VERSION);
+            out.writeInt(countries.size());
+            for (String country : countries.keySet()) {
+                byte[] name = country.getBytes(StandardCharsets.UTF_8);
+                out.writeShort(name.length);
+                out.write(name);
+            }
+            out.writeInt(ipv4.size());
+            for (EncodedRange range : ipv4) {
+                out.writeInt(range.start().intValue());
+                out.writeInt(range.end().intValue());
+                out.writeShort(range.country());
+            }
+            out.writeInt(ipv6.size());
+            for (EncodedRange range : ipv6) {
+                out.writeLong(range.start().shiftRight(64).longValue());
+                out.writeLong(range.start().longValue());
+                out.writeLong(range.end().shiftRight(64).longValue());
+                out.writeLong(range.end().longValue());
+                out.writeShort(range.country());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void checkDisjoint(List<EncodedRange> sorted) throws IOException {
+        for (int i = 1; i < sorted.size(); i++) {
+            if (sorted.get(i).start().compareTo(sorted.get(i - 1).end()) <= 0) {
+                throw new IOException("Overlapping IP ranges starting at " + sorted.get(i - 1).start()
+                        + " and " + sorted.get(i).start());
+            }
+        }
+    }
+
+    private static byte[] toBytes(String ipAddress) throws IOException {
+        // Only accept literals so that InetAddress never falls back to a DNS lookup
+        if (ipAddress.indexOf(':') < 0 && IpRangeIndex.parseIpv4(ipAddress, 0, ipAddress.length()) < 0) {
+            throw new IOException("Invalid IP address: " + ipAddress);
+        }
+        try {
+            return InetAddress.getByName(ipAddress).getAddress();
+        } catch (UnknownHostException e) {
+            throw new IOException("Invalid IP address: " + ipAddress, e);
+        }
+    }
+
+    /**
+     * An inclusive range of IP addresses located in a country.
+     */
+    public record IpRange(String startIp, String endIp, String country) {}
+
+    private record EncodedRange(BigInteger start, BigInteger end, int country) {}
+}
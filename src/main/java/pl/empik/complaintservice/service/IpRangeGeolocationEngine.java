@@ -0,0 +1,73 @@
+package pl.empik.complaintservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+/**
+ * Offline geolocation engine resolving countries from a local {@link IpRangeIndex} file.
+ * <p>
+ * Active when {@code geolocation.mode=offline}. The file is checked for modification every
+ * {@code geolocation.offline.reload-interval} and swapped in without blocking lookups;
+ * if the new file cannot be loaded, the previous index stays in use. The file is mapped, so it
+ * must be replaced atomically (written elsewhere and renamed over), never rewritten in place.
+ */
+@Component
+@ConditionalOnProperty(name = "geolocation.mode", havingValue = "offline")
+@Slf4j
+public class IpRangeGeolocationEngine {
+
+    private final Path databasePath;
+    private volatile IpRangeIndex index;
+    private volatile FileTime loadedModifiedTime;
+
+    public IpRangeGeolocationEngine(@Value("${geolocation.offline.database}") Path databasePath) {
+        this.databasePath = databasePath;
+        try {
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to load IP range database " + databasePath, e);
+        }
+    }
+
+    /**
+     * Retrieves the country for the IP address from the local index.
+     *
+     * @param ipAddress the IP address
+     * @return the country name or "Unknown" if the address is not covered
+     */
+    public String getCountryFromIp(String ipAddress) {
+        String country = index.lookup(ipAddress);
+        return country != null ? country : ComplaintConstants.UNKNOWN_COUNTRY;
+    }
+
+    /**
+     * Reloads the index if the database file has been modified since it was loaded.
+     */
+    @Scheduled(fixedDelayString = "${geolocation.offline.reload-interval:PT1M}")
+    public void reloadIfModified() {
+        try {
+            if (!Files.getLastModifiedTime(databasePath).equals(loadedModifiedTime)) {
+                load();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Unable to reload IP range database {}, keeping the previous version", databasePath, e);
+        }
+    }
+
+    private void load() throws IOException {
+        FileTime modifiedTime = Files.getLastModifiedTime(databasePath);
+        index = IpRangeIndex.open(databasePath);
+        loadedModifiedTime = modifiedTime;
+        log.info("Loaded {} IP ranges from {}", index.size(), databasePath);
+    }
+}
@@ -0,0 +1,304 @@
+package pl.empik.complaintservice.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only, memory-mapped index of IP ranges to countries.
+ * <p>
+ * File layout (big-endian), as produced by {@link IpRangeDatabaseWriter}:
+ * <pre>
+ * int   magic, int version
+ * int   countryCount, then per country: short length + UTF-8 bytes
+ * int   v4Count, then per range: int start, int end, short country      (sorted by unsigned start)
+ * int   v6Count, then per range: long startHi, long startLo,
+ *                                long endHi, long endLo, short country  (sorted by unsigned start)
+ * </pre>
+ * Lookups parse the address into primitives and binary-search the mapped records
+ * using absolute reads, so they are thread-safe and do not allocate.
+ */
+public final class IpRangeIndex {
+
+    static final int MAGIC = 0x43474549;
+    static final int VERSION = 1;
+    static final int V4_RECORD_SIZE = 10;
+    static final int V6_RECORD_SIZE = 34;
+
+    private final ByteBuffer buffer;
+    private final String[] countries;
+    private final int v4Offset;
+    private final int v4Count;
+    private final int v6Offset;
+    private final int v6Count;
+
+    private IpRangeIndex(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("Not an IP range database");
+        }
+        int position = 8;
+        countries = new String[buffer.getInt(position)];
+        position += 4;
+        for (int i = 0; i < countries.length; i++) {
+            int length = buffer.getShort(position) & 0xFFFF;
+            byte[] name = new byte[length];
+            buffer.get(position + 2, name);
+            countries[i] = new String(name, StandardCharsets.UTF_8);
+            position += 2 + length;
+        }
+        v4Count = buffer.getInt(position);
+        v4Offset = position + 4;
+        position = v4Offset + v4Count * V4_RECORD_SIZE;
+        v6Count = buffer.getInt(position);
+        v6Offset = position + 4;
+        if (v6Offset + (long) v6Count * V6_RECORD_SIZE > buffer.capacity()) {
+            throw new IllegalArgumentException("Truncated IP range database");
+        }
+    }
+
+    /**
+     * Memory-maps the database file.
+     *
+     * @param path the database file
+     * @return the index
+     * @throws IOException if the file cannot be read
+     */
+    public static IpRangeIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new IpRangeIndex(buffer);
+        }
+    }
+
+    /**
+     * Returns the number of IPv4 and IPv6 ranges in the index.
+     *
+     * @return the range count
+     */
+    public int size() {
+        return v4Count + v6Count;
+    }
+
+    /**
+     * Finds the country of the range containing the IP address.
+     *
+     * @param ipAddress an IPv4 or IPv6 address literal
+     * @return the country name, or null if the address is invalid or not covered
+     */
+    public String lookup(String ipAddress) {
+        if (ipAddress == null || ipAddress.isEmpty()) {
+            return null;
+        }
+        if (ipAddress.indexOf(':') < 0) {
+            long ipv4 = parseIpv4(ipAddress, 0, ipAddress.length());
+            return ipv4 < 0 ? null : findIpv4((int) ipv4);
+        }
+        return lookupIpv6(ipAddress);
+    }
+
+    private String lookupIpv6(String ipAddress) {
+        int end = ipAddress.indexOf('%');
+        if (end < 0) {
+            end = ipAddress.length();
+        }
+        long high;
+        long low;
+        int gap = ipAddress.indexOf("::");
+        if (gap < 0 || gap >= end) {
+            if (countGroups(ipAddress, 0, end) != 8) {
+                return null;
+            }
+            high = groupBits(ipAddress, 0, end, 0, true);
+            low = groupBits(ipAddress, 0, end, 0, false);
+        } else {
+            int tail = ipAddress.indexOf("::", gap + 1);
+            if (tail >= 0 && tail < end) {
+                return null;
+            }
+            int before = countGroups(ipAddress, 0, gap);
+            int after = countGroups(ipAddress, gap + 2, end);
+            if (before < 0 || after < 0 || before + after > 7) {
+                return null;
+            }
+            high = groupBits(ipAddress, 0, gap, 0, true) | groupBits(ipAddress, gap + 2, end, 8 - after, true);
+            low = groupBits(ipAddress, 0, gap, 0, false) | groupBits(ipAddress, gap + 2, end, 8 - after, false);
+        }
+        if (high == 0 && (low >>> 32) == 0xFFFFL) {
+            // IPv4-mapped address (::ffff:a.b.c.d)
+            return findIpv4((int) low);
+        }
+        return findIpv6(high, low);
+    }
+
+    private String findIpv4(int ip) {
+        int low = 0;
+        int high = v4Count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Integer.compareUnsigned(buffer.getInt(v4Offset + mid * V4_RECORD_SIZE), ip) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        int record = v4Offset + found * V4_RECORD_SIZE;
+        if (Integer.compareUnsigned(ip, buffer.getInt(record + 4)) > 0) {
+            return null;
+        }
+        return countries[buffer.getShort(record + 8) & 0xFFFF];
+    }
+
+    private String findIpv6(long ipHigh, long ipLow) {
+        int low = 0;
+        int high = v6Count - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int record = v6Offset + mid * V6_RECORD_SIZE;
+            if (compareUnsigned(buffer.getLong(record), buffer.getLong(record + 8), ipHigh, ipLow) <= 0) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (found < 0) {
+            return null;
+        }
+        int record = v6Offset + found * V6_RECORD_SIZE;
+        if (compareUnsigned(ipHigh, ipLow, buffer.getLong(record + 16), buffer.getLong(record + 24)) > 0) {
+            return null;
+        }
+        return countries[buffer.getShort(record + 32) & 0xFFFF];
+    }
+
+    static int compareUnsigned(long highA, long lowA, long highB, long lowB) {
+        int result = Long.compareUnsigned(highA, highB);
+        return result != 0 ? result : Long.compareUnsigned(lowA, lowB);
+    }
+
+    /**
+     * Parses a dotted-quad IPv4 literal.
+     *
+     * @return the address as an unsigned 32-bit value, or -1 if invalid
+     */
+    static long parseIpv4(String text, int from, int to) {
+        long address = 0;
+        int octets = 0;
+        int value = -1;
+        for (int i = from; i <= to; i++) {
+            char c = i < to ? text.charAt(i) : '.';
+            if (c == '.') {
+                if (value < 0 || ++octets > 4) {
+                    return -1;
+                }
+                address = (address << 8) | value;
+                value = -1;
+            } else if (c >= '0' && c <= '9') {
+                value = (value < 0 ? 0 : value * 10) + (c - '0');
+                if (value > 255) {
+                    return -1;
+                }
+            } else {
+                return -1;
+            }
+        }
+        return octets == 4 ? address : -1;
+    }
+
+    private static int parseHexGroup(String text, int from, int to) {
+        if (to - from < 1 || to - from > 4) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = Character.digit(text.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static boolean isEmbeddedIpv4(String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) == '.') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the 16-bit groups in a colon-separated section; a trailing IPv4 literal counts as two.
+     *
+     * @return the group count, or -1 if the section is malformed
+     */
+    private static int countGroups(String text, int from, int to) {
+        if (from == to) {
+            return 0;
+        }
+        int groups = 0;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || text.charAt(i) == ':') {
+                if (i == to && isEmbeddedIpv4(text, start, to)) {
+                    if (parseIpv4(text, start, to) < 0) {
+                        return -1;
+                    }
+                    groups += 2;
+                } else if (parseHexGroup(text, start, i) < 0) {
+                    return -1;
+                } else {
+                    groups++;
+                }
+                start = i + 1;
+            }
+        }
+        return groups;
+    }
+
+    /**
+     * Places the groups of a validated section at consecutive positions starting at
+     * {@code firstGroup} and returns the bits falling into the requested 64-bit half.
+     */
+    private static long groupBits(String text, int from, int to, int firstGroup, boolean highHalf) {
+        if (from == to) {
+            return 0;
+        }
+        long bits = 0;
+        int group = firstGroup;
+        int start = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || text.charAt(i) == ':') {
+                if (i == to && isEmbeddedIpv4(text, start, to)) {
+                    long ipv4 = parseIpv4(text, start, to);
+                    bits |= placeGroup((int) (ipv4 >>> 16), group++, highHalf);
+                    bits |= placeGroup((int) (ipv4 & 0xFFFF), group++, highHalf);
+                } else {
+                    bits |= placeGroup(parseHexGroup(text, start, i), group++, highHalf);
+                }
+                start = i + 1;
+            }
+        }
+        return bits;
+    }
+
+    private static long placeGroup(int value, int group, boolean highHalf) {
+        if (highHalf) {
+            return group < 4 ? (long) value << (16 * (3 - group)) : 0;
+        }
+        return group >= 4 ? (long) value << (16 * (7 - group)) : 0;
+    }
+}
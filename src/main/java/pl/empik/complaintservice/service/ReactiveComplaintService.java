@@ -0,0 +1,143 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
+import pl.empik.complaintservice.exception.ComplaintNotFoundException;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintPage;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpdateRequest;
+import pl.empik.complaintservice.repository.ReactiveComplaintRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Non-blocking counterpart of {@link ComplaintService} used by the reactive API.
+ * <p>
+ * Complaints are read and written through {@link ReactiveComplaintRepository} and geolocated through
+ * {@link ReactiveGeolocationService}, so a request never holds a thread while it waits for the database
+ * or the geolocation API. Creations are recorded in the complaint statistics and indexed for search like
+ * in the servlet API. Reads do not go through the complaint cache, and write-behind buffering and
+ * asynchronous enrichment apply to the servlet API only.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveComplaintService {
+
+    private static final String CREATE_TIMER = "complaints.create";
+
+    private final ReactiveComplaintRepository reactiveComplaintRepository;
+    private final ReactiveGeolocationService reactiveGeolocationService;
+    private final ComplaintStatistics complaintStatistics;
+    private final ComplaintSearchIndex complaintSearchIndex;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Retrieves the complaints matching the filter, ordered by ID.
+     *
+     * @param filter the criteria
+     * @param fields the fields to read; the others are null
+     * @return the complaints
+     */
+    public Flux<ComplaintResponse> getComplaints(ComplaintFilter filter, Set<ComplaintField> fields) {
+        return reactiveComplaintRepository.findProjected(filter, fields, null, Limit.unlimited());
+    }
+
+    /**
+     * Retrieves a page of the complaints matching the filter with IDs greater than the cursor, ordered by ID.
+     *
+     * @param filter the criteria
+     * @param fields the fields to read; the others are null
+     * @param afterId the ID of the last complaint of the previous page, or null for the first page
+     * @param limit the maximum number of complaints, capped at {@link ComplaintConstants#MAX_PAGE_LIMIT}
+     * @return the page with the cursor of the next page, or a null cursor on the last page
+     */
+    public Mono<ComplaintPage> getComplaintsPage(ComplaintFilter filter, Set<ComplaintField> fields, Long afterId,
+                                                 int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), ComplaintConstants.MAX_PAGE_LIMIT);
+        return reactiveComplaintRepository.findProjected(filter, fields, afterId, Limit.of(pageSize + 1))
+                .collectList()
+                .map(complaints -> {
+                    boolean hasMore = complaints.size() > pageSize;
+                    List<ComplaintResponse> items = hasMore ? complaints.subList(0, pageSize) : complaints;
+                    Long nextCursor = hasMore ? items.get(items.size() - 1).id() : null;
+                    return new ComplaintPage(items, nextCursor);
+                });
+    }
+
+    /**
+     * Retrieves a complaint by its ID.
+     *
+     * @param id the complaint ID
+     * @return the complaint; fails with {@link ComplaintNotFoundException} if not found
+     */
+    public Mono<ComplaintResponse> getComplaintById(Long id) {
+        return reactiveComplaintRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> new ComplaintNotFoundException(
+                        ComplaintConstants.COMPLAINT_NOT_FOUND_MESSAGE + id)));
+    }
+
+    /**
+     * Creates a new complaint or increments counter for an existing one.
+     * The geolocation lookup and the atomic upsert are chained without blocking, so no thread and no
+     * database connection is held while the geolocation API is called.
+     * <p>
+     * The call is timed as {@code complaints.create} tagged with its outcome: created, duplicate or error.
+     *
+     * @param complaintRequest the complaint data
+     * @param ipAddress client IP address
+     * @return the created complaint
+     */
+    public Mono<ComplaintResponse> createComplaint(ComplaintRequest complaintRequest, String ipAddress) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            return reactiveGeolocationService.getCountryFromIp(ipAddress)
+                    .flatMap(country -> reactiveComplaintRepository.upsertIncrement(
+                            complaintRequest.productId(),
+                            complaintRequest.content(),
+                            complaintRequest.reportedBy(),
+                            country,
+                            LocalDateTime.now()))
+                    .doOnNext(complaint -> {
+                        complaintStatistics.record(complaint.productId(), complaint.country(), 1, LocalDateTime.now());
+                        if (complaint.counter() == 1) {
+                            complaintSearchIndex.index(complaint.id(), complaint.content());
+                        }
+                        sample.stop(meterRegistry.timer(CREATE_TIMER, "outcome",
+                                complaint.counter() == 1 ? "created" : "duplicate"));
+                    })
+                    .doOnError(e -> sample.stop(meterRegistry.timer(CREATE_TIMER, "outcome", "error")));
+        });
+    }
+
+    /**
+     * Updates the content of an existing complaint if it still has the expected version.
+     * The version is checked and the content changed by a single statement.
+     *
+     * @param id the complaint ID
+     * @param updateRequest the updated content
+     * @param expectedVersion the version the client has seen, or null to update any version
+     * @return the updated complaint; fails with {@link ComplaintNotFoundException} if not found, or with
+     *         {@link ComplaintModifiedException} if the complaint no longer has the expected version
+     */
+    public Mono<ComplaintResponse> updateComplaint(Long id, ComplaintUpdateRequest updateRequest,
+                                                   Long expectedVersion) {
+        return reactiveComplaintRepository.updateContent(id, updateRequest.content(), expectedVersion)
+                .switchIfEmpty(Mono.error(() -> new ComplaintNotFoundException(
+                        ComplaintConstants.COMPLAINT_NOT_FOUND_MESSAGE + id)))
+                .doOnNext(complaint -> complaintSearchIndex.index(id, complaint.content()));
+    }
+}
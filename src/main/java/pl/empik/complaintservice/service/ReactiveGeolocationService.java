@@ -0,0 +1,129 @@
+package pl.empik.complaintservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientException;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.GeolocationUnavailableException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link GeolocationService} used by the reactive API.
+ * <p>
+ * Lookups go through the same cache, rate limiter and circuit breaker, and are timed with the same
+ * {@code geolocation.lookup} metric, but the geolocation API is called with a {@link WebClient}, so no
+ * thread waits for its response. Concurrent lookups of the same IP share one pending call. Batching is
+ * not supported; the offline engine is used as is, since its lookups never block.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveGeolocationService {
+
+    private static final String LOOKUP_TIMER = "geolocation.lookup";
+
+    private final WebClient geolocationWebClient;
+    private final GeolocationCache geolocationCache;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucketRateLimiter geolocationRateLimiter;
+    private final CircuitBreaker geolocationCircuitBreaker;
+    @Value("${geolocation.api.url}")
+    private String geolocationApiUrl;
+    @Autowired(required = false)
+    private IpRangeGeolocationEngine offlineEngine;
+
+    /**
+     * Retrieves the country based on the provided IP address.
+     * When the API quota is exhausted or its circuit breaker is open, "Unknown" is returned
+     * immediately and not cached, so the next lookup of the IP tries again.
+     *
+     * @param ipAddress the IP address
+     * @return the country name or "Unknown" if unable to determine; never fails
+     */
+    public Mono<String> getCountryFromIp(String ipAddress) {
+        if (offlineEngine != null) {
+            return Mono.fromSupplier(() -> offlineEngine.getCountryFromIp(ipAddress));
+        }
+        Mono<String> country = ipAddress == null
+                ? lookupCountry(null)
+                // A cancelled request must not cancel the load shared with concurrent lookups of the IP
+                : Mono.fromFuture(() -> geolocationCache.getAsync(ipAddress, ip -> lookupCountry(ip).toFuture()), true);
+        return country.onErrorResume(GeolocationUnavailableException.class, e -> {
+            log.debug("Skipping geolocation of IP {}: {}", ipAddress, e.getMessage());
+            return Mono.just(ComplaintConstants.UNKNOWN_COUNTRY);
+        });
+    }
+
+    /**
+     * Resolves the country by calling the geolocation API.
+     * The call is timed as {@code geolocation.lookup} tagged with its outcome: success, unknown, error,
+     * rate_limited or circuit_open. Errors and non-2xx responses count as circuit breaker failures.
+     *
+     * @param ipAddress the IP address
+     * @return the country name or "Unknown" if unable to determine; fails with
+     *         {@link GeolocationUnavailableException} if the call was rejected by the rate limiter or circuit breaker
+     */
+    private Mono<String> lookupCountry(String ipAddress) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            if (!geolocationRateLimiter.tryAcquire()) {
+                sample.stop(meterRegistry.timer(LOOKUP_TIMER, "outcome", "rate_limited"));
+                return Mono.error(new GeolocationUnavailableException("geolocation API quota exhausted"));
+            }
+            if (!geolocationCircuitBreaker.tryAcquirePermission()) {
+                sample.stop(meterRegistry.timer(LOOKUP_TIMER, "outcome", "circuit_open"));
+                return Mono.error(new GeolocationUnavailableException("geolocation API circuit breaker is open"));
+            }
+            return callApi(geolocationApiUrl + ipAddress)
+                    .map(response -> {
+                        JsonNode responseBody = response.getBody();
+                        if (response.getStatusCode().is2xxSuccessful() && responseBody != null
+                                && responseBody.has(ComplaintConstants.JSON_STATUS)
+                                && ComplaintConstants.JSON_SUCCESS.equals(responseBody.get(ComplaintConstants.JSON_STATUS).asText())) {
+                            sample.stop(meterRegistry.timer(LOOKUP_TIMER, "outcome", "success"));
+                            return responseBody.get(ComplaintConstants.JSON_COUNTRY).asText();
+                        }
+                        String outcome = response.getStatusCode().is2xxSuccessful() ? "unknown" : "error";
+                        sample.stop(meterRegistry.timer(LOOKUP_TIMER, "outcome", outcome));
+                        log.warn("Unable to determine country for IP: {}", ipAddress);
+                        return ComplaintConstants.UNKNOWN_COUNTRY;
+                    })
+                    .onErrorResume(WebClientException.class, e -> {
+                        sample.stop(meterRegistry.timer(LOOKUP_TIMER, "outcome", "error"));
+                        log.error("Error while calling geolocation API for IP: {}", ipAddress, e);
+                        return Mono.just(ComplaintConstants.UNKNOWN_COUNTRY);
+                    });
+        });
+    }
+
+    /**
+     * Calls the geolocation API and reports the result to the circuit breaker.
+     *
+     * @param apiUrl the request URL
+     * @return the API response
+     */
+    private Mono<ResponseEntity<JsonNode>> callApi(String apiUrl) {
+        return geolocationWebClient.get()
+                .uri(apiUrl)
+                .retrieve()
+                .toEntity(JsonNode.class)
+                .doOnNext(response -> {
+                    if (response.getStatusCode().is2xxSuccessful()) {
+                        geolocationCircuitBreaker.onSuccess();
+                    } else {
+                        geolocationCircuitBreaker.onFailure();
+                    }
+                })
+                .doOnError(e -> geolocationCircuitBreaker.onFailure());
+    }
+}
@@ -0,0 +1,85 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Non-blocking token bucket allowing a fixed number of calls per period.
+ * <p>
+ * The bucket starts full and refills continuously, so bursts up to the full quota are allowed
+ * while the long-term rate never exceeds it. Callers that find the bucket empty are rejected
+ * immediately rather than queued.
+ */
+public class TokenBucketRateLimiter implements MeterBinder {
+
+    private final String name;
+    private final long capacity;
+    private final double tokensPerNano;
+    private final LongSupplier nanoTime;
+    private final AtomicLong rejected = new AtomicLong();
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucketRateLimiter(String name, int permitsPerPeriod, Duration period) {
+        this(name, permitsPerPeriod, period, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(String name, int permitsPerPeriod, Duration period, LongSupplier nanoTime) {
+        this.name = name;
+        this.capacity = permitsPerPeriod;
+        this.tokensPerNano = (double) permitsPerPeriod / period.toNanos();
+        this.nanoTime = nanoTime;
+        this.tokens = permitsPerPeriod;
+        this.lastRefillNanos = nanoTime.getAsLong();
+    }
+
+    /**
+     * Takes a token if one is available.
+     *
+     * @return true if the call is allowed, false if the quota is exhausted
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens >= 1) {
+            tokens--;
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Returns the number of whole tokens currently available.
+     *
+     * @return the available tokens
+     */
+    public synchronized long getAvailableTokens() {
+        refill();
+        return (long) tokens;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("ratelimiter.available.tokens", this, TokenBucketRateLimiter::getAvailableTokens)
+                .tag("name", name)
+                .description("Calls that can be made before the rate limiter rejects")
+                .register(registry);
+        FunctionCounter.builder("ratelimiter.rejected", rejected, AtomicLong::get)
+                .tag("name", name)
+                .description("Calls rejected by the rate limiter")
+                .register(registry);
+    }
+
+    private void refill() {
+        long now = nanoTime.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = now;
+    }
+}
@@ -0,0 +1,12 @@
+create table complaints (
+    id bigint generated by default as identity,
+    content varchar(1000) not null,
+    counter integer not null,
+    country varchar(255) not null,
+    created_at timestamp(6) not null,
+    product_id varchar(255) not null,
+    reported_by varchar(255) not null,
+    version bigint not null,
+    primary key (id),
+    constraint uk_complaints_product_id_reported_by unique (product_id, reported_by)
+);
@@ -0,0 +1,5 @@
+-- Filters by product, country or creation time, each followed by the ID, so that keyset pages
+-- (where id > ? order by id) of a filtered listing are read from the index in order
+create index idx_complaints_product_id_id on complaints (product_id, id);
+create index idx_complaints_country_id on complaints (country, id);
+create index idx_complaints_created_at_id on complaints (created_at, id);
@@ -0,0 +1,2 @@
+-- The unique key on (product_id, reported_by) cannot serve filters on the reporter alone
+create index idx_complaints_reported_by_id on complaints (reported_by, id);
@@ -0,0 +1,22 @@
+-- Transactional outbox of complaint changes, written in the transaction of the change and relayed in id order
+create table complaint_events (
+    id bigint generated by default as identity,
+    type varchar(16) not null,
+    occurred_at timestamp(6) not null,
+    complaint_id bigint not null,
+    product_id varchar(255) not null,
+    content varchar(1000) not null,
+    created_at timestamp(6) not null,
+    reported_by varchar(255) not null,
+    country varchar(255) not null,
+    counter integer not null,
+    version bigint not null,
+    primary key (id)
+);
+
+-- Last event published by each relay
+create table complaint_event_positions (
+    consumer varchar(64) not null,
+    event_id bigint not null,
+    primary key (consumer)
+);
@@ -0,0 +1,190 @@
+package pl.empik.complaintservice;
+
+import com.sun.net.httpserver.HttpServer;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load benchmark comparing request handling on platform threads, virtual threads and the non-blocking
+ * reactive API.
+ * <p>
+ * The application is started once per mode against a stub geolocation API answering after a fixed
+ * delay. A closed loop of concurrent clients then creates complaints from distinct IPs, so every
+ * request misses the geolocation cache and blocks on the stub, and the throughput and latency
+ * percentiles measured after the warm-up are reported. Virtual threads are measured only on Java 21+.
+ * The reactive mode runs the {@code reactive} profile, where requests waiting on the stub hold no thread.
+ * <p>
+ * Usage: {@code mvn -P java21,benchmark test-compile exec:java}, tuned with the system properties
+ * {@code benchmark.concurrency}, {@code benchmark.warmup}, {@code benchmark.duration} and
+ * {@code benchmark.geolocation-delay}.
+ */
+public final class ComplaintServiceLoadBenchmark {
+
+    private static final byte[] GEOLOCATION_RESPONSE =
+            "{\"status\":\"success\",\"country\":\"Poland\"}".getBytes(StandardCharsets.UTF_8);
+
+    private ComplaintServiceLoadBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = Integer.getInteger("benchmark.concurrency", 400);
+        Duration warmup = Duration.parse(System.getProperty("benchmark.warmup", "PT5S"));
+        Duration duration = Duration.parse(System.getProperty("benchmark.duration", "PT20S"));
+        Duration geolocationDelay = Duration.parse(System.getProperty("benchmark.geolocation-delay", "PT0.05S"));
+
+        HttpServer geolocationStub = startGeolocationStub(geolocationDelay);
+        try {
+            String geolocationUrl = "http://127.0.0.1:" + geolocationStub.getAddress().getPort() + "/json/";
+            List<Result> results = new ArrayList<>();
+            results.add(run("platform", geolocationUrl, concurrency, warmup, duration));
+            if (Runtime.version().feature() >= 21) {
+                results.add(run("virtual", geolocationUrl, concurrency, warmup, duration,
+                        "--spring.threads.virtual.enabled=true"));
+            } else {
+                System.out.println("Skipping virtual threads, they require Java 21 (running "
+                        + Runtime.version() + ")");
+            }
+            results.add(run("reactive", geolocationUrl, concurrency, warmup, duration,
+                    "--spring.profiles.active=reactive",
+                    "--complaints.reactive.r2dbc.url=r2dbc:h2:mem:///benchmark-reactive"));
+
+            System.out.printf("%nconcurrency=%d, duration=%s, geolocation delay=%s%n",
+                    concurrency, duration, geolocationDelay);
+            System.out.printf("%-10s %10s %8s %10s %10s %10s%n", "mode", "requests", "errors", "req/s", "p50 ms", "p99 ms");
+            for (Result result : results) {
+                System.out.printf("%-10s %10d %8d %10.0f %10.1f %10.1f%n", result.mode(), result.requests(),
+                        result.errors(), result.throughput(), result.p50Millis(), result.p99Millis());
+            }
+        } finally {
+            geolocationStub.stop(0);
+        }
+    }
+
+    private static HttpServer startGeolocationStub(Duration delay) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/json/", exchange -> {
+            try {
+                Thread.sleep(delay.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, GEOLOCATION_RESPONSE.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(GEOLOCATION_RESPONSE);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static Result run(String mode, String geolocationUrl, int concurrency, Duration warmup,
+                              Duration duration, String... modeArgs) throws Exception {
+        System.out.println("Benchmarking " + mode + "...");
+        List<String> args = new ArrayList<>(List.of("--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + mode,
+                "--spring.jpa.show-sql=false",
+                "--logging.level.root=WARN",
+                "--geolocation.api.url=" + geolocationUrl,
+                "--geolocation.cache.max-size=0",
+                "--geolocation.client.max-connections=" + concurrency,
+                "--geolocation.rate-limit.permits=" + Integer.MAX_VALUE));
+        args.addAll(List.of(modeArgs));
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ComplaintServiceApplication.class)
+                .run(args.toArray(String[]::new))) {
+            int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            return drive(mode, URI.create("http://127.0.0.1:" + port + "/api/complaints"),
+                    concurrency, warmup, duration);
+        }
+    }
+
+    private static Result drive(String mode, URI uri, int concurrency, Duration warmup, Duration duration)
+            throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        AtomicLong sequence = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<long[]>> workers = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(clients.submit(() -> {
+                long[] latencies = new long[1024];
+                int count = 0;
+                long start;
+                while ((start = System.nanoTime()) < measureUntil) {
+                    long n = sequence.incrementAndGet();
+                    HttpRequest request = HttpRequest.newBuilder(uri)
+                            .header("Content-Type", "application/json")
+                            .header("X-Forwarded-For", "10." + (n >> 16 & 0xFF) + "." + (n >> 8 & 0xFF) + "." + (n & 0xFF))
+                            .POST(HttpRequest.BodyPublishers.ofString("{\"productId\":\"product" + n
+                                    + "\",\"content\":\"Benchmark complaint\",\"reportedBy\":\"benchmark\"}"))
+                            .build();
+                    int status;
+                    try {
+                        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    }
+                    if (start < measureFrom) {
+                        continue;
+                    }
+                    if (status != 201) {
+                        errors.incrementAndGet();
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+
+        long[] all = new long[0];
+        for (Future<long[]> worker : workers) {
+            long[] latencies = worker.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        clients.shutdown();
+        Arrays.sort(all);
+        return new Result(mode, all.length, errors.get(), all.length / (duration.toNanos() / 1e9),
+                percentileMillis(all, 0.50), percentileMillis(all, 0.99));
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1e6;
+    }
+
+    private record Result(String mode, long requests, long errors, double throughput,
+                          double p50Millis, double p99Millis) {}
+}
@@ -0,0 +1,49 @@
+package pl.empik.complaintservice;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import pl.empik.complaintservice.model.Complaint;
+import pl.empik.complaintservice.repository.ComplaintRepository;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductionProfileTest {
+
+    @TempDir
+    Path dataDirectory;
+
+    @Test
+    void complaints_ShouldSurviveRestart() {
+        // given
+        Long id;
+        try (ConfigurableApplicationContext context = start()) {
+            id = context.getBean(ComplaintRepository.class).save(Complaint.builder()
+                    .productId("product1")
+                    .content("Defective product")
+                    .reportedBy("user1")
+                    .country("Poland")
+                    .build()).getId();
+        }
+
+        // when
+        try (ConfigurableApplicationContext context = start()) {
+            // then
+            assertEquals("Defective product",
+                    context.getBean(ComplaintRepository.class).findById(id).orElseThrow().getContent());
+        }
+        assertTrue(dataDirectory.resolve("complaintsdb.mv.db").toFile().isFile());
+    }
+
+    private ConfigurableApplicationContext start() {
+        return new SpringApplicationBuilder(ComplaintServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                .run("--complaints.data-directory=" + dataDirectory);
+    }
+}
@@ -0,0 +1,57 @@
+package pl.empik.complaintservice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.service.GeolocationService;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class PrometheusEndpointTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private GeolocationService geolocationService;
+
+    @Test
+    void prometheus_AfterCreatingComplaint_ShouldExposeRequestServiceRepositoryAndPoolMetrics() throws Exception {
+        // given
+        when(geolocationService.getCountryFromIp(anyString())).thenReturn("Poland");
+        mockMvc.perform(post(ComplaintConstants.API_COMPLAINTS_BASE)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"productId\":\"metrics-product\",\"content\":\"Defective product\",\"reportedBy\":\"user1\"}"))
+                .andExpect(status().isCreated());
+
+        // when & then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("http_server_requests_seconds_bucket")))
+                .andExpect(content().string(containsString("complaints_create_seconds_count{outcome=\"created\"")))
+                .andExpect(content().string(containsString("method=\"upsertIncrement\"")))
+                .andExpect(content().string(containsString("hikaricp_connections_pending")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"geolocation\"")))
+                .andExpect(content().string(containsString("cache_gets_total{cache=\"complaints\"")))
+                .andExpect(content().string(containsString("geolocation_enrichment_queue_size")))
+                .andExpect(content().string(containsString("complaints_buffer_pending")))
+                .andExpect(content().string(containsString("circuitbreaker_state{name=\"geolocation\",state=\"closed\"}")))
+                .andExpect(content().string(containsString("ratelimiter_available_tokens{name=\"geolocation\"}")))
+                .andExpect(content().string(containsString("httpcomponents_httpclient_pool_total_max")));
+    }
+}
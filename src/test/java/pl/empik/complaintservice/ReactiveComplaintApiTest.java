@@ -0,0 +1,238 @@
+package pl.empik.complaintservice;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.repository.ComplaintOutbox;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:mem:reactive-api",
+        "complaints.reactive.r2dbc.url=r2dbc:h2:mem:///reactive-api"
+})
+@ActiveProfiles("reactive")
+class ReactiveComplaintApiTest {
+
+    private static final byte[] GEOLOCATION_RESPONSE =
+            "{\"status\":\"success\",\"country\":\"Poland\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final AtomicInteger geolocationCalls = new AtomicInteger();
+    private static final HttpServer geolocationStub = startGeolocationStub();
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private ComplaintOutbox complaintOutbox;
+
+    @DynamicPropertySource
+    static void geolocationApi(DynamicPropertyRegistry registry) {
+        registry.add("geolocation.api.url",
+                () -> "http://127.0.0.1:" + geolocationStub.getAddress().getPort() + "/json/");
+    }
+
+    @AfterAll
+    static void stopGeolocationStub() {
+        geolocationStub.stop(0);
+    }
+
+    @Test
+    void createComplaint_ShouldGeolocateOnceAndIncrementDuplicates() {
+        // given
+        int callsBefore = geolocationCalls.get();
+
+        // when
+        ComplaintResponse created = create("reactive-product1", "user1", "10.0.0.1");
+        ComplaintResponse duplicate = create("reactive-product1", "user1", "10.0.0.1");
+
+        // then
+        assertEquals("Poland", created.country());
+        assertEquals(1, created.counter());
+        assertEquals(created.id(), duplicate.id());
+        assertEquals(2, duplicate.counter());
+        assertEquals(callsBefore + 1, geolocationCalls.get());
+    }
+
+    @Test
+    void createAndUpdateComplaint_ShouldWriteChangeEventsToOutbox() {
+        // given
+        ComplaintResponse created = create("reactive-product6", "user1", "10.0.0.6");
+
+        // when
+        webTestClient.put().uri(ComplaintConstants.API_COMPLAINTS_BASE + "/" + created.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"content\":\"Updated content\"}")
+                .exchange()
+                .expectStatus().isOk();
+
+        // then
+        List<ComplaintEvent> events = complaintOutbox.findAfter(0, Long.MAX_VALUE, 1000).stream()
+                .filter(event -> event.complaint().id().equals(created.id()))
+                .toList();
+        assertEquals(List.of(ComplaintEventType.CREATED, ComplaintEventType.UPDATED),
+                events.stream().map(ComplaintEvent::type).toList());
+        assertEquals("Updated content", events.get(1).complaint().content());
+    }
+
+    @Test
+    void createComplaint_RetriedWithIdempotencyKey_ShouldNotIncrementCounter() {
+        // given
+        String body = "{\"productId\":\"reactive-product5\",\"content\":\"Defective product\",\"reportedBy\":\"user1\"}";
+
+        // when
+        for (int attempt = 0; attempt < 2; attempt++) {
+            webTestClient.post().uri(ComplaintConstants.API_COMPLAINTS_BASE)
+                    .header(ComplaintConstants.HEADER_IDEMPOTENCY_KEY, "reactive-retry-key")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(body)
+                    .exchange()
+                    .expectStatus().isCreated()
+                    .expectBody()
+                    .jsonPath("$.counter").isEqualTo(1);
+        }
+
+        // then
+        webTestClient.get().uri(ComplaintConstants.API_COMPLAINTS_BASE + "?productId=reactive-product5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].counter").isEqualTo(1);
+    }
+
+    @Test
+    void createComplaint_WithInvalidRequest_ShouldReturnValidationErrors() {
+        // when & then
+        webTestClient.post().uri(ComplaintConstants.API_COMPLAINTS_BASE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"productId\":\"\",\"content\":\"Defective product\",\"reportedBy\":\"user1\"}")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.errors.productId").isEqualTo("Product ID cannot be empty");
+    }
+
+    @Test
+    void getComplaintById_WithCurrentETag_ShouldReturnNotModified() {
+        // given
+        ComplaintResponse created = create("reactive-product2", "user1", "10.0.0.2");
+        String eTag = webTestClient.get().uri(ComplaintConstants.API_COMPLAINTS_BASE + "/" + created.id())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.content").isEqualTo("Defective product")
+                .returnResult()
+                .getResponseHeaders().getETag();
+
+        // when & then
+        webTestClient.get().uri(ComplaintConstants.API_COMPLAINTS_BASE + "/" + created.id())
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified();
+    }
+
+    @Test
+    void getComplaintById_WhenNotFound_ShouldReturnNotFound() {
+        // when & then
+        webTestClient.get().uri(ComplaintConstants.API_COMPLAINTS_BASE + "/999999")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void updateComplaint_WithStaleETag_ShouldReturnPreconditionFailed() {
+        // given
+        ComplaintResponse created = create("reactive-product3", "user1", "10.0.0.3");
+        create("reactive-product3", "user1", "10.0.0.3");
+        String staleETag = "\"" + created.version() + "." + created.counter() + "\"";
+
+        // when & then
+        webTestClient.put().uri(ComplaintConstants.API_COMPLAINTS_BASE + "/" + created.id())
+                .header(HttpHeaders.IF_MATCH, staleETag)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"content\":\"Updated content\"}")
+                .exchange()
+                .expectStatus().isEqualTo(412);
+        webTestClient.put().uri(ComplaintConstants.API_COMPLAINTS_BASE + "/" + created.id())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"content\":\"Updated content\"}")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, "\"" + (created.version() + 2) + ".2\"")
+                .expectBody()
+                .jsonPath("$.content").isEqualTo("Updated content");
+    }
+
+    @Test
+    void getComplaintsPage_ShouldFilterAndReturnCursor() {
+        // given
+        ComplaintResponse first = create("reactive-product4", "user1", "10.0.0.4");
+        create("reactive-product4", "user2", "10.0.0.4");
+
+        // when & then
+        webTestClient.get().uri(ComplaintConstants.API_COMPLAINTS_BASE
+                        + "?productId=reactive-product4&fields=reportedBy&limit=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.items.length()").isEqualTo(1)
+                .jsonPath("$.items[0].reportedBy").isEqualTo("user1")
+                .jsonPath("$.items[0].content").doesNotExist()
+                .jsonPath("$.nextCursor").isEqualTo(first.id().intValue());
+    }
+
+    private ComplaintResponse create(String productId, String reportedBy, String ipAddress) {
+        ComplaintResponse response = webTestClient.post().uri(ComplaintConstants.API_COMPLAINTS_BASE)
+                .header(ComplaintConstants.HEADER_X_FORWARDED_FOR, ipAddress)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"productId\":\"" + productId + "\",\"content\":\"Defective product\",\"reportedBy\":\""
+                        + reportedBy + "\"}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(ComplaintResponse.class)
+                .returnResult()
+                .getResponseBody();
+        assertNotNull(response);
+        return response;
+    }
+
+    private static HttpServer startGeolocationStub() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+            server.createContext("/json/", exchange -> {
+                geolocationCalls.incrementAndGet();
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, GEOLOCATION_RESPONSE.length);
+                try (OutputStream body = exchange.getResponseBody()) {
+                    body.write(GEOLOCATION_RESPONSE);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
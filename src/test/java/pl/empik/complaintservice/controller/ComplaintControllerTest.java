@@ -1,5 +1,6 @@
 package pl.empik.complaintservice.controller;
 
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -8,33 +9,63 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.empik.complaintservice.config.SmileConfig;
 import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
 import pl.empik.complaintservice.exception.ComplaintNotFoundException;
 import pl.empik.complaintservice.exception.GlobalExceptionController;
+import pl.empik.complaintservice.model.BulkComplaintItemResult;
+import pl.empik.complaintservice.model.BulkComplaintResult;
+import pl.empik.complaintservice.model.BulkComplaintStatus;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintPage;
 import pl.empik.complaintservice.model.ComplaintRequest;
 import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintSearchResult;
 import pl.empik.complaintservice.model.ComplaintUpdateRequest;
+import pl.empik.complaintservice.model.ComplaintVersion;
+import pl.empik.complaintservice.service.ComplaintBulkService;
+import pl.empik.complaintservice.service.ComplaintFeed;
 import pl.empik.complaintservice.service.ComplaintService;
+import pl.empik.complaintservice.service.IdempotencyStore;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest
@@ -42,12 +73,27 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 class ComplaintControllerTest {
 
     @Configuration
-    @Import({ComplaintController.class, GlobalExceptionController.class})
+    @Import({ComplaintController.class, GlobalExceptionController.class, SmileConfig.class})
     static class TestConfig {
         @Bean
         public ComplaintService complaintService() {
             return Mockito.mock(ComplaintService.class);
         }
+
+        @Bean
+        public ComplaintBulkService complaintBulkService() {
+            return Mockito.mock(ComplaintBulkService.class);
+        }
+
+        @Bean
+        public ComplaintFeed complaintFeed() {
+            return Mockito.mock(ComplaintFeed.class);
+        }
+
+        @Bean
+        public IdempotencyStore idempotencyStore() {
+            return new IdempotencyStore(100, Duration.ofHours(1));
+        }
     }
 
     @Autowired
@@ -56,9 +102,18 @@ class ComplaintControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter;
+
     @Autowired
     private ComplaintService complaintService;
 
+    @Autowired
+    private ComplaintBulkService complaintBulkService;
+
+    @Autowired
+    private ComplaintFeed complaintFeed;
+
     @Test
     void getAllComplaints_ShouldReturnListOfComplaints() throws Exception {
         // given
@@ -67,7 +122,7 @@ class ComplaintControllerTest {
                 createTestComplaintResponse(2L, "product2", "Missing parts", "user2", "Germany")
         );
 
-        when(complaintService.getAllComplaints()).thenReturn(complaints);
+        when(complaintService.getComplaints(ComplaintFilter.NONE, ComplaintField.ALL)).thenReturn(complaints);
 
         // when & then
         mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE))
@@ -79,6 +134,176 @@ class ComplaintControllerTest {
                 .andExpect(jsonPath("$[1].productId", is("product2")));
     }
 
+    @Test
+    void getComplaintsPage_WithLimit_ShouldReturnPageWithCursor() throws Exception {
+        // given
+        ComplaintPage page = new ComplaintPage(List.of(
+                createTestComplaintResponse(11L, "product1", "Defective product", "user1", "Poland"),
+                createTestComplaintResponse(12L, "product2", "Missing parts", "user2", "Germany")
+        ), 12L);
+
+        when(complaintService.getComplaintsPage(ComplaintFilter.NONE, ComplaintField.ALL, 10L, 2)).thenReturn(page);
+
+        // when & then
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE)
+                        .param("afterId", "10")
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].id", is(11)))
+                .andExpect(jsonPath("$.nextCursor", is(12)));
+    }
+
+    @Test
+    void getAllComplaints_WithFiltersAndFields_ShouldReturnOnlySelectedFields() throws Exception {
+        // given
+        ComplaintFilter filter = new ComplaintFilter("product1", null, "Poland",
+                LocalDateTime.of(2025, 3, 1, 0, 0), null, 2);
+        when(complaintService.getComplaints(filter, EnumSet.of(ComplaintField.ID, ComplaintField.REPORTED_BY,
+                ComplaintField.COUNTER, ComplaintField.VERSION)))
+                .thenReturn(List.of(new ComplaintResponse(7L, null, null, null, "user1", null, 3, 2L)));
+
+        // when & then
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE)
+                        .param("productId", "product1")
+                        .param("country", "Poland")
+                        .param("createdFrom", "2025-03-01T00:00:00")
+                        .param("minCounter", "2")
+                        .param("fields", "reportedBy"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(7)))
+                .andExpect(jsonPath("$[0].reportedBy", is("user1")))
+                .andExpect(jsonPath("$[0].counter", is(3)))
+                .andExpect(jsonPath("$[0].content").doesNotExist())
+                .andExpect(jsonPath("$[0].productId").doesNotExist());
+    }
+
+    @Test
+    void getAllComplaints_AcceptingSmile_ShouldReturnSameComplaintsAsJson() throws Exception {
+        // given
+        List<ComplaintResponse> complaints = List.of(
+                new ComplaintResponse(1L, "product1", "Defective product", LocalDateTime.of(2025, 3, 1, 10, 15, 30, 500),
+                        "user1", "Poland", 2, 1L),
+                new ComplaintResponse(2L, null, null, null, "user2", null, 1, 0L));
+        when(complaintService.getComplaints(ComplaintFilter.NONE, ComplaintField.ALL)).thenReturn(complaints);
+
+        // when
+        byte[] smile = mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE)
+                        .accept(ComplaintConstants.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ComplaintConstants.APPLICATION_SMILE_VALUE))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        // then
+        assertEquals(complaints, smileHttpMessageConverter.getObjectMapper()
+                .readValue(smile, new TypeReference<List<ComplaintResponse>>() {}));
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0].createdAt", is("2025-03-01T10:15:30.0000005")))
+                .andExpect(jsonPath("$[1].productId").doesNotExist())
+                .andExpect(jsonPath("$[1].createdAt").doesNotExist());
+    }
+
+    @Test
+    void getAllComplaints_WithUnknownField_ShouldReturnBadRequest() throws Exception {
+        // when & then
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE)
+                        .param("fields", "id,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", is("Unknown complaint field: password")));
+    }
+
+    @Test
+    void searchComplaints_ShouldReturnRankedResults() throws Exception {
+        // given
+        when(complaintService.searchComplaints("cracked screen", 5)).thenReturn(List.of(new ComplaintSearchResult(
+                createTestComplaintResponse(3L, "product3", "Cracked screen", "user3", "Poland"), 1.5f)));
+
+        // when & then
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_SEARCH)
+                        .param("q", "cracked screen")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].complaint.id", is(3)))
+                .andExpect(jsonPath("$[0].score", is(1.5)));
+    }
+
+    @Test
+    void streamComplaints_AcceptingNdjson_ShouldWriteOneComplaintPerLine() throws Exception {
+        // given
+        mockStreamedComplaints();
+
+        // when
+        var result = mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_STREAM)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("product1", objectMapper.readTree(lines[0]).get("productId").asText());
+        assertEquals("product2", objectMapper.readTree(lines[1]).get("productId").asText());
+    }
+
+    @Test
+    void streamComplaints_AcceptingJson_ShouldWriteJsonArray() throws Exception {
+        // given
+        mockStreamedComplaints();
+
+        // when
+        var result = mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_STREAM)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].productId", is("product2")));
+    }
+
+    @Test
+    void streamComplaints_AcceptingSmile_ShouldWriteSmileArray() throws Exception {
+        // given
+        mockStreamedComplaints();
+
+        // when
+        var result = mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_STREAM)
+                        .accept(ComplaintConstants.APPLICATION_SMILE_VALUE))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        byte[] smile = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ComplaintConstants.APPLICATION_SMILE_VALUE))
+                .andReturn().getResponse().getContentAsByteArray();
+        List<ComplaintResponse> complaints = smileHttpMessageConverter.getObjectMapper()
+                .readValue(smile, new TypeReference<>() {});
+        assertEquals(List.of("product1", "product2"), complaints.stream().map(ComplaintResponse::productId).toList());
+    }
+
+    @Test
+    void streamComplaintChanges_AcceptingEventStream_ShouldSubscribeWithFiltersAndLastEventId() throws Exception {
+        // given
+        when(complaintFeed.subscribe(eq("product1"), eq("Poland"), eq(42L), any())).thenReturn(new SseEmitter());
+
+        // when & then
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE + "?productId=product1&country=Poland")
+                        .accept(MediaType.TEXT_EVENT_STREAM)
+                        .header(ComplaintConstants.HEADER_LAST_EVENT_ID, "42"))
+                .andExpect(request().asyncStarted());
+        verify(complaintService, never()).getComplaints(any(), any());
+    }
+
     @Test
     void getComplaintById_WithValidId_ShouldReturnComplaint() throws Exception {
         // given
@@ -94,7 +319,54 @@ class ComplaintControllerTest {
                 .andExpect(jsonPath("$.content", is("Defective product")))
                 .andExpect(jsonPath("$.reportedBy", is("user1")))
                 .andExpect(jsonPath("$.country", is("Poland")))
-                .andExpect(jsonPath("$.counter", is(1)));
+                .andExpect(jsonPath("$.counter", is(1)))
+                .andExpect(jsonPath("$.version", is(0)))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0.1\""));
+    }
+
+    @Test
+    void getComplaintById_WithMatchingIfNoneMatch_ShouldReturnNotModifiedWithoutReadingComplaint() throws Exception {
+        // given
+        when(complaintService.getComplaintVersion(5L)).thenReturn(new ComplaintVersion(5L, 3L, 5));
+
+        // when & then
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE + "/5")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"3.5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"3.5\""))
+                .andExpect(content().string(""));
+        verify(complaintService, never()).getComplaintById(5L);
+    }
+
+    @Test
+    void getComplaintById_WithStaleIfNoneMatch_ShouldReturnComplaint() throws Exception {
+        // given
+        when(complaintService.getComplaintVersion(1L)).thenReturn(new ComplaintVersion(1L, 0L, 1));
+        when(complaintService.getComplaintById(1L))
+                .thenReturn(createTestComplaintResponse(1L, "product1", "Defective product", "user1", "Poland"));
+
+        // when & then
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE + "/1")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"0.0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"0.1\""))
+                .andExpect(jsonPath("$.id", is(1)));
+    }
+
+    @Test
+    void getAllComplaints_WithMatchingIfNoneMatch_ShouldReturnNotModified() throws Exception {
+        // given
+        when(complaintService.getComplaints(ComplaintFilter.NONE, ComplaintField.ALL)).thenReturn(List.of(
+                createTestComplaintResponse(1L, "product1", "Defective product", "user1", "Poland")));
+        String eTag = mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // when & then
+        mockMvc.perform(get(ComplaintConstants.API_COMPLAINTS_BASE)
+                        .header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
     }
 
     @Test
@@ -131,6 +403,52 @@ class ComplaintControllerTest {
                 .andExpect(jsonPath("$.counter", is(1)));
     }
 
+    @Test
+    void createComplaint_RetriedWithIdempotencyKey_ShouldReplayOriginalResponse() throws Exception {
+        // given
+        ComplaintRequest request = new ComplaintRequest("idempotent-product", "Wrong color", "user3");
+        ComplaintResponse response = createTestComplaintResponse(4L, "idempotent-product", "Wrong color", "user3", "Poland");
+        when(complaintService.createComplaint(eq(request), anyString())).thenReturn(response);
+
+        // when
+        for (int attempt = 0; attempt < 2; attempt++) {
+            mockMvc.perform(post(ComplaintConstants.API_COMPLAINTS_BASE)
+                            .header(ComplaintConstants.HEADER_IDEMPOTENCY_KEY, "retry-key")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isCreated())
+                    .andExpect(jsonPath("$.id", is(4)))
+                    .andExpect(jsonPath("$.counter", is(1)));
+        }
+
+        // then
+        verify(complaintService, times(1)).createComplaint(eq(request), anyString());
+    }
+
+    @Test
+    void createComplaint_WithIdempotencyKeyReusedForDifferentComplaint_ShouldReturnUnprocessableEntity() throws Exception {
+        // given
+        ComplaintRequest request = new ComplaintRequest("reused-product", "Wrong color", "user3");
+        when(complaintService.createComplaint(eq(request), anyString()))
+                .thenReturn(createTestComplaintResponse(5L, "reused-product", "Wrong color", "user3", "Poland"));
+        mockMvc.perform(post(ComplaintConstants.API_COMPLAINTS_BASE)
+                        .header(ComplaintConstants.HEADER_IDEMPOTENCY_KEY, "reused-key")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated());
+
+        // when
+        ResultActions result = mockMvc.perform(post(ComplaintConstants.API_COMPLAINTS_BASE)
+                .header(ComplaintConstants.HEADER_IDEMPOTENCY_KEY, "reused-key")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(
+                        new ComplaintRequest("reused-product", "Different content", "user3"))));
+
+        // then
+        result.andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.message", is(ComplaintConstants.IDEMPOTENCY_KEY_REUSED_MESSAGE)));
+    }
+
     @Test
     void createComplaint_WithInvalidData_ShouldReturnBadRequest() throws Exception {
         // given
@@ -145,6 +463,83 @@ class ComplaintControllerTest {
         result.andExpect(status().isBadRequest());
     }
 
+    @Test
+    void createComplaint_WithConnectionPoolExhausted_ShouldReturnServiceUnavailable() throws Exception {
+        // given
+        ComplaintRequest request = new ComplaintRequest("product3", "Wrong color", "user3");
+        when(complaintService.createComplaint(any(ComplaintRequest.class), anyString()))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection is not available"));
+
+        // when
+        ResultActions result = mockMvc.perform(post(ComplaintConstants.API_COMPLAINTS_BASE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)));
+
+        // then
+        result.andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.status", is(503)));
+    }
+
+    @Test
+    void createComplaints_WithNdjson_ShouldReadEveryLine() throws Exception {
+        // given
+        String body = objectMapper.writeValueAsString(new ComplaintRequest("product1", "Defective product", "user1"))
+                + "\n" + objectMapper.writeValueAsString(new ComplaintRequest("product2", "Missing parts", "user2"))
+                + "\n";
+        BulkComplaintResult response = new BulkComplaintResult(2, 0, 0, List.of(
+                new BulkComplaintItemResult(0, BulkComplaintStatus.CREATED, 1L, null),
+                new BulkComplaintItemResult(1, BulkComplaintStatus.CREATED, 2L, null)
+        ));
+        when(complaintBulkService.createComplaints(anyList(), anyString())).thenReturn(response);
+
+        // when & then
+        mockMvc.perform(post(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_BULK)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .header(ComplaintConstants.HEADER_X_FORWARDED_FOR, "10.0.0.1")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created", is(2)))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[1].status", is("CREATED")))
+                .andExpect(jsonPath("$.items[1].errors").doesNotExist());
+        verify(complaintBulkService).createComplaints(List.of(
+                new ComplaintRequest("product1", "Defective product", "user1"),
+                new ComplaintRequest("product2", "Missing parts", "user2")
+        ), "10.0.0.1");
+    }
+
+    @Test
+    void createComplaints_WithJsonArray_ShouldReadEveryElement() throws Exception {
+        // given
+        List<ComplaintRequest> requests = List.of(
+                new ComplaintRequest("product1", "Defective product", "user1"),
+                new ComplaintRequest("product1", "Defective product", "user1")
+        );
+        when(complaintBulkService.createComplaints(anyList(), anyString()))
+                .thenReturn(new BulkComplaintResult(1, 1, 0, List.of()));
+
+        // when & then
+        mockMvc.perform(post(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_BULK)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.incremented", is(1)));
+        verify(complaintBulkService).createComplaints(eq(requests), anyString());
+    }
+
+    @Test
+    void createComplaints_WithMalformedItem_ShouldReturnBadRequest() throws Exception {
+        // when
+        ResultActions result = mockMvc.perform(
+                post(ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_BULK)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"productId\":\"product1\"}\n{\"productId\":"));
+
+        // then
+        result.andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status", is(400)));
+    }
+
     @Test
     void updateComplaint_WithValidData_ShouldReturnUpdatedComplaint() throws Exception {
         // given
@@ -162,6 +557,55 @@ class ComplaintControllerTest {
                 .andExpect(jsonPath("$.content", is("Updated content")));
     }
 
+    @Test
+    void updateComplaint_WithMatchingIfMatch_ShouldUpdateExpectedVersion() throws Exception {
+        // given
+        ComplaintUpdateRequest updateRequest = new ComplaintUpdateRequest("Updated content");
+        ComplaintResponse updatedResponse = createTestComplaintResponse(1L, "product1", "Updated content", "user1", "Poland");
+        when(complaintService.getComplaintVersion(1L)).thenReturn(new ComplaintVersion(1L, 2L, 1));
+        when(complaintService.updateComplaint(eq(1L), any(ComplaintUpdateRequest.class), eq(2L))).thenReturn(updatedResponse);
+
+        // when & then
+        mockMvc.perform(put(ComplaintConstants.API_COMPLAINTS_BASE + "/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2.1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", is("Updated content")));
+    }
+
+    @Test
+    void updateComplaint_WithStaleIfMatch_ShouldReturnPreconditionFailed() throws Exception {
+        // given
+        ComplaintUpdateRequest updateRequest = new ComplaintUpdateRequest("Updated content");
+        when(complaintService.getComplaintVersion(6L)).thenReturn(new ComplaintVersion(6L, 2L, 1));
+
+        // when & then
+        mockMvc.perform(put(ComplaintConstants.API_COMPLAINTS_BASE + "/6")
+                        .header(HttpHeaders.IF_MATCH, "\"1.1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed());
+        verify(complaintService, never()).updateComplaint(eq(6L), any(ComplaintUpdateRequest.class), any());
+    }
+
+    @Test
+    void updateComplaint_ModifiedAfterIfMatchCheck_ShouldReturnPreconditionFailed() throws Exception {
+        // given
+        ComplaintUpdateRequest updateRequest = new ComplaintUpdateRequest("Updated content");
+        when(complaintService.getComplaintVersion(1L)).thenReturn(new ComplaintVersion(1L, 2L, 1));
+        when(complaintService.updateComplaint(eq(1L), any(ComplaintUpdateRequest.class), eq(2L)))
+                .thenThrow(new ComplaintModifiedException(ComplaintConstants.COMPLAINT_MODIFIED_MESSAGE + 2));
+
+        // when & then
+        mockMvc.perform(put(ComplaintConstants.API_COMPLAINTS_BASE + "/1")
+                        .header(HttpHeaders.IF_MATCH, "\"2.1\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status", is(412)));
+    }
+
     @Test
     void updateComplaint_WithInvalidId_ShouldReturnNotFound() throws Exception {
         // given
@@ -179,6 +623,16 @@ class ComplaintControllerTest {
                 .andExpect(jsonPath("$.message", is(ComplaintConstants.COMPLAINT_NOT_FOUND_MESSAGE + 999)));
     }
 
+    @SuppressWarnings("unchecked")
+    private void mockStreamedComplaints() {
+        doAnswer(invocation -> {
+            Consumer<ComplaintResponse> consumer = invocation.getArgument(0);
+            consumer.accept(createTestComplaintResponse(1L, "product1", "Defective product", "user1", "Poland"));
+            consumer.accept(createTestComplaintResponse(2L, "product2", "Missing parts", "user2", "Germany"));
+            return null;
+        }).when(complaintService).streamComplaints(any(Consumer.class));
+    }
+
     private ComplaintResponse createTestComplaintResponse(Long id, String productId, String content,
                                                           String reportedBy, String country) {
         return new ComplaintResponse(
@@ -188,7 +642,8 @@ class ComplaintControllerTest {
                 LocalDateTime.now(),
                 reportedBy,
                 country,
-                1
+                1,
+                0L
         );
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package pl.empik.complaintservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.service.ComplaintEventBroker;
+import pl.empik.complaintservice.repository.InMemoryComplaintOutbox;
+import pl.empik.complaintservice.service.ComplaintEventRelay;
+import pl.empik.complaintservice.service.ComplaintFeed;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest
+@ContextConfiguration(classes = ComplaintEventControllerTest.TestConfig.class)
+class ComplaintEventControllerTest {
+
+    @Configuration
+    @Import(ComplaintEventController.class)
+    static class TestConfig {
+        @Bean
+        public ComplaintEventRelay complaintEventRelay() {
+            return Mockito.mock(ComplaintEventRelay.class);
+        }
+
+        @Bean
+        public ComplaintEventBroker complaintEventBroker() {
+            return new ComplaintEventBroker();
+        }
+
+        @Bean
+        public ComplaintFeed complaintFeed(ComplaintEventBroker complaintEventBroker) {
+            return new ComplaintFeed(complaintEventBroker, new InMemoryComplaintOutbox(), 16, 100, 1,
+                    Duration.ofMinutes(1), Duration.ofMinutes(1), Duration.ofMinutes(1));
+        }
+    }
+
+    private static final String EVENTS_URL = ComplaintConstants.API_COMPLAINTS_BASE + ComplaintConstants.API_COMPLAINTS_EVENTS;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ComplaintEventRelay complaintEventRelay;
+
+    @Autowired
+    private ComplaintEventBroker complaintEventBroker;
+
+    @Autowired
+    private ComplaintFeed complaintFeed;
+
+    @Test
+    void getEvents_ShouldReturnEventsAfterCursorWithNextCursor() throws Exception {
+        // given
+        when(complaintEventRelay.getPublishedEvents(10L, 2))
+                .thenReturn(List.of(createTestEvent(11L, ComplaintEventType.CREATED),
+                        createTestEvent(12L, ComplaintEventType.UPDATED)));
+
+        // when & then
+        mockMvc.perform(get(EVENTS_URL + "?afterId=10&limit=2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[1].type").value("UPDATED"))
+                .andExpect(jsonPath("$.items[1].complaint.productId").value("product1"))
+                .andExpect(jsonPath("$.nextCursor").value(12));
+    }
+
+    @Test
+    void getEvents_WithoutNewEvents_ShouldReturnSameCursor() throws Exception {
+        // given
+        when(complaintEventRelay.getPublishedEvents(12L, 100)).thenReturn(List.of());
+
+        // when & then
+        mockMvc.perform(get(EVENTS_URL + "?afterId=12"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").value(12));
+    }
+
+    @Test
+    void streamEvents_ShouldSendPublishedEventsWithTheirIds() throws Exception {
+        // given
+        MvcResult result = mockMvc.perform(get(EVENTS_URL).accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // when
+        complaintEventBroker.publish(List.of(createTestEvent(7L, ComplaintEventType.CREATED)));
+
+        // then
+        String body = awaitContent(result);
+        assertTrue(body.startsWith("id:7\ndata:{\"id\":7,\"type\":\"CREATED\""), body);
+        assertEquals(1, complaintFeed.getSubscriberCount());
+    }
+
+    private static String awaitContent(MvcResult result) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().endsWith("\n\n") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return result.getResponse().getContentAsString();
+    }
+
+    private ComplaintEvent createTestEvent(Long id, ComplaintEventType type) {
+        return new ComplaintEvent(id, type, LocalDateTime.of(2025, 3, 10, 12, 0),
+                new ComplaintResponse(1L, "product1", "Defective product", LocalDateTime.of(2025, 3, 10, 12, 0),
+                        "user1", "Poland", 1, 0L));
+    }
+}
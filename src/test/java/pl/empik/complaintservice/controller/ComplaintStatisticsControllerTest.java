@@ -0,0 +1,88 @@
+package pl.empik.complaintservice.controller;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import pl.empik.complaintservice.model.ComplaintCountBucket;
+import pl.empik.complaintservice.model.CountryComplaintCount;
+import pl.empik.complaintservice.model.ProductComplaintCount;
+import pl.empik.complaintservice.service.ComplaintStatistics;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest
+@ContextConfiguration(classes = ComplaintStatisticsControllerTest.TestConfig.class)
+class ComplaintStatisticsControllerTest {
+
+    @Configuration
+    @Import(ComplaintStatisticsController.class)
+    static class TestConfig {
+        @Bean
+        public ComplaintStatistics complaintStatistics() {
+            return Mockito.mock(ComplaintStatistics.class);
+        }
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ComplaintStatistics complaintStatistics;
+
+    @Test
+    void getTopProducts_ShouldCapLimit() throws Exception {
+        // given
+        when(complaintStatistics.getTopProducts(100)).thenReturn(List.of(new ProductComplaintCount("product1", 7)));
+
+        // when & then
+        mockMvc.perform(get("/api/complaints/stats/products").param("limit", "5000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].productId", is("product1")))
+                .andExpect(jsonPath("$[0].total", is(7)));
+    }
+
+    @Test
+    void getCountries_ShouldReturnTotals() throws Exception {
+        // given
+        when(complaintStatistics.getCountries()).thenReturn(List.of(new CountryComplaintCount("Poland", 3)));
+
+        // when & then
+        mockMvc.perform(get("/api/complaints/stats/countries"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].country", is("Poland")))
+                .andExpect(jsonPath("$[0].total", is(3)));
+    }
+
+    @Test
+    void getTimeline_ShouldPassPeriod() throws Exception {
+        // given
+        LocalDateTime from = LocalDateTime.of(2025, 3, 10, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2025, 3, 11, 0, 0);
+        when(complaintStatistics.getTimeline(from, to)).thenReturn(List.of(new ComplaintCountBucket(from, 2)));
+
+        // when & then
+        mockMvc.perform(get("/api/complaints/stats/timeline")
+                        .param("from", "2025-03-10T00:00:00")
+                        .param("to", "2025-03-11T00:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].start", is("2025-03-10T00:00:00")))
+                .andExpect(jsonPath("$[0].total", is(2)));
+        verify(complaintStatistics).getTimeline(from, to);
+    }
+}
@@ -0,0 +1,77 @@
+package pl.empik.complaintservice.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ComplaintResponseSerializerTest {
+
+    private static final List<LocalDateTime> DATES = List.of(
+            LocalDateTime.of(2025, 3, 1, 0, 0),
+            LocalDateTime.of(2025, 3, 1, 10, 15, 30),
+            LocalDateTime.of(2025, 12, 31, 23, 59, 59, 999_999_999),
+            LocalDateTime.of(2025, 3, 1, 10, 15, 0, 120_000_000),
+            LocalDateTime.of(1, 1, 1, 0, 0, 0, 500),
+            LocalDateTime.of(12025, 3, 1, 10, 15));
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Test
+    void serialize_AsJson_ShouldWriteSameJsonAsBeanSerializer() throws Exception {
+        // given
+        ObjectMapper beanMapper = objectMapper.copy().addMixIn(ComplaintResponse.class, BeanSerialized.class);
+
+        for (LocalDateTime createdAt : DATES) {
+            ComplaintResponse complaint = new ComplaintResponse(1L, "product1", "Defective \"product\"", createdAt,
+                    "user1", "Poland", 2, 3L);
+
+            // when & then
+            assertEquals(beanMapper.writeValueAsString(complaint), objectMapper.writeValueAsString(complaint));
+        }
+        ComplaintResponse selected = new ComplaintResponse(1L, null, null, null, "user1", null, 2, 3L);
+        assertEquals("{\"id\":1,\"reportedBy\":\"user1\",\"counter\":2,\"version\":3}",
+                objectMapper.writeValueAsString(selected));
+    }
+
+    @Test
+    void serialize_AsSmileWithTimestamps_ShouldReadBackSameComplaint() throws Exception {
+        // given
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory())
+                .enable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        ObjectMapper beanMapper = smileMapper.copy().addMixIn(ComplaintResponse.class, BeanSerialized.class);
+
+        for (LocalDateTime createdAt : DATES) {
+            ComplaintResponse complaint = new ComplaintResponse(1L, "product1", "Defective product", createdAt,
+                    "user1", "Poland", 2, 3L);
+
+            // when
+            byte[] smile = smileMapper.writeValueAsBytes(complaint);
+
+            // then
+            assertEquals(complaint, smileMapper.readValue(smile, ComplaintResponse.class));
+            assertEquals(complaint, beanMapper.readValue(beanMapper.writeValueAsBytes(complaint),
+                    ComplaintResponse.class));
+            assertEquals(beanMapper.readTree(beanMapper.writeValueAsBytes(complaint)), smileMapper.readTree(smile));
+        }
+    }
+
+    /**
+     * Restores the bean serializer Jackson would use without {@link ComplaintResponseSerializer}.
+     */
+    @JsonSerialize(using = JsonSerializer.None.class)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private abstract static class BeanSerialized {
+    }
+}
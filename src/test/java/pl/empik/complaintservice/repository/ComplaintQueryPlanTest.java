@@ -0,0 +1,181 @@
+package pl.empik.complaintservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Asserts that the repository queries on the lookup paths are backed by an index of the migrated schema.
+ * Statements are captured from H2 query statistics while calling the repository and explained, so a
+ * changed query or a dropped index shows up as a full scan of the complaints table.
+ * <p>
+ * Listing complaints filtered by the minimum counter alone, listing all complaints and summing counters
+ * for the statistics at startup read every row by design and are not covered.
+ */
+@DataJpaTest
+class ComplaintQueryPlanTest {
+
+    private static final Pattern COMPLAINTS_TABLE = Pattern.compile("\\bcomplaints\\b", Pattern.CASE_INSENSITIVE);
+    private static final String FINAL_TABLE = "final table (";
+    private static final String FULL_SCAN = "COMPLAINTS.tableScan";
+    private static final String PRIMARY_KEY = "PRIMARY_KEY";
+    private static final String UNIQUE_KEY = "UK_COMPLAINTS_PRODUCT_ID_REPORTED_BY";
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void findById_ShouldUsePrimaryKey() {
+        assertIndexed(plansOf(() -> complaintRepository.findById(1L)), PRIMARY_KEY);
+    }
+
+    @Test
+    void findVersionById_ShouldUsePrimaryKey() {
+        assertIndexed(plansOf(() -> complaintRepository.findVersionById(1L)), PRIMARY_KEY);
+    }
+
+    @Test
+    void findProjectedPage_ShouldReadPrimaryKeyInOrder() {
+        List<String> plans = plansOf(() -> findPage(ComplaintFilter.NONE));
+
+        assertIndexed(plans, PRIMARY_KEY);
+        assertTrue(plans.get(0).contains("index sorted"), plans.get(0));
+    }
+
+    @Test
+    void findProjectedPage_ByProduct_ShouldUseProductIndex() {
+        assertIndexed(plansOf(() -> findPage(new ComplaintFilter("product1", null, null, null, null, null))),
+                "IDX_COMPLAINTS_PRODUCT_ID_ID");
+    }
+
+    @Test
+    void findProjectedPage_ByReporter_ShouldUseReporterIndex() {
+        assertIndexed(plansOf(() -> findPage(new ComplaintFilter(null, "user1", null, null, null, null))),
+                "IDX_COMPLAINTS_REPORTED_BY_ID");
+    }
+
+    @Test
+    void findProjectedPage_ByProductAndReporter_ShouldUseUniqueKey() {
+        assertIndexed(plansOf(() -> findPage(new ComplaintFilter("product1", "user1", null, null, null, null))),
+                UNIQUE_KEY);
+    }
+
+    @Test
+    void findProjectedPage_ByCountry_ShouldUseCountryIndex() {
+        assertIndexed(plansOf(() -> findPage(new ComplaintFilter(null, null, "Poland", null, null, 2))),
+                "IDX_COMPLAINTS_COUNTRY_ID");
+    }
+
+    @Test
+    void findProjected_ByCreationTime_ShouldUseCreationTimeIndex() {
+        ComplaintFilter filter = new ComplaintFilter(null, null, null,
+                LocalDateTime.now().minusDays(1), LocalDateTime.now(), null);
+
+        assertIndexed(plansOf(() -> complaintRepository.findProjected(filter, ComplaintField.ALL, null, Limit.unlimited())),
+                "IDX_COMPLAINTS_CREATED_AT_ID");
+    }
+
+    @Test
+    void streamAll_ShouldReadPrimaryKeyInOrder() {
+        List<String> plans = plansOf(() -> complaintRepository.streamAll(complaint -> {}));
+
+        assertIndexed(plans, PRIMARY_KEY);
+        assertTrue(plans.get(0).contains("index sorted"), plans.get(0));
+    }
+
+    @Test
+    void findByProductIdAndReportedBy_ShouldUseUniqueKey() {
+        assertIndexed(plansOf(() -> complaintRepository.findByProductIdAndReportedBy("product1", "user1")), UNIQUE_KEY);
+    }
+
+    @Test
+    void upsertIncrement_ShouldMatchOnUniqueKey() {
+        assertIndexed(plansOf(() -> complaintRepository.upsertIncrement(
+                "product1", "Defective product", "user1", "Poland", LocalDateTime.now())), UNIQUE_KEY);
+    }
+
+    @Test
+    void upsertAll_ShouldMatchAndReadBackOnUniqueKey() {
+        assertIndexed(plansOf(() -> complaintRepository.upsertAll(List.of(
+                new ComplaintUpsert("product1", "Defective product", "user1", "Poland", 1),
+                new ComplaintUpsert("product2", "Missing parts", "user2", "Poland", 2)
+        ), LocalDateTime.now())), UNIQUE_KEY);
+    }
+
+    @Test
+    void incrementCounters_ShouldUsePrimaryKey() {
+        assertIndexed(plansOf(() -> complaintRepository.incrementCounters(Map.of(1L, 2))), PRIMARY_KEY);
+    }
+
+    @Test
+    void updateCountry_ShouldUsePrimaryKey() {
+        assertIndexed(plansOf(() -> complaintRepository.updateCountry(List.of(1L, 2L), "Poland")), PRIMARY_KEY);
+    }
+
+    private void findPage(ComplaintFilter filter) {
+        complaintRepository.findProjected(filter, ComplaintField.ALL, 1L, Limit.of(10));
+    }
+
+    /**
+     * Calls the repository and explains every statement it ran against the complaints table.
+     *
+     * @param call the repository call
+     * @return the plans, in execution order
+     */
+    private List<String> plansOf(Runnable call) {
+        // Enabling query statistics starts a fresh collection, disabling it discards it
+        jdbcTemplate.execute("set query_statistics true");
+        List<String> statements;
+        try {
+            call.run();
+            statements = jdbcTemplate.queryForList(
+                    "select sql_statement from information_schema.query_statistics", String.class);
+        } finally {
+            jdbcTemplate.execute("set query_statistics false");
+        }
+
+        List<String> plans = new ArrayList<>();
+        for (String statement : statements) {
+            if (COMPLAINTS_TABLE.matcher(statement).find()
+                    && !statement.toLowerCase(Locale.ROOT).contains("information_schema")) {
+                plans.add(explain(statement));
+            }
+        }
+        assertFalse(plans.isEmpty(), "No statement against the complaints table was captured");
+        return plans;
+    }
+
+    private String explain(String statement) {
+        // The plan of a data change delta table is the plan of the wrapped data change statement
+        int finalTable = statement.toLowerCase(Locale.ROOT).indexOf(FINAL_TABLE);
+        String explained = finalTable < 0
+                ? statement
+                : statement.substring(finalTable + FINAL_TABLE.length(), statement.lastIndexOf(')'));
+        return jdbcTemplate.queryForObject("explain " + explained, String.class);
+    }
+
+    private static void assertIndexed(List<String> plans, String index) {
+        for (String plan : plans) {
+            assertFalse(plan.contains(FULL_SCAN), () -> "Full scan of complaints:\n" + plan);
+            assertTrue(plan.contains(index), () -> "Expected " + index + " in:\n" + plan);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package pl.empik.complaintservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import pl.empik.complaintservice.model.Complaint;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+import pl.empik.complaintservice.model.ComplaintVersion;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+class ComplaintRepositoryTest {
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void findProjected_AfterId_ShouldReturnNextRowsInIdOrder() {
+        // given
+        List<Complaint> saved = complaintRepository.saveAllAndFlush(List.of(
+                createTestComplaint("product1", "user1"),
+                createTestComplaint("product2", "user2"),
+                createTestComplaint("product3", "user3")
+        ));
+
+        // when
+        List<ComplaintResponse> result = complaintRepository.findProjected(ComplaintFilter.NONE, ComplaintField.ALL,
+                saved.get(0).getId(), Limit.of(1));
+
+        // then
+        assertEquals(List.of(ComplaintResponse.fromEntity(saved.get(1))), result);
+    }
+
+    @Test
+    void findProjected_WithFilterAndFields_ShouldReadOnlySelectedColumnsOfMatchingRows() {
+        // given
+        List<Complaint> saved = complaintRepository.saveAllAndFlush(List.of(
+                createTestComplaint("product1", "user1"),
+                createTestComplaint("product1", "user2"),
+                createTestComplaint("product2", "user1")
+        ));
+        complaintRepository.incrementCounters(Map.of(saved.get(1).getId(), 1));
+        ComplaintFilter filter = new ComplaintFilter("product1", null, "Poland",
+                LocalDateTime.now().minusHours(1), LocalDateTime.now().plusHours(1), 2);
+
+        // when
+        List<ComplaintResponse> result = complaintRepository.findProjected(filter,
+                ComplaintField.parse(List.of("reportedBy")), null, Limit.unlimited());
+
+        // then
+        assertEquals(List.of(new ComplaintResponse(saved.get(1).getId(), null, null, null, "user2", null, 2, 1L)), result);
+    }
+
+    @Test
+    void streamAll_ShouldMapEveryRowInIdOrder() {
+        // given
+        complaintRepository.saveAllAndFlush(List.of(
+                createTestComplaint("product1", "user1"),
+                createTestComplaint("product2", "user2")
+        ));
+        List<ComplaintResponse> streamed = new ArrayList<>();
+
+        // when
+        complaintRepository.streamAll(streamed::add);
+
+        // then
+        assertEquals(2, streamed.size());
+        assertEquals("product1", streamed.get(0).productId());
+        assertEquals("user2", streamed.get(1).reportedBy());
+        assertEquals(1, streamed.get(1).counter());
+    }
+
+    @Test
+    void upsertIncrement_SameKeyTwice_ShouldInsertThenIncrementCounter() {
+        // when
+        ComplaintResponse inserted = complaintRepository.upsertIncrement(
+                "product1", "Defective product", "user1", "Poland", LocalDateTime.now());
+        ComplaintResponse incremented = complaintRepository.upsertIncrement(
+                "product1", "Ignored content", "user1", "Germany", LocalDateTime.now());
+
+        // then
+        assertEquals(1, inserted.counter());
+        assertEquals(inserted.id(), incremented.id());
+        assertEquals(2, incremented.counter());
+        assertEquals(0L, inserted.version());
+        assertEquals(1L, incremented.version());
+        assertEquals("Defective product", incremented.content());
+        assertEquals("Poland", incremented.country());
+    }
+
+    @Test
+    void upsertAll_ShouldInsertNewKeysAndAddDeltasToExistingOnes() {
+        // given
+        complaintRepository.saveAndFlush(createTestComplaint("product1", "user1"));
+
+        // when
+        List<ComplaintResponse> result = complaintRepository.upsertAll(List.of(
+                new ComplaintUpsert("product1", "Ignored content", "user1", "Germany", 2),
+                new ComplaintUpsert("product2", "Missing parts", "user2", "Germany", 3)
+        ), LocalDateTime.now());
+
+        // then
+        Map<String, ComplaintResponse> byProduct = result.stream()
+                .collect(Collectors.toMap(ComplaintResponse::productId, Function.identity()));
+        assertEquals(2, byProduct.size());
+        assertEquals(3, byProduct.get("product1").counter());
+        assertEquals("Poland", byProduct.get("product1").country());
+        assertEquals(3, byProduct.get("product2").counter());
+        assertEquals("Missing parts", byProduct.get("product2").content());
+        assertEquals(2, complaintRepository.count());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void upsertAll_KeyInsertedConcurrently_ShouldRetryAndAddDeltaToIt() throws Exception {
+        // given
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> concurrentInsert = executor.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+                complaintRepository.saveAndFlush(createTestComplaint("product1", "user1"));
+                inserted.countDown();
+                awaitQuietly(commit);
+            }));
+            inserted.await();
+
+            // when
+            Future<List<ComplaintResponse>> upsert = executor.submit(() -> complaintRepository.upsertAll(List.of(
+                    new ComplaintUpsert("product1", "Ignored content", "user1", "Germany", 2),
+                    new ComplaintUpsert("product2", "Missing parts", "user2", "Germany", 3)
+            ), LocalDateTime.now()));
+            // Let the upsert block on the uncommitted key before it is committed
+            Thread.sleep(200);
+            commit.countDown();
+            concurrentInsert.get(10, TimeUnit.SECONDS);
+            List<ComplaintResponse> result = upsert.get(10, TimeUnit.SECONDS);
+
+            // then
+            Map<String, Integer> counters = result.stream()
+                    .collect(Collectors.toMap(ComplaintResponse::productId, ComplaintResponse::counter));
+            assertEquals(Map.of("product1", 3, "product2", 3), counters);
+            assertEquals(2, complaintRepository.count());
+        } finally {
+            commit.countDown();
+            executor.shutdownNow();
+            complaintRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void findVersionById_AfterContentAndCounterChanges_ShouldReturnBumpedVersion() {
+        // given
+        Complaint complaint = complaintRepository.saveAndFlush(createTestComplaint("product1", "user1"));
+        complaint.setContent("Updated content");
+        complaintRepository.saveAndFlush(complaint);
+        complaintRepository.incrementCounters(Map.of(complaint.getId(), 2));
+
+        // when
+        Optional<ComplaintVersion> result = complaintRepository.findVersionById(complaint.getId());
+
+        // then
+        assertEquals(Optional.of(new ComplaintVersion(complaint.getId(), 2L, 3)), result);
+    }
+
+    @Test
+    void updateCountry_ShouldReturnUpdatedComplaintsWithBumpedVersions() {
+        // given
+        List<Complaint> saved = complaintRepository.saveAllAndFlush(List.of(
+                createTestComplaint("product1", "user1"),
+                createTestComplaint("product2", "user2"),
+                createTestComplaint("product3", "user3")
+        ));
+        complaintRepository.incrementCounters(Map.of(saved.get(0).getId(), 2));
+
+        // when
+        List<ComplaintResponse> updated = complaintRepository.updateCountry(
+                List.of(saved.get(0).getId(), saved.get(1).getId()), "Germany");
+
+        // then
+        assertEquals(4, updated.stream().mapToInt(ComplaintResponse::counter).sum());
+        assertEquals(List.of("Germany", "Germany"), updated.stream().map(ComplaintResponse::country).toList());
+        assertEquals(Optional.of(new ComplaintVersion(saved.get(1).getId(), 1L, 1)),
+                complaintRepository.findVersionById(saved.get(1).getId()));
+    }
+
+    @Test
+    void sumCountersByProductAndCountry_ShouldGroupCounters() {
+        // given
+        List<Complaint> saved = complaintRepository.saveAllAndFlush(List.of(
+                createTestComplaint("product1", "user1"),
+                createTestComplaint("product1", "user2"),
+                createTestComplaint("product2", "user1")
+        ));
+        complaintRepository.incrementCounters(Map.of(saved.get(0).getId(), 2));
+
+        // when
+        List<ComplaintTotal> result = complaintRepository.sumCountersByProductAndCountry();
+
+        // then
+        assertEquals(Set.of(new ComplaintTotal("product1", "Poland", 4), new ComplaintTotal("product2", "Poland", 1)),
+                Set.copyOf(result));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Complaint createTestComplaint(String productId, String reportedBy) {
+        return Complaint.builder()
+                .productId(productId)
+                .content("Defective product")
+                .createdAt(LocalDateTime.now())
+                .reportedBy(reportedBy)
+                .country("Poland")
+                .counter(1)
+                .build();
+    }
+}
@@ -0,0 +1,255 @@
+package pl.empik.complaintservice.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Limit;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InMemoryComplaintStoreTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0, 0, 123_456_000);
+
+    @TempDir
+    Path directory;
+
+    private final List<InMemoryComplaintStore> stores = new ArrayList<>();
+    private final InMemoryComplaintOutbox outbox = new InMemoryComplaintOutbox();
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (InMemoryComplaintStore store : stores) {
+            store.stop();
+        }
+    }
+
+    @Test
+    void upsertIncrement_SameKeyTwice_ShouldInsertThenIncrementCounterAndVersion() throws Exception {
+        // given
+        InMemoryComplaintStore store = start("");
+        ComplaintResponse created = store.upsertIncrement("product1", "Defective product", "user1", "Poland", NOW);
+
+        // when
+        ComplaintResponse result = store.upsertIncrement("product1", "Ignored content", "user1", "Germany", NOW);
+
+        // then
+        assertEquals(new ComplaintResponse(created.id(), "product1", "Defective product", NOW, "user1", "Poland", 2, 1L),
+                result);
+        assertEquals(Optional.of(result), store.findById(created.id()));
+    }
+
+    @Test
+    void upsertIncrement_ParallelDuplicates_ShouldNotLoseIncrements() throws Exception {
+        // given
+        InMemoryComplaintStore store = start("");
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        try {
+            for (int i = 0; i < 2000; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return store.upsertIncrement("product1", "Defective product", "user1", "Poland", NOW);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        List<ComplaintResponse> complaints = store.findProjected(ComplaintFilter.NONE, ComplaintField.ALL, null,
+                Limit.unlimited());
+        assertEquals(1, complaints.size());
+        assertEquals(2000, complaints.get(0).counter());
+        assertEquals(1999L, complaints.get(0).version());
+    }
+
+    @Test
+    void findProjected_WithFilterFieldsAndCursor_ShouldReturnSelectedFieldsOfMatchingComplaintsInIdOrder()
+            throws Exception {
+        // given
+        InMemoryComplaintStore store = start("");
+        List<ComplaintResponse> created = store.upsertAll(List.of(
+                new ComplaintUpsert("product1", "Defective product", "user1", "Poland", 2),
+                new ComplaintUpsert("product1", "Missing parts", "user2", "Poland", 1),
+                new ComplaintUpsert("product1", "Wrong color", "user3", "Poland", 3),
+                new ComplaintUpsert("product1", "Wrong size", "user4", "Poland", 5),
+                new ComplaintUpsert("product2", "Defective product", "user1", "Poland", 2)), NOW);
+        ComplaintFilter filter = new ComplaintFilter("product1", null, "Poland", NOW, NOW.plusHours(1), 2);
+
+        // when
+        List<ComplaintResponse> result = store.findProjected(filter, ComplaintField.parse(List.of("reportedBy")),
+                created.get(0).id(), Limit.of(1));
+
+        // then
+        assertEquals(List.of(new ComplaintResponse(created.get(2).id(), null, null, null, "user3", null, 3, 0L)),
+                result);
+    }
+
+    @Test
+    void updateContent_ShouldCheckExpectedVersion() throws Exception {
+        // given
+        InMemoryComplaintStore store = start("");
+        ComplaintResponse created = store.upsertIncrement("product1", "Defective product", "user1", "Poland", NOW);
+        store.incrementCounters(Map.of(created.id(), 1));
+
+        // when & then
+        assertThrows(ComplaintModifiedException.class,
+                () -> store.updateContent(created.id(), "Missing parts", created.version()));
+        ComplaintResponse updated = store.updateContent(created.id(), "Missing parts", 1L).orElseThrow();
+        assertEquals("Missing parts", updated.content());
+        assertEquals(2L, updated.version());
+        assertEquals(Optional.empty(), store.updateContent(999L, "Missing parts", null));
+    }
+
+    @Test
+    void everyChange_ShouldAppendEventWithStateAfterChange() throws Exception {
+        // given
+        InMemoryComplaintStore store = start("");
+        ComplaintResponse created = store.upsertIncrement("product1", "Defective product", "user1", "Pending", NOW);
+        store.incrementCounters(Map.of(created.id(), 2, 999L, 1));
+        ComplaintResponse incremented = store.upsertIncrement("product1", "Defective product", "user1", "Pending", NOW);
+        List<ComplaintResponse> upserted = store.upsertAll(List.of(
+                new ComplaintUpsert("product1", "Defective product", "user1", "Pending", 2),
+                new ComplaintUpsert("product2", "Missing parts", "user2", "Poland", 3)), NOW);
+        store.updateCountry(List.of(created.id()), "Poland");
+
+        // when
+        ComplaintResponse updated = store.updateContent(created.id(), "Missing parts", null).orElseThrow();
+
+        // then
+        List<ComplaintEvent> events = outbox.findAfter(0, Long.MAX_VALUE, 10);
+        assertEquals(List.of(ComplaintEventType.CREATED, ComplaintEventType.INCREMENTED,
+                        ComplaintEventType.INCREMENTED, ComplaintEventType.INCREMENTED, ComplaintEventType.CREATED,
+                        ComplaintEventType.UPDATED, ComplaintEventType.UPDATED),
+                events.stream().map(ComplaintEvent::type).toList());
+        assertEquals(List.of(0L, 1L, 2L, 3L, 0L, 4L, 5L),
+                events.stream().map(event -> event.complaint().version()).toList());
+        assertEquals(3, events.get(1).complaint().counter());
+        assertEquals(incremented, events.get(2).complaint());
+        assertEquals(upserted, List.of(events.get(3).complaint(), events.get(4).complaint()));
+        assertEquals("Poland", events.get(5).complaint().country());
+        assertEquals(updated, events.get(6).complaint());
+    }
+
+    @Test
+    void updateCountry_ShouldReturnSumOfCountersAndMoveTotals() throws Exception {
+        // given
+        InMemoryComplaintStore store = start("");
+        List<ComplaintResponse> created = store.upsertAll(List.of(
+                new ComplaintUpsert("product1", "Defective product", "user1", "Pending", 2),
+                new ComplaintUpsert("product1", "Missing parts", "user2", "Pending", 3)), NOW);
+
+        // when
+        long result = store.updateCountry(Set.of(created.get(0).id(), created.get(1).id(), 999L), "Poland");
+
+        // then
+        assertEquals(5, result);
+        assertEquals(List.of(new ComplaintTotal("product1", "Poland", 5)), store.sumCountersByProductAndCountry());
+    }
+
+    @Test
+    void start_WithLog_ShouldRecoverLastStateOfEveryComplaint() throws Exception {
+        // given
+        String file = directory.resolve("complaints.log").toString();
+        InMemoryComplaintStore store = start(file);
+        ComplaintResponse first = store.upsertIncrement("product1", "Defective product", "user1", "Poland", NOW);
+        store.upsertIncrement("product1", "Defective product", "user1", "Poland", NOW);
+        store.updateContent(first.id(), "Missing parts", null);
+        ComplaintResponse second = store.upsertIncrement("product2", "Wrong color", "user2", "Spain", NOW);
+        List<ComplaintResponse> expected = List.of(store.findById(first.id()).orElseThrow(), second);
+        store.stop();
+        stores.remove(store);
+
+        // when
+        InMemoryComplaintStore recovered = start(file);
+
+        // then
+        assertEquals(expected, recovered.findProjected(ComplaintFilter.NONE, ComplaintField.ALL, null,
+                Limit.unlimited()));
+        ComplaintResponse third = recovered.upsertIncrement("product3", "Wrong size", "user3", "Poland", NOW);
+        assertEquals(second.id() + 1, third.id());
+        assertEquals(3, recovered.upsertIncrement("product1", "Ignored content", "user1", "Poland", NOW).counter());
+    }
+
+    @Test
+    void start_WithTornRecordAtEndOfLog_ShouldDiscardIt() throws Exception {
+        // given
+        Path file = directory.resolve("complaints.log");
+        InMemoryComplaintStore store = start(file.toString());
+        ComplaintResponse created = store.upsertIncrement("product1", "Defective product", "user1", "Poland", NOW);
+        store.stop();
+        stores.remove(store);
+        Files.write(file, new byte[] {0, 0, 0, 42, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        // when
+        InMemoryComplaintStore recovered = start(file.toString());
+
+        // then
+        assertEquals(Optional.of(created), recovered.findById(created.id()));
+        assertNull(recovered.findById(created.id() + 1).orElse(null));
+    }
+
+    @Test
+    void upsertIncrementAndUpdateContent_TooLargeForLog_ShouldBeRejectedWithoutChangingComplaints() throws Exception {
+        // given
+        String file = directory.resolve("complaints.log").toString();
+        InMemoryComplaintStore store = start(file);
+        ComplaintResponse created = store.upsertIncrement("product1", "Defective product", "user1", "Poland", NOW);
+        String tooLarge = "x".repeat(70_000);
+
+        // when
+        assertThrows(IllegalArgumentException.class,
+                () -> store.upsertIncrement(tooLarge, "Defective product", "user2", "Poland", NOW));
+        assertThrows(IllegalArgumentException.class, () -> store.updateContent(created.id(), tooLarge, null));
+        store.stop();
+        stores.remove(store);
+        InMemoryComplaintStore recovered = start(file);
+
+        // then
+        assertEquals(List.of(created), store.findProjected(ComplaintFilter.NONE, ComplaintField.ALL, null,
+                Limit.unlimited()));
+        assertEquals(List.of(created), recovered.findProjected(ComplaintFilter.NONE, ComplaintField.ALL, null,
+                Limit.unlimited()));
+        assertEquals(2, recovered.upsertIncrement("product1", "Defective product", "user1", "Poland", NOW).counter());
+    }
+
+    private InMemoryComplaintStore start(String file) throws Exception {
+        InMemoryComplaintStore store = new InMemoryComplaintStore(file, Duration.ofMillis(50), outbox);
+        store.start();
+        stores.add(store);
+        return store;
+    }
+}
@@ -0,0 +1,151 @@
+package pl.empik.complaintservice.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({JpaComplaintStore.class, JdbcComplaintOutbox.class})
+class JpaComplaintStoreTest {
+
+    @Autowired
+    private JpaComplaintStore complaintStore;
+
+    @Autowired
+    private JdbcComplaintOutbox complaintOutbox;
+
+    @Test
+    void upsertIncrementAndUpdateContent_ShouldAppendEventsWithStateAfterChange() {
+        // given
+        ComplaintResponse created = complaintStore.upsertIncrement("product3", "Defective product", "user1",
+                "Poland", LocalDateTime.now());
+        ComplaintResponse incremented = complaintStore.upsertIncrement("product3", "Defective product", "user1",
+                "Poland", LocalDateTime.now());
+
+        // when
+        ComplaintResponse updated = complaintStore.updateContent(created.id(), "Missing parts", null).orElseThrow();
+
+        // then
+        List<ComplaintEvent> events = complaintOutbox.findAfter(0, Long.MAX_VALUE, 10);
+        assertEquals(List.of(ComplaintEventType.CREATED, ComplaintEventType.INCREMENTED, ComplaintEventType.UPDATED),
+                events.stream().map(ComplaintEvent::type).toList());
+        assertEquals(List.of(created, incremented, updated),
+                events.stream().map(ComplaintEvent::complaint).toList());
+        assertTrue(events.get(0).id() < events.get(1).id() && events.get(1).id() < events.get(2).id());
+    }
+
+    @Test
+    void upsertAll_ShouldAppendCreatedAndIncrementedEvents() {
+        // given
+        ComplaintResponse existing = complaintStore.upsertIncrement("product5", "Defective product", "user1",
+                "Poland", LocalDateTime.now());
+        long lastEventId = lastEventId();
+
+        // when
+        List<ComplaintResponse> result = complaintStore.upsertAll(List.of(
+                new ComplaintUpsert("product5", "Ignored content", "user1", "Poland", 2),
+                new ComplaintUpsert("product5", "Missing parts", "user2", "Poland", 3)), LocalDateTime.now());
+
+        // then
+        Map<ComplaintEventType, ComplaintResponse> events = complaintOutbox.findAfter(lastEventId, Long.MAX_VALUE, 10)
+                .stream()
+                .collect(Collectors.toMap(ComplaintEvent::type, ComplaintEvent::complaint));
+        assertEquals(Set.copyOf(result), Set.copyOf(events.values()));
+        assertEquals(existing.id(), events.get(ComplaintEventType.INCREMENTED).id());
+        assertEquals(3, events.get(ComplaintEventType.INCREMENTED).counter());
+        assertEquals("user2", events.get(ComplaintEventType.CREATED).reportedBy());
+    }
+
+    @Test
+    void incrementCountersAndUpdateCountry_ShouldAppendEventsWithStateAfterChange() {
+        // given
+        ComplaintResponse created = complaintStore.upsertIncrement("product6", "Defective product", "user1",
+                "Pending", LocalDateTime.now());
+        long lastEventId = lastEventId();
+
+        // when
+        complaintStore.incrementCounters(Map.of(created.id(), 2));
+        long total = complaintStore.updateCountry(List.of(created.id()), "Poland");
+
+        // then
+        List<ComplaintEvent> events = complaintOutbox.findAfter(lastEventId, Long.MAX_VALUE, 10);
+        assertEquals(List.of(ComplaintEventType.INCREMENTED, ComplaintEventType.UPDATED),
+                events.stream().map(ComplaintEvent::type).toList());
+        assertEquals(new ComplaintResponse(created.id(), "product6", "Defective product", created.createdAt(),
+                "user1", "Pending", 3, 1L), events.get(0).complaint());
+        assertEquals(Optional.of(events.get(1).complaint()), complaintStore.findById(created.id()));
+        assertEquals("Poland", events.get(1).complaint().country());
+        assertEquals(3, total);
+    }
+
+    @Test
+    void updateContent_WithStaleVersion_ShouldNotAppendEvent() {
+        // given
+        ComplaintResponse created = complaintStore.upsertIncrement("product4", "Defective product", "user1",
+                "Poland", LocalDateTime.now());
+        complaintStore.upsertIncrement("product4", "Defective product", "user1", "Poland", LocalDateTime.now());
+        long lastEventId = lastEventId();
+
+        // when
+        assertThrows(ComplaintModifiedException.class,
+                () -> complaintStore.updateContent(created.id(), "Missing parts", created.version()));
+
+        // then
+        assertEquals(List.of(), complaintOutbox.findAfter(lastEventId, Long.MAX_VALUE, 10));
+    }
+
+    @Test
+    void updateContent_WithExpectedVersion_ShouldReturnUpdatedComplaintWithBumpedVersion() {
+        // given
+        ComplaintResponse created = complaintStore.upsertIncrement("product1", "Defective product", "user1",
+                "Poland", LocalDateTime.now());
+
+        // when
+        ComplaintResponse result = complaintStore.updateContent(created.id(), "Missing parts", created.version())
+                .orElseThrow();
+
+        // then
+        assertEquals("Missing parts", result.content());
+        assertEquals(created.version() + 1, result.version());
+        assertEquals(Optional.of(result), complaintStore.findById(created.id()));
+    }
+
+    @Test
+    void updateContent_WithStaleVersion_ShouldThrow() {
+        // given
+        ComplaintResponse created = complaintStore.upsertIncrement("product2", "Defective product", "user1",
+                "Poland", LocalDateTime.now());
+        complaintStore.upsertIncrement("product2", "Defective product", "user1", "Poland", LocalDateTime.now());
+
+        // when & then
+        assertThrows(ComplaintModifiedException.class,
+                () -> complaintStore.updateContent(created.id(), "Missing parts", created.version()));
+    }
+
+    @Test
+    void updateContent_UnknownId_ShouldReturnEmpty() {
+        assertEquals(Optional.empty(), complaintStore.updateContent(999L, "Missing parts", null));
+    }
+
+    private long lastEventId() {
+        List<ComplaintEvent> events = complaintOutbox.findAfter(0, Long.MAX_VALUE, 1000);
+        return events.get(events.size() - 1).id();
+    }
+}
@@ -0,0 +1,171 @@
+package pl.empik.complaintservice.service;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.empik.complaintservice.model.BulkComplaintResult;
+import pl.empik.complaintservice.model.BulkComplaintStatus;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintBulkServiceTest {
+
+    private static final String TEST_IP_ADDRESS = "192.168.1.1";
+    private static final String TEST_COUNTRY = "Poland";
+    private static final ValidatorFactory VALIDATOR_FACTORY = Validation.buildDefaultValidatorFactory();
+
+    @Mock
+    private ComplaintStore complaintStore;
+    @Mock
+    private GeolocationService geolocationService;
+    @Mock
+    private ComplaintCounterBuffer complaintCounterBuffer;
+    @Mock
+    private ComplaintCache complaintCache;
+    @Mock
+    private ComplaintStatistics complaintStatistics;
+    @Mock
+    private ComplaintSearchIndex complaintSearchIndex;
+
+    private ComplaintBulkService complaintBulkService;
+
+    @BeforeEach
+    void setUp() {
+        Validator validator = VALIDATOR_FACTORY.getValidator();
+        complaintBulkService = new ComplaintBulkService(complaintStore, geolocationService,
+                complaintCounterBuffer, complaintCache, complaintStatistics, complaintSearchIndex, validator);
+    }
+
+    @AfterAll
+    static void closeValidatorFactory() {
+        VALIDATOR_FACTORY.close();
+    }
+
+    @Test
+    void createComplaints_WithDuplicatesInBatch_ShouldUpsertEachKeyOnceWithItsOccurrences() {
+        // given
+        List<ComplaintRequest> requests = List.of(
+                new ComplaintRequest("product1", "Defective product", "user1"),
+                new ComplaintRequest("product2", "Missing parts", "user2"),
+                new ComplaintRequest("product1", "Still defective", "user1")
+        );
+        when(geolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
+        when(complaintStore.upsertAll(anyList(), any(LocalDateTime.class))).thenReturn(List.of(
+                createTestComplaintResponse(1L, "product1", "user1", 2),
+                createTestComplaintResponse(2L, "product2", "user2", 5)
+        ));
+
+        // when
+        BulkComplaintResult result = complaintBulkService.createComplaints(requests, TEST_IP_ADDRESS);
+
+        // then
+        ArgumentCaptor<List<ComplaintUpsert>> upserts = ArgumentCaptor.forClass(List.class);
+        verify(complaintStore).upsertAll(upserts.capture(), any(LocalDateTime.class));
+        assertEquals(List.of(
+                new ComplaintUpsert("product1", "Defective product", "user1", TEST_COUNTRY, 2),
+                new ComplaintUpsert("product2", "Missing parts", "user2", TEST_COUNTRY, 1)
+        ), upserts.getValue());
+        verify(geolocationService, times(1)).getCountryFromIp(TEST_IP_ADDRESS);
+
+        assertEquals(1, result.created());
+        assertEquals(2, result.incremented());
+        assertEquals(0, result.rejected());
+        assertEquals(BulkComplaintStatus.CREATED, result.items().get(0).status());
+        assertEquals(1L, result.items().get(0).id());
+        assertEquals(BulkComplaintStatus.INCREMENTED, result.items().get(1).status());
+        assertEquals(2L, result.items().get(1).id());
+        assertEquals(BulkComplaintStatus.INCREMENTED, result.items().get(2).status());
+        assertEquals(1L, result.items().get(2).id());
+        verify(complaintCache).evictAll(List.of(2L));
+        verify(complaintSearchIndex).index(1L, "Defective product");
+        verify(complaintSearchIndex, never()).index(eq(2L), any());
+        verify(complaintStatistics).record(eq("product1"), eq(TEST_COUNTRY), eq(2L), any(LocalDateTime.class));
+        verify(complaintStatistics).record(eq("product2"), eq(TEST_COUNTRY), eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void createComplaints_WithInvalidItems_ShouldReportThemAndPersistTheRest() {
+        // given
+        List<ComplaintRequest> requests = Arrays.asList(
+                new ComplaintRequest("", "Defective product", "user1"),
+                null,
+                new ComplaintRequest("product2", "Missing parts", "user2")
+        );
+        when(geolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
+        when(complaintStore.upsertAll(anyList(), any(LocalDateTime.class)))
+                .thenReturn(List.of(createTestComplaintResponse(2L, "product2", "user2", 1)));
+
+        // when
+        BulkComplaintResult result = complaintBulkService.createComplaints(requests, TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(1, result.created());
+        assertEquals(2, result.rejected());
+        assertEquals(BulkComplaintStatus.INVALID, result.items().get(0).status());
+        assertTrue(result.items().get(0).errors().containsKey("productId"));
+        assertNull(result.items().get(0).id());
+        assertEquals(BulkComplaintStatus.INVALID, result.items().get(1).status());
+        assertEquals(BulkComplaintStatus.CREATED, result.items().get(2).status());
+    }
+
+    @Test
+    void createComplaints_WithOnlyInvalidItems_ShouldNotTouchDatabase() {
+        // given
+        List<ComplaintRequest> requests = List.of(new ComplaintRequest("product1", "", "user1"));
+
+        // when
+        BulkComplaintResult result = complaintBulkService.createComplaints(requests, TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(1, result.rejected());
+        verifyNoInteractions(complaintStore, geolocationService);
+    }
+
+    @Test
+    void createComplaints_WithWriteBehindEnabled_ShouldRegisterPersistedComplaints() {
+        // given
+        ComplaintResponse complaint = createTestComplaintResponse(1L, "product1", "user1", 4);
+        when(complaintCounterBuffer.isEnabled()).thenReturn(true);
+        when(geolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
+        when(complaintStore.upsertAll(anyList(), any(LocalDateTime.class))).thenReturn(List.of(complaint));
+
+        // when
+        complaintBulkService.createComplaints(
+                List.of(new ComplaintRequest("product1", "Defective product", "user1")), TEST_IP_ADDRESS);
+
+        // then
+        verify(complaintCounterBuffer).register(complaint);
+        verify(complaintCounterBuffer, never()).increment(any(), any());
+    }
+
+    private ComplaintResponse createTestComplaintResponse(Long id, String productId, String reportedBy, int counter) {
+        return new ComplaintResponse(id, productId, "Defective product", LocalDateTime.now(),
+                reportedBy, TEST_COUNTRY, counter, 0L);
+    }
+}
@@ -0,0 +1,98 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpdateRequest;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.ServerSocket;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the complaint cache on the shared Redis backend against a local Redis server.
+ */
+@SpringBootTest(properties = "spring.cache.type=redis")
+class ComplaintCacheRedisTest {
+
+    private static final int REDIS_PORT = freePort();
+    private static final RedisServer REDIS_SERVER = startRedis();
+
+    @Autowired
+    private ComplaintService complaintService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockitoBean
+    private GeolocationService geolocationService;
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.port", () -> REDIS_PORT);
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        REDIS_SERVER.stop();
+    }
+
+    @Test
+    void getComplaintById_ShouldBeCachedInRedisAndEvictedOnUpdate() {
+        // given
+        when(geolocationService.getCountryFromIp(anyString())).thenReturn("Poland");
+        ComplaintResponse created = complaintService.createComplaint(
+                new ComplaintRequest("product-" + UUID.randomUUID(), "Defective product", "user1"), "192.168.1.1");
+        Cache cache = cacheManager.getCache(ComplaintConstants.COMPLAINTS_CACHE);
+
+        // when
+        ComplaintResponse read = complaintService.getComplaintById(created.id());
+
+        // then
+        assertInstanceOf(RedisCacheManager.class, cacheManager);
+        assertEquals(read, cache.get(created.id(), ComplaintResponse.class));
+
+        // when
+        complaintService.updateComplaint(created.id(), new ComplaintUpdateRequest("Updated content"));
+
+        // then
+        assertNull(cache.get(created.id()));
+        assertEquals("Updated content", complaintService.getComplaintById(created.id()).content());
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static RedisServer startRedis() {
+        try {
+            RedisServer server = new RedisServer(REDIS_PORT);
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
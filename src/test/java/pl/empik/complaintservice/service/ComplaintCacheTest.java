@@ -0,0 +1,80 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComplaintCacheTest {
+
+    private final ComplaintCache complaintCache = new ComplaintCache(new ConcurrentMapCacheManager());
+
+    @Test
+    void get_RepeatedRead_ShouldLoadOnce() {
+        // given
+        AtomicInteger loads = new AtomicInteger();
+        ComplaintResponse complaint = createTestResponse(1L, "Defective product", 0L);
+
+        // when
+        complaintCache.get(1L, () -> {
+            loads.incrementAndGet();
+            return complaint;
+        });
+        ComplaintResponse result = complaintCache.get(1L, () -> {
+            loads.incrementAndGet();
+            return complaint;
+        });
+
+        // then
+        assertSame(complaint, result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_EvictedWhileLoading_ShouldNotCacheStateLoadedBeforeTheWrite() throws Exception {
+        // given
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+        ComplaintResponse beforeWrite = createTestResponse(1L, "Defective product", 0L);
+        CompletableFuture<ComplaintResponse> read = CompletableFuture.supplyAsync(() -> complaintCache.get(1L, () -> {
+            loaded.countDown();
+            await(evicted);
+            return beforeWrite;
+        }));
+
+        // when
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+        complaintCache.evict(1L);
+        evicted.countDown();
+
+        // then
+        assertSame(beforeWrite, read.get(5, TimeUnit.SECONDS));
+        assertNull(complaintCache.getIfPresent(1L));
+        ComplaintResponse afterWrite = createTestResponse(1L, "Updated content", 1L);
+        assertSame(afterWrite, complaintCache.get(1L, () -> afterWrite));
+        assertSame(afterWrite, complaintCache.getIfPresent(1L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ComplaintResponse createTestResponse(Long id, String content, Long version) {
+        return new ComplaintResponse(id, "product1", content, LocalDateTime.now(), "user1", "Poland", 1, version);
+    }
+}
@@ -0,0 +1,163 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintCounterBufferTest {
+
+    @Mock
+    private ComplaintStore complaintStore;
+
+    @Mock
+    private ComplaintCache complaintCache;
+
+    private ComplaintCounterBuffer counterBuffer;
+
+    @BeforeEach
+    void setUp() {
+        counterBuffer = new ComplaintCounterBuffer(complaintStore, complaintCache, true, Duration.ofSeconds(1), 1000, 2);
+    }
+
+    @Test
+    void increment_UnregisteredComplaint_ShouldReturnNull() {
+        assertNull(counterBuffer.increment("product1", "user1"));
+    }
+
+    @Test
+    void increment_RegisteredComplaint_ShouldCoalesceIntoOneDeltaPerFlush() {
+        // given
+        counterBuffer.register(createTestResponse(1L, "product1", "user1", 3));
+
+        // when
+        counterBuffer.increment("product1", "user1");
+        counterBuffer.increment("product1", "user1");
+        ComplaintResponse result = counterBuffer.increment("product1", "user1");
+        counterBuffer.flush();
+
+        // then
+        assertEquals(6, result.counter());
+        verify(complaintStore, times(1)).incrementCounters(Map.of(1L, 3));
+        verify(complaintCache).evictAll(Set.of(1L));
+        assertEquals(0, counterBuffer.getPendingIncrements());
+        assertEquals(3, counterBuffer.getFlushedIncrements());
+        assertEquals(Duration.ZERO, counterBuffer.getFlushLag());
+    }
+
+    @Test
+    void flush_NothingPending_ShouldNotWrite() {
+        // given
+        counterBuffer.register(createTestResponse(1L, "product1", "user1", 1));
+
+        // when
+        counterBuffer.flush();
+
+        // then
+        verify(complaintStore, never()).incrementCounters(anyMap());
+    }
+
+    @Test
+    void flush_WhenWriteFails_ShouldKeepIncrementsPending() {
+        // given
+        counterBuffer.register(createTestResponse(1L, "product1", "user1", 1));
+        counterBuffer.increment("product1", "user1");
+        doThrow(new DataAccessResourceFailureException("Database down"))
+                .when(complaintStore).incrementCounters(Map.of(1L, 1));
+
+        // when
+        assertThrows(DataAccessResourceFailureException.class, () -> counterBuffer.flush());
+        counterBuffer.increment("product1", "user1");
+
+        // then
+        assertEquals(2, counterBuffer.getPendingIncrements());
+        assertTrue(counterBuffer.getFlushLag().compareTo(Duration.ZERO) > 0);
+        verify(complaintCache, never()).evictAll(anyCollection());
+    }
+
+    @Test
+    void overlay_BufferedComplaint_ShouldAddPendingIncrementsAndRefreshContent() {
+        // given
+        counterBuffer.register(createTestResponse(1L, "product1", "user1", 1));
+        counterBuffer.increment("product1", "user1");
+        ComplaintResponse updated = new ComplaintResponse(1L, "product1", "Updated content",
+                LocalDateTime.now(), "user1", "Poland", 1, 1L);
+
+        // when
+        ComplaintResponse result = counterBuffer.overlay(updated);
+
+        // then
+        assertEquals(2, result.counter());
+        assertEquals("Updated content", counterBuffer.increment("product1", "user1").content());
+    }
+
+    @Test
+    void overlayCounter_ProjectedComplaint_ShouldAddPendingIncrementsByIdWithoutRefreshingSnapshot() {
+        // given
+        counterBuffer.register(createTestResponse(1L, "product1", "user1", 1));
+        counterBuffer.increment("product1", "user1");
+        counterBuffer.increment("product1", "user1");
+        ComplaintResponse projected = new ComplaintResponse(1L, null, null, null, null, null, 1, 0L);
+        ComplaintResponse unbuffered = new ComplaintResponse(2L, null, null, null, null, null, 4, 0L);
+
+        // when
+        ComplaintResponse result = counterBuffer.overlayCounter(projected);
+
+        // then
+        assertEquals(3, result.counter());
+        assertNull(result.productId());
+        assertSame(unbuffered, counterBuffer.overlayCounter(unbuffered));
+        assertEquals("product1", counterBuffer.increment("product1", "user1").productId());
+    }
+
+    @Test
+    void register_OverMaximumKeys_ShouldNotBufferNewComplaints() {
+        // given
+        counterBuffer.register(createTestResponse(1L, "product1", "user1", 1));
+        counterBuffer.register(createTestResponse(2L, "product2", "user2", 1));
+
+        // when
+        counterBuffer.register(createTestResponse(3L, "product3", "user3", 1));
+
+        // then
+        assertEquals(2, counterBuffer.getBufferedKeys());
+        assertNull(counterBuffer.increment("product3", "user3"));
+    }
+
+    @Test
+    void register_ComplaintWithPendingCountry_ShouldNotBufferIt() {
+        // given
+        counterBuffer.register(new ComplaintResponse(1L, "product1", "Defective product", LocalDateTime.now(),
+                "user1", ComplaintConstants.PENDING_COUNTRY, 1, 0L));
+
+        // when & then
+        assertNull(counterBuffer.increment("product1", "user1"));
+    }
+
+    private ComplaintResponse createTestResponse(Long id, String productId, String reportedBy, int counter) {
+        return new ComplaintResponse(id, productId, "Defective product", LocalDateTime.now(), reportedBy, "Poland", counter, 0L);
+    }
+}
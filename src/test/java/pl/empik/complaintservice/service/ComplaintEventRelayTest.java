@@ -0,0 +1,209 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpsert;
+import pl.empik.complaintservice.repository.ComplaintOutbox;
+import pl.empik.complaintservice.repository.InMemoryComplaintOutbox;
+import pl.empik.complaintservice.repository.InMemoryComplaintStore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ComplaintEventRelayTest {
+
+    private static final ComplaintResponse TEST_COMPLAINT = new ComplaintResponse(1L, "product1", "Defective product",
+            LocalDateTime.of(2025, 3, 10, 12, 0), "user1", "Poland", 1, 0L);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<List<Long>> batches = new ArrayList<>();
+
+    @Test
+    void relay_ShouldPublishEventsInBatchesAndSavePosition() {
+        // given
+        InMemoryComplaintOutbox outbox = new InMemoryComplaintOutbox();
+        for (int i = 0; i < 5; i++) {
+            outbox.append(ComplaintEventType.CREATED, TEST_COMPLAINT);
+        }
+        ComplaintEventRelay relay = relay(outbox, this::record);
+
+        // when
+        int published = relay.relay();
+
+        // then
+        assertEquals(5, published);
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), batches);
+        assertEquals(5, outbox.findPosition(ComplaintEventRelay.CONSUMER));
+        assertEquals(0, relay.relay());
+        assertEquals(5, meterRegistry.counter("complaints.outbox.published").count());
+    }
+
+    @Test
+    void relay_WhenSinkFails_ShouldPublishSameBatchOnNextRun() {
+        // given
+        InMemoryComplaintOutbox outbox = new InMemoryComplaintOutbox();
+        outbox.append(ComplaintEventType.CREATED, TEST_COMPLAINT);
+        boolean[] failed = new boolean[1];
+        ComplaintEventRelay relay = relay(outbox, events -> {
+            if (!failed[0]) {
+                failed[0] = true;
+                throw new IllegalStateException("sink unavailable");
+            }
+            record(events);
+        });
+
+        // when
+        assertThrows(IllegalStateException.class, relay::relay);
+        relay.relay();
+
+        // then
+        assertEquals(List.of(List.of(1L)), batches);
+        assertEquals(1, relay.getPosition());
+    }
+
+    @Test
+    void relay_WithRecentGap_ShouldStopBeforeIt() {
+        // given
+        ComplaintOutbox outbox = mock(ComplaintOutbox.class);
+        LocalDateTime now = LocalDateTime.now();
+        when(outbox.findAfter(eq(0L), anyLong(), anyInt())).thenReturn(List.of(event(1, now), event(3, now)));
+        ComplaintEventRelay relay = relay(outbox, this::record);
+
+        // when
+        relay.relay();
+
+        // then
+        assertEquals(List.of(List.of(1L)), batches);
+        assertEquals(1, relay.getPosition());
+    }
+
+    @Test
+    void relay_WithGapOlderThanTimeout_ShouldSkipIt() {
+        // given
+        ComplaintOutbox outbox = mock(ComplaintOutbox.class);
+        LocalDateTime past = LocalDateTime.now().minusMinutes(1);
+        when(outbox.findAfter(eq(0L), anyLong(), anyInt())).thenReturn(List.of(event(2, past)));
+        ComplaintEventRelay relay = relay(outbox, this::record);
+
+        // when
+        relay.relay();
+
+        // then
+        assertEquals(List.of(List.of(2L)), batches);
+        assertEquals(2, relay.getPosition());
+    }
+
+    @Test
+    void relay_AfterBulkUpsert_ShouldPublishCreatedAndIncrementedEvents() {
+        // given
+        InMemoryComplaintOutbox outbox = new InMemoryComplaintOutbox();
+        InMemoryComplaintStore store = store(outbox);
+        store.upsertIncrement("product1", "Defective product", "user1", "Poland", LocalDateTime.now());
+        store.upsertAll(List.of(
+                new ComplaintUpsert("product1", "Defective product", "user1", "Poland", 2),
+                new ComplaintUpsert("product2", "Missing parts", "user2", "Poland", 3)), LocalDateTime.now());
+        List<ComplaintEvent> published = new ArrayList<>();
+        ComplaintEventRelay relay = relay(outbox, published::addAll);
+
+        // when
+        relay.relay();
+
+        // then
+        assertEquals(List.of(ComplaintEventType.CREATED, ComplaintEventType.INCREMENTED, ComplaintEventType.CREATED),
+                published.stream().map(ComplaintEvent::type).toList());
+        assertEquals(List.of(1, 3, 3), published.stream().map(event -> event.complaint().counter()).toList());
+    }
+
+    @Test
+    void relay_AfterCounterFlush_ShouldPublishIncrementedEvent() {
+        // given
+        InMemoryComplaintOutbox outbox = new InMemoryComplaintOutbox();
+        InMemoryComplaintStore store = store(outbox);
+        ComplaintResponse created = store.upsertIncrement("product1", "Defective product", "user1", "Poland",
+                LocalDateTime.now());
+        ComplaintCounterBuffer counterBuffer = new ComplaintCounterBuffer(store, mock(ComplaintCache.class), true, Duration.ofSeconds(1), 1000, 10);
+        counterBuffer.register(created);
+        counterBuffer.increment("product1", "user1");
+        counterBuffer.increment("product1", "user1");
+        counterBuffer.flush();
+        List<ComplaintEvent> published = new ArrayList<>();
+        ComplaintEventRelay relay = relay(outbox, published::addAll);
+
+        // when
+        relay.relay();
+
+        // then
+        assertEquals(List.of(ComplaintEventType.CREATED, ComplaintEventType.INCREMENTED),
+                published.stream().map(ComplaintEvent::type).toList());
+        assertEquals(3, published.get(1).complaint().counter());
+        assertEquals(created.version() + 1, published.get(1).complaint().version());
+    }
+
+    @Test
+    void relay_AfterCountryUpdate_ShouldPublishUpdatedEventWithCountry() {
+        // given
+        InMemoryComplaintOutbox outbox = new InMemoryComplaintOutbox();
+        InMemoryComplaintStore store = store(outbox);
+        ComplaintResponse created = store.upsertIncrement("product1", "Defective product", "user1",
+                ComplaintConstants.PENDING_COUNTRY, LocalDateTime.now());
+        store.updateCountry(List.of(created.id()), "Poland");
+        List<ComplaintEvent> published = new ArrayList<>();
+        ComplaintEventRelay relay = relay(outbox, published::addAll);
+
+        // when
+        relay.relay();
+
+        // then
+        assertEquals(List.of(ComplaintEventType.CREATED, ComplaintEventType.UPDATED),
+                published.stream().map(ComplaintEvent::type).toList());
+        assertEquals(ComplaintConstants.PENDING_COUNTRY, published.get(0).complaint().country());
+        assertEquals("Poland", published.get(1).complaint().country());
+    }
+
+    @Test
+    void getPublishedEvents_ShouldNotReturnEventsAfterPosition() {
+        // given
+        InMemoryComplaintOutbox outbox = new InMemoryComplaintOutbox();
+        outbox.append(ComplaintEventType.CREATED, TEST_COMPLAINT);
+        ComplaintEventRelay relay = relay(outbox, this::record);
+        relay.relay();
+        outbox.append(ComplaintEventType.INCREMENTED, TEST_COMPLAINT);
+
+        // when
+        List<ComplaintEvent> events = relay.getPublishedEvents(0, 10);
+
+        // then
+        assertEquals(List.of(1L), events.stream().map(ComplaintEvent::id).toList());
+    }
+
+    private ComplaintEventRelay relay(ComplaintOutbox outbox, ComplaintEventSink sink) {
+        return new ComplaintEventRelay(outbox, List.of(sink), meterRegistry, 2, Duration.ofMillis(100),
+                Duration.ofSeconds(5), Duration.ofDays(1), Duration.ofMinutes(1));
+    }
+
+    private static InMemoryComplaintStore store(InMemoryComplaintOutbox outbox) {
+        return new InMemoryComplaintStore("", Duration.ofMillis(100), outbox);
+    }
+
+    private void record(List<ComplaintEvent> events) {
+        batches.add(events.stream().map(ComplaintEvent::id).toList());
+    }
+
+    private static ComplaintEvent event(long id, LocalDateTime occurredAt) {
+        return new ComplaintEvent(id, ComplaintEventType.CREATED, occurredAt, TEST_COMPLAINT);
+    }
+}
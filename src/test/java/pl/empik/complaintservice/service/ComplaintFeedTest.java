@@ -0,0 +1,348 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintEvent;
+import pl.empik.complaintservice.model.ComplaintEventType;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.repository.InMemoryComplaintOutbox;
+import pl.empik.complaintservice.repository.InMemoryComplaintStore;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ComplaintFeedTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    private final ComplaintEventBroker broker = new ComplaintEventBroker();
+    private final InMemoryComplaintOutbox outbox = new InMemoryComplaintOutbox();
+
+    private ComplaintFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        feed = new ComplaintFeed(broker, outbox, 3, 100, 2, Duration.ofMinutes(1), Duration.ofMinutes(1),
+                Duration.ofMinutes(1));
+        feed.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        feed.stop();
+    }
+
+    @Test
+    void subscribe_WithProductOrCountryFilter_ShouldSendOnlyMatchingChanges() throws Exception {
+        // given
+        RecordingEmitter byProduct = subscribe("product1", null, null);
+        RecordingEmitter byCountry = subscribe(null, "Germany", null);
+        RecordingEmitter all = subscribe(null, null, null);
+
+        // when
+        publish(complaint(1L, "product1", "Poland"), complaint(2L, "product2", "Germany"),
+                complaint(3L, "product3", "Spain"));
+
+        // then
+        assertEquals(List.of(1L), byProduct.take(1));
+        assertEquals(List.of(2L), byCountry.take(1));
+        assertEquals(List.of(1L, 2L, 3L), all.take(3));
+        assertEquals(3, feed.getSubscriberCount());
+    }
+
+    @Test
+    void subscribe_WithCountryFilter_ShouldSendComplaintOnceEnrichmentResolvesItsCountry() throws Exception {
+        // given
+        InMemoryComplaintStore store = new InMemoryComplaintStore("", Duration.ofMillis(100), outbox);
+        RecordingEmitter byCountry = subscribe(null, "Poland", null);
+        ComplaintResponse created = store.upsertIncrement("product1", "Defective product", "user1",
+                ComplaintConstants.PENDING_COUNTRY, NOW);
+        publishAppended();
+
+        // when
+        store.updateCountry(List.of(created.id()), "Poland");
+        List<ComplaintEvent> published = publishAppended();
+
+        // then
+        assertEquals(List.of(published.get(0).id()), byCountry.take(1));
+        assertNull(byCountry.ids.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_SlowSubscriber_ShouldCoalesceChangesOfComplaintAndDropOldest() throws Exception {
+        // given
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(release);
+        feed.subscribe(null, null, null, ComplaintEvent::complaint, slow);
+        publish(complaint(1L, "product1", "Poland"));
+        slow.awaitSending();
+
+        // when
+        publish(complaint(2L, "product2", "Poland"), complaint(2L, "product2", "Poland"),
+                complaint(3L, "product3", "Poland"), complaint(4L, "product4", "Poland"),
+                complaint(5L, "product5", "Poland"));
+        release.countDown();
+
+        // then
+        assertEquals(List.of(1L, 4L, 5L, 6L), slow.take(4));
+        assertNull(slow.ids.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_SubscriberNeverReading_ShouldBeEvictedWithoutHoldingBackOthers() throws Exception {
+        // given
+        ComplaintFeed singleSenderFeed = new ComplaintFeed(broker, outbox, 3, 100, 1, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), Duration.ofMillis(100));
+        singleSenderFeed.start();
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingEmitter stalled = new RecordingEmitter(release);
+        RecordingEmitter other1 = new RecordingEmitter(null);
+        RecordingEmitter other2 = new RecordingEmitter(null);
+
+        try {
+            singleSenderFeed.subscribe(null, null, null, Function.identity(), stalled);
+            List<ComplaintEvent> first = publish(complaint(1L, "product1", "Poland"));
+            stalled.awaitSending();
+            singleSenderFeed.subscribe(null, null, null, Function.identity(), other1);
+            singleSenderFeed.subscribe(null, "Poland", null, Function.identity(), other2);
+
+            // when
+            List<ComplaintEvent> published = publish(complaint(2L, "product2", "Poland"),
+                    complaint(3L, "product3", "Poland"));
+
+            // then
+            List<Long> ids = published.stream().map(ComplaintEvent::id).toList();
+            assertEquals(ids, other1.take(2));
+            assertEquals(ids, other2.take(2));
+            awaitSubscribers(singleSenderFeed, 2);
+            assertEquals(2, singleSenderFeed.getSubscriberCount());
+            release.countDown();
+            assertEquals(List.of(first.get(0).id()), stalled.take(1));
+            assertNull(stalled.ids.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            release.countDown();
+            singleSenderFeed.stop();
+        }
+    }
+
+    @Test
+    void subscribe_WithLastEventId_ShouldReplayLaterChangesThenSendLiveOnesOnce() throws Exception {
+        // given
+        List<ComplaintEvent> published = publish(complaint(1L, "product1", "Poland"),
+                complaint(2L, "product2", "Poland"), complaint(3L, "product3", "Poland"));
+
+        // when
+        RecordingEmitter resumed = subscribe(null, null, published.get(0).id());
+        broker.publish(published);
+        publish(complaint(4L, "product4", "Poland"));
+
+        // then
+        assertEquals(List.of(2L, 3L, 4L), resumed.take(3));
+        assertNull(resumed.ids.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscribe_WithLastEventIdWhileBacklogIsRead_ShouldNotHoldBackPublication() throws Exception {
+        // given
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean released = new AtomicBoolean();
+        InMemoryComplaintOutbox slowOutbox = new InMemoryComplaintOutbox() {
+            @Override
+            public List<ComplaintEvent> findAfter(long afterId, long upToId, int limit) {
+                if (Thread.currentThread().getName().equals("resuming-subscriber") && reading.getCount() > 0) {
+                    reading.countDown();
+                    released.set(await(release));
+                }
+                return super.findAfter(afterId, upToId, limit);
+            }
+        };
+        ComplaintFeed slowReplayFeed = new ComplaintFeed(broker, slowOutbox, 100, 100, 2, Duration.ofMinutes(1),
+                Duration.ofMinutes(1), Duration.ofMinutes(1));
+        slowReplayFeed.start();
+        RecordingEmitter resumed = new RecordingEmitter(null);
+        RecordingEmitter live = new RecordingEmitter(null);
+
+        try {
+            slowReplayFeed.subscribe(null, null, null, Function.identity(), live);
+            List<ComplaintEvent> backlog = publish(slowOutbox, complaint(1L, "product1", "Poland"),
+                    complaint(2L, "product2", "Poland"), complaint(3L, "product3", "Poland"));
+            Thread subscribing = new Thread(() -> slowReplayFeed.subscribe(null, null, backlog.get(0).id(),
+                    Function.identity(), resumed), "resuming-subscriber");
+            subscribing.start();
+            assertTrue(reading.await(5, TimeUnit.SECONDS));
+
+            // when
+            List<ComplaintEvent> published = publish(slowOutbox, complaint(4L, "product4", "Poland"));
+            List<Long> liveIds = live.take(4);
+            release.countDown();
+            subscribing.join(5000);
+            publish(slowOutbox, complaint(5L, "product5", "Poland"));
+
+            // then
+            assertTrue(released.get());
+            assertEquals(List.of(backlog.get(0).id(), backlog.get(1).id(), backlog.get(2).id(),
+                    published.get(0).id()), liveIds);
+            assertEquals(List.of(2L, 3L, 4L, 5L), resumed.take(4));
+            assertNull(resumed.ids.poll(100, TimeUnit.MILLISECONDS));
+        } finally {
+            release.countDown();
+            slowReplayFeed.stop();
+        }
+    }
+
+    @Test
+    void subscribe_WhenSendFails_ShouldUnsubscribe() throws Exception {
+        // given
+        RecordingEmitter failing = subscribe(null, null, null);
+        failing.fail = true;
+
+        // when
+        publish(complaint(1L, "product1", "Poland"));
+
+        // then
+        awaitNoSubscribers(feed);
+        assertEquals(0, feed.getSubscriberCount());
+    }
+
+    @Test
+    void heartbeat_WhenIdleClientIsGone_ShouldUnsubscribe() throws Exception {
+        // given
+        ComplaintFeed heartbeatFeed = new ComplaintFeed(broker, outbox, 3, 100, 1, Duration.ofMinutes(1),
+                Duration.ofMillis(20), Duration.ofMinutes(1));
+        heartbeatFeed.start();
+        RecordingEmitter gone = new RecordingEmitter(null);
+        gone.fail = true;
+
+        // when
+        try {
+            heartbeatFeed.subscribe(null, null, null, Function.identity(), gone);
+            awaitNoSubscribers(heartbeatFeed);
+        } finally {
+            heartbeatFeed.stop();
+        }
+
+        // then
+        assertEquals(0, heartbeatFeed.getSubscriberCount());
+    }
+
+    private RecordingEmitter subscribe(String productId, String country, Long lastEventId) {
+        RecordingEmitter emitter = new RecordingEmitter(null);
+        feed.subscribe(productId, country, lastEventId, Function.identity(), emitter);
+        return emitter;
+    }
+
+    private static void awaitNoSubscribers(ComplaintFeed feed) throws InterruptedException {
+        awaitSubscribers(feed, 0);
+    }
+
+    private static void awaitSubscribers(ComplaintFeed feed, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (feed.getSubscriberCount() > count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private List<ComplaintEvent> publish(ComplaintResponse... complaints) {
+        return publish(outbox, complaints);
+    }
+
+    private List<ComplaintEvent> publish(InMemoryComplaintOutbox outbox, ComplaintResponse... complaints) {
+        for (ComplaintResponse complaint : complaints) {
+            outbox.append(ComplaintEventType.UPDATED, complaint);
+        }
+        return publishAppended(outbox);
+    }
+
+    private List<ComplaintEvent> publishAppended() {
+        return publishAppended(outbox);
+    }
+
+    /**
+     * Publishes the events appended to the outbox since the last publication, as the relay does.
+     */
+    private List<ComplaintEvent> publishAppended(InMemoryComplaintOutbox outbox) {
+        long afterId = outbox.findPosition(ComplaintEventRelay.CONSUMER);
+        List<ComplaintEvent> events = outbox.findAfter(afterId, Long.MAX_VALUE, 100);
+        outbox.savePosition(ComplaintEventRelay.CONSUMER, events.get(events.size() - 1).id());
+        broker.publish(events);
+        return events;
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static ComplaintResponse complaint(Long id, String productId, String country) {
+        return new ComplaintResponse(id, productId, "Defective product", NOW, "user1", country, 1, 0L);
+    }
+
+    /**
+     * Emitter recording the IDs of the events sent, optionally blocking the first send until released.
+     */
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final BlockingQueue<Long> ids = new LinkedBlockingQueue<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private volatile boolean fail;
+
+        private RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (fail) {
+                throw new IOException("Broken pipe");
+            }
+            sending.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            String event = builder.build().iterator().next().getData().toString();
+            ids.add(Long.parseLong(event.substring("id:".length(), event.indexOf('\n'))));
+        }
+
+        private void awaitSending() throws InterruptedException {
+            sending.await(5, TimeUnit.SECONDS);
+        }
+
+        private List<Long> take(int count) throws InterruptedException {
+            List<Long> taken = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Long id = ids.poll(5, TimeUnit.SECONDS);
+                if (id == null) {
+                    break;
+                }
+                taken.add(id);
+            }
+            return taken;
+        }
+    }
+}
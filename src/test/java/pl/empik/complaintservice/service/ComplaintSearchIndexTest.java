@@ -0,0 +1,102 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintSearchHit;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintSearchIndexTest {
+
+    @Mock
+    private ComplaintStore complaintStore;
+
+    private ComplaintSearchIndex searchIndex;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        searchIndex = new ComplaintSearchIndex(complaintStore, "", Duration.ofHours(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        searchIndex.stop();
+    }
+
+    @Test
+    void rebuild_ShouldIndexEveryComplaintOfTable() throws IOException {
+        // given
+        doAnswer(invocation -> {
+            Consumer<ComplaintResponse> consumer = invocation.getArgument(0);
+            consumer.accept(createTestResponse(1L, "The screen is cracked"));
+            consumer.accept(createTestResponse(2L, "Battery drains overnight"));
+            return null;
+        }).when(complaintStore).streamAll(any());
+
+        // when
+        searchIndex.rebuild();
+
+        // then
+        assertEquals(List.of(2L), ids(searchIndex.search("battery", 10)));
+    }
+
+    @Test
+    void search_ShouldRequireAllWordsAndRankBetterMatchesFirst() throws IOException {
+        // given
+        searchIndex.index(1L, "Screen cracked during delivery, the box was also damaged and wet");
+        searchIndex.index(2L, "Cracked screen");
+        searchIndex.index(3L, "Screen flickers");
+        searchIndex.refresh();
+
+        // when
+        List<ComplaintSearchHit> hits = searchIndex.search("CRACKED screen", 10);
+
+        // then
+        assertEquals(List.of(2L, 1L), ids(hits));
+        assertTrue(hits.get(0).score() > hits.get(1).score());
+    }
+
+    @Test
+    void index_ChangedContent_ShouldReplacePreviousContent() throws IOException {
+        // given
+        searchIndex.index(1L, "Missing charger");
+        searchIndex.refresh();
+
+        // when
+        searchIndex.index(1L, "Missing manual");
+        searchIndex.refresh();
+
+        // then
+        assertEquals(List.of(), ids(searchIndex.search("charger", 10)));
+        assertEquals(List.of(1L), ids(searchIndex.search("manual", 10)));
+    }
+
+    @Test
+    void search_WithoutSearchableWords_ShouldReturnNoHits() {
+        assertEquals(List.of(), searchIndex.search("?!", 10));
+    }
+
+    private static List<Long> ids(List<ComplaintSearchHit> hits) {
+        return hits.stream().map(ComplaintSearchHit::id).toList();
+    }
+
+    private static ComplaintResponse createTestResponse(Long id, String content) {
+        return new ComplaintResponse(id, "product" + id, content, LocalDateTime.now(), "user1", "Poland", 1, 0L);
+    }
+}
@@ -0,0 +1,69 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import pl.empik.complaintservice.model.Complaint;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.repository.ComplaintRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+class ComplaintServiceConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS = 2000;
+    private static final String TEST_IP_ADDRESS = "192.168.1.1";
+
+    @Autowired
+    private ComplaintService complaintService;
+
+    @Autowired
+    private ComplaintRepository complaintRepository;
+
+    @MockitoBean
+    private GeolocationService geolocationService;
+
+    @Test
+    void createComplaint_ParallelDuplicates_ShouldNotLoseIncrements() throws Exception {
+        // given
+        when(geolocationService.getCountryFromIp(anyString())).thenReturn("Poland");
+        ComplaintRequest request = new ComplaintRequest("product-" + UUID.randomUUID(), "Defective product", "user1");
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // when
+        try {
+            for (int i = 0; i < REQUESTS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return complaintService.createComplaint(request, TEST_IP_ADDRESS);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // then
+        Complaint complaint = complaintRepository.findByProductIdAndReportedBy(request.productId(), request.reportedBy())
+                .orElseThrow();
+        assertEquals(REQUESTS, complaint.getCounter());
+    }
+}
@@ -1,34 +1,62 @@
 package pl.empik.complaintservice.service;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.domain.Limit;
 import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.ComplaintModifiedException;
 import pl.empik.complaintservice.exception.ComplaintNotFoundException;
+import pl.empik.complaintservice.exception.InvalidComplaintQueryException;
 import pl.empik.complaintservice.model.Complaint;
+import pl.empik.complaintservice.model.ComplaintField;
+import pl.empik.complaintservice.model.ComplaintFilter;
+import pl.empik.complaintservice.model.ComplaintPage;
 import pl.empik.complaintservice.model.ComplaintRequest;
 import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintSearchHit;
+import pl.empik.complaintservice.model.ComplaintSearchResult;
 import pl.empik.complaintservice.model.ComplaintUpdateRequest;
-import pl.empik.complaintservice.repository.ComplaintRepository;
+import pl.empik.complaintservice.model.ComplaintVersion;
+import pl.empik.complaintservice.repository.ComplaintStore;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class ComplaintServiceTest {
 
     @Mock
-    private ComplaintRepository complaintRepository;
+    private ComplaintStore complaintStore;
     @Mock
     private GeolocationService geolocationService;
+    @Mock
+    private GeolocationEnrichmentService geolocationEnrichmentService;
+    @Mock
+    private ComplaintCounterBuffer complaintCounterBuffer;
+    @Mock
+    private ComplaintStatistics complaintStatistics;
+    @Mock
+    private ComplaintSearchIndex complaintSearchIndex;
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @Spy
+    private ComplaintCache complaintCache = new ComplaintCache(new ConcurrentMapCacheManager());
     @InjectMocks
     private ComplaintService complaintService;
 
@@ -36,27 +64,130 @@ class ComplaintServiceTest {
     private static final String TEST_COUNTRY = "United States";
 
     @Test
-    void getAllComplaints_ShouldReturnAllComplaints() {
+    void getComplaints_ShouldReturnMatchingComplaintsWithoutLoadingEntities() {
         // given
-        Complaint complaint1 = createTestComplaint(1L, "product1", "Defective product", "user1", "Poland", 1);
-        Complaint complaint2 = createTestComplaint(2L, "product2", "Missing parts", "user2", "Germany", 1);
-        when(complaintRepository.findAll()).thenReturn(Arrays.asList(complaint1, complaint2));
+        ComplaintFilter filter = new ComplaintFilter(null, null, "Poland", null, null, 2);
+        Set<ComplaintField> fields = ComplaintField.parse(List.of("productId"));
+        ComplaintResponse complaint1 = new ComplaintResponse(1L, "product1", null, null, null, null, 2, 1L);
+        ComplaintResponse complaint2 = new ComplaintResponse(2L, "product2", null, null, null, null, 3, 2L);
+        when(complaintStore.findProjected(filter, fields, null, Limit.unlimited()))
+                .thenReturn(Arrays.asList(complaint1, complaint2));
 
         // when
-        List<ComplaintResponse> result = complaintService.getAllComplaints();
+        List<ComplaintResponse> result = complaintService.getComplaints(filter, fields);
 
         // then
         assertEquals(2, result.size());
         assertEquals("product1", result.get(0).productId());
         assertEquals("product2", result.get(1).productId());
-        verify(complaintRepository, times(1)).findAll();
+        verify(complaintStore).findProjected(filter, fields, null, Limit.unlimited());
+        verifyNoMoreInteractions(complaintStore);
+    }
+
+    @Test
+    void getComplaints_WithWriteBehind_ShouldAddBufferedIncrements() {
+        // given
+        ComplaintResponse complaint1 = new ComplaintResponse(1L, null, null, null, null, null, 2, 1L);
+        ComplaintResponse complaint2 = new ComplaintResponse(2L, null, null, null, null, null, 3, 2L);
+        ComplaintResponse buffered1 = new ComplaintResponse(1L, null, null, null, null, null, 5, 1L);
+        when(complaintStore.findProjected(ComplaintFilter.NONE, ComplaintField.ALL, null, Limit.unlimited()))
+                .thenReturn(Arrays.asList(complaint1, complaint2));
+        when(complaintCounterBuffer.isEnabled()).thenReturn(true);
+        when(complaintCounterBuffer.overlayCounter(complaint1)).thenReturn(buffered1);
+        when(complaintCounterBuffer.overlayCounter(complaint2)).thenReturn(complaint2);
+
+        // when
+        List<ComplaintResponse> result = complaintService.getComplaints(ComplaintFilter.NONE, ComplaintField.ALL);
+
+        // then
+        assertEquals(List.of(buffered1, complaint2), result);
+    }
+
+    @Test
+    void getComplaintsPage_WithMoreRows_ShouldReturnCursorOfLastItem() {
+        // given
+        ComplaintResponse complaint1 = createTestComplaintResponse(11L, "product1", "Defective product", "user1", "Poland");
+        ComplaintResponse complaint2 = createTestComplaintResponse(12L, "product2", "Missing parts", "user2", "Germany");
+        ComplaintResponse complaint3 = createTestComplaintResponse(13L, "product3", "Wrong color", "user3", "Spain");
+        when(complaintStore.findProjected(ComplaintFilter.NONE, ComplaintField.ALL, 10L, Limit.of(3)))
+                .thenReturn(Arrays.asList(complaint1, complaint2, complaint3));
+
+        // when
+        ComplaintPage result = complaintService.getComplaintsPage(ComplaintFilter.NONE, ComplaintField.ALL, 10L, 2);
+
+        // then
+        assertEquals(2, result.items().size());
+        assertEquals(12L, result.nextCursor());
+    }
+
+    @Test
+    void getComplaintsPage_WithWriteBehind_ShouldAddBufferedIncrementsToItems() {
+        // given
+        ComplaintResponse complaint1 = createTestComplaintResponse(11L, "product1", "Defective product", "user1", "Poland");
+        ComplaintResponse complaint2 = createTestComplaintResponse(12L, "product2", "Missing parts", "user2", "Germany");
+        ComplaintResponse buffered2 = new ComplaintResponse(12L, "product2", "Missing parts", complaint2.createdAt(),
+                "user2", "Germany", complaint2.counter() + 4, complaint2.version());
+        when(complaintStore.findProjected(ComplaintFilter.NONE, ComplaintField.ALL, null, Limit.of(3)))
+                .thenReturn(Arrays.asList(complaint1, complaint2));
+        when(complaintCounterBuffer.isEnabled()).thenReturn(true);
+        when(complaintCounterBuffer.overlayCounter(complaint1)).thenReturn(complaint1);
+        when(complaintCounterBuffer.overlayCounter(complaint2)).thenReturn(buffered2);
+
+        // when
+        ComplaintPage result = complaintService.getComplaintsPage(ComplaintFilter.NONE, ComplaintField.ALL, null, 2);
+
+        // then
+        assertEquals(List.of(complaint1, buffered2), result.items());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void getComplaintsPage_LastPage_ShouldReturnNullCursor() {
+        // given
+        ComplaintResponse complaint = createTestComplaintResponse(1L, "product1", "Defective product", "user1", "Poland");
+        when(complaintStore.findProjected(ComplaintFilter.NONE, ComplaintField.ALL, null,
+                Limit.of(ComplaintConstants.MAX_PAGE_LIMIT + 1)))
+                .thenReturn(List.of(complaint));
+
+        // when
+        ComplaintPage result = complaintService.getComplaintsPage(ComplaintFilter.NONE, ComplaintField.ALL, null, 100_000);
+
+        // then
+        assertEquals(1, result.items().size());
+        assertNull(result.nextCursor());
+    }
+
+    @Test
+    void searchComplaints_ShouldReturnComplaintsInHitOrder() {
+        // given
+        ComplaintResponse complaint1 = createTestComplaintResponse(1L, "product1", "Screen cracked", "user1", "Poland");
+        ComplaintResponse complaint2 = createTestComplaintResponse(2L, "product2", "Screen cracked on arrival", "user2", "Germany");
+        when(complaintSearchIndex.search("screen cracked", 20))
+                .thenReturn(List.of(new ComplaintSearchHit(2L, 2.5f), new ComplaintSearchHit(1L, 1.5f)));
+        when(complaintStore.findAllById(List.of(2L, 1L))).thenReturn(List.of(complaint1, complaint2));
+
+        // when
+        List<ComplaintSearchResult> result = complaintService.searchComplaints("screen cracked", 20);
+
+        // then
+        assertEquals(2, result.size());
+        assertEquals(2L, result.get(0).complaint().id());
+        assertEquals(2.5f, result.get(0).score());
+        assertEquals(1L, result.get(1).complaint().id());
+    }
+
+    @Test
+    void searchComplaints_BlankQuery_ShouldThrowException() {
+        // when & then
+        assertThrows(InvalidComplaintQueryException.class, () -> complaintService.searchComplaints(" ", 20));
+        verifyNoInteractions(complaintSearchIndex);
     }
 
     @Test
     void getComplaintById_WithValidId_ShouldReturnComplaint() {
         // given
         Complaint complaint = createTestComplaint(1L, "product1", "Defective product", "user1", "Poland", 1);
-        when(complaintRepository.findById(1L)).thenReturn(Optional.of(complaint));
+        when(complaintStore.findById(1L)).thenReturn(Optional.of(ComplaintResponse.fromEntity(complaint)));
 
         // when
         ComplaintResponse result = complaintService.getComplaintById(1L);
@@ -66,14 +197,29 @@ class ComplaintServiceTest {
         assertEquals("product1", result.productId());
         assertEquals("Defective product", result.content());
         assertEquals("user1", result.reportedBy());
-        verify(complaintRepository, times(1)).findById(1L);
+        verify(complaintStore, times(1)).findById(1L);
+    }
+
+    @Test
+    void getComplaintById_RepeatedLookup_ShouldBeServedFromCache() {
+        // given
+        Complaint complaint = createTestComplaint(1L, "product1", "Defective product", "user1", "Poland", 1);
+        when(complaintStore.findById(1L)).thenReturn(Optional.of(ComplaintResponse.fromEntity(complaint)));
+
+        // when
+        ComplaintResponse first = complaintService.getComplaintById(1L);
+        ComplaintResponse second = complaintService.getComplaintById(1L);
+
+        // then
+        assertEquals(first, second);
+        verify(complaintStore, times(1)).findById(1L);
     }
 
     @Test
     void getComplaintById_WithInvalidId_ShouldThrowException() {
         // given
         Long invalidId = 999L;
-        when(complaintRepository.findById(invalidId)).thenReturn(Optional.empty());
+        when(complaintStore.findById(invalidId)).thenReturn(Optional.empty());
 
         // when & then
         ComplaintNotFoundException exception = assertThrows(
@@ -82,7 +228,7 @@ class ComplaintServiceTest {
         );
 
         assertEquals(ComplaintConstants.COMPLAINT_NOT_FOUND_MESSAGE + invalidId, exception.getMessage());
-        verify(complaintRepository, times(1)).findById(invalidId);
+        verify(complaintStore, times(1)).findById(invalidId);
     }
 
     @Test
@@ -90,15 +236,12 @@ class ComplaintServiceTest {
         // given
         ComplaintRequest request = createTestComplaintRequest("product3", "Wrong color", "user3");
         when(geolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
-        when(complaintRepository.findByProductIdAndReportedBy(
-                request.productId(),
-                request.reportedBy()
-        )).thenReturn(Optional.empty());
 
-        Complaint savedComplaint = createTestComplaint(3L, request.productId(), request.content(),
-                request.reportedBy(), TEST_COUNTRY, 1);
+        ComplaintResponse upsertedComplaint = ComplaintResponse.fromEntity(createTestComplaint(3L, request.productId(),
+                request.content(), request.reportedBy(), TEST_COUNTRY, 1));
 
-        when(complaintRepository.save(any(Complaint.class))).thenReturn(savedComplaint);
+        when(complaintStore.upsertIncrement(eq(request.productId()), eq(request.content()),
+                eq(request.reportedBy()), eq(TEST_COUNTRY), any(LocalDateTime.class))).thenReturn(upsertedComplaint);
 
         // when
         ComplaintResponse result = complaintService.createComplaint(request, TEST_IP_ADDRESS);
@@ -110,13 +253,33 @@ class ComplaintServiceTest {
         assertEquals(request.reportedBy(), result.reportedBy());
         assertEquals(TEST_COUNTRY, result.country());
         assertEquals(1, result.counter());
+        assertEquals(1, meterRegistry.timer("complaints.create", "outcome", "created").count());
+        verify(complaintStatistics).record(eq(request.productId()), eq(TEST_COUNTRY), eq(1L), any(LocalDateTime.class));
+        verify(complaintSearchIndex).index(3L, request.content());
 
         verify(geolocationService, times(1)).getCountryFromIp(TEST_IP_ADDRESS);
-        verify(complaintRepository, times(1)).findByProductIdAndReportedBy(
-                request.productId(),
-                request.reportedBy()
-        );
-        verify(complaintRepository, times(1)).save(any(Complaint.class));
+        verify(complaintStore, times(1)).upsertIncrement(eq(request.productId()), eq(request.content()),
+                eq(request.reportedBy()), eq(TEST_COUNTRY), any(LocalDateTime.class));
+        verify(complaintStore, never()).updateContent(any(), any(), any());
+    }
+
+    @Test
+    void createComplaint_WhenStoreFails_ShouldTimeErrorOutcome() {
+        // given
+        ComplaintRequest request = createTestComplaintRequest("product1", "Defective product", "user1");
+        when(geolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
+        when(complaintStore.upsertIncrement(eq(request.productId()), eq(request.content()),
+                eq(request.reportedBy()), eq(TEST_COUNTRY), any(LocalDateTime.class)))
+                .thenThrow(new DataAccessResourceFailureException("Database down"));
+
+        // when
+        assertThrows(DataAccessResourceFailureException.class,
+                () -> complaintService.createComplaint(request, TEST_IP_ADDRESS));
+
+        // then
+        assertEquals(1, meterRegistry.timer("complaints.create", "outcome", "error").count());
+        assertEquals(0, meterRegistry.timer("complaints.create", "outcome", "created").count());
+        verify(complaintStatistics, never()).record(any(), any(), anyLong(), any());
     }
 
     @Test
@@ -126,22 +289,19 @@ class ComplaintServiceTest {
         Complaint existingComplaint = createTestComplaint(1L, "product1", "Original content", "user1", "Poland", 1);
 
         when(geolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
-        when(complaintRepository.findByProductIdAndReportedBy(
-                request.productId(),
-                request.reportedBy()
-        )).thenReturn(Optional.of(existingComplaint));
 
-        Complaint incrementedComplaint = createTestComplaint(
+        ComplaintResponse incrementedComplaint = ComplaintResponse.fromEntity(createTestComplaint(
                 existingComplaint.getId(),
                 existingComplaint.getProductId(),
                 existingComplaint.getContent(),
                 existingComplaint.getReportedBy(),
                 existingComplaint.getCountry(),
                 existingComplaint.getCounter() + 1
-        );
+        ));
         int originalCounter = existingComplaint.getCounter();
 
-        when(complaintRepository.save(any(Complaint.class))).thenReturn(incrementedComplaint);
+        when(complaintStore.upsertIncrement(eq(request.productId()), eq(request.content()),
+                eq(request.reportedBy()), eq(TEST_COUNTRY), any(LocalDateTime.class))).thenReturn(incrementedComplaint);
 
         // when
         ComplaintResponse result = complaintService.createComplaint(request, TEST_IP_ADDRESS);
@@ -153,46 +313,181 @@ class ComplaintServiceTest {
         assertEquals(existingComplaint.getReportedBy(), result.reportedBy());
         assertEquals(existingComplaint.getCountry(), result.country());
         assertEquals(originalCounter + 1, result.counter());
+        assertEquals(1, meterRegistry.timer("complaints.create", "outcome", "duplicate").count());
+        verify(complaintCache).evict(existingComplaint.getId());
+        verify(complaintSearchIndex, never()).index(any(), any());
+        verify(complaintStatistics).record(eq("product1"), eq("Poland"), eq(1L), any(LocalDateTime.class));
 
         verify(geolocationService, times(1)).getCountryFromIp(TEST_IP_ADDRESS);
-        verify(complaintRepository, times(1)).findByProductIdAndReportedBy(
-                request.productId(),
-                request.reportedBy()
-        );
-        verify(complaintRepository, times(1)).save(any(Complaint.class));
+        verify(complaintStore, times(1)).upsertIncrement(eq(request.productId()), eq(request.content()),
+                eq(request.reportedBy()), eq(TEST_COUNTRY), any(LocalDateTime.class));
+        verify(complaintStore, never()).updateContent(any(), any(), any());
     }
 
     @Test
-    void updateComplaint_WithValidId_ShouldUpdateContent() {
+    void createComplaint_AsyncEnrichment_ShouldPersistPendingCountryAndSubmit() {
         // given
-        Complaint existingComplaint = createTestComplaint(1L, "product1", "Original content", "user1", "Poland", 1);
-        ComplaintUpdateRequest updateRequest = createTestUpdateRequest();
+        ComplaintRequest request = createTestComplaintRequest("product3", "Wrong color", "user3");
+        when(geolocationEnrichmentService.tryReserve()).thenReturn(true);
 
-        when(complaintRepository.findById(1L)).thenReturn(Optional.of(existingComplaint));
+        ComplaintResponse upsertedComplaint = ComplaintResponse.fromEntity(createTestComplaint(3L, request.productId(),
+                request.content(), request.reportedBy(), ComplaintConstants.PENDING_COUNTRY, 1));
 
-        Complaint updatedComplaint = createTestComplaint(
-                existingComplaint.getId(),
-                existingComplaint.getProductId(),
-                updateRequest.content(),
-                existingComplaint.getReportedBy(),
-                existingComplaint.getCountry(),
-                existingComplaint.getCounter()
-        );
+        when(complaintStore.upsertIncrement(eq(request.productId()), eq(request.content()),
+                eq(request.reportedBy()), eq(ComplaintConstants.PENDING_COUNTRY), any(LocalDateTime.class)))
+                .thenReturn(upsertedComplaint);
 
-        when(complaintRepository.save(any(Complaint.class))).thenReturn(updatedComplaint);
+        // when
+        ComplaintResponse result = complaintService.createComplaint(request, TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(ComplaintConstants.PENDING_COUNTRY, result.country());
+        verify(geolocationService, never()).getCountryFromIp(any());
+        verify(geolocationEnrichmentService, times(1)).submit(3L, TEST_IP_ADDRESS);
+    }
+
+    @Test
+    void createComplaint_AsyncEnrichmentWithExistingComplaint_ShouldReleaseReservation() {
+        // given
+        ComplaintRequest request = createTestComplaintRequest("product1", "Ignored content", "user1");
+        ComplaintResponse incrementedComplaint = ComplaintResponse.fromEntity(
+                createTestComplaint(1L, "product1", "Original content", "user1", "Poland", 2));
+
+        when(geolocationEnrichmentService.tryReserve()).thenReturn(true);
+        when(complaintStore.upsertIncrement(eq(request.productId()), eq(request.content()),
+                eq(request.reportedBy()), eq(ComplaintConstants.PENDING_COUNTRY), any(LocalDateTime.class)))
+                .thenReturn(incrementedComplaint);
+
+        // when
+        ComplaintResponse result = complaintService.createComplaint(request, TEST_IP_ADDRESS);
+
+        // then
+        assertEquals("Poland", result.country());
+        verify(geolocationEnrichmentService, times(1)).release();
+        verify(geolocationEnrichmentService, never()).submit(any(), any());
+    }
+
+    @Test
+    void createComplaint_BufferedDuplicate_ShouldSkipGeolocationAndDatabase() {
+        // given
+        ComplaintRequest request = createTestComplaintRequest("product1", "Ignored content", "user1");
+        ComplaintResponse bufferedComplaint = ComplaintResponse.fromEntity(
+                createTestComplaint(1L, "product1", "Original content", "user1", "Poland", 5));
+
+        when(complaintCounterBuffer.isEnabled()).thenReturn(true);
+        when(complaintCounterBuffer.increment(request.productId(), request.reportedBy())).thenReturn(bufferedComplaint);
+
+        // when
+        ComplaintResponse result = complaintService.createComplaint(request, TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(5, result.counter());
+        verifyNoInteractions(geolocationService, complaintStore);
+        verify(complaintStatistics).record(eq("product1"), eq("Poland"), eq(1L), any(LocalDateTime.class));
+    }
+
+    @Test
+    void createComplaint_WriteBehindWithUnbufferedComplaint_ShouldUpsertAndRegister() {
+        // given
+        ComplaintRequest request = createTestComplaintRequest("product3", "Wrong color", "user3");
+        ComplaintResponse upsertedComplaint = ComplaintResponse.fromEntity(createTestComplaint(3L, request.productId(),
+                request.content(), request.reportedBy(), TEST_COUNTRY, 1));
+
+        when(complaintCounterBuffer.isEnabled()).thenReturn(true);
+        when(geolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
+        when(complaintStore.upsertIncrement(eq(request.productId()), eq(request.content()),
+                eq(request.reportedBy()), eq(TEST_COUNTRY), any(LocalDateTime.class))).thenReturn(upsertedComplaint);
+
+        // when
+        ComplaintResponse result = complaintService.createComplaint(request, TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(upsertedComplaint, result);
+        verify(complaintCounterBuffer, times(1)).register(upsertedComplaint);
+    }
+
+    @Test
+    void updateComplaint_WithValidId_ShouldUpdateContent() {
+        // given
+        ComplaintUpdateRequest updateRequest = createTestUpdateRequest();
+        ComplaintResponse updatedComplaint = createTestComplaintResponse(
+                1L, "product1", updateRequest.content(), "user1", "Poland");
+        when(complaintStore.updateContent(1L, updateRequest.content(), null)).thenReturn(Optional.of(updatedComplaint));
 
         // when
         ComplaintResponse result = complaintService.updateComplaint(1L, updateRequest);
 
         // then
         assertNotNull(result);
-        assertEquals(existingComplaint.getId(), result.id());
-        assertEquals(existingComplaint.getProductId(), result.productId());
+        assertEquals(1L, result.id());
+        assertEquals("product1", result.productId());
         assertEquals(updateRequest.content(), result.content());
-        assertEquals(existingComplaint.getReportedBy(), result.reportedBy());
+        assertEquals("user1", result.reportedBy());
+
+        verify(complaintStore, times(1)).updateContent(1L, updateRequest.content(), null);
+        verify(complaintSearchIndex).index(1L, updateRequest.content());
+    }
+
+    @Test
+    void updateComplaint_AfterCachedLookup_ShouldEvictStaleContent() {
+        // given
+        Complaint complaint = createTestComplaint(1L, "product1", "Original content", "user1", "Poland", 1);
+        ComplaintResponse updatedComplaint = createTestComplaintResponse(
+                1L, "product1", createTestUpdateRequest().content(), "user1", "Poland");
+        when(complaintStore.findById(1L)).thenReturn(Optional.of(ComplaintResponse.fromEntity(complaint)),
+                Optional.of(updatedComplaint));
+        when(complaintStore.updateContent(1L, createTestUpdateRequest().content(), null))
+                .thenReturn(Optional.of(updatedComplaint));
+        complaintService.getComplaintById(1L);
+
+        // when
+        complaintService.updateComplaint(1L, createTestUpdateRequest());
+        ComplaintResponse result = complaintService.getComplaintById(1L);
+
+        // then
+        assertEquals(createTestUpdateRequest().content(), result.content());
+        verify(complaintCache).evict(1L);
+    }
+
+    @Test
+    void updateComplaint_WithStaleExpectedVersion_ShouldThrowWithoutIndexing() {
+        // given
+        when(complaintStore.updateContent(1L, createTestUpdateRequest().content(), 2L))
+                .thenThrow(new ComplaintModifiedException(ComplaintConstants.COMPLAINT_MODIFIED_MESSAGE + 2L));
 
-        verify(complaintRepository, times(1)).findById(1L);
-        verify(complaintRepository, times(1)).save(any(Complaint.class));
+        // when & then
+        assertThrows(ComplaintModifiedException.class,
+                () -> complaintService.updateComplaint(1L, createTestUpdateRequest(), 2L));
+        verify(complaintCache, never()).evict(1L);
+        verify(complaintSearchIndex, never()).index(any(), any());
+    }
+
+    @Test
+    void getComplaintVersion_NotCached_ShouldQueryVersionWithoutLoadingComplaint() {
+        // given
+        when(complaintStore.findVersionById(1L)).thenReturn(Optional.of(new ComplaintVersion(1L, 4L, 2)));
+
+        // when
+        ComplaintVersion result = complaintService.getComplaintVersion(1L);
+
+        // then
+        assertEquals(new ComplaintVersion(1L, 4L, 2), result);
+        verify(complaintStore, never()).findById(1L);
+    }
+
+    @Test
+    void getComplaintVersion_Cached_ShouldNotQueryDatabase() {
+        // given
+        Complaint complaint = createTestComplaint(1L, "product1", "Defective product", "user1", "Poland", 1);
+        when(complaintStore.findById(1L)).thenReturn(Optional.of(ComplaintResponse.fromEntity(complaint)));
+        complaintService.getComplaintById(1L);
+
+        // when
+        ComplaintVersion result = complaintService.getComplaintVersion(1L);
+
+        // then
+        assertEquals(new ComplaintVersion(1L, 0L, 1), result);
+        verify(complaintStore, never()).findVersionById(1L);
     }
 
     @Test
@@ -200,7 +495,7 @@ class ComplaintServiceTest {
         // given
         Long invalidId = 999L;
         ComplaintUpdateRequest updateRequest = createTestUpdateRequest();
-        when(complaintRepository.findById(invalidId)).thenReturn(Optional.empty());
+        when(complaintStore.updateContent(invalidId, updateRequest.content(), null)).thenReturn(Optional.empty());
 
         // when & then
         ComplaintNotFoundException exception = assertThrows(
@@ -209,8 +504,8 @@ class ComplaintServiceTest {
         );
 
         assertEquals(ComplaintConstants.COMPLAINT_NOT_FOUND_MESSAGE + invalidId, exception.getMessage());
-        verify(complaintRepository, times(1)).findById(invalidId);
-        verify(complaintRepository, never()).save(any(Complaint.class));
+        verify(complaintStore, times(1)).updateContent(invalidId, updateRequest.content(), null);
+        verify(complaintSearchIndex, never()).index(any(), any());
     }
 
     private Complaint createTestComplaint(Long id, String productId, String content, String reportedBy, String country, int counter) {
@@ -222,9 +517,14 @@ class ComplaintServiceTest {
                 .reportedBy(reportedBy)
                 .country(country)
                 .counter(counter)
+                .version(0L)
                 .build();
     }
 
+    private ComplaintResponse createTestComplaintResponse(Long id, String productId, String content, String reportedBy, String country) {
+        return ComplaintResponse.fromEntity(createTestComplaint(id, productId, content, reportedBy, country, 1));
+    }
+
     private ComplaintRequest createTestComplaintRequest(String productId, String content, String reportedBy) {
         return new ComplaintRequest(productId, content, reportedBy);
     }
@@ -0,0 +1,122 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.model.ComplaintCountBucket;
+import pl.empik.complaintservice.model.ComplaintTotal;
+import pl.empik.complaintservice.model.CountryComplaintCount;
+import pl.empik.complaintservice.model.ProductComplaintCount;
+import pl.empik.complaintservice.repository.ComplaintStore;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ComplaintStatisticsTest {
+
+    private static final LocalDateTime NOON = LocalDateTime.of(2025, 3, 10, 12, 0);
+
+    @Mock
+    private ComplaintStore complaintStore;
+
+    private ComplaintStatistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = new ComplaintStatistics(complaintStore, Duration.ofHours(1), Duration.ofDays(1));
+    }
+
+    @Test
+    void constructor_BucketShorterThanOneSecond_ShouldBeRejected() {
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new ComplaintStatistics(complaintStore, Duration.ofMillis(500), Duration.ofDays(1)));
+
+        // then
+        assertTrue(exception.getMessage().startsWith("complaints.stats.bucket"));
+    }
+
+    @Test
+    void constructor_RetentionShorterThanOneBucket_ShouldBeRejected() {
+        // when
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> new ComplaintStatistics(complaintStore, Duration.ofHours(1), Duration.ofMinutes(30)));
+
+        // then
+        assertTrue(exception.getMessage().startsWith("complaints.stats.retention"));
+    }
+
+    @Test
+    void load_ShouldSeedTotalsFromDatabase() {
+        // given
+        when(complaintStore.sumCountersByProductAndCountry()).thenReturn(List.of(
+                new ComplaintTotal("product1", "Poland", 3),
+                new ComplaintTotal("product1", "Germany", 4),
+                new ComplaintTotal("product2", "Poland", 5)));
+
+        // when
+        statistics.load();
+
+        // then
+        assertEquals(List.of(new ProductComplaintCount("product1", 7), new ProductComplaintCount("product2", 5)),
+                statistics.getTopProducts(10));
+        assertEquals(List.of(new CountryComplaintCount("Poland", 8), new CountryComplaintCount("Germany", 4)),
+                statistics.getCountries());
+    }
+
+    @Test
+    void getTopProducts_ShouldFollowIncrementsAndRespectLimit() {
+        // given
+        statistics.record("product1", "Poland", 2, NOON);
+        statistics.record("product2", "Poland", 3, NOON);
+        statistics.record("product3", "Poland", 1, NOON);
+
+        // when
+        statistics.record("product1", "Poland", 2, NOON);
+        List<ProductComplaintCount> result = statistics.getTopProducts(2);
+
+        // then
+        assertEquals(List.of(new ProductComplaintCount("product1", 4), new ProductComplaintCount("product2", 3)), result);
+    }
+
+    @Test
+    void moveCountry_ShouldReassignPendingReports() {
+        // given
+        statistics.record("product1", ComplaintConstants.PENDING_COUNTRY, 3, NOON);
+
+        // when
+        statistics.moveCountry(ComplaintConstants.PENDING_COUNTRY, "Poland", 3);
+
+        // then
+        assertEquals(List.of(new CountryComplaintCount("Poland", 3)), statistics.getCountries());
+    }
+
+    @Test
+    void getTimeline_ShouldReturnEveryBucketOfPeriodWithinRetention() {
+        // given
+        statistics.record("product1", "Poland", 2, NOON.plusMinutes(10));
+        statistics.record("product2", "Poland", 1, NOON.plusMinutes(50));
+        statistics.record("product1", "Poland", 4, NOON.plusHours(2));
+
+        // when
+        List<ComplaintCountBucket> result = statistics.getTimeline(NOON.minusDays(7), NOON.plusHours(3));
+
+        // then
+        assertEquals(24, result.size());
+        assertEquals(new ComplaintCountBucket(NOON.minusHours(21), 0), result.get(0));
+        assertEquals(List.of(
+                new ComplaintCountBucket(NOON, 3),
+                new ComplaintCountBucket(NOON.plusHours(1), 0),
+                new ComplaintCountBucket(NOON.plusHours(2), 4)), result.subList(21, 24));
+    }
+}
@@ -0,0 +1,58 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.model.ComplaintUpdateRequest;
+import pl.empik.complaintservice.model.ComplaintVersion;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the complaint service with write-behind buffering against the database and the complaint cache.
+ */
+@SpringBootTest(properties = {
+        "complaints.write-behind.enabled=true",
+        "complaints.write-behind.flush-interval=PT1H"
+})
+class ComplaintWriteBehindTest {
+
+    private static final String TEST_IP_ADDRESS = "192.168.1.1";
+
+    @Autowired
+    private ComplaintService complaintService;
+
+    @Autowired
+    private ComplaintCounterBuffer complaintCounterBuffer;
+
+    @MockitoBean
+    private GeolocationService geolocationService;
+
+    @Test
+    void updateComplaint_WithVersionReadAfterFlush_ShouldMatchFlushedVersion() {
+        // given
+        when(geolocationService.getCountryFromIp(anyString())).thenReturn("Poland");
+        ComplaintRequest request = new ComplaintRequest("product-" + UUID.randomUUID(), "Defective product", "user1");
+        ComplaintResponse created = complaintService.createComplaint(request, TEST_IP_ADDRESS);
+        complaintService.createComplaint(request, TEST_IP_ADDRESS);
+        complaintService.getComplaintById(created.id());
+        complaintCounterBuffer.flush();
+
+        // when
+        ComplaintVersion version = complaintService.getComplaintVersion(created.id());
+        ComplaintResponse updated = complaintService.updateComplaint(created.id(),
+                new ComplaintUpdateRequest("Updated content"), version.version());
+
+        // then
+        assertEquals(created.version() + 1, version.version());
+        assertEquals(2, updated.counter());
+        assertEquals("Updated content", updated.content());
+    }
+}
@@ -0,0 +1,150 @@
+package pl.empik.complaintservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.GeolocationUnavailableException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GeolocationBatchResolverTest {
+
+    private static final String TEST_BATCH_URL = "http://ip-api.com/batch";
+    private static final Map<String, String> COUNTRIES = Map.of(
+            "8.8.8.8", "United States",
+            "1.1.1.1", "Australia");
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("geolocation", 1, Duration.ofMinutes(1));
+    private final ExecutorService callers = Executors.newFixedThreadPool(4);
+    private GeolocationBatchResolver resolver;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (resolver != null) {
+            resolver.stop();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolve_ConcurrentLookups_ShouldShareOneBatchCall() throws Exception {
+        // given
+        resolver = createResolver(Duration.ofMillis(500), 100, 15);
+        when(restTemplate.postForEntity(eq(TEST_BATCH_URL), any(), eq(JsonNode.class)))
+                .thenAnswer(invocation -> respond(invocation.getArgument(1)));
+
+        // when
+        List<CompletableFuture<String>> results = List.of(
+                CompletableFuture.supplyAsync(() -> resolver.resolve("8.8.8.8"), callers),
+                CompletableFuture.supplyAsync(() -> resolver.resolve("1.1.1.1"), callers),
+                CompletableFuture.supplyAsync(() -> resolver.resolve("8.8.8.8"), callers),
+                CompletableFuture.supplyAsync(() -> resolver.resolve("10.0.0.1"), callers));
+
+        // then
+        assertEquals("United States", results.get(0).get(5, TimeUnit.SECONDS));
+        assertEquals("Australia", results.get(1).get(5, TimeUnit.SECONDS));
+        assertEquals("United States", results.get(2).get(5, TimeUnit.SECONDS));
+        assertEquals(ComplaintConstants.UNKNOWN_COUNTRY, results.get(3).get(5, TimeUnit.SECONDS));
+
+        ArgumentCaptor<List<String>> ipAddresses = ArgumentCaptor.forClass(List.class);
+        verify(restTemplate, times(1)).postForEntity(eq(TEST_BATCH_URL), ipAddresses.capture(), eq(JsonNode.class));
+        assertEquals(3, ipAddresses.getValue().size());
+        assertEquals(1, meterRegistry.timer("geolocation.batch", "outcome", "success").count());
+        assertEquals(3, meterRegistry.summary("geolocation.batch.size").totalAmount());
+    }
+
+    @Test
+    void resolve_FullBatch_ShouldBeSentWithoutWaitingForWindow() throws Exception {
+        // given
+        resolver = createResolver(Duration.ofHours(1), 2, 15);
+        when(restTemplate.postForEntity(eq(TEST_BATCH_URL), any(), eq(JsonNode.class)))
+                .thenAnswer(invocation -> respond(invocation.getArgument(1)));
+
+        // when
+        CompletableFuture<String> first = CompletableFuture.supplyAsync(() -> resolver.resolve("8.8.8.8"), callers);
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(() -> resolver.resolve("1.1.1.1"), callers);
+
+        // then
+        assertEquals("United States", first.get(5, TimeUnit.SECONDS));
+        assertEquals("Australia", second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void resolve_RateLimited_ShouldFailWithoutCallingApi() {
+        // given
+        resolver = createResolver(Duration.ofMillis(1), 100, 0);
+
+        // when & then
+        assertThrows(GeolocationUnavailableException.class, () -> resolver.resolve("8.8.8.8"));
+        assertEquals(1, meterRegistry.timer("geolocation.batch", "outcome", "rate_limited").count());
+        verify(restTemplate, never()).postForEntity(any(String.class), any(), eq(JsonNode.class));
+    }
+
+    @Test
+    void resolve_ApiError_ShouldFailAndOpenCircuit() {
+        // given
+        resolver = createResolver(Duration.ofMillis(1), 100, 15);
+        when(restTemplate.postForEntity(eq(TEST_BATCH_URL), any(), eq(JsonNode.class)))
+                .thenThrow(new RestClientException("Connection error"));
+
+        // when & then
+        assertThrows(GeolocationUnavailableException.class, () -> resolver.resolve("8.8.8.8"));
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, meterRegistry.timer("geolocation.batch", "outcome", "error").count());
+    }
+
+    private GeolocationBatchResolver createResolver(Duration window, int maxSize, int permits) {
+        return new GeolocationBatchResolver(restTemplate, meterRegistry, circuitBreaker,
+                new TokenBucketRateLimiter("geolocation-batch", permits, Duration.ofMinutes(1)),
+                TEST_BATCH_URL, window, maxSize, 2);
+    }
+
+    private ResponseEntity<JsonNode> respond(List<String> ipAddresses) {
+        ArrayNode results = objectMapper.createArrayNode();
+        for (String ipAddress : ipAddresses) {
+            String country = COUNTRIES.get(ipAddress);
+            if (country != null) {
+                results.addObject()
+                        .put(ComplaintConstants.JSON_STATUS, ComplaintConstants.JSON_SUCCESS)
+                        .put(ComplaintConstants.JSON_COUNTRY, country);
+            } else {
+                results.addObject().put(ComplaintConstants.JSON_STATUS, "fail");
+            }
+        }
+        return new ResponseEntity<>(results, HttpStatus.OK);
+    }
+}
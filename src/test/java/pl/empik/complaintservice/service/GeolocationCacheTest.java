@@ -0,0 +1,164 @@
+package pl.empik.complaintservice.service;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class GeolocationCacheTest {
+
+    private static final String TEST_IP_ADDRESS = "8.8.8.8";
+    private static final String TEST_COUNTRY = "United States";
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private GeolocationCache geolocationCache;
+
+    @BeforeEach
+    void setUp() {
+        geolocationCache = new GeolocationCache(2, Duration.ofMinutes(10), Duration.ofMinutes(1), ticker);
+    }
+
+    @Test
+    void get_RepeatedLookup_ShouldLoadOnceAndCountHit() {
+        // when
+        geolocationCache.get(TEST_IP_ADDRESS, this::resolve);
+        String result = geolocationCache.get(TEST_IP_ADDRESS, this::resolve);
+
+        // then
+        assertEquals(TEST_COUNTRY, result);
+        assertEquals(1, loads.get());
+        assertEquals(1, geolocationCache.stats().hitCount());
+        assertEquals(1, geolocationCache.stats().missCount());
+    }
+
+    @Test
+    void get_AfterPositiveTtl_ShouldReload() {
+        // given
+        geolocationCache.get(TEST_IP_ADDRESS, this::resolve);
+
+        // when
+        advance(Duration.ofMinutes(5));
+        geolocationCache.get(TEST_IP_ADDRESS, this::resolve);
+        advance(Duration.ofMinutes(6));
+        geolocationCache.get(TEST_IP_ADDRESS, this::resolve);
+
+        // then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_UnknownCountry_ShouldExpireAfterNegativeTtl() {
+        // given
+        geolocationCache.get(TEST_IP_ADDRESS, ip -> unknown());
+
+        // when
+        advance(Duration.ofSeconds(61));
+        geolocationCache.get(TEST_IP_ADDRESS, ip -> unknown());
+
+        // then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void get_OverMaximumSize_ShouldEvictEntries() {
+        // when
+        geolocationCache.get("1.1.1.1", this::resolve);
+        geolocationCache.get("2.2.2.2", this::resolve);
+        geolocationCache.get("3.3.3.3", this::resolve);
+        geolocationCache.cleanUp();
+
+        // then
+        assertEquals(2, geolocationCache.size());
+        assertEquals(1, geolocationCache.stats().evictionCount());
+    }
+
+    @Test
+    void get_ConcurrentLookupsOfSameIp_ShouldShareSingleLoad() throws Exception {
+        // given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // when
+        Future<String> first = executor.submit(() -> geolocationCache.get(TEST_IP_ADDRESS, ip -> {
+            loading.countDown();
+            await(release);
+            return resolve(ip);
+        }));
+        loading.await();
+        CompletableFuture<String> second = CompletableFuture.supplyAsync(
+                () -> geolocationCache.get(TEST_IP_ADDRESS, this::resolve));
+        release.countDown();
+
+        // then
+        assertEquals(TEST_COUNTRY, first.get(5, TimeUnit.SECONDS));
+        assertEquals(TEST_COUNTRY, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        executor.shutdown();
+    }
+
+    @Test
+    void get_FailedLoad_ShouldRethrowAndRetryOnNextLookup() {
+        // when
+        assertThrows(IllegalStateException.class, () -> geolocationCache.get(TEST_IP_ADDRESS, ip -> {
+            throw new IllegalStateException("Lookup failed");
+        }));
+        String result = geolocationCache.get(TEST_IP_ADDRESS, this::resolve);
+
+        // then
+        assertEquals(TEST_COUNTRY, result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_LoadFailingWithError_ShouldRethrowAndRetryOnNextLookup() {
+        // when
+        assertThrows(AssertionError.class, () -> geolocationCache.get(TEST_IP_ADDRESS, ip -> {
+            throw new AssertionError("Unexpected lookup");
+        }));
+        String result = geolocationCache.get(TEST_IP_ADDRESS, this::resolve);
+
+        // then
+        assertEquals(TEST_COUNTRY, result);
+        assertEquals(1, loads.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String resolve(String ipAddress) {
+        loads.incrementAndGet();
+        return TEST_COUNTRY;
+    }
+
+    private String unknown() {
+        loads.incrementAndGet();
+        return ComplaintConstants.UNKNOWN_COUNTRY;
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
@@ -0,0 +1,162 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.repository.ComplaintStore;
+import pl.empik.complaintservice.service.GeolocationEnrichmentService.EnrichmentTask;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GeolocationEnrichmentServiceTest {
+
+    @Mock
+    private GeolocationService geolocationService;
+    @Mock
+    private ComplaintStore complaintStore;
+    @Mock
+    private ComplaintCache complaintCache;
+    @Mock
+    private ComplaintStatistics complaintStatistics;
+
+    private GeolocationEnrichmentService enrichmentService;
+
+    @BeforeEach
+    void setUp() {
+        enrichmentService = new GeolocationEnrichmentService(geolocationService, complaintStore, complaintCache, complaintStatistics, true, 2, 100, 2,
+                Duration.ofMillis(1));
+    }
+
+    @Test
+    void tryReserve_WhenQueueIsFull_ShouldRefuse() {
+        // when
+        boolean first = enrichmentService.tryReserve();
+        boolean second = enrichmentService.tryReserve();
+        boolean third = enrichmentService.tryReserve();
+
+        // then
+        assertTrue(first);
+        assertTrue(second);
+        assertFalse(third);
+        assertEquals(1, enrichmentService.getRejectedCount());
+    }
+
+    @Test
+    void tryReserve_WhenDisabled_ShouldRefuse() {
+        // given
+        GeolocationEnrichmentService disabled =
+                new GeolocationEnrichmentService(geolocationService, complaintStore, complaintCache, complaintStatistics, false, 2, 100, 2,
+                        Duration.ofMillis(1));
+
+        // when & then
+        assertFalse(disabled.tryReserve());
+    }
+
+    @Test
+    void submit_OutsideTransaction_ShouldQueueImmediately() {
+        // given
+        enrichmentService.tryReserve();
+
+        // when
+        enrichmentService.submit(1L, "8.8.8.8");
+
+        // then
+        assertEquals(1, enrichmentService.getQueueSize());
+    }
+
+    @Test
+    void processBatch_ShouldResolveEachIpOnceAndUpdateByCountry() throws Exception {
+        // given
+        when(geolocationService.getCountryFromIp("8.8.8.8")).thenReturn("United States");
+        when(geolocationService.getCountryFromIp("1.1.1.1")).thenReturn("Australia");
+        when(complaintStore.updateCountry(anyCollection(), eq("United States"))).thenReturn(5L);
+        when(complaintStore.updateCountry(anyCollection(), eq("Australia"))).thenReturn(1L);
+
+        List<EnrichmentTask> batch = List.of(
+                new EnrichmentTask(1L, "8.8.8.8"),
+                new EnrichmentTask(2L, "1.1.1.1"),
+                new EnrichmentTask(3L, "8.8.8.8")
+        );
+
+        // when
+        enrichmentService.processBatch(batch);
+
+        // then
+        verify(geolocationService, times(1)).getCountryFromIp("8.8.8.8");
+        verify(geolocationService, times(1)).getCountryFromIp("1.1.1.1");
+        verify(complaintStore).updateCountry(argThat(ids -> ids.containsAll(List.of(1L, 3L)) && ids.size() == 2),
+                eq("United States"));
+        verify(complaintStore).updateCountry(argThat(ids -> ids.equals(List.of(2L))), eq("Australia"));
+        verify(complaintStatistics).moveCountry(ComplaintConstants.PENDING_COUNTRY, "United States", 5L);
+        verify(complaintStatistics).moveCountry(ComplaintConstants.PENDING_COUNTRY, "Australia", 1L);
+        assertEquals(3, enrichmentService.getEnrichedCount());
+    }
+
+    @Test
+    void processBatch_WhenUpdateFailsOnce_ShouldRetryAndMoveReportsOnce() throws Exception {
+        // given
+        when(geolocationService.getCountryFromIp("8.8.8.8")).thenReturn("United States");
+        when(complaintStore.updateCountry(List.of(1L), "United States"))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection is not available"))
+                .thenReturn(2L);
+
+        // when
+        enrichmentService.processBatch(List.of(new EnrichmentTask(1L, "8.8.8.8")));
+
+        // then
+        verify(complaintStore, times(2)).updateCountry(List.of(1L), "United States");
+        verify(complaintStatistics, times(1)).moveCountry(ComplaintConstants.PENDING_COUNTRY, "United States", 2L);
+        assertEquals(1, enrichmentService.getEnrichedCount());
+        assertEquals(0, enrichmentService.getFailedCount());
+    }
+
+    @Test
+    void processBatch_WhenUpdateKeepsFailing_ShouldGiveUpAndCountFailure() throws Exception {
+        // given
+        when(geolocationService.getCountryFromIp("8.8.8.8")).thenReturn("United States");
+        when(complaintStore.updateCountry(List.of(1L), "United States"))
+                .thenThrow(new CannotGetJdbcConnectionException("Connection is not available"));
+
+        // when
+        enrichmentService.processBatch(List.of(new EnrichmentTask(1L, "8.8.8.8")));
+
+        // then
+        verify(complaintStore, times(2)).updateCountry(List.of(1L), "United States");
+        verify(complaintStatistics, never()).moveCountry(anyString(), anyString(), anyLong());
+        assertEquals(1, enrichmentService.getFailedCount());
+    }
+
+    @Test
+    void processBatch_WhenResolutionFails_ShouldMarkCountryUnknown() throws Exception {
+        // given
+        when(geolocationService.getCountryFromIp(any())).thenThrow(new IllegalStateException("Resolver failed"));
+        when(complaintStore.updateCountry(List.of(1L), ComplaintConstants.UNKNOWN_COUNTRY)).thenReturn(1L);
+
+        // when
+        enrichmentService.processBatch(List.of(new EnrichmentTask(1L, "8.8.8.8")));
+
+        // then
+        verify(complaintStatistics).moveCountry(ComplaintConstants.PENDING_COUNTRY, ComplaintConstants.UNKNOWN_COUNTRY, 1L);
+        assertEquals(1, enrichmentService.getEnrichedCount());
+    }
+}
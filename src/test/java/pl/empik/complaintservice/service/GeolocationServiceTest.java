@@ -3,11 +3,13 @@ package pl.empik.complaintservice.service;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -15,10 +17,17 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.exception.GeolocationUnavailableException;
+
+import java.time.Duration;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -27,6 +36,18 @@ class GeolocationServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Spy
+    private GeolocationCache geolocationCache = new GeolocationCache(100, Duration.ofHours(1), Duration.ofMinutes(1));
+
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private TokenBucketRateLimiter geolocationRateLimiter = new TokenBucketRateLimiter("geolocation", 100, Duration.ofMinutes(1));
+
+    @Spy
+    private CircuitBreaker geolocationCircuitBreaker = new CircuitBreaker("geolocation", 2, Duration.ofMinutes(1));
+
     @InjectMocks
     private GeolocationService geolocationService;
 
@@ -55,6 +76,7 @@ class GeolocationServiceTest {
 
         // then
         assertEquals(TEST_COUNTRY, result);
+        assertEquals(1, lookupCount("success"));
     }
 
     @Test
@@ -71,6 +93,7 @@ class GeolocationServiceTest {
 
         // then
         assertEquals(ComplaintConstants.UNKNOWN_COUNTRY, result);
+        assertEquals(1, lookupCount("unknown"));
     }
 
     @Test
@@ -114,6 +137,113 @@ class GeolocationServiceTest {
 
         // then
         assertEquals(ComplaintConstants.UNKNOWN_COUNTRY, result);
+        assertEquals(1, lookupCount("error"));
+    }
+
+    @Test
+    void getCountryFromIp_RepeatedLookup_ShouldBeServedFromCache() {
+        // given
+        ResponseEntity<JsonNode> responseEntity = new ResponseEntity<>(createSuccessfulResponse(), HttpStatus.OK);
+
+        when(restTemplate.getForEntity(TEST_API_URL + TEST_IP_ADDRESS, JsonNode.class))
+                .thenReturn(responseEntity);
+
+        // when
+        String first = geolocationService.getCountryFromIp(TEST_IP_ADDRESS);
+        String second = geolocationService.getCountryFromIp(TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(TEST_COUNTRY, first);
+        assertEquals(TEST_COUNTRY, second);
+        verify(restTemplate, times(1)).getForEntity(TEST_API_URL + TEST_IP_ADDRESS, JsonNode.class);
+    }
+
+    @Test
+    void getCountryFromIp_RepeatedFailures_ShouldOpenCircuitAndFailFast() {
+        // given
+        when(restTemplate.getForEntity(anyString(), eq(JsonNode.class)))
+                .thenThrow(new RestClientException("Connection error"));
+
+        // when
+        geolocationService.getCountryFromIp("1.1.1.1");
+        geolocationService.getCountryFromIp("2.2.2.2");
+        String result = geolocationService.getCountryFromIp(TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(ComplaintConstants.UNKNOWN_COUNTRY, result);
+        assertEquals(CircuitBreaker.State.OPEN, geolocationCircuitBreaker.getState());
+        assertEquals(1, lookupCount("circuit_open"));
+        verify(restTemplate, times(2)).getForEntity(anyString(), eq(JsonNode.class));
+    }
+
+    @Test
+    void getCountryFromIp_RateLimited_ShouldReturnUnknownWithoutCaching() {
+        // given
+        when(geolocationRateLimiter.tryAcquire()).thenReturn(false, true);
+        when(restTemplate.getForEntity(TEST_API_URL + TEST_IP_ADDRESS, JsonNode.class))
+                .thenReturn(new ResponseEntity<>(createSuccessfulResponse(), HttpStatus.OK));
+
+        // when
+        String limited = geolocationService.getCountryFromIp(TEST_IP_ADDRESS);
+        String retried = geolocationService.getCountryFromIp(TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(ComplaintConstants.UNKNOWN_COUNTRY, limited);
+        assertEquals(TEST_COUNTRY, retried);
+        assertEquals(1, lookupCount("rate_limited"));
+        verify(restTemplate, times(1)).getForEntity(TEST_API_URL + TEST_IP_ADDRESS, JsonNode.class);
+    }
+
+    @Test
+    void getCountryFromIp_BatchEnabled_ShouldResolveThroughBatch() {
+        // given
+        GeolocationBatchResolver batchResolver = mock(GeolocationBatchResolver.class);
+        ReflectionTestUtils.setField(geolocationService, "batchResolver", batchResolver);
+        when(batchResolver.resolve(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
+
+        // when
+        String result = geolocationService.getCountryFromIp(TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(TEST_COUNTRY, result);
+        verify(restTemplate, never()).getForEntity(anyString(), eq(JsonNode.class));
+    }
+
+    @Test
+    void getCountryFromIp_BatchUnavailable_ShouldFallBackToSingleLookup() {
+        // given
+        GeolocationBatchResolver batchResolver = mock(GeolocationBatchResolver.class);
+        ReflectionTestUtils.setField(geolocationService, "batchResolver", batchResolver);
+        when(batchResolver.resolve(TEST_IP_ADDRESS))
+                .thenThrow(new GeolocationUnavailableException("geolocation batch API quota exhausted"));
+        when(restTemplate.getForEntity(TEST_API_URL + TEST_IP_ADDRESS, JsonNode.class))
+                .thenReturn(new ResponseEntity<>(createSuccessfulResponse(), HttpStatus.OK));
+
+        // when
+        String result = geolocationService.getCountryFromIp(TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(TEST_COUNTRY, result);
+        assertEquals(1, lookupCount("success"));
+    }
+
+    @Test
+    void getCountryFromIp_OfflineMode_ShouldUseLocalEngine() {
+        // given
+        IpRangeGeolocationEngine offlineEngine = mock(IpRangeGeolocationEngine.class);
+        ReflectionTestUtils.setField(geolocationService, "offlineEngine", offlineEngine);
+        when(offlineEngine.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(TEST_COUNTRY);
+
+        // when
+        String result = geolocationService.getCountryFromIp(TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(TEST_COUNTRY, result);
+        verify(restTemplate, never()).getForEntity(anyString(), eq(JsonNode.class));
+    }
+
+    private long lookupCount(String outcome) {
+        return meterRegistry.timer("geolocation.lookup", "outcome", outcome).count();
     }
 
     private JsonNode createSuccessfulResponse() {
@@ -0,0 +1,169 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import pl.empik.complaintservice.exception.IdempotencyKeyReusedException;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IdempotencyStoreTest {
+
+    private static final String TEST_KEY = "0b6c3f4e-2a61-4c39-9d1e-7f8a5b2c9e10";
+    private static final ComplaintRequest TEST_REQUEST = new ComplaintRequest("product1", "Defective product", "user1");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final AtomicInteger creations = new AtomicInteger();
+
+    private IdempotencyStore idempotencyStore;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyStore = new IdempotencyStore(100, Duration.ofHours(1), nanos::get);
+    }
+
+    @Test
+    void execute_RetriedWithSameKey_ShouldReplayOriginalResponse() {
+        // when
+        ComplaintResponse first = idempotencyStore.execute(TEST_KEY, TEST_REQUEST, this::create);
+        ComplaintResponse retry = idempotencyStore.execute(TEST_KEY, TEST_REQUEST, this::create);
+
+        // then
+        assertSame(first, retry);
+        assertEquals(1, creations.get());
+        assertEquals(1, idempotencyStore.stats().hitCount());
+    }
+
+    @Test
+    void execute_WithSameKeyFromAnotherReporter_ShouldCreateAgain() {
+        // when
+        idempotencyStore.execute(TEST_KEY, TEST_REQUEST, this::create);
+        idempotencyStore.execute(TEST_KEY, new ComplaintRequest("product1", "Defective product", "user2"), this::create);
+
+        // then
+        assertEquals(2, creations.get());
+    }
+
+    @Test
+    void execute_WithKeyReusedForDifferentComplaint_ShouldThrowException() {
+        // given
+        idempotencyStore.execute(TEST_KEY, TEST_REQUEST, this::create);
+
+        // when & then
+        assertThrows(IdempotencyKeyReusedException.class, () -> idempotencyStore.execute(TEST_KEY,
+                new ComplaintRequest("product1", "Another defect", "user1"), this::create));
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void execute_AfterFailedCreation_ShouldCreateOnRetry() {
+        // given
+        assertThrows(IllegalStateException.class, () -> idempotencyStore.execute(TEST_KEY, TEST_REQUEST, () -> {
+            throw new IllegalStateException("database unavailable");
+        }));
+
+        // when
+        idempotencyStore.execute(TEST_KEY, TEST_REQUEST, this::create);
+
+        // then
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void execute_AfterCreationFailedWithError_ShouldCreateOnRetry() {
+        // given
+        assertThrows(AssertionError.class, () -> idempotencyStore.execute(TEST_KEY, TEST_REQUEST, () -> {
+            throw new AssertionError("Unexpected creation");
+        }));
+
+        // when
+        idempotencyStore.execute(TEST_KEY, TEST_REQUEST, this::create);
+
+        // then
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void execute_AfterTtl_ShouldCreateAgain() {
+        // given
+        idempotencyStore.execute(TEST_KEY, TEST_REQUEST, this::create);
+
+        // when
+        nanos.addAndGet(Duration.ofHours(1).plusSeconds(1).toNanos());
+        idempotencyStore.execute(TEST_KEY, TEST_REQUEST, this::create);
+
+        // then
+        assertEquals(2, creations.get());
+    }
+
+    @Test
+    void execute_ConcurrentRetries_ShouldCreateOnce() throws Exception {
+        // given
+        int threads = 8;
+        CountDownLatch creating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // when
+        try {
+            Future<?>[] futures = new Future<?>[threads];
+            for (int i = 0; i < threads; i++) {
+                futures[i] = executor.submit(() -> idempotencyStore.execute(TEST_KEY, TEST_REQUEST, () -> {
+                    creating.countDown();
+                    await(release);
+                    return create();
+                }));
+            }
+            creating.await(5, TimeUnit.SECONDS);
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // then
+        assertEquals(1, creations.get());
+    }
+
+    @Test
+    void executeAsync_RetriedWithSameKey_ShouldReplayOriginalResponse() {
+        // when
+        ComplaintResponse first = idempotencyStore.executeAsync(TEST_KEY, TEST_REQUEST,
+                () -> CompletableFuture.completedFuture(create())).join();
+        ComplaintResponse retry = idempotencyStore.executeAsync(TEST_KEY, TEST_REQUEST,
+                () -> CompletableFuture.completedFuture(create())).join();
+
+        // then
+        assertSame(first, retry);
+        assertEquals(1, creations.get());
+    }
+
+    private ComplaintResponse create() {
+        return new ComplaintResponse((long) creations.incrementAndGet(), TEST_REQUEST.productId(),
+                TEST_REQUEST.content(), LocalDateTime.now(), TEST_REQUEST.reportedBy(), "Poland", 1, 0L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
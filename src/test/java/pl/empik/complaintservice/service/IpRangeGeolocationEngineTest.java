@@ -0,0 +1,73 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import pl.empik.complaintservice.service.IpRangeDatabaseWriter.IpRange;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IpRangeGeolocationEngineTest {
+
+    private static final String TEST_IP_ADDRESS = "8.8.8.8";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void getCountryFromIp_UncoveredAddress_ShouldReturnUnknown() throws IOException {
+        // given
+        Path database = tempDir.resolve("ranges.db");
+        IpRangeDatabaseWriter.write(database, List.of(new IpRange("1.1.1.0", "1.1.1.255", "Australia")));
+        IpRangeGeolocationEngine engine = new IpRangeGeolocationEngine(database);
+
+        // when
+        String result = engine.getCountryFromIp(TEST_IP_ADDRESS);
+
+        // then
+        assertEquals(ComplaintConstants.UNKNOWN_COUNTRY, result);
+    }
+
+    @Test
+    void reloadIfModified_ChangedFile_ShouldSwapIndex() throws IOException {
+        // given
+        Path database = tempDir.resolve("ranges.db");
+        IpRangeDatabaseWriter.write(database, List.of(new IpRange("8.8.8.0", "8.8.8.255", "United States")));
+        IpRangeGeolocationEngine engine = new IpRangeGeolocationEngine(database);
+
+        IpRangeDatabaseWriter.write(database, List.of(new IpRange("8.8.8.0", "8.8.8.255", "Canada")));
+        Files.setLastModifiedTime(database, FileTime.from(Instant.now().plusSeconds(60)));
+
+        // when
+        engine.reloadIfModified();
+
+        // then
+        assertEquals("Canada", engine.getCountryFromIp(TEST_IP_ADDRESS));
+    }
+
+    @Test
+    void reloadIfModified_CorruptFile_ShouldKeepPreviousIndex() throws IOException {
+        // given
+        Path database = tempDir.resolve("ranges.db");
+        IpRangeDatabaseWriter.write(database, List.of(new IpRange("8.8.8.0", "8.8.8.255", "United States")));
+        IpRangeGeolocationEngine engine = new IpRangeGeolocationEngine(database);
+
+        Path corrupt = Files.write(tempDir.resolve("corrupt.db"), new byte[]{1, 2, 3});
+        Files.move(corrupt, database, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.setLastModifiedTime(database, FileTime.from(Instant.now().plusSeconds(60)));
+
+        // when
+        engine.reloadIfModified();
+
+        // then
+        assertEquals("United States", engine.getCountryFromIp(TEST_IP_ADDRESS));
+    }
+}
@@ -0,0 +1,90 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import pl.empik.complaintservice.service.IpRangeDatabaseWriter.IpRange;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IpRangeIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private IpRangeIndex index;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path database = tempDir.resolve("ranges.db");
+        IpRangeDatabaseWriter.write(database, List.of(
+                new IpRange("8.8.8.0", "8.8.8.255", "United States"),
+                new IpRange("1.1.1.0", "1.1.1.255", "Australia"),
+                new IpRange("200.0.0.0", "255.255.255.255", "Brazil"),
+                new IpRange("2001:4860::", "2001:4860:ffff:ffff:ffff:ffff:ffff:ffff", "United States"),
+                new IpRange("2a02:a000::", "2a02:a0ff:ffff:ffff:ffff:ffff:ffff:ffff", "Poland")
+        ));
+        index = IpRangeIndex.open(database);
+    }
+
+    @Test
+    void lookup_Ipv4_ShouldReturnCountryOfContainingRange() {
+        assertEquals("United States", index.lookup("8.8.8.8"));
+        assertEquals("Australia", index.lookup("1.1.1.0"));
+        assertEquals("Australia", index.lookup("1.1.1.255"));
+        assertEquals("Brazil", index.lookup("255.255.255.255"));
+    }
+
+    @Test
+    void lookup_Ipv4OutsideRanges_ShouldReturnNull() {
+        assertNull(index.lookup("1.1.2.0"));
+        assertNull(index.lookup("0.0.0.1"));
+        assertNull(index.lookup("127.0.0.1"));
+    }
+
+    @Test
+    void lookup_Ipv6_ShouldHandleCompressedAndFullForms() {
+        assertEquals("United States", index.lookup("2001:4860:4860::8888"));
+        assertEquals("United States", index.lookup("2001:4860:4860:0:0:0:0:8888"));
+        assertEquals("Poland", index.lookup("2A02:A012:1:2::1"));
+        assertEquals("Poland", index.lookup("2a02:a0ff:ffff:ffff:ffff:ffff:ffff:ffff"));
+        assertEquals("Poland", index.lookup("2a02:a000::1%eth0"));
+        assertNull(index.lookup("::1"));
+        assertNull(index.lookup("2a02:a100::"));
+    }
+
+    @Test
+    void lookup_Ipv4MappedIpv6_ShouldUseIpv4Ranges() {
+        assertEquals("United States", index.lookup("::ffff:8.8.8.8"));
+        assertEquals("Australia", index.lookup("::ffff:101:101"));
+    }
+
+    @Test
+    void lookup_InvalidAddress_ShouldReturnNull() {
+        assertNull(index.lookup(null));
+        assertNull(index.lookup(""));
+        assertNull(index.lookup("8.8.8"));
+        assertNull(index.lookup("8.8.8.256"));
+        assertNull(index.lookup("8.8.8.8.8"));
+        assertNull(index.lookup("unknown"));
+        assertNull(index.lookup("2001::4860::1"));
+        assertNull(index.lookup("2001:4860:4860:0:0:0:0:8888:1"));
+        assertNull(index.lookup("2001:48600::1"));
+    }
+
+    @Test
+    void write_OverlappingRanges_ShouldFail() {
+        List<IpRange> ranges = List.of(
+                new IpRange("10.0.0.0", "10.0.0.255", "Poland"),
+                new IpRange("10.0.0.128", "10.0.1.255", "Germany")
+        );
+
+        assertThrows(IOException.class, () -> IpRangeDatabaseWriter.write(tempDir.resolve("overlap.db"), ranges));
+    }
+}
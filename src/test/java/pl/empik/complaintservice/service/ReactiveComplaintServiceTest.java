@@ -0,0 +1,73 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import pl.empik.complaintservice.model.ComplaintRequest;
+import pl.empik.complaintservice.model.ComplaintResponse;
+import pl.empik.complaintservice.repository.ReactiveComplaintRepository;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveComplaintServiceTest {
+
+    @Mock
+    private ReactiveComplaintRepository reactiveComplaintRepository;
+    @Mock
+    private ReactiveGeolocationService reactiveGeolocationService;
+    @Mock
+    private ComplaintStatistics complaintStatistics;
+    @Mock
+    private ComplaintSearchIndex complaintSearchIndex;
+    @Spy
+    private SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    @InjectMocks
+    private ReactiveComplaintService reactiveComplaintService;
+
+    private static final String TEST_IP_ADDRESS = "192.168.1.1";
+    private static final ComplaintRequest TEST_REQUEST =
+            new ComplaintRequest("product1", "Defective product", "user1");
+
+    @Test
+    void createComplaint_NewComplaint_ShouldTimeCreatedOutcome() {
+        // given
+        ComplaintResponse created = new ComplaintResponse(1L, "product1", "Defective product", LocalDateTime.now(),
+                "user1", "Poland", 1, 0L);
+        when(reactiveGeolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(Mono.just("Poland"));
+        when(reactiveComplaintRepository.upsertIncrement(eq("product1"), eq("Defective product"), eq("user1"),
+                eq("Poland"), any(LocalDateTime.class))).thenReturn(Mono.just(created));
+
+        // when & then
+        StepVerifier.create(reactiveComplaintService.createComplaint(TEST_REQUEST, TEST_IP_ADDRESS))
+                .expectNext(created)
+                .verifyComplete();
+        assertEquals(1, meterRegistry.timer("complaints.create", "outcome", "created").count());
+    }
+
+    @Test
+    void createComplaint_WhenUpsertFails_ShouldTimeErrorOutcome() {
+        // given
+        when(reactiveGeolocationService.getCountryFromIp(TEST_IP_ADDRESS)).thenReturn(Mono.just("Poland"));
+        when(reactiveComplaintRepository.upsertIncrement(eq("product1"), eq("Defective product"), eq("user1"),
+                eq("Poland"), any(LocalDateTime.class)))
+                .thenReturn(Mono.error(new DataAccessResourceFailureException("Database down")));
+
+        // when & then
+        StepVerifier.create(reactiveComplaintService.createComplaint(TEST_REQUEST, TEST_IP_ADDRESS))
+                .verifyError(DataAccessResourceFailureException.class);
+        assertEquals(1, meterRegistry.timer("complaints.create", "outcome", "error").count());
+    }
+}
@@ -0,0 +1,105 @@
+package pl.empik.complaintservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import pl.empik.complaintservice.constants.ComplaintConstants;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReactiveGeolocationServiceTest {
+
+    private static final String TEST_IP_ADDRESS = "8.8.8.8";
+    private static final String TEST_API_URL = "http://ip-api.com/json/";
+
+    private final List<ClientRequest> requests = new ArrayList<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("geolocation", 1, Duration.ofMinutes(1));
+    private ClientResponse response;
+
+    private ReactiveGeolocationService geolocationService;
+
+    @BeforeEach
+    void setUp() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request);
+                    return Mono.just(response);
+                })
+                .build();
+        geolocationService = new ReactiveGeolocationService(webClient,
+                new GeolocationCache(100, Duration.ofHours(1), Duration.ofMinutes(1)), meterRegistry,
+                new TokenBucketRateLimiter("geolocation", 2, Duration.ofMinutes(1)), circuitBreaker);
+        ReflectionTestUtils.setField(geolocationService, "geolocationApiUrl", TEST_API_URL);
+    }
+
+    @Test
+    void getCountryFromIp_ShouldCallApiOnceAndCacheCountry() {
+        // given
+        response = jsonResponse(HttpStatus.OK, "{\"status\":\"success\",\"country\":\"United States\"}");
+
+        // when & then
+        StepVerifier.create(geolocationService.getCountryFromIp(TEST_IP_ADDRESS))
+                .expectNext("United States")
+                .verifyComplete();
+        StepVerifier.create(geolocationService.getCountryFromIp(TEST_IP_ADDRESS))
+                .expectNext("United States")
+                .verifyComplete();
+        assertEquals(1, requests.size());
+        assertEquals(TEST_API_URL + TEST_IP_ADDRESS, requests.get(0).url().toString());
+        assertEquals(1, meterRegistry.timer("geolocation.lookup", "outcome", "success").count());
+    }
+
+    @Test
+    void getCountryFromIp_WhenApiFails_ShouldReturnUnknownAndOpenCircuit() {
+        // given
+        response = jsonResponse(HttpStatus.INTERNAL_SERVER_ERROR, "{}");
+
+        // when & then
+        StepVerifier.create(geolocationService.getCountryFromIp(TEST_IP_ADDRESS))
+                .expectNext(ComplaintConstants.UNKNOWN_COUNTRY)
+                .verifyComplete();
+        StepVerifier.create(geolocationService.getCountryFromIp("1.1.1.1"))
+                .expectNext(ComplaintConstants.UNKNOWN_COUNTRY)
+                .verifyComplete();
+        assertEquals(1, requests.size());
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(1, meterRegistry.timer("geolocation.lookup", "outcome", "circuit_open").count());
+    }
+
+    @Test
+    void getCountryFromIp_WhenQuotaExhausted_ShouldReturnUnknownWithoutCallingApi() {
+        // given
+        response = jsonResponse(HttpStatus.OK, "{\"status\":\"fail\"}");
+        geolocationService.getCountryFromIp("1.1.1.1").block();
+        geolocationService.getCountryFromIp("1.1.1.2").block();
+
+        // when & then
+        StepVerifier.create(geolocationService.getCountryFromIp(TEST_IP_ADDRESS))
+                .expectNext(ComplaintConstants.UNKNOWN_COUNTRY)
+                .verifyComplete();
+        assertEquals(2, requests.size());
+        assertEquals(2, meterRegistry.timer("geolocation.lookup", "outcome", "unknown").count());
+        assertEquals(1, meterRegistry.timer("geolocation.lookup", "outcome", "rate_limited").count());
+    }
+
+    private static ClientResponse jsonResponse(HttpStatus status, String body) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+}
@@ -0,0 +1,53 @@
+package pl.empik.complaintservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final TokenBucketRateLimiter rateLimiter =
+            new TokenBucketRateLimiter("test", 3, Duration.ofSeconds(3), nanos::get);
+
+    @Test
+    void tryAcquire_FullBucket_ShouldAllowBurstUpToCapacity() {
+        // when & then
+        assertTrue(rateLimiter.tryAcquire());
+        assertTrue(rateLimiter.tryAcquire());
+        assertTrue(rateLimiter.tryAcquire());
+        assertFalse(rateLimiter.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_AfterRefillInterval_ShouldAllowOneMoreCall() {
+        // given
+        for (int i = 0; i < 3; i++) {
+            rateLimiter.tryAcquire();
+        }
+
+        // when
+        nanos.addAndGet(Duration.ofSeconds(1).toNanos());
+
+        // then
+        assertTrue(rateLimiter.tryAcquire());
+        assertFalse(rateLimiter.tryAcquire());
+    }
+
+    @Test
+    void getAvailableTokens_AfterLongIdle_ShouldNotExceedCapacity() {
+        // given
+        rateLimiter.tryAcquire();
+
+        // when
+        nanos.addAndGet(Duration.ofMinutes(10).toNanos());
+
+        // then
+        assertEquals(3, rateLimiter.getAvailableTokens());
+    }
+}